@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.asto.memory.BenchmarkStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for many repositories updated at once with {@link BlockingThreads}.
+ * @since 1.11
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class RpmConcurrentReposBench {
+
+    /**
+     * Benchmark directory.
+     */
+    private static final String BENCH_DIR = System.getenv("BENCH_DIR");
+
+    /**
+     * Threads to run blocking stages on.
+     */
+    @Param({"PLATFORM", "VIRTUAL"})
+    public String threads;
+
+    /**
+     * Number of the repositories updated at once.
+     */
+    @Param({"1", "16", "64"})
+    public int repos;
+
+    /**
+     * Repository source storage.
+     */
+    private InMemoryStorage readonly;
+
+    @Setup
+    public void setup() {
+        if (RpmConcurrentReposBench.BENCH_DIR == null) {
+            throw new IllegalStateException("BENCH_DIR environment variable must be set");
+        }
+        this.readonly = new InMemoryStorage();
+        final Storage src = new FileStorage(Paths.get(RpmConcurrentReposBench.BENCH_DIR));
+        final BlockingStorage bsto = new BlockingStorage(src);
+        bsto.list(new Key.From("repodata")).forEach(key -> bsto.delete(key));
+        RpmConcurrentReposBench.sync(src, this.readonly);
+    }
+
+    @Benchmark
+    public void run() {
+        final RepoConfig config = new RepoConfig.WithExecutor(
+            new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.SHA256, true),
+            BlockingThreads.valueOf(this.threads).executor()
+        );
+        CompletableFuture.allOf(
+            IntStream.range(0, this.repos).mapToObj(
+                num -> new Rpm(new BenchmarkStorage(this.readonly), config)
+                    .batchUpdate(Key.ROOT)
+                    .to(CompletableInterop.await())
+                    .toCompletableFuture()
+            ).toArray(CompletableFuture[]::new)
+        ).join();
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(RpmConcurrentReposBench.class.getSimpleName())
+                .forks(1)
+                .build()
+        ).run();
+    }
+
+    /**
+     * Sync storages.
+     * @param src Source storage
+     * @param dst Destination storage
+     */
+    private static void sync(final Storage src, final Storage dst) {
+        Single.fromFuture(src.list(Key.ROOT))
+            .flatMapObservable(Observable::fromIterable)
+            .flatMapSingle(
+                key -> Single.fromFuture(
+                    src.value(key)
+                        .thenCompose(content -> dst.save(key, content))
+                        .thenApply(none -> true)
+                )
+            ).toList().map(ignore -> true).to(SingleInterop.get())
+                .toCompletableFuture().join();
+    }
+}
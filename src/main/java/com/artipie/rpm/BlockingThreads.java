@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.ArtipieException;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads to run blocking stages of the metadata processing on: packages headers parsing,
+ * checksums calculation, metadata merging and compression, which block on files and piped
+ * streams. Executors are shared between all repositories.
+ * @since 1.11
+ */
+public enum BlockingThreads {
+
+    /**
+     * Virtual threads if they are supported by JDK (21 and later), platform threads otherwise.
+     */
+    AUTO {
+        @Override
+        public Executor executor() {
+            return BlockingThreads.VIRTUAL_EXEC.<Executor>map(exec -> exec)
+                .orElse(BlockingThreads.PLATFORM_EXEC);
+        }
+    },
+
+    /**
+     * Virtual threads, new virtual thread is started for each task.
+     */
+    VIRTUAL {
+        @Override
+        public Executor executor() {
+            return BlockingThreads.VIRTUAL_EXEC.orElseThrow(
+                () -> new ArtipieException(
+                    String.format(
+                        "Virtual threads are not supported by JDK %s",
+                        System.getProperty("java.version")
+                    )
+                )
+            );
+        }
+    },
+
+    /**
+     * Cached pool of the platform daemon threads.
+     */
+    PLATFORM {
+        @Override
+        public Executor executor() {
+            return BlockingThreads.PLATFORM_EXEC;
+        }
+    };
+
+    /**
+     * Virtual threads executor, empty if virtual threads are not supported.
+     */
+    private static final Optional<ExecutorService> VIRTUAL_EXEC = BlockingThreads.virtual();
+
+    /**
+     * Platform threads executor.
+     */
+    private static final ExecutorService PLATFORM_EXEC = Executors.newCachedThreadPool(
+        new ThreadFactory() {
+            private final AtomicInteger cnt = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable task) {
+                final Thread thread = new Thread(
+                    task, String.format("rpm-blocking-%d", this.cnt.incrementAndGet())
+                );
+                thread.setDaemon(true);
+                return thread;
+            }
+        }
+    );
+
+    /**
+     * Executor to run blocking stages on.
+     * @return Executor
+     * @throws ArtipieException If threads are not supported
+     */
+    public abstract Executor executor();
+
+    /**
+     * Are virtual threads supported by the current JDK?
+     * @return True if supported
+     */
+    public static boolean virtualSupported() {
+        return BlockingThreads.VIRTUAL_EXEC.isPresent();
+    }
+
+    /**
+     * Creates virtual thread per task executor if it's available, the executor
+     * is obtained by reflection as the project is compiled for JDK 17.
+     * @return Executor if virtual threads are supported
+     */
+    private static Optional<ExecutorService> virtual() {
+        Optional<ExecutorService> res;
+        try {
+            res = Optional.of(
+                (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null)
+            );
+        } catch (final ReflectiveOperationException ignored) {
+            res = Optional.empty();
+        }
+        return res;
+    }
+}
@@ -5,11 +5,14 @@
 package com.artipie.rpm;
 
 import com.artipie.asto.Key;
-import com.artipie.asto.fs.FileStorage;
+import com.artipie.asto.Storage;
+import com.artipie.rpm.asto.LocalStorage;
+import com.artipie.rpm.cron.CronUpdates;
 import java.nio.file.Path;
 
 /**
- * Cli tool main class.
+ * Cli tool main class. With `update` schedule Cli stays running and updates the repository
+ * by schedule, otherwise repository is updated once.
  *
  * @since 0.6
  */
@@ -54,14 +57,13 @@ public final class Cli {
         final Path repository = cliargs.repository();
         System.out.printf("RPM repository=%s\n", repository);
         try {
-            new Cli(
-                new Rpm(
-                    new FileStorage(repository),
-                    naming,
-                    digest,
-                    filelists
-                )
-            ).run();
+            final Storage storage = new LocalStorage(repository);
+            if (cnfg.mode() == RepoConfig.UpdateMode.CRON) {
+                System.out.printf("RPM update=%s\n", cnfg.cron().get());
+                Cli.schedule(storage, cnfg);
+            } else {
+                new Cli(new Rpm(storage, cnfg)).run();
+            }
         } catch (final Exception err) {
             System.err.printf("RPM failed: %s\n", err.getLocalizedMessage());
             err.printStackTrace(System.err);
@@ -74,4 +76,18 @@ public final class Cli {
     private void run() {
         this.rpm.batchUpdate(Key.ROOT).blockingAwait();
     }
+
+    /**
+     * Runs scheduled repository updates until the process is stopped.
+     * @param storage Repository storage
+     * @param cnfg Repository config with update schedule
+     * @throws InterruptedException If interrupted while waiting
+     */
+    private static void schedule(final Storage storage, final RepoConfig cnfg)
+        throws InterruptedException {
+        final CronUpdates updates = new CronUpdates(storage, Key.ROOT, cnfg);
+        Runtime.getRuntime().addShutdownHook(new Thread(updates::close));
+        updates.start();
+        updates.await();
+    }
 }
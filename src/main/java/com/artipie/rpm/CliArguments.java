@@ -6,10 +6,12 @@ package com.artipie.rpm;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.Options;
@@ -32,7 +34,15 @@ public final class CliArguments {
         .addOption(RpmOptions.DIGEST.option())
         .addOption(RpmOptions.NAMING_POLICY.option())
         .addOption(RpmOptions.FILELISTS.option())
-        .addOption(RpmOptions.UPDATE.option());
+        .addOption(RpmOptions.UPDATE.option())
+        .addOption(RpmOptions.SQLITE.option())
+        .addOption(RpmOptions.ZCHUNK.option())
+        .addOption(RpmOptions.MIRRORS.option())
+        .addOption(RpmOptions.THREADS.option())
+        .addOption(RpmOptions.PARALLEL_READS.option())
+        .addOption(RpmOptions.READ_MEMORY.option())
+        .addOption(RpmOptions.CONCURRENCY.option())
+        .addOption(RpmOptions.GENERATIONS.option());
 
     /**
      * Cli.
@@ -145,6 +155,73 @@ public final class CliArguments {
             );
         }
 
+        @Override
+        public boolean sqlite() {
+            return Boolean.parseBoolean(
+                this.cli.getOptionValue(RpmOptions.SQLITE.option().getOpt(), "false")
+            );
+        }
+
+        @Override
+        public boolean zchunk() {
+            return Boolean.parseBoolean(
+                this.cli.getOptionValue(RpmOptions.ZCHUNK.option().getOpt(), "false")
+            );
+        }
+
+        @Override
+        public List<Mirror> mirrors() {
+            final List<Mirror> res = new ArrayList<>(0);
+            final String value = this.cli.getOptionValue(RpmOptions.MIRRORS.option().getOpt(), "");
+            for (final String url : value.split(",")) {
+                if (!url.isBlank()) {
+                    res.add(
+                        new Mirror(
+                            url.trim(),
+                            Math.max(Mirror.DEFAULT_PREFERENCE - res.size(), 1)
+                        )
+                    );
+                }
+            }
+            return res;
+        }
+
+        @Override
+        public Executor executor() {
+            return BlockingThreads.valueOf(
+                this.cli.getOptionValue(RpmOptions.THREADS.option().getOpt(), "auto")
+                    .toUpperCase(Locale.US)
+            ).executor();
+        }
+
+        @Override
+        public ReadLimits readLimits() {
+            final ReadLimits def = new ReadLimits();
+            return new ReadLimits(
+                Optional.ofNullable(
+                    this.cli.getOptionValue(RpmOptions.PARALLEL_READS.option().getOpt())
+                ).map(Integer::parseInt).orElse(def.reads()),
+                Optional.ofNullable(
+                    this.cli.getOptionValue(RpmOptions.READ_MEMORY.option().getOpt())
+                ).map(mbs -> Long.parseLong(mbs) * 1024L * 1024L).orElse(def.bytes())
+            );
+        }
+
+        @Override
+        public Concurrency concurrency() {
+            return Concurrency.valueOf(
+                this.cli.getOptionValue(RpmOptions.CONCURRENCY.option().getOpt(), "lock")
+                    .toUpperCase(Locale.US)
+            );
+        }
+
+        @Override
+        public Optional<Integer> generations() {
+            return Optional.ofNullable(
+                this.cli.getOptionValue(RpmOptions.GENERATIONS.option().getOpt())
+            ).map(Integer::parseInt);
+        }
+
         @Override
         public UpdateMode mode() {
             return Optional.ofNullable(this.cli.getOptionValue(RpmOptions.UPDATE.option().getOpt()))
@@ -16,16 +16,20 @@ import java.util.Locale;
 import javax.xml.bind.DatatypeConverter;
 
 /**
- * Hashing sum of a file.
+ * Hashing sum of a file. File is read with channel reads into a heap buffer, allocated for
+ * each calculation, instead of memory mapping, as the mapping stays alive until it is garbage
+ * collected and would keep the file open after it was moved or removed. Heap buffer is
+ * cheap to allocate and is released with the calculation, message digest is updated from
+ * its backing array without copying.
  *
  * @since 0.1
  */
 public final class FileChecksum implements Checksum {
 
     /**
-     * Default file buffer is 8K.
+     * Read buffer size, 64K.
      */
-    private static final int BUF_SIZE = 1024 * 8;
+    private static final int BUF_SIZE = 64 * 1024;
 
     /**
      * The XML.
@@ -56,11 +60,11 @@ public final class FileChecksum implements Checksum {
     public String hex() throws IOException {
         final MessageDigest digest = this.dgst.messageDigest();
         try (FileChannel chan = FileChannel.open(this.file, StandardOpenOption.READ)) {
-            final ByteBuffer buf = ByteBuffer.allocateDirect(FileChecksum.BUF_SIZE);
+            final ByteBuffer buf = ByteBuffer.allocate(FileChecksum.BUF_SIZE);
             while (chan.read(buf) > 0) {
                 ((Buffer) buf).flip();
                 digest.update(buf);
-                buf.clear();
+                ((Buffer) buf).clear();
             }
         }
         return DatatypeConverter.printHexBinary(digest.digest())
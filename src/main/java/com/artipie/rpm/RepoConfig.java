@@ -8,9 +8,14 @@ import com.amihaiemil.eoyaml.Node;
 import com.amihaiemil.eoyaml.Yaml;
 import com.amihaiemil.eoyaml.YamlMapping;
 import com.amihaiemil.eoyaml.YamlNode;
+import com.amihaiemil.eoyaml.YamlSequence;
 import com.artipie.ArtipieException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 /**
  * Repository configuration.
@@ -36,6 +41,69 @@ public interface RepoConfig {
      */
     boolean filelists();
 
+    /**
+     * Are sqlite metadata databases (primary_db, filelists_db, other_db) required?
+     * Default is false.
+     * @return True if databases are generated along with xml metadata
+     */
+    default boolean sqlite() {
+        return false;
+    }
+
+    /**
+     * Is zchunk compressed metadata (`*.xml.zck`) required? Default is false.
+     * @return True if zchunk metadata is generated along with gziped metadata
+     */
+    default boolean zchunk() {
+        return false;
+    }
+
+    /**
+     * Repository mirrors, listed in `metalink.xml`, which is generated along with
+     * `repomd.xml` when mirrors are configured. Default is empty list.
+     * @return Mirrors list, empty if repository is not mirrored
+     */
+    default List<Mirror> mirrors() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Executor to run blocking metadata processing stages on, default is
+     * {@link BlockingThreads#AUTO} executor.
+     * @return Executor
+     */
+    default Executor executor() {
+        return BlockingThreads.AUTO.executor();
+    }
+
+    /**
+     * Limits of the packages, read from storage at once when packages are added to the
+     * repository, default is {@link ReadLimits#ReadLimits()}.
+     * @return Read limits
+     */
+    default ReadLimits readLimits() {
+        return new ReadLimits();
+    }
+
+    /**
+     * Coordination of the concurrent repository updates, default is {@link Concurrency#LOCK}.
+     * @return Instance of {@link Concurrency}
+     */
+    default Concurrency concurrency() {
+        return Concurrency.LOCK;
+    }
+
+    /**
+     * Number of the previous metadata generations to keep. When set, each metadata update is
+     * published to the new `repodata/<generation>/` directory and `repomd.xml` is switched to
+     * it last, previous generations are removed when there are more of them than configured.
+     * Default is empty.
+     * @return Previous generations count, empty if metadata is published to `repodata/` itself
+     */
+    default Optional<Integer> generations() {
+        return Optional.empty();
+    }
+
     /**
      * Repository update mode, default is {@link UpdateMode#UPLOAD}.
      * @return Instance of {@link UpdateMode}
@@ -74,6 +142,151 @@ public interface RepoConfig {
         CRON
     }
 
+    /**
+     * Coordination of the concurrent repository updates. Metadata is always published with
+     * revision check, see {@link com.artipie.rpm.asto.AstoRepoAdd}, the mode defines whether
+     * the whole update is performed under repository lock.
+     * @since 1.11
+     */
+    enum Concurrency {
+
+        /**
+         * Update is performed under repository lease lock, concurrent updates wait.
+         */
+        LOCK,
+
+        /**
+         * Update is performed without repository lock: metadata is built on the current
+         * revision and conflicting update rebuilds it on the new revision and retries.
+         */
+        OPTIMISTIC
+    }
+
+    /**
+     * Limits of the concurrent packages reads: the number of the packages, read from storage
+     * at once, and the estimated bytes, retained by these reads.
+     * @since 1.11
+     */
+    final class ReadLimits {
+
+        /**
+         * Max number of the concurrent reads.
+         */
+        private final int rds;
+
+        /**
+         * Max estimated bytes retained by the concurrent reads.
+         */
+        private final long mem;
+
+        /**
+         * Ctor.
+         * @param rds Max number of the concurrent reads
+         * @param mem Max estimated bytes retained by the concurrent reads
+         * @throws ArtipieException If limits are not positive
+         */
+        public ReadLimits(final int rds, final long mem) {
+            if (rds <= 0 || mem <= 0) {
+                throw new ArtipieException(
+                    String.format(
+                        "Read limits should be positive, got %d reads, %d bytes", rds, mem
+                    )
+                );
+            }
+            this.rds = rds;
+            this.mem = mem;
+        }
+
+        /**
+         * Ctor with default limits: twice the number of processors, but not less than four,
+         * concurrent reads and quarter of the max heap size.
+         */
+        public ReadLimits() {
+            this(
+                Math.max(4, Runtime.getRuntime().availableProcessors() * 2),
+                Runtime.getRuntime().maxMemory() / 4
+            );
+        }
+
+        /**
+         * Max number of the concurrent reads.
+         * @return Number of reads
+         */
+        public int reads() {
+            return this.rds;
+        }
+
+        /**
+         * Max estimated bytes retained by the concurrent reads.
+         * @return Bytes
+         */
+        public long bytes() {
+            return this.mem;
+        }
+    }
+
+    /**
+     * Repository mirror.
+     * @since 1.11
+     */
+    final class Mirror {
+
+        /**
+         * Default mirror preference.
+         */
+        public static final int DEFAULT_PREFERENCE = 100;
+
+        /**
+         * Mirror repository base url.
+         */
+        private final String base;
+
+        /**
+         * Mirror preference from 0 to 100, mirrors with greater preference are preferred.
+         */
+        private final int pref;
+
+        /**
+         * Ctor.
+         * @param base Mirror repository base url
+         * @param pref Mirror preference from 0 to 100
+         * @throws ArtipieException If preference is out of range
+         */
+        public Mirror(final String base, final int pref) {
+            if (pref < 0 || pref > Mirror.DEFAULT_PREFERENCE) {
+                throw new ArtipieException(
+                    String.format("Mirror preference should be from 0 to 100, got %d", pref)
+                );
+            }
+            this.base = base.replaceAll("/+$", "");
+            this.pref = pref;
+        }
+
+        /**
+         * Ctor.
+         * @param base Mirror repository base url
+         */
+        public Mirror(final String base) {
+            this(base, Mirror.DEFAULT_PREFERENCE);
+        }
+
+        /**
+         * Mirror repository base url without trailing slash.
+         * @return Url
+         */
+        public String url() {
+            return this.base;
+        }
+
+        /**
+         * Mirror preference.
+         * @return Preference from 0 to 100
+         */
+        public int preference() {
+            return this.pref;
+        }
+    }
+
     /**
      * Repository configuration from yaml.
      * @since 0.10
@@ -90,6 +303,16 @@ public interface RepoConfig {
          */
         private static final String CRON = "cron";
 
+        /**
+         * Bytes in megabyte.
+         */
+        private static final long MB = 1024L * 1024L;
+
+        /**
+         * Mirror url yaml field.
+         */
+        private static final String URL = "url";
+
         /**
          * Settings.
          */
@@ -138,6 +361,72 @@ public interface RepoConfig {
                 .equals(this.yaml.string(RpmOptions.FILELISTS.optionName()));
         }
 
+        @Override
+        public boolean sqlite() {
+            return Boolean.parseBoolean(this.yaml.string(RpmOptions.SQLITE.optionName()));
+        }
+
+        @Override
+        public boolean zchunk() {
+            return Boolean.parseBoolean(this.yaml.string(RpmOptions.ZCHUNK.optionName()));
+        }
+
+        @Override
+        public List<Mirror> mirrors() {
+            return Optional.ofNullable(this.yaml.yamlSequence(RpmOptions.MIRRORS.optionName()))
+                .map(YamlSequence::values).orElse(Collections.emptyList()).stream().map(
+                    node -> {
+                        final Mirror res;
+                        if (node.type() == Node.SCALAR) {
+                            res = new Mirror(node.asScalar().value());
+                        } else if (node.type() == Node.MAPPING
+                            && node.asMapping().string(FromYaml.URL) != null) {
+                            res = new Mirror(
+                                node.asMapping().string(FromYaml.URL),
+                                Optional.ofNullable(node.asMapping().string("preference"))
+                                    .map(Integer::parseInt).orElse(Mirror.DEFAULT_PREFERENCE)
+                            );
+                        } else {
+                            throw new ArtipieException(
+                                "Repository settings section `mirrors` is incorrectly configured"
+                            );
+                        }
+                        return res;
+                    }
+                ).collect(Collectors.toList());
+        }
+
+        @Override
+        public Executor executor() {
+            return Optional.ofNullable(this.yaml.string(RpmOptions.THREADS.optionName()))
+                .map(threads -> BlockingThreads.valueOf(threads.toUpperCase(Locale.US)))
+                .orElse(BlockingThreads.AUTO).executor();
+        }
+
+        @Override
+        public Concurrency concurrency() {
+            return Optional.ofNullable(this.yaml.string(RpmOptions.CONCURRENCY.optionName()))
+                .map(mode -> Concurrency.valueOf(mode.toUpperCase(Locale.US)))
+                .orElse(Concurrency.LOCK);
+        }
+
+        @Override
+        public Optional<Integer> generations() {
+            return Optional.ofNullable(this.yaml.string(RpmOptions.GENERATIONS.optionName()))
+                .map(Integer::parseInt);
+        }
+
+        @Override
+        public ReadLimits readLimits() {
+            final ReadLimits def = new ReadLimits();
+            return new ReadLimits(
+                Optional.ofNullable(this.yaml.string(RpmOptions.PARALLEL_READS.optionName()))
+                    .map(Integer::parseInt).orElse(def.reads()),
+                Optional.ofNullable(this.yaml.string(RpmOptions.READ_MEMORY.optionName()))
+                    .map(mbs -> Long.parseLong(mbs) * FromYaml.MB).orElse(def.bytes())
+            );
+        }
+
         @Override
         public UpdateMode mode() {
             return Optional.ofNullable(this.yaml.yamlMapping(FromYaml.UPDATE)).map(
@@ -274,4 +563,96 @@ public interface RepoConfig {
             return "test";
         }
     }
+
+    /**
+     * Repository configuration with custom executor for blocking metadata processing stages.
+     * @since 1.11
+     */
+    final class WithExecutor implements RepoConfig {
+
+        /**
+         * Origin configuration.
+         */
+        private final RepoConfig origin;
+
+        /**
+         * Executor.
+         */
+        private final Executor exec;
+
+        /**
+         * Ctor.
+         * @param origin Origin configuration
+         * @param exec Executor for blocking stages
+         */
+        public WithExecutor(final RepoConfig origin, final Executor exec) {
+            this.origin = origin;
+            this.exec = exec;
+        }
+
+        @Override
+        public Digest digest() {
+            return this.origin.digest();
+        }
+
+        @Override
+        public NamingPolicy naming() {
+            return this.origin.naming();
+        }
+
+        @Override
+        public boolean filelists() {
+            return this.origin.filelists();
+        }
+
+        @Override
+        public boolean sqlite() {
+            return this.origin.sqlite();
+        }
+
+        @Override
+        public boolean zchunk() {
+            return this.origin.zchunk();
+        }
+
+        @Override
+        public List<Mirror> mirrors() {
+            return this.origin.mirrors();
+        }
+
+        @Override
+        public Executor executor() {
+            return this.exec;
+        }
+
+        @Override
+        public ReadLimits readLimits() {
+            return this.origin.readLimits();
+        }
+
+        @Override
+        public Concurrency concurrency() {
+            return this.origin.concurrency();
+        }
+
+        @Override
+        public Optional<Integer> generations() {
+            return this.origin.generations();
+        }
+
+        @Override
+        public UpdateMode mode() {
+            return this.origin.mode();
+        }
+
+        @Override
+        public Optional<String> cron() {
+            return this.origin.cron();
+        }
+
+        @Override
+        public String name() {
+            return this.origin.name();
+        }
+    }
 }
@@ -5,35 +5,36 @@
 package com.artipie.rpm;
 
 import com.artipie.asto.ArtipieIOException;
-import com.artipie.asto.Copy;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.SubStorage;
-import com.artipie.asto.lock.Lock;
-import com.artipie.asto.lock.storage.StorageLock;
+import com.artipie.asto.UnderLockOperation;
 import com.artipie.asto.misc.UncheckedIOScalar;
 import com.artipie.asto.streams.ContentAsStream;
 import com.artipie.rpm.asto.AstoChecksumAndName;
+import com.artipie.rpm.asto.AstoLocalFiles;
 import com.artipie.rpm.asto.AstoRepoAdd;
 import com.artipie.rpm.asto.AstoRepoRemove;
+import com.artipie.rpm.asto.AstoRepodata;
+import com.artipie.rpm.asto.LeaseLock;
 import com.artipie.rpm.http.RpmUpload;
 import com.artipie.rpm.meta.XmlPackage;
 import com.artipie.rpm.meta.XmlPrimaryChecksums;
 import com.artipie.rpm.misc.PackagesDiff;
 import hu.akarnokd.rxjava2.interop.CompletableInterop;
 import io.reactivex.Completable;
-import java.time.Duration;
-import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.zip.GZIPInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 
 /**
  * The RPM front.
@@ -154,23 +155,21 @@ public final class Rpm {
     }
 
     /**
-     * Batch update RPM files for repository.
+     * Batch update RPM files for repository. With {@link RepoConfig.Concurrency#LOCK} update is
+     * performed under repository lease lock, with {@link RepoConfig.Concurrency#OPTIMISTIC}
+     * without lock, relying on metadata revision check on publish.
      * @param prefix Repository key prefix
      * @return Completable action
      * @throws ArtipieIOException On IO-operation errors
      */
     public Completable batchUpdate(final Key prefix) {
-        return this.doWithLock(
-            prefix,
-            () -> Completable.fromFuture(this.calcDiff(prefix).thenCompose(
-                list -> {
-                    final Storage sub = new SubStorage(prefix, this.storage);
-                    return new AstoRepoAdd(sub, this.config).perform().thenCompose(
-                        nothing -> new AstoRepoRemove(sub, this.config).perform(list)
-                    );
-                }).toCompletableFuture()
-            )
-        );
+        final Completable res;
+        if (this.config.concurrency() == RepoConfig.Concurrency.OPTIMISTIC) {
+            res = Completable.defer(() -> this.update(prefix, CompletableFuture::allOf));
+        } else {
+            res = this.doWithLock(prefix, lock -> this.update(prefix, lock::verify));
+        }
+        return res;
     }
 
     /**
@@ -187,23 +186,42 @@ public final class Rpm {
     }
 
     /**
-     * Performs operation under root lock with one hour expiration time.
+     * Performs operation under lease lock of the target, lease is renewed while the operation
+     * runs and is released when the operation completes with success or error.
      *
      * @param target Lock target key.
-     * @param operation Operation.
+     * @param operation Operation, which accepts the lock to verify fencing before publishing.
      * @return Completion of operation and lock.
      */
-    private Completable doWithLock(final Key target, final Supplier<Completable> operation) {
-        final Lock lock = new StorageLock(
-            this.storage,
-            target,
-            Instant.now().plus(Duration.ofHours(1))
+    private Completable doWithLock(final Key target,
+        final Function<LeaseLock, Completable> operation) {
+        final LeaseLock lock = new LeaseLock(this.storage, target);
+        return Completable.fromFuture(
+            new UnderLockOperation<Void>(
+                lock,
+                sto -> operation.apply(lock).to(CompletableInterop.await())
+            ).perform(this.storage).toCompletableFuture()
         );
+    }
+
+    /**
+     * Updates repository metadata.
+     * @param prefix Repository key prefix
+     * @param fence Fencing check, performed before metadata is published
+     * @return Completable action
+     */
+    private Completable update(final Key prefix, final Supplier<CompletionStage<Void>> fence) {
         return Completable.fromFuture(
-            lock.acquire()
-                .thenCompose(nothing -> operation.get().to(CompletableInterop.await()))
-                .thenCompose(nothing -> lock.release())
-                .toCompletableFuture()
+            this.calcDiff(prefix).thenCompose(
+                list -> {
+                    final Storage sub = AstoLocalFiles.sub(this.storage, prefix);
+                    return new AstoRepoAdd(sub, this.config, fence).perform().thenCompose(
+                        nothing -> new AstoRepoRemove(
+                            sub, this.config, Optional.empty(), fence
+                        ).perform(list)
+                    );
+                }
+            ).toCompletableFuture()
         );
     }
 
@@ -214,7 +232,8 @@ public final class Rpm {
      * @return Completable action with list of the checksums of the remove packages
      */
     private CompletionStage<Collection<String>> calcDiff(final Key prefix) {
-        return this.storage.list(new Key.From(prefix, "repodata"))
+        final Storage sub = AstoLocalFiles.sub(this.storage, prefix);
+        return new AstoRepodata(sub).files()
             .thenApply(
                 list -> list.stream().filter(
                     item -> item.string().contains(XmlPackage.PRIMARY.lowercase())
@@ -223,31 +242,37 @@ public final class Rpm {
             ).thenCompose(
                 opt -> {
                     final CompletionStage<Collection<String>> res;
-                    final SubStorage sub = new SubStorage(prefix, this.storage);
                     if (opt.isPresent()) {
-                        res = this.storage.value(opt.get()).thenCompose(
+                        res = sub.value(opt.get()).thenCompose(
                             val -> new ContentAsStream<Map<String, String>>(val).process(
                                 input -> new XmlPrimaryChecksums(
-                                    new UncheckedIOScalar<>(() -> new GZIPInputStream(input))
+                                    new UncheckedIOScalar<>(
+                                        () -> new GzipCompressorInputStream(input, true)
+                                    )
                                         .value()
                                 ).read()
                             )
                         ).thenCompose(
-                            primary -> new AstoChecksumAndName(this.storage, this.config.digest())
-                                .calculate(prefix)
+                            primary -> new AstoChecksumAndName(
+                                this.storage, this.config.digest(), this.config.executor()
+                            ).calculate(prefix)
                                 .thenApply(repo -> new PackagesDiff(primary, repo))
                         ).thenCompose(
                             diff -> Rpm.copyPackagesToAdd(
-                                sub,
+                                sub, this.config.executor(),
                                 diff.toAdd().stream().map(Key.From::new)
                                     .collect(Collectors.toList())
                             ).thenApply(nothing -> diff.toDelete().values())
                         );
                     } else {
                         res = sub.list(Key.ROOT).thenApply(
-                            list -> list.stream().filter(item -> item.string().endsWith("rpm"))
+                            list -> list.stream()
+                                .filter(item -> item.string().endsWith(".rpm"))
+                                .filter(item -> !item.string().startsWith("."))
                         ).thenCompose(
-                            rpms -> copyPackagesToAdd(sub, rpms.collect(Collectors.toList()))
+                            rpms -> Rpm.copyPackagesToAdd(
+                                sub, this.config.executor(), rpms.collect(Collectors.toList())
+                            )
                         ).thenApply(nothing -> Collections.emptySet());
                     }
                     return res;
@@ -258,12 +283,18 @@ public final class Rpm {
     /**
      * Handles packages that should be added to metadata.
      * @param asto Storage
+     * @param exec Executor for blocking copying
      * @param rpms Packages
      * @return Completable action
      */
     private static CompletableFuture<Void> copyPackagesToAdd(
-        final Storage asto, final List<Key> rpms
+        final Storage asto, final Executor exec, final List<Key> rpms
     ) {
-        return new Copy(asto, rpms).copy(new SubStorage(RpmUpload.TO_ADD, asto));
+        final Storage dest = AstoLocalFiles.sub(asto, RpmUpload.TO_ADD);
+        final AstoLocalFiles local = new AstoLocalFiles(asto, exec);
+        return CompletableFuture.allOf(
+            rpms.stream().map(key -> local.copy(key, dest, key).toCompletableFuture())
+                .toArray(CompletableFuture[]::new)
+        );
     }
 }
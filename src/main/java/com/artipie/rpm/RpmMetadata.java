@@ -14,9 +14,10 @@ import com.artipie.rpm.meta.XmlEventPrimary;
 import com.artipie.rpm.meta.XmlMaid;
 import com.artipie.rpm.meta.XmlPackage;
 import com.artipie.rpm.meta.XmlPrimaryMaid;
+import com.artipie.rpm.pkg.CachedMeta;
 import com.artipie.rpm.pkg.Checksum;
-import com.artipie.rpm.pkg.FilePackage;
 import com.artipie.rpm.pkg.Package;
+import com.artipie.rpm.pkg.RpmHeader;
 import com.fasterxml.aalto.AsyncXMLInputFactory;
 import com.fasterxml.aalto.stax.InputFactoryImpl;
 import com.fasterxml.aalto.stax.OutputFactoryImpl;
@@ -31,10 +32,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 import javax.xml.stream.XMLEventFactory;
 import org.codehaus.stax2.XMLOutputFactory2;
 import org.redline_rpm.header.AbstractHeader;
-import org.redline_rpm.header.Header;
 
 /**
  * Rpm metadata class works with xml metadata - adds or removes records about xml packages.
@@ -140,22 +142,39 @@ public interface RpmMetadata {
          */
         private final Collection<MetadataItem> items;
 
+        /**
+         * Executor to update other and filelists metadata on.
+         */
+        private final Executor exec;
+
         /**
          * Ctor.
+         * @param exec Executor to update other and filelists metadata on
          * @param items Metadata items
          */
-        public Append(final MetadataItem... items) {
+        public Append(final Executor exec, final MetadataItem... items) {
+            this.exec = exec;
             this.items = Arrays.asList(items);
         }
 
+        /**
+         * Ctor.
+         * @param items Metadata items
+         */
+        public Append(final MetadataItem... items) {
+            this(BlockingThreads.AUTO.executor(), items);
+        }
+
         /**
          * Appends records about provided RPMs.
-         * @param packages Rpms to append info about, map of the path to file and location
+         * @param rpms Rpms to append info about, map of the path to file and location
          * @throws ArtipieIOException On io-operation error
          * @checkstyle NestedTryDepthCheck (20 lines)
          */
         @SuppressWarnings("PMD.AvoidDuplicateLiterals")
-        public void perform(final Collection<Package.Meta> packages) {
+        public void perform(final Collection<Package.Meta> rpms) {
+            final Collection<Package.Meta> packages = rpms.stream()
+                .<Package.Meta>map(CachedMeta::new).collect(Collectors.toList());
             try {
                 final Path temp = Files.createTempFile("rpm-primary-append", RpmMetadata.SUFFIX);
                 try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
@@ -170,8 +189,8 @@ public interface RpmMetadata {
                     final MergedXml.Result res = new MergedXmlPrimary(primary.input, out)
                         .merge(packages, Append.XML_EVENT_PRIMARY);
                     final CompletableFuture<Void> fut = CompletableFuture.allOf(
-                        CompletableFuture.runAsync(this.updateOther(packages, res)),
-                        CompletableFuture.runAsync(this.updateFilelist(packages, res))
+                        CompletableFuture.runAsync(this.updateOther(packages, res), this.exec),
+                        CompletableFuture.runAsync(this.updateFilelist(packages, res), this.exec)
                     );
                     try (InputStream input = new BufferedInputStream(Files.newInputStream(temp))) {
                         new XmlAlter.Stream(input, primary.out)
@@ -298,7 +317,7 @@ public interface RpmMetadata {
         /**
          * Rpm file header.
          */
-        private final Header header;
+        private final RpmHeader header;
 
         /**
          * File size.
@@ -325,7 +344,7 @@ public interface RpmMetadata {
          *  location tag from primary xml
          * @checkstyle ParameterNumberCheck (5 lines)
          */
-        public RpmItem(final Header header, final long size, final Checksum sum,
+        public RpmItem(final RpmHeader header, final long size, final Checksum sum,
             final String location) {
             this.header = header;
             this.size = size;
@@ -342,14 +361,14 @@ public interface RpmMetadata {
          *  location tag from primary xml
          * @checkstyle ParameterNumberCheck (5 lines)
          */
-        public RpmItem(final Header header, final long size, final String dgst,
+        public RpmItem(final RpmHeader header, final long size, final String dgst,
             final String location) {
             this(header, size, new Checksum.Simple(Digest.SHA256, dgst), location);
         }
 
         @Override
         public Package.MetaHeader header(final AbstractHeader.Tag tag) {
-            return new FilePackage.EntryHeader(this.header.getEntry(tag));
+            return this.header.header(tag);
         }
 
         @Override
@@ -370,8 +389,8 @@ public interface RpmMetadata {
         @Override
         public int[] range() {
             return new int[] {
-                this.header.getStartPos(),
-                this.header.getEndPos(),
+                this.header.startPos(),
+                this.header.endPos(),
             };
         }
     }
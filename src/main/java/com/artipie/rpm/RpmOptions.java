@@ -43,6 +43,70 @@ public enum RpmOptions {
     UPDATE(
         "update", "upd",
         "(optional) allows to set schedule to update repository in cron format"
+    ),
+
+    /**
+     * Sqlite option enables primary_db, filelists_db and other_db metadata databases.
+     */
+    SQLITE(
+        "sqlite", "sql",
+        "(optional, default false) generates sqlite metadata databases for Rpm: true or false"
+    ),
+
+    /**
+     * Zchunk option enables zchunk compressed metadata for delta downloads.
+     */
+    ZCHUNK(
+        "zchunk", "zck",
+        "(optional, default false) generates zchunk compressed metadata for Rpm: true or false"
+    ),
+
+    /**
+     * Mirrors option lists repository mirrors in generated metalink.xml.
+     */
+    MIRRORS(
+        "mirrors", "mrs",
+        "(optional) comma separated mirrors base urls to list in metalink.xml, in preference order"
+    ),
+
+    /**
+     * Threads option selects threads for blocking metadata processing stages.
+     */
+    THREADS(
+        "threads", "thr",
+        "(optional, default auto) threads for blocking metadata stages: auto, virtual or platform"
+    ),
+
+    /**
+     * Parallel reads option limits the number of the packages read from storage at once.
+     */
+    PARALLEL_READS(
+        "parallel-reads", "prd",
+        "(optional, default twice the number of processors) packages read from storage at once"
+    ),
+
+    /**
+     * Read memory option limits estimated memory retained by packages read at once.
+     */
+    READ_MEMORY(
+        "read-memory", "rmem",
+        "(optional, default quarter of max heap) megabytes retained by packages read at once"
+    ),
+
+    /**
+     * Concurrency option selects how concurrent repository updates are coordinated.
+     */
+    CONCURRENCY(
+        "concurrency", "cc",
+        "(optional, default lock) concurrent updates coordination: lock or optimistic"
+    ),
+
+    /**
+     * Generations option enables versioned metadata snapshots.
+     */
+    GENERATIONS(
+        "generations", "gen",
+        "(optional) publish metadata snapshots and keep this number of previous ones"
     );
 
     /**
@@ -8,9 +8,10 @@ import com.artipie.asto.ArtipieIOException;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.streams.StorageValuePipeline;
+import com.artipie.rpm.meta.SegmentedGzip;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.util.concurrent.CompletionStage;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * Archive storage item.
@@ -32,24 +33,16 @@ final class AstoArchive {
     }
 
     /**
-     * Compress storage item with gzip compression.
+     * Compress metadata xml storage item with gzip compression, the result has segmented
+     * layout of {@link SegmentedGzip}, so that packages can be appended to it later.
      * @param key Item to gzip
      * @return Completable action
      */
     public CompletionStage<Void> gzip(final Key key) {
         return new StorageValuePipeline<>(this.asto, key).process(
             (inpt, out) -> {
-                try (GZIPOutputStream gzos = new GZIPOutputStream(out)) {
-                    // @checkstyle MagicNumberCheck (1 line)
-                    final byte[] buffer = new byte[1024 * 8];
-                    while (true) {
-                        final int length = inpt.get().read(buffer);
-                        if (length < 0) {
-                            break;
-                        }
-                        gzos.write(buffer, 0, length);
-                    }
-                    gzos.finish();
+                try {
+                    new SegmentedGzip(out).write(new BufferedInputStream(inpt.get()));
                 } catch (final IOException err) {
                     throw new ArtipieIOException(err);
                 }
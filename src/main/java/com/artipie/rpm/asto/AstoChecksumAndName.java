@@ -6,14 +6,15 @@ package com.artipie.rpm.asto;
 
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.ext.ContentDigest;
 import com.artipie.asto.rx.RxStorageWrapper;
+import com.artipie.rpm.BlockingThreads;
 import com.artipie.rpm.Digest;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import java.util.Map;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -33,18 +34,36 @@ public final class AstoChecksumAndName {
      */
     private final Digest dgst;
 
+    /**
+     * Executor for blocking checksums calculation.
+     */
+    private final Executor exec;
+
     /**
      * Ctor.
      * @param asto Asto storage
      * @param dgst Digest algorithm
+     * @param exec Executor for blocking checksums calculation
      */
-    public AstoChecksumAndName(final Storage asto, final Digest dgst) {
+    public AstoChecksumAndName(final Storage asto, final Digest dgst, final Executor exec) {
         this.asto = asto;
         this.dgst = dgst;
+        this.exec = exec;
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param dgst Digest algorithm
+     */
+    public AstoChecksumAndName(final Storage asto, final Digest dgst) {
+        this(asto, dgst, BlockingThreads.AUTO.executor());
     }
 
     /**
-     * Calculate checksum of all the items found by key, that ends with `.rpm`.
+     * Calculate checksum of all the items found by key, that ends with `.rpm`. Service items,
+     * which location relatively to the key starts with dot (staged packages, sidecars, locks),
+     * are skipped.
      * @param key Storage key
      * @return Map with item name and checksum
      */
@@ -53,11 +72,11 @@ public final class AstoChecksumAndName {
         return rxsto.list(key)
             .flatMapObservable(Observable::fromIterable)
             .filter(item -> item.string().endsWith(".rpm"))
+            .filter(item -> !keyPart(key, item).startsWith("."))
             .flatMapSingle(
-                item -> rxsto.value(item).flatMap(
-                    cnt -> Single.fromFuture(
-                        new ContentDigest(cnt, this.dgst::messageDigest).hex().toCompletableFuture()
-                    )
+                item -> Single.fromFuture(
+                    new AstoLocalFiles(this.asto, this.exec).hex(item, this.dgst)
+                        .toCompletableFuture()
                 ).map(hex -> new ImmutablePair<>(keyPart(key, item), hex))
             ).toMap(Pair::getKey, Pair::getValue)
             .to(SingleInterop.get());
@@ -9,9 +9,25 @@ import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.ext.ContentDigest;
+import com.artipie.asto.misc.UncheckedIOFunc;
+import com.artipie.asto.misc.UncheckedIOSupplier;
+import com.artipie.asto.streams.ContentAsStream;
+import com.artipie.rpm.BlockingThreads;
 import com.artipie.rpm.Digest;
+import com.artipie.rpm.FileChecksum;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import javax.xml.bind.DatatypeConverter;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 
 /**
  * Calculates storage item checksums and size.
@@ -29,14 +45,30 @@ public final class AstoChecksumAndSize {
      */
     private final Digest dgst;
 
+    /**
+     * Executor for blocking stages.
+     */
+    private final Executor exec;
+
     /**
      * Ctor.
      * @param asto Asto storage
      * @param dgst Digest algorithm
+     * @param exec Executor for blocking stages
      */
-    public AstoChecksumAndSize(final Storage asto, final Digest dgst) {
+    public AstoChecksumAndSize(final Storage asto, final Digest dgst, final Executor exec) {
         this.asto = asto;
         this.dgst = dgst;
+        this.exec = exec;
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param dgst Digest algorithm
+     */
+    public AstoChecksumAndSize(final Storage asto, final Digest dgst) {
+        this(asto, dgst, BlockingThreads.AUTO.executor());
     }
 
     /**
@@ -46,22 +78,72 @@ public final class AstoChecksumAndSize {
      * @return Completable action
      */
     CompletionStage<Void> calculate(final Key key) {
-        return this.asto.value(key).thenCompose(
-            val -> new ContentDigest(
-                val, this.dgst::messageDigest
-            ).hex().thenCompose(
-                hex -> this.asto.save(
-                    new Key.From(String.format("%s.%s", key, this.dgst.name())),
-                    new Content.From(
-                        String.format(
-                            "%s %d", hex,
-                            val.size().orElseThrow(
-                                () -> new ArtipieException("Content size unknown!")
-                            )
-                        ).getBytes(StandardCharsets.US_ASCII)
+        final Optional<Path> file = new AstoLocalFiles(this.asto, this.exec).path(key);
+        final CompletionStage<String> res;
+        if (file.isPresent()) {
+            res = CompletableFuture.supplyAsync(
+                new UncheckedIOSupplier<>(
+                    () -> String.format(
+                        "%s %d", new FileChecksum(file.get(), this.dgst).hex(),
+                        Files.size(file.get())
+                    )
+                ),
+                this.exec
+            );
+        } else {
+            res = this.asto.value(key).thenCompose(
+                val -> new ContentDigest(
+                    val, this.dgst::messageDigest
+                ).hex().thenApply(
+                    hex -> String.format(
+                        "%s %d", hex,
+                        val.size().orElseThrow(
+                            () -> new ArtipieException("Content size unknown!")
+                        )
                     )
                 )
+            );
+        }
+        return res.thenCompose(str -> this.save(key, str));
+    }
+
+    /**
+     * Calculates checksum and size of the un-gziped item and saves them the same way as
+     * {@link #calculate(Key)} does, item is decompressed on the fly and is not stored.
+     * @param key Storage key of gziped item
+     * @return Completable action
+     */
+    CompletionStage<Void> calculateGzipped(final Key key) {
+        return this.asto.value(key).thenCompose(
+            val -> new ContentAsStream<String>(val).process(
+                new UncheckedIOFunc<>(
+                    input -> {
+                        final MessageDigest digest = this.dgst.messageDigest();
+                        final long size = new DigestInputStream(
+                            new GzipCompressorInputStream(input, true), digest
+                        ).transferTo(OutputStream.nullOutputStream());
+                        return String.format(
+                            "%s %d",
+                            DatatypeConverter.printHexBinary(digest.digest())
+                                .toLowerCase(Locale.US),
+                            size
+                        );
+                    }
+                )
             )
+        ).thenCompose(str -> this.save(key, str));
+    }
+
+    /**
+     * Saves checksum and size adding digest algorithm name postfix to the item key.
+     * @param key Storage key
+     * @param str Checksum and size in text format [hex size]
+     * @return Completable action
+     */
+    private CompletionStage<Void> save(final Key key, final String str) {
+        return this.asto.save(
+            new Key.From(String.format("%s.%s", key, this.dgst.name())),
+            new Content.From(str.getBytes(StandardCharsets.US_ASCII))
         );
     }
 }
@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.rpm.Digest;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import org.apache.commons.lang3.tuple.ImmutableTriple;
+
+/**
+ * Checksum and size of the package, saved next to the package when the package is uploaded.
+ * Sidecar of the package `key` is stored by the key `.checksums/key.checksum` and contains
+ * checksum type, hex checksum, size and package head digest (see
+ * {@link com.artipie.rpm.pkg.PackageHead#digest()}) separated by space, for example:
+ * `sha256 abc123 1024 def456`. Head digest binds the sidecar to the package content it was
+ * calculated for: sidecar should be trusted only if head digest of the package matches, as
+ * the package can be replaced by another upload of the same key.
+ * @since 1.11
+ */
+public final class AstoChecksumSidecar {
+
+    /**
+     * Sidecars root key.
+     */
+    public static final Key ROOT = new Key.From(".checksums");
+
+    /**
+     * Sidecars location.
+     */
+    private final AstoSidecar sidecar;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     */
+    public AstoChecksumSidecar(final Storage asto) {
+        this.sidecar = new AstoSidecar(asto, AstoChecksumSidecar.ROOT, ".checksum");
+    }
+
+    /**
+     * Save package checksum, size and head digest.
+     * @param key Package key
+     * @param dgst Digest algorithm
+     * @param hex Hex checksum
+     * @param size Package size
+     * @param head Package head digest
+     * @return Completable action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public CompletionStage<Void> save(final Key key, final Digest dgst, final String hex,
+        final long size, final String head) {
+        return this.sidecar.save(
+            key,
+            String.join(" ", dgst.type(), hex, String.valueOf(size), head)
+                .getBytes(StandardCharsets.US_ASCII)
+        );
+    }
+
+    /**
+     * Read package checksum, size and head digest, result is empty if sidecar does not exist
+     * or checksum was calculated with another digest algorithm.
+     * @param key Package key
+     * @param dgst Digest algorithm
+     * @return Completable action with hex checksum, size and head digest
+     */
+    public CompletionStage<Optional<ImmutableTriple<String, Long, String>>> read(final Key key,
+        final Digest dgst) {
+        return this.sidecar.read(key).thenApply(
+            bytes -> bytes.flatMap(
+                val -> AstoChecksumSidecar.parse(new String(val, StandardCharsets.US_ASCII), dgst)
+            )
+        );
+    }
+
+    /**
+     * Remove sidecars of all the items found by the key.
+     * @param key Items key
+     * @return Completable action
+     */
+    public CompletionStage<Void> remove(final Key key) {
+        return this.sidecar.remove(key);
+    }
+
+    /**
+     * Remove sidecars of the items.
+     * @param keys Items keys
+     * @return Completable action
+     */
+    public CompletionStage<Void> remove(final Collection<Key> keys) {
+        return this.sidecar.remove(keys);
+    }
+
+    /**
+     * Parse sidecar content.
+     * @param str Sidecar content
+     * @param dgst Expected digest algorithm
+     * @return Hex checksum, size and head digest if digest algorithm matches
+     */
+    private static Optional<ImmutableTriple<String, Long, String>> parse(final String str,
+        final Digest dgst) {
+        final String[] parts = str.trim().split(" ");
+        Optional<ImmutableTriple<String, Long, String>> res = Optional.empty();
+        if (parts.length == 4 && parts[0].equals(dgst.type())) {
+            try {
+                res = Optional.of(
+                    new ImmutableTriple<>(parts[1], Long.parseLong(parts[2]), parts[3])
+                );
+            } catch (final NumberFormatException ignored) {
+                res = Optional.empty();
+            }
+        }
+        return res;
+    }
+}
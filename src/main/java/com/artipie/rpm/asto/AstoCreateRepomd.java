@@ -6,34 +6,60 @@ package com.artipie.rpm.asto;
 
 import com.artipie.ArtipieException;
 import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.ext.ContentAs;
 import com.artipie.asto.ext.ContentDigest;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.misc.UncheckedIOFunc;
 import com.artipie.asto.rx.RxStorageWrapper;
+import com.artipie.asto.streams.ContentAsStream;
 import com.artipie.asto.streams.StorageValuePipeline;
+import com.artipie.rpm.Digest;
 import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.meta.SqliteMetadata;
+import com.artipie.rpm.meta.XmlMetalink;
 import com.artipie.rpm.meta.XmlPackage;
 import com.artipie.rpm.meta.XmlRepomd;
+import com.artipie.rpm.meta.ZchunkXml;
 import com.artipie.rpm.pkg.Checksum;
 import com.jcabi.aspects.Tv;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
 import io.reactivex.Observable;
 import io.reactivex.Single;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.stream.Stream;
 import javax.xml.stream.XMLStreamException;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 /**
- * Creates `repomd.xml`.
+ * Creates `repomd.xml`, sqlite databases and zchunk metadata records are added if they are
+ * found in temp location. When repository mirrors are configured, `metalink.xml` is created
+ * along with `repomd.xml`.
  * @since 1.9
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 public final class AstoCreateRepomd {
 
+    /**
+     * Repomd xml name.
+     */
+    static final String REPOMD = "repomd.xml";
+
+    /**
+     * Metalink xml name.
+     */
+    static final String METALINK = "metalink.xml";
+
     /**
      * Asto storage.
      */
@@ -60,40 +86,153 @@ public final class AstoCreateRepomd {
      * @return Completable action
      */
     public CompletionStage<Void> perform(final Key temp) {
+        return this.perform(temp, Optional.empty());
+    }
+
+    /**
+     * Creates repomd.xml, which refers to metadata files in the generation directory
+     * `repodata/<generation>/`, see {@link AstoRepodata}.
+     * @param temp Temp location to read/write data
+     * @param generation Generation name, empty if metadata files are located in `repodata/`
+     * @return Completable action
+     */
+    public CompletionStage<Void> perform(final Key temp, final Optional<String> generation) {
         return this.openChecksums(temp).thenCompose(
             open -> this.gzipedChecksums(temp).thenCompose(
-                gziped -> new StorageValuePipeline<>(this.asto, new Key.From(temp, "repomd.xml"))
-                    .process(
+                gziped -> this.zchunkHeaders(temp).thenCompose(
+                    headers -> new StorageValuePipeline<>(
+                        this.asto, new Key.From(temp, AstoCreateRepomd.REPOMD)
+                    ).process(
                         (opt, out) -> {
                             try (XmlRepomd repomd = new XmlRepomd(out)) {
                                 repomd.begin(System.currentTimeMillis() / Tv.THOUSAND);
-                                new XmlPackage.Stream(this.cnfg.filelists()).get()
-                                    .filter(
-                                        item -> gziped.containsKey(item) && open.containsKey(item)
-                                    ).forEach(
-                                        type -> {
-                                            try (XmlRepomd.Data data =
-                                                repomd.beginData(type.lowercase())) {
-                                                final Checksum gzsum = this.checksum(gziped, type);
-                                                data.gzipChecksum(gzsum);
-                                                data.openChecksum(this.checksum(open, type));
-                                                data.location(
-                                                    this.cnfg.naming().fullName(type, gzsum.hex())
-                                                );
-                                                data.gzipSize(AstoCreateRepomd.size(gziped, type));
-                                                data.openSize(AstoCreateRepomd.size(open, type));
-                                            } catch (final XMLStreamException | IOException err) {
-                                                throw new ArtipieIOException(
-                                                    "Failed to update repomd.xml", err
-                                                );
-                                            }
-                                        }
-                                    );
+                                Stream.of(
+                                    "", AstoSqliteMetadata.SUFFIX, AstoZchunkMetadata.SUFFIX
+                                ).forEach(
+                                    suffix -> new XmlPackage.Stream(this.cnfg.filelists()).get()
+                                        .forEach(
+                                            type -> this.data(
+                                                repomd, type, suffix, generation,
+                                                open, gziped, headers
+                                            )
+                                        )
+                                );
                             }
                         }
                     )
+                )
             )
-        );
+        ).thenCompose(nothing -> this.metalink(temp));
+    }
+
+    /**
+     * Creates `metalink.xml` for `repomd.xml` in temp location if repository mirrors are
+     * configured.
+     * @param temp Temp location
+     * @return Completable action
+     */
+    private CompletionStage<Void> metalink(final Key temp) {
+        final CompletionStage<Void> res;
+        if (this.cnfg.mirrors().isEmpty()) {
+            res = CompletableFuture.allOf();
+        } else {
+            res = this.asto.value(new Key.From(temp, AstoCreateRepomd.REPOMD))
+                .thenCompose(val -> new PublisherAs(val).bytes())
+                .thenCompose(
+                    bytes -> {
+                        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        new XmlMetalink(out).write(bytes, this.cnfg.mirrors());
+                        return this.asto.save(
+                            new Key.From(temp, AstoCreateRepomd.METALINK),
+                            new Content.From(out.toByteArray())
+                        );
+                    }
+                );
+        }
+        return res;
+    }
+
+    /**
+     * Adds metadata item record to repomd.xml if item is found in temp location.
+     * @param repomd Repomd xml
+     * @param type Metadata type
+     * @param suffix Item name suffix: empty for metadata xml, {@link AstoSqliteMetadata#SUFFIX}
+     *  for database or {@link AstoZchunkMetadata#SUFFIX} for zchunk metadata
+     * @param generation Metadata generation name
+     * @param open Open checksums
+     * @param gziped Gziped checksums
+     * @param headers Zchunk headers checksums
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    private void data(final XmlRepomd repomd, final XmlPackage type, final String suffix,
+        final Optional<String> generation, final Map<String, String> open,
+        final Map<String, String> gziped, final Map<String, String> headers) {
+        final String name = String.format("%s%s", type.name(), suffix);
+        if (gziped.containsKey(name) && open.containsKey(name)) {
+            try (XmlRepomd.Data xml = repomd.beginData(
+                String.format("%s%s", type.lowercase(), suffix.toLowerCase(Locale.US))
+            )) {
+                final Checksum gzsum = this.checksum(gziped, name);
+                xml.gzipChecksum(gzsum);
+                xml.openChecksum(this.checksum(open, name));
+                if (headers.containsKey(name)) {
+                    xml.headerChecksum(
+                        new Checksum.Simple(Digest.SHA256, headers.get(name).split(" ")[0])
+                    );
+                }
+                xml.location(
+                    AstoRepodata.location(
+                        AstoCreateRepomd.location(
+                            this.cnfg.naming().fullName(type, gzsum.hex()), suffix
+                        ),
+                        generation
+                    )
+                );
+                xml.gzipSize(AstoCreateRepomd.size(gziped, name));
+                xml.openSize(AstoCreateRepomd.size(open, name));
+                if (headers.containsKey(name)) {
+                    xml.headerSize(AstoCreateRepomd.size(headers, name));
+                }
+                if (AstoSqliteMetadata.SUFFIX.equals(suffix)) {
+                    xml.databaseVersion(SqliteMetadata.VERSION);
+                }
+            } catch (final XMLStreamException | IOException err) {
+                throw new ArtipieIOException("Failed to update repomd.xml", err);
+            }
+        }
+    }
+
+    /**
+     * Reads zchunk headers checksums and sizes from zchunk metadata in temp location.
+     * @param temp Temp location
+     * @return Map of the metadata item name and value
+     */
+    private CompletionStage<Map<String, String>> zchunkHeaders(final Key temp) {
+        final RxStorageWrapper rxsto = new RxStorageWrapper(this.asto);
+        return rxsto.list(temp)
+            .flatMapObservable(Observable::fromIterable)
+            .filter(key -> key.string().endsWith(AstoZchunkMetadata.SUFFIX))
+            .<Pair<String, String>>flatMapSingle(
+                key -> rxsto.value(key).flatMap(
+                    val -> Single.fromFuture(
+                        new ContentAsStream<String>(val).process(
+                            new UncheckedIOFunc<>(
+                                input -> {
+                                    final ZchunkXml.Header header = ZchunkXml.header(input);
+                                    input.transferTo(OutputStream.nullOutputStream());
+                                    return String.format(
+                                        "%s %d", header.checksum(), header.size()
+                                    );
+                                }
+                            )
+                        ).thenApply(
+                            str -> new ImmutablePair<>(this.itemName(key), str)
+                        ).toCompletableFuture()
+                    )
+                )
+            )
+            .toMap(Pair::getKey, Pair::getValue)
+            .to(SingleInterop.get());
     }
 
     /**
@@ -101,12 +240,12 @@ public final class AstoCreateRepomd {
      * @param temp Temp location
      * @return Map of the temp location key and value
      */
-    private CompletionStage<Map<XmlPackage, String>> gzipedChecksums(final Key temp) {
+    private CompletionStage<Map<String, String>> gzipedChecksums(final Key temp) {
         final RxStorageWrapper rxsto = new RxStorageWrapper(this.asto);
         return rxsto.list(temp)
             .flatMapObservable(Observable::fromIterable)
             .filter(key -> !key.string().endsWith(this.cnfg.digest().name()))
-            .<Pair<XmlPackage, String>>flatMapSingle(
+            .<Pair<String, String>>flatMapSingle(
                 key -> rxsto.value(key).flatMap(
                     val -> Single.fromFuture(
                         new ContentDigest(
@@ -114,7 +253,7 @@ public final class AstoCreateRepomd {
                             () -> this.cnfg.digest().messageDigest()
                         ).hex().thenApply(
                             hex -> new ImmutablePair<>(
-                                this.pckgType(key), String.format("%s %d", hex, val.size().get())
+                                this.itemName(key), String.format("%s %d", hex, val.size().get())
                             )
                         ).toCompletableFuture()
                     )
@@ -127,52 +266,77 @@ public final class AstoCreateRepomd {
     /**
      * Reads open checksums from temp locations.
      * @param temp Temp location
-     * @return Map of the metadata package type and value
+     * @return Map of the metadata item name and value
      */
-    private CompletionStage<Map<XmlPackage, String>> openChecksums(final Key temp) {
+    private CompletionStage<Map<String, String>> openChecksums(final Key temp) {
         final RxStorageWrapper rxsto = new RxStorageWrapper(this.asto);
         return rxsto.list(temp)
             .flatMapObservable(Observable::fromIterable)
             .filter(key -> key.string().endsWith(this.cnfg.digest().name()))
-            .<Pair<XmlPackage, String>>flatMapSingle(
+            .<Pair<String, String>>flatMapSingle(
                 key -> rxsto.value(key).to(ContentAs.STRING)
-                    .map(str -> new ImmutablePair<>(this.pckgType(key), str))
+                    .map(str -> new ImmutablePair<>(this.itemName(key), str))
             )
             .toMap(Pair::getKey, Pair::getValue)
             .to(SingleInterop.get());
     }
 
     /**
-     * Obtain instance of {@link XmlPackage} by temp key name.
+     * Obtain metadata item name by temp key name: {@link XmlPackage#name()} for metadata xml
+     * or the name with {@link AstoSqliteMetadata#SUFFIX} postfix for sqlite database and
+     * {@link AstoZchunkMetadata#SUFFIX} postfix for zchunk metadata.
      * @param key Temp key
-     * @return Instance of {@link XmlPackage}
+     * @return Item name
      * @throws ArtipieException If not recognized
      */
-    private XmlPackage pckgType(final Key key) {
+    private String itemName(final Key key) {
         return new XmlPackage.Stream(this.cnfg.filelists()).get()
-            .filter(item -> key.string().contains(item.name())).findFirst()
+            .flatMap(
+                item -> Stream.of(
+                    AstoSqliteMetadata.item(item), AstoZchunkMetadata.item(item), item.name()
+                )
+            )
+            .filter(name -> key.string().contains(name)).findFirst()
             .orElseThrow(() -> new ArtipieException("Unknown metadata file name!"));
     }
 
     /**
      * Create instance of {@link Checksum}.
      * @param map Map with checksum data
-     * @param type Package metadata type
+     * @param name Metadata item name
      * @return Checksum
      */
     private Checksum checksum(
-        final Map<XmlPackage, String> map, final XmlPackage type
+        final Map<String, String> map, final String name
     ) {
-        return new Checksum.Simple(this.cnfg.digest(), map.get(type).split(" ")[0]);
+        return new Checksum.Simple(this.cnfg.digest(), map.get(name).split(" ")[0]);
     }
 
     /**
      * Obtain size from map by package type.
      * @param map Map to get size from
-     * @param type Package metadata type
+     * @param name Metadata item name
      * @return Package size
      */
-    private static long size(final Map<XmlPackage, String> map, final XmlPackage type) {
-        return Long.parseLong(map.get(type).split(" ")[1]);
+    private static long size(final Map<String, String> map, final String name) {
+        return Long.parseLong(map.get(name).split(" ")[1]);
+    }
+
+    /**
+     * Location of the metadata item.
+     * @param xml Metadata xml location
+     * @param suffix Item name suffix
+     * @return Item location
+     */
+    private static String location(final String xml, final String suffix) {
+        final String res;
+        if (AstoSqliteMetadata.SUFFIX.equals(suffix)) {
+            res = AstoSqliteMetadata.name(xml);
+        } else if (AstoZchunkMetadata.SUFFIX.equals(suffix)) {
+            res = AstoZchunkMetadata.name(xml);
+        } else {
+            res = xml;
+        }
+        return res;
     }
 }
@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.rpm.pkg.RpmHeader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+/**
+ * Main header of the RPM package, extracted when the package is uploaded and saved
+ * next to the package. Sidecar of the package `key` is stored by the key `.headers/key.hdr`
+ * and contains package head digest (see {@link com.artipie.rpm.pkg.PackageHead#digest()}) as
+ * 64 hex ASCII characters, header offset in the package file as 4 bytes integer and the header
+ * structure bytes. Head digest binds the sidecar to the package it was extracted from: the
+ * header should be used only if head digest of the package matches, otherwise wrong package
+ * name, version and dependencies get into the metadata.
+ * @since 1.11
+ */
+public final class AstoHeaderSidecar {
+
+    /**
+     * Sidecars root key.
+     */
+    public static final Key ROOT = new Key.From(".headers");
+
+    /**
+     * Head digest length.
+     */
+    private static final int DIGEST = 64;
+
+    /**
+     * Sidecars location.
+     */
+    private final AstoSidecar sidecar;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     */
+    public AstoHeaderSidecar(final Storage asto) {
+        this.sidecar = new AstoSidecar(asto, AstoHeaderSidecar.ROOT, ".hdr");
+    }
+
+    /**
+     * Save package header.
+     * @param key Package key
+     * @param header Package header
+     * @param head Package head digest
+     * @return Completable action
+     */
+    public CompletionStage<Void> save(final Key key, final RpmHeader header, final String head) {
+        final ByteBuffer bytes = header.bytes();
+        final ByteBuffer buf = ByteBuffer.allocate(
+            AstoHeaderSidecar.DIGEST + Integer.BYTES + bytes.remaining()
+        );
+        buf.put(head.getBytes(StandardCharsets.US_ASCII)).putInt(header.startPos()).put(bytes);
+        return this.sidecar.save(key, buf.array());
+    }
+
+    /**
+     * Read package head digest and header, result is empty if sidecar does not exist or
+     * has unknown format.
+     * @param key Package key
+     * @return Completable action with head digest and header
+     */
+    public CompletionStage<Optional<ImmutablePair<String, RpmHeader>>> read(final Key key) {
+        return this.sidecar.read(key).thenApply(
+            bytes -> bytes.flatMap(AstoHeaderSidecar::parse)
+        );
+    }
+
+    /**
+     * Remove sidecars of all the packages found by the key.
+     * @param key Packages key
+     * @return Completable action
+     */
+    public CompletionStage<Void> remove(final Key key) {
+        return this.sidecar.remove(key);
+    }
+
+    /**
+     * Remove sidecars of the packages.
+     * @param keys Packages keys
+     * @return Completable action
+     */
+    public CompletionStage<Void> remove(final Collection<Key> keys) {
+        return this.sidecar.remove(keys);
+    }
+
+    /**
+     * Parse sidecar content.
+     * @param bytes Sidecar content
+     * @return Head digest and header if content has expected format
+     */
+    private static Optional<ImmutablePair<String, RpmHeader>> parse(final byte[] bytes) {
+        Optional<ImmutablePair<String, RpmHeader>> res = Optional.empty();
+        if (bytes.length > AstoHeaderSidecar.DIGEST + Integer.BYTES) {
+            final String head = new String(
+                bytes, 0, AstoHeaderSidecar.DIGEST, StandardCharsets.US_ASCII
+            );
+            if (head.matches("[0-9a-f]+")) {
+                final ByteBuffer buf = ByteBuffer.wrap(bytes);
+                buf.position(AstoHeaderSidecar.DIGEST);
+                final int start = buf.getInt();
+                res = Optional.of(new ImmutablePair<>(head, new RpmHeader(buf.slice(), start)));
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.SubStorage;
+import com.artipie.asto.ext.ContentDigest;
+import com.artipie.asto.misc.UncheckedIOSupplier;
+import com.artipie.rpm.BlockingThreads;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.FileChecksum;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * Fast path for the items of the storage, backed by local file system: storage is local
+ * when it is explicitly wrapped with {@link LocalStorage}. When storage is not local,
+ * all the operations are performed via storage API.
+ * @since 1.11
+ */
+public final class AstoLocalFiles {
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Executor for blocking file operations.
+     */
+    private final Executor exec;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param exec Executor for blocking file operations
+     */
+    public AstoLocalFiles(final Storage asto, final Executor exec) {
+        this.asto = asto;
+        this.exec = exec;
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     */
+    public AstoLocalFiles(final Storage asto) {
+        this(asto, BlockingThreads.AUTO.executor());
+    }
+
+    /**
+     * Local file system path of the storage item, empty if storage is not local or
+     * item is not a regular file.
+     * @param key Storage item key
+     * @return Path to the item
+     */
+    public Optional<Path> path(final Key key) {
+        return AstoLocalFiles.root(this.asto)
+            .map(dir -> dir.resolve(key.string()))
+            .filter(Files::isRegularFile);
+    }
+
+    /**
+     * Calculate checksum of the storage item.
+     * @param key Storage item key
+     * @param dgst Digest algorithm
+     * @return Completable action with hex checksum
+     */
+    public CompletionStage<String> hex(final Key key, final Digest dgst) {
+        final Optional<Path> file = this.path(key);
+        final CompletionStage<String> res;
+        if (file.isPresent()) {
+            res = CompletableFuture.supplyAsync(
+                new UncheckedIOSupplier<>(() -> new FileChecksum(file.get(), dgst).hex()),
+                this.exec
+            );
+        } else {
+            res = this.asto.value(key).thenCompose(
+                val -> new ContentDigest(val, dgst::messageDigest).hex()
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Copy storage item.
+     * @param from Source key
+     * @param dest Destination storage
+     * @param target Destination key
+     * @return Completable action
+     */
+    public CompletionStage<Void> copy(final Key from, final Storage dest, final Key target) {
+        final Optional<Path> src = this.path(from);
+        final Optional<Path> dst = AstoLocalFiles.root(dest)
+            .map(dir -> dir.resolve(target.string()));
+        final CompletionStage<Void> res;
+        if (src.isPresent() && dst.isPresent()) {
+            res = CompletableFuture.runAsync(
+                () -> AstoLocalFiles.transfer(src.get(), dst.get()), this.exec
+            );
+        } else {
+            res = this.asto.value(from).thenCompose(val -> dest.save(target, val));
+        }
+        return res;
+    }
+
+    /**
+     * Transfer file content with {@link FileChannel#transferTo}.
+     * @param src Source file
+     * @param dst Destination file
+     */
+    private static void transfer(final Path src, final Path dst) {
+        try {
+            Files.createDirectories(dst.toAbsolutePath().getParent());
+            final Path tmp = dst.resolveSibling(
+                String.format("%s.%s.tmp", dst.getFileName(), Thread.currentThread().getId())
+            );
+            try (
+                FileChannel in = FileChannel.open(src, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(
+                    tmp, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING
+                )
+            ) {
+                final long size = in.size();
+                long pos = 0;
+                while (pos < size) {
+                    pos = pos + in.transferTo(pos, size - pos, out);
+                }
+            }
+            Files.move(tmp, dst, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException err) {
+            throw new ArtipieIOException(err);
+        }
+    }
+
+    /**
+     * Sub storage with the prefix, which stays local if the storage is local.
+     * @param asto Storage
+     * @param prefix Key prefix
+     * @return Sub storage
+     */
+    public static Storage sub(final Storage asto, final Key prefix) {
+        final Storage res;
+        if (asto instanceof LocalStorage) {
+            res = ((LocalStorage) asto).sub(prefix);
+        } else {
+            res = new SubStorage(prefix, asto);
+        }
+        return res;
+    }
+
+    /**
+     * Root directory of the local storage.
+     * @param asto Storage
+     * @return Root directory if storage is local
+     */
+    private static Optional<Path> root(final Storage asto) {
+        final Optional<Path> res;
+        if (asto instanceof LocalStorage) {
+            res = Optional.of(((LocalStorage) asto).root());
+        } else {
+            res = Optional.empty();
+        }
+        return res;
+    }
+}
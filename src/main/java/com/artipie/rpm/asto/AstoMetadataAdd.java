@@ -7,12 +7,14 @@ package com.artipie.rpm.asto;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.misc.UncheckedIOFunc;
+import com.artipie.asto.misc.UncheckedIOScalar;
 import com.artipie.asto.misc.UncheckedScalar;
 import com.artipie.asto.streams.StorageValuePipeline;
 import com.artipie.rpm.RepoConfig;
 import com.artipie.rpm.meta.MergedXml;
 import com.artipie.rpm.meta.MergedXmlPackage;
 import com.artipie.rpm.meta.MergedXmlPrimary;
+import com.artipie.rpm.meta.SegmentedGzip;
 import com.artipie.rpm.meta.XmlAlter;
 import com.artipie.rpm.meta.XmlEvent;
 import com.artipie.rpm.meta.XmlEventPrimary;
@@ -20,14 +22,24 @@ import com.artipie.rpm.meta.XmlPackage;
 import com.artipie.rpm.pkg.Package;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.zip.GZIPInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 
 /**
- * Add rpm packages records to metadata.
+ * Add rpm packages records to metadata. When none of the packages replaces already published
+ * package (packages locations are not found in the published primary) and existing metadata
+ * has segmented layout of {@link SegmentedGzip}, records are
+ * appended to metadata without decompressing it, otherwise metadata are merged and compressed
+ * again. Sqlite databases and zchunk metadata are updated along with metadata, see
+ * {@link AstoSqliteMetadata} and {@link AstoZchunkMetadata}.
  * @since 1.10
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
@@ -58,97 +70,238 @@ public final class AstoMetadataAdd {
      * @param metas Packages metadata to add
      * @return Completable action with temp key
      */
-    @SuppressWarnings("SuspiciousToArrayCall")
     public CompletionStage<Key> perform(final Collection<Package.Meta> metas) {
         final Key prefix = new Key.From(UUID.randomUUID().toString());
-        return this.addToPrimary(prefix, metas).thenCompose(
-            res -> {
-                final CompletableFuture<Void> future;
-                if (this.cnfg.filelists()) {
-                    future = CompletableFuture.allOf(
-                        this.add(prefix, metas, res, XmlPackage.OTHER, new XmlEvent.Other()),
-                        this.add(prefix, metas, res, XmlPackage.FILELISTS, new XmlEvent.Filelists())
+        return this.appendable(metas).thenCompose(
+            append -> this.addToPrimary(prefix, metas, append).thenCompose(
+                res -> {
+                    final CompletableFuture<Void> future;
+                    if (this.cnfg.filelists()) {
+                        future = CompletableFuture.allOf(
+                            this.add(prefix, metas, res, XmlPackage.OTHER, append),
+                            this.add(prefix, metas, res, XmlPackage.FILELISTS, append)
+                        );
+                    } else {
+                        future = this.add(prefix, metas, res, XmlPackage.OTHER, append);
+                    }
+                    return future.thenCompose(
+                        nothing -> new AstoSqliteMetadata(this.asto, this.cnfg)
+                            .update(prefix, res.checksums(), metas)
+                    ).thenCompose(
+                        nothing -> new AstoZchunkMetadata(this.asto, this.cnfg).update(prefix)
                     );
-                } else {
-                    future = this.add(prefix, metas, res, XmlPackage.OTHER, new XmlEvent.Other());
                 }
-                return future;
-            }
-        ).thenCompose(
-            ignored -> this.asto.list(prefix).thenCompose(
-                list -> CompletableFuture.allOf(
-                    list.stream().map(
-                        item -> new AstoChecksumAndSize(this.asto, this.cnfg.digest())
-                            .calculate(item)
-                            .thenCompose(nothing -> new AstoArchive(this.asto).gzip(item))
-                    ).toArray(CompletableFuture[]::new)
-                )
             )
         ).thenApply(nothing -> prefix);
     }
 
+    /**
+     * Checks whether packages can be appended to metadata: packages are not replaced if
+     * none of the packages locations is found in the published primary metadata, see
+     * {@link AstoPrimaryIndex}.
+     * @param metas Packages metadata to add
+     * @return Completable action with true if packages can be appended
+     */
+    private CompletionStage<Boolean> appendable(final Collection<Package.Meta> metas) {
+        final CompletionStage<Boolean> res;
+        if (metas.isEmpty()) {
+            res = CompletableFuture.completedFuture(false);
+        } else {
+            res = new AstoPrimaryIndex(this.asto).checksums().thenApply(
+                published -> metas.stream().map(Package.Meta::href)
+                    .noneMatch(published::containsKey)
+            );
+        }
+        return res;
+    }
+
     /**
      * Adds items to primary and returns the result.
      * @param temp Temp location
      * @param metas Packages metadata to add
+     * @param append Whether packages can be appended
      * @return Completable action with the result
      */
     private CompletionStage<MergedXml.Result> addToPrimary(
-        final Key temp, final Collection<Package.Meta> metas
+        final Key temp, final Collection<Package.Meta> metas, final boolean append
     ) {
-        return this.getExistingOrDefaultKey(XmlPackage.PRIMARY).thenCompose(
-            key -> {
-                final Key tempkey = new Key.From(temp, XmlPackage.PRIMARY.name());
-                return new StorageValuePipeline<MergedXml.Result>(this.asto, key, tempkey)
-                    .processWithResult(
-                        (input, out) -> new UncheckedScalar<>(
-                            () -> new MergedXmlPrimary(
-                                input.map(new UncheckedIOFunc<>(GZIPInputStream::new)), out
-                            ).merge(metas, new XmlEventPrimary())
-                        ).value()
-                    ).thenApply(
-                        res -> res
-                    ).thenCompose(
-                        res -> new StorageValuePipeline<>(this.asto, tempkey).process(
-                            (input, out) -> new XmlAlter.Stream(
-                                new BufferedInputStream(input.get()),
-                                new BufferedOutputStream(out)
-                            ).pkgAttr(XmlPackage.PRIMARY.tag(), String.valueOf(res.count()))
-                        ).thenApply(nothing -> res)
-                    ).thenApply(
-                        res -> res
+        final Key tempkey = new Key.From(temp, XmlPackage.PRIMARY.name());
+        return this.append(tempkey, metas, XmlPackage.PRIMARY, append).thenCompose(
+            total -> {
+                final CompletionStage<MergedXml.Result> res;
+                if (total.isPresent()) {
+                    res = CompletableFuture.completedFuture(
+                        new MergedXml.Result(total.get(), Collections.emptyList())
                     );
+                } else {
+                    res = this.mergePrimary(tempkey, metas);
+                }
+                return res.thenCompose(
+                    result -> this.complete(tempkey, total.isPresent()).thenApply(
+                        nothing -> result
+                    )
+                );
             }
         );
     }
 
+    /**
+     * Merges items into primary and returns the result.
+     * @param tempkey Temp key of the primary
+     * @param metas Packages metadata to add
+     * @return Completable action with the result
+     */
+    private CompletionStage<MergedXml.Result> mergePrimary(
+        final Key tempkey, final Collection<Package.Meta> metas
+    ) {
+        return this.getExistingOrDefaultKey(XmlPackage.PRIMARY).thenCompose(
+            key -> new StorageValuePipeline<MergedXml.Result>(this.asto, key, tempkey)
+                .processWithResult(
+                    (input, out) -> new UncheckedScalar<>(
+                        () -> new MergedXmlPrimary(
+                            input.map(AstoMetadataAdd::gunzip), out
+                        ).merge(metas, new XmlEventPrimary())
+                    ).value()
+                ).thenCompose(
+                    res -> new StorageValuePipeline<>(this.asto, tempkey).process(
+                        (input, out) -> new XmlAlter.Stream(
+                            new BufferedInputStream(input.get()),
+                            new BufferedOutputStream(out)
+                        ).pkgAttr(XmlPackage.PRIMARY.tag(), String.valueOf(res.count()))
+                    ).thenApply(nothing -> res)
+                )
+        );
+    }
+
     /**
      * Adds packages metadata to metadata file.
      * @param temp Temp location
      * @param metas Packages metadata to add
      * @param primary Result of adding packages to primary xml
      * @param type Metadata type
-     * @param event Xml event instance
-     * @return COmpletable action
+     * @param append Whether packages can be appended
+     * @return Completable action
      * @checkstyle ParameterNumberCheck (10 lines)
      */
     private CompletableFuture<Void> add(final Key temp, final Collection<Package.Meta> metas,
-        final MergedXml.Result primary, final XmlPackage type, final XmlEvent event) {
-        return this.getExistingOrDefaultKey(type).thenCompose(
-            key -> {
-                final Key tempkey = new Key.From(temp, type.name());
-                return new StorageValuePipeline<>(this.asto, key, tempkey).process(
-                    (input, out) -> new UncheckedScalar<>(
-                        () -> new MergedXmlPackage(
-                            input.map(new UncheckedIOFunc<>(GZIPInputStream::new)),
-                            out, type, primary
-                        ).merge(metas, event)
-                    ).value()
-                );
+        final MergedXml.Result primary, final XmlPackage type, final boolean append) {
+        final Key tempkey = new Key.From(temp, type.name());
+        return this.append(tempkey, metas, type, append).thenCompose(
+            total -> {
+                final CompletionStage<Void> res;
+                if (total.isPresent()) {
+                    res = CompletableFuture.allOf();
+                } else {
+                    res = this.getExistingOrDefaultKey(type).thenCompose(
+                        key -> new StorageValuePipeline<>(this.asto, key, tempkey).process(
+                            (input, out) -> new UncheckedScalar<>(
+                                () -> new MergedXmlPackage(
+                                    input.map(AstoMetadataAdd::gunzip), out, type, primary
+                                ).merge(metas, AstoMetadataAdd.event(type))
+                            ).value()
+                        )
+                    );
+                }
+                return res.thenCompose(nothing -> this.complete(tempkey, total.isPresent()));
             }
         ).toCompletableFuture();
     }
 
+    /**
+     * Appends packages to segmented metadata file, compressed result is written to temp key.
+     * @param tempkey Temp key of the metadata
+     * @param metas Packages metadata to add
+     * @param type Metadata type
+     * @param append Whether packages can be appended
+     * @return Completable action with packages count, empty if packages were not appended
+     */
+    private CompletionStage<Optional<Long>> append(final Key tempkey,
+        final Collection<Package.Meta> metas, final XmlPackage type, final boolean append) {
+        final CompletionStage<Optional<Long>> res;
+        if (append) {
+            res = this.getExistingOrDefaultKey(type).thenCompose(
+                key -> new StorageValuePipeline<Optional<Long>>(this.asto, key, tempkey)
+                    .processWithResult(
+                        (input, out) -> input.map(
+                            new UncheckedIOFunc<>(
+                                inp -> new SegmentedGzip(out).append(
+                                    new BufferedInputStream(inp),
+                                    new ByteArrayInputStream(AstoMetadataAdd.xml(metas, type)),
+                                    metas.size()
+                                )
+                            )
+                        ).orElse(Optional.empty())
+                    )
+            );
+        } else {
+            res = CompletableFuture.completedFuture(Optional.empty());
+        }
+        return res;
+    }
+
+    /**
+     * Calculates checksum and size of metadata and compresses it if it is not compressed yet.
+     * @param tempkey Temp key of the metadata
+     * @param appended Whether metadata was appended and is already compressed
+     * @return Completable action
+     */
+    private CompletionStage<Void> complete(final Key tempkey, final boolean appended) {
+        final AstoChecksumAndSize checksum = new AstoChecksumAndSize(
+            this.asto, this.cnfg.digest(), this.cnfg.executor()
+        );
+        final CompletionStage<Void> res;
+        if (appended) {
+            res = checksum.calculateGzipped(tempkey);
+        } else {
+            res = checksum.calculate(tempkey)
+                .thenCompose(nothing -> new AstoArchive(this.asto).gzip(tempkey));
+        }
+        return res;
+    }
+
+    /**
+     * Metadata xml with the provided packages only.
+     * @param metas Packages metadata
+     * @param type Metadata type
+     * @return Xml bytes
+     */
+    static byte[] xml(final Collection<Package.Meta> metas, final XmlPackage type) {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        new UncheckedScalar<>(
+            () -> new MergedXmlPackage(
+                Optional.empty(), res, type,
+                new MergedXml.Result(metas.size(), Collections.emptyList())
+            ).merge(metas, AstoMetadataAdd.event(type))
+        ).value();
+        return res.toByteArray();
+    }
+
+    /**
+     * Xml event for metadata type.
+     * @param type Metadata type
+     * @return Xml event
+     */
+    private static XmlEvent event(final XmlPackage type) {
+        final XmlEvent res;
+        if (type == XmlPackage.PRIMARY) {
+            res = new XmlEventPrimary();
+        } else if (type == XmlPackage.OTHER) {
+            res = new XmlEvent.Other();
+        } else {
+            res = new XmlEvent.Filelists();
+        }
+        return res;
+    }
+
+    /**
+     * Decompressing stream of gziped metadata, all gzip members are read.
+     * @param input Gziped metadata
+     * @return Metadata xml stream
+     */
+    private static InputStream gunzip(final InputStream input) {
+        return new UncheckedIOScalar<>(() -> new GzipCompressorInputStream(input, true)).value();
+    }
+
     /**
      * Find existing metadata key or return default key. Item with default key does not actually
      * exist in storage, but later this key is used in {@link StorageValuePipeline}
@@ -158,7 +311,7 @@ public final class AstoMetadataAdd {
      */
     private CompletionStage<Key> getExistingOrDefaultKey(final XmlPackage type) {
         final String key = String.format("%s.xml.gz", type.lowercase());
-        return this.asto.list(new Key.From("repodata")).thenApply(
+        return new AstoRepodata(this.asto).files().thenApply(
             list -> list.stream().filter(item -> item.string().endsWith(key))
                 .findFirst().orElse(new Key.From(key))
         );
@@ -14,6 +14,7 @@ import hu.akarnokd.rxjava2.interop.SingleInterop;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -24,11 +25,6 @@ import org.apache.commons.lang3.tuple.Pair;
  */
 final class AstoMetadataNames {
 
-    /**
-     * Repomd xml name.
-     */
-    private static final String REPOMD = "repomd.xml";
-
     /**
      * Asto storage.
      */
@@ -51,7 +47,9 @@ final class AstoMetadataNames {
 
     /**
      * Prepares correct names for metadata from temp location. In the temp location
-     * metadata are named by {@link XmlPackage#name()}, repomd.xml is also located in temp.
+     * metadata are named by {@link XmlPackage#name()}, sqlite databases and zchunk metadata are
+     * named with {@link AstoSqliteMetadata#SUFFIX} and {@link AstoZchunkMetadata#SUFFIX}
+     * postfixes, repomd.xml and optional metalink.xml are also located in temp.
      * New names are created in correspondence with naming policy {@link RepoConfig#naming()} and
      * in canonical repository metadata location `metadata` directory.
      * This method does not move the metadata items, only constructs names.
@@ -59,12 +57,28 @@ final class AstoMetadataNames {
      * @return Map of the temp metadata location -> location in the repository
      */
     CompletionStage<Map<Key, Key>> prepareNames(final Key temp) {
+        return this.prepareNames(temp, Optional.empty());
+    }
+
+    /**
+     * Prepares correct names for metadata from temp location, metadata files are placed to the
+     * generation directory `repodata/<generation>/`, while repomd.xml and metalink.xml are
+     * placed to `repodata/`, see {@link AstoRepodata}.
+     * @param temp Temp location
+     * @param generation Generation name, empty to place metadata files to `repodata/`
+     * @return Map of the temp metadata location -> location in the repository
+     */
+    CompletionStage<Map<Key, Key>> prepareNames(final Key temp,
+        final Optional<String> generation) {
         final RxStorageWrapper rxsto = new RxStorageWrapper(this.asto);
         return rxsto.list(temp)
             .flatMapObservable(Observable::fromIterable)
             .filter(
-                key -> new XmlPackage.Stream(this.cnfg.filelists()).get()
-                    .anyMatch(item -> key.string().endsWith(item.name()))
+                key -> new XmlPackage.Stream(this.cnfg.filelists()).get().anyMatch(
+                    item -> key.string().endsWith(item.name())
+                        || key.string().endsWith(AstoSqliteMetadata.item(item))
+                        || key.string().endsWith(AstoZchunkMetadata.item(item))
+                )
             )
             .<Pair<Key, Key>>flatMapSingle(
                 key -> rxsto.value(key).flatMap(
@@ -72,32 +86,61 @@ final class AstoMetadataNames {
                         new ContentDigest(val, () -> this.cnfg.digest().messageDigest()).hex()
                             .thenApply(
                                 hex -> new ImmutablePair<Key, Key>(
-                                    key,
-                                    new Key.From(
-                                        this.cnfg.naming().fullName(
-                                            new XmlPackage.Stream(this.cnfg.filelists()).get()
-                                                .filter(item -> key.string().contains(item.name()))
-                                                .findFirst().get(),
-                                            hex
-                                        )
-                                    )
+                                    key, this.name(key, hex, generation)
                                 )
                             ).toCompletableFuture()
                     )
                 )
             ).toMap(Pair::getKey, Pair::getValue)
+            .flatMap(map -> AstoMetadataNames.withIndex(rxsto, map, temp, AstoCreateRepomd.REPOMD))
             .flatMap(
-                map -> {
-                    final Key.From repomd = new Key.From(temp, AstoMetadataNames.REPOMD);
-                    return rxsto.exists(repomd).map(
-                        exists -> {
-                            if (exists) {
-                                map.put(repomd, new Key.From("repodata", AstoMetadataNames.REPOMD));
-                            }
-                            return map;
-                        }
-                    );
-                }
+                map -> AstoMetadataNames.withIndex(rxsto, map, temp, AstoCreateRepomd.METALINK)
             ).to(SingleInterop.get());
     }
+
+    /**
+     * Adds repository index file, which name does not depend on naming policy, to names map
+     * if this file exists in temp location.
+     * @param rxsto Storage
+     * @param map Names map
+     * @param temp Temp location
+     * @param name Index file name
+     * @return Names map
+     */
+    private static Single<Map<Key, Key>> withIndex(final RxStorageWrapper rxsto,
+        final Map<Key, Key> map, final Key temp, final String name) {
+        final Key.From key = new Key.From(temp, name);
+        return rxsto.exists(key).map(
+            exists -> {
+                if (exists) {
+                    map.put(key, new Key.From("repodata", name));
+                }
+                return map;
+            }
+        );
+    }
+
+    /**
+     * New name of the metadata item: sqlite databases and zchunk metadata are named as
+     * corresponding metadata xmls with {@link AstoSqliteMetadata#EXT} and
+     * {@link AstoZchunkMetadata#EXT} extensions.
+     * @param key Temp item key
+     * @param hex Item checksum
+     * @param generation Generation name
+     * @return Key in the repository
+     */
+    private Key name(final Key key, final String hex, final Optional<String> generation) {
+        String name = this.cnfg.naming().fullName(
+            new XmlPackage.Stream(this.cnfg.filelists()).get()
+                .filter(item -> key.string().contains(item.name()))
+                .findFirst().get(),
+            hex
+        );
+        if (key.string().endsWith(AstoSqliteMetadata.SUFFIX)) {
+            name = AstoSqliteMetadata.name(name);
+        } else if (key.string().endsWith(AstoZchunkMetadata.SUFFIX)) {
+            name = AstoZchunkMetadata.name(name);
+        }
+        return new Key.From(AstoRepodata.location(name, generation));
+    }
 }
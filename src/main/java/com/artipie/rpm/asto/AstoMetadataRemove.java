@@ -20,13 +20,14 @@ import java.io.BufferedOutputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
-import java.util.zip.GZIPInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 
 /**
  * Removes packages from metadata files.
@@ -74,7 +75,8 @@ public final class AstoMetadataRemove {
 
     /**
      * Removes packages from metadata xmls. Resulting new xmls are stored into temp location
-     * along with checksums and size of un-gziped files. Temp location key as returned in result.
+     * along with checksums and size of un-gziped files, sqlite databases and zchunk metadata
+     * are updated the same way if enabled. Temp location key as returned in result.
      * @param checksums Checksums of the packages to remove
      * @return Completable action with temp location key
      */
@@ -85,10 +87,13 @@ public final class AstoMetadataRemove {
         for (final XmlPackage pckg : new XmlPackage.Stream(this.cnfg.filelists())
             .get().collect(Collectors.toList())) {
             res.add(
-                CompletableFuture.supplyAsync(() -> pckg).thenCompose(
-                    pkg -> this.asto.list(new Key.From("repodata")).thenApply(
+                CompletableFuture.supplyAsync(() -> pckg, this.cnfg.executor()).thenCompose(
+                    pkg -> new AstoRepodata(this.asto).files().thenApply(
                         list -> list.stream()
-                            .filter(item -> item.string().contains(pckg.lowercase())).findFirst()
+                            .filter(
+                                item -> item.string()
+                                    .endsWith(String.format("%s.xml.gz", pckg.lowercase()))
+                            ).findFirst()
                     ).thenCompose(
                         opt -> {
                             final Key tmpkey = new Key.From(prefix, pkg.name());
@@ -105,7 +110,7 @@ public final class AstoMetadataRemove {
                                         )
                                     ).thenCompose(
                                         nothing -> new AstoChecksumAndSize(
-                                            this.asto, this.cnfg.digest()
+                                            this.asto, this.cnfg.digest(), this.cnfg.executor()
                                         ).calculate(tmpkey)
                                     )
                                     .thenCompose(hex -> new AstoArchive(this.asto).gzip(tmpkey));
@@ -117,6 +122,11 @@ public final class AstoMetadataRemove {
             );
         }
         return CompletableFuture.allOf(res.toArray(new CompletableFuture[]{}))
+            .thenCompose(
+                nothing -> new AstoSqliteMetadata(this.asto, this.cnfg)
+                    .update(prefix, checksums, Collections.emptyList())
+            )
+            .thenCompose(nothing -> new AstoZchunkMetadata(this.asto, this.cnfg).update(prefix))
             .thenApply(nothing -> prefix);
     }
 
@@ -135,7 +145,9 @@ public final class AstoMetadataRemove {
         return new StorageValuePipeline<Long>(this.asto, key, temp).processWithResult(
             (opt, out) -> {
                 final XmlMaid maid;
-                final InputStream input = opt.map(new UncheckedIOFunc<>(GZIPInputStream::new))
+                final InputStream input = opt.map(
+                    new UncheckedIOFunc<>(inp -> new GzipCompressorInputStream(inp, true))
+                )
                     .get();
                 if (pckg == XmlPackage.PRIMARY) {
                     maid = new XmlPrimaryMaid.Stream(input, out, this.infos);
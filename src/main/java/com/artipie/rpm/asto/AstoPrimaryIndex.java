@@ -0,0 +1,241 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.misc.UncheckedIOFunc;
+import com.artipie.asto.streams.ContentAsStream;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.XmlPrimaryPackages;
+import com.artipie.rpm.meta.XmlRepomdChecksums;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+/**
+ * Index of the packages, published in the repository primary metadata: packages
+ * identity, locations and checksums are read from the current `repodata` primary xml
+ * in one pass, so that packages can be found without reading them. Packages of the primary
+ * xml, listed in `repomd.xml`, are saved to the index under {@link AstoPrimaryIndex#INDEX},
+ * so primary xml is parsed only once after each metadata publishing.
+ * @since 1.11
+ */
+public final class AstoPrimaryIndex {
+
+    /**
+     * Packages indexes location, index key is the checksum of the primary xml.
+     */
+    static final Key INDEX = new Key.From(".index", "primary");
+
+    /**
+     * Metadata location.
+     */
+    private static final Key REPODATA = new Key.From("repodata");
+
+    /**
+     * Indexed packages fields.
+     */
+    private static final List<String> FIELDS = List.of(
+        XmlPrimaryPackages.Entry.NAME, XmlPrimaryPackages.Entry.EPOCH,
+        XmlPrimaryPackages.Entry.VERSION, XmlPrimaryPackages.Entry.RELEASE,
+        XmlPrimaryPackages.Entry.ARCH, XmlPrimaryPackages.Entry.CHECKSUM,
+        XmlPrimaryPackages.Entry.LOCATION
+    );
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     */
+    public AstoPrimaryIndex(final Storage asto) {
+        this.asto = asto;
+    }
+
+    /**
+     * Published packages, empty if repository has no primary metadata. Packages are read
+     * from the index of the current primary xml, the index is built on the first request
+     * after metadata publishing.
+     * @return Completable action with the list of the packages
+     */
+    public CompletionStage<List<XmlPrimaryPackages.Entry>> packages() {
+        return this.primary().thenCompose(
+            primary -> {
+                final CompletionStage<List<XmlPrimaryPackages.Entry>> res;
+                if (primary.isEmpty()) {
+                    res = CompletableFuture.completedFuture(Collections.emptyList());
+                } else if (primary.get().getValue().isEmpty()) {
+                    res = this.parse(primary.get().getKey());
+                } else {
+                    final Key index = new Key.From(
+                        AstoPrimaryIndex.INDEX, primary.get().getValue()
+                    );
+                    res = this.asto.exists(index).thenCompose(
+                        exists -> {
+                            final CompletionStage<List<XmlPrimaryPackages.Entry>> list;
+                            if (exists) {
+                                list = this.load(index);
+                            } else {
+                                list = this.parse(primary.get().getKey()).thenCompose(
+                                    items -> this.store(index, items).thenApply(
+                                        nothing -> items
+                                    )
+                                );
+                            }
+                            return list;
+                        }
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Published packages locations and checksums, empty if repository has
+     * no primary metadata.
+     * @return Completable action with the map of the packages locations and checksums
+     */
+    public CompletionStage<Map<String, String>> checksums() {
+        return this.packages().thenApply(
+            list -> list.stream().collect(
+                Collectors.toMap(
+                    XmlPrimaryPackages.Entry::location, XmlPrimaryPackages.Entry::checksum,
+                    (first, second) -> first
+                )
+            )
+        );
+    }
+
+    /**
+     * Find published package by checksum.
+     * @param checksum Package checksum
+     * @return Completable action with the package key if package is published and exists
+     */
+    public CompletionStage<Optional<Key>> find(final String checksum) {
+        return this.checksums().thenApply(
+            map -> map.entrySet().stream()
+                .filter(entry -> entry.getValue().equalsIgnoreCase(checksum))
+                .<Key>map(entry -> new Key.From(entry.getKey()))
+                .findFirst()
+        ).thenCompose(
+            key -> key.map(
+                found -> this.asto.exists(found)
+                    .thenApply(exists -> Optional.of(found).filter(ignored -> exists))
+            ).orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()))
+        );
+    }
+
+    /**
+     * Current primary xml key and its checksum from `repomd.xml`, checksum is empty if
+     * primary is not listed in `repomd.xml`.
+     * @return Completable action with primary key and checksum, empty if there is no primary
+     */
+    private CompletionStage<Optional<Map.Entry<Key, String>>> primary() {
+        final Key repomd = new Key.From(AstoPrimaryIndex.REPODATA, AstoCreateRepomd.REPOMD);
+        return this.asto.exists(repomd).thenCompose(
+            exists -> {
+                final CompletionStage<Map<String, String>> sums;
+                if (exists) {
+                    sums = this.asto.value(repomd)
+                        .thenCompose(val -> new PublisherAs(val).bytes())
+                        .thenApply(
+                            bytes -> new XmlRepomdChecksums(new ByteArrayInputStream(bytes))
+                                .read().checksums()
+                        );
+                } else {
+                    sums = CompletableFuture.completedFuture(Collections.emptyMap());
+                }
+                return sums;
+            }
+        ).thenCombine(
+            new AstoRepodata(this.asto).files(),
+            (sums, files) -> files.stream().filter(
+                item -> item.string().contains(XmlPackage.PRIMARY.lowercase())
+                    && item.string().endsWith("xml.gz")
+            ).findFirst().map(
+                key -> Map.entry(key, sums.getOrDefault(key.string(), ""))
+            )
+        );
+    }
+
+    /**
+     * Read packages from primary xml.
+     * @param primary Primary xml key
+     * @return Completable action with the list of the packages
+     */
+    private CompletionStage<List<XmlPrimaryPackages.Entry>> parse(final Key primary) {
+        return this.asto.value(primary).thenCompose(
+            val -> new ContentAsStream<List<XmlPrimaryPackages.Entry>>(val).process(
+                new UncheckedIOFunc<>(
+                    input -> new XmlPrimaryPackages(
+                        new GzipCompressorInputStream(input, true)
+                    ).read()
+                )
+            )
+        );
+    }
+
+    /**
+     * Read packages from the index: each line is the tab separated package fields.
+     * @param index Index key
+     * @return Completable action with the list of the packages
+     */
+    private CompletionStage<List<XmlPrimaryPackages.Entry>> load(final Key index) {
+        return this.asto.value(index)
+            .thenCompose(val -> new PublisherAs(val).string(StandardCharsets.UTF_8))
+            .thenApply(
+                text -> text.lines().filter(line -> !line.isEmpty()).map(
+                    line -> {
+                        final String[] vals = line.split("\t", -1);
+                        final Map<String, String> fields = new HashMap<>();
+                        for (int idx = 0; idx < AstoPrimaryIndex.FIELDS.size(); idx = idx + 1) {
+                            fields.put(AstoPrimaryIndex.FIELDS.get(idx), vals[idx]);
+                        }
+                        return new XmlPrimaryPackages.Entry(fields);
+                    }
+                ).collect(Collectors.toList())
+            );
+    }
+
+    /**
+     * Save packages index and remove the indexes of the previous primary xmls.
+     * @param index Index key
+     * @param packages Packages
+     * @return Completable action
+     */
+    private CompletionStage<Void> store(final Key index,
+        final List<XmlPrimaryPackages.Entry> packages) {
+        final String text = packages.stream().map(
+            item -> AstoPrimaryIndex.FIELDS.stream().map(item::field)
+                .collect(Collectors.joining("\t"))
+        ).collect(Collectors.joining("\n"));
+        return this.asto.save(
+            index, new Content.From(text.getBytes(StandardCharsets.UTF_8))
+        ).thenCompose(
+            nothing -> this.asto.list(AstoPrimaryIndex.INDEX)
+        ).thenCompose(
+            list -> CompletableFuture.allOf(
+                list.stream().filter(item -> !item.equals(index))
+                    .map(item -> this.asto.delete(item).toCompletableFuture())
+                    .toArray(CompletableFuture[]::new)
+            )
+        );
+    }
+}
@@ -4,10 +4,11 @@
  */
 package com.artipie.rpm.asto;
 
+import com.artipie.asto.FailedCompletionStage;
 import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
 import com.artipie.asto.Storage;
 import com.artipie.asto.key.KeyExcludeFirst;
-import com.artipie.asto.lock.storage.StorageLock;
 import com.artipie.asto.rx.RxStorageWrapper;
 import com.artipie.rpm.RepoConfig;
 import com.artipie.rpm.http.RpmUpload;
@@ -15,12 +16,17 @@ import com.artipie.rpm.meta.PackageInfo;
 import com.artipie.rpm.pkg.HeaderTags;
 import com.artipie.rpm.pkg.Package;
 import com.jcabi.log.Logger;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
 import io.reactivex.Flowable;
 import io.reactivex.schedulers.Schedulers;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -30,11 +36,6 @@ import java.util.stream.Collectors;
  */
 public final class AstoRepoAdd {
 
-    /**
-     * Metadata key.
-     */
-    private static final Key META = new Key.From("repodata");
-
     /**
      * Asto storage.
      */
@@ -45,14 +46,32 @@ public final class AstoRepoAdd {
      */
     private final RepoConfig cnfg;
 
+    /**
+     * Fencing check, performed right before metadata is published.
+     */
+    private final Supplier<CompletionStage<Void>> fence;
+
     /**
      * Ctor.
      * @param asto Abstract storage
      * @param cnfg Repository config
      */
     public AstoRepoAdd(final Storage asto, final RepoConfig cnfg) {
+        this(asto, cnfg, CompletableFuture::allOf);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param cnfg Repository config
+     * @param fence Fencing check, performed right before metadata is published, for
+     *  example {@link LeaseLock#verify()} of the lock the update is performed under
+     */
+    public AstoRepoAdd(final Storage asto, final RepoConfig cnfg,
+        final Supplier<CompletionStage<Void>> fence) {
         this.asto = asto;
         this.cnfg = cnfg;
+        this.fence = fence;
     }
 
     /**
@@ -61,9 +80,7 @@ public final class AstoRepoAdd {
      * @return Completable action
      */
     public CompletionStage<Void> perform() {
-        return this.read().thenCompose(
-            list -> new AstoMetadataAdd(this.asto, this.cnfg).perform(list)
-        ).thenCompose(this::generateRepomdAndMoveXmls);
+        return this.read().thenCompose(this::publish);
     }
 
     /**
@@ -74,77 +91,132 @@ public final class AstoRepoAdd {
      */
     public CompletionStage<List<PackageInfo>> performWithResult() {
         return this.read().thenCompose(
-            list -> new AstoMetadataAdd(this.asto, this.cnfg).perform(list)
-                .thenCompose(this::generateRepomdAndMoveXmls)
-                .thenApply(
-                    nothing -> list.stream()
-                        .map(info -> new PackageInfo(new HeaderTags(info), info.size()))
-                        .collect(Collectors.toList())
-                )
+            list -> this.publish(list).thenApply(
+                nothing -> list.stream()
+                    .map(info -> new PackageInfo(new HeaderTags(info), info.size()))
+                    .collect(Collectors.toList())
+            )
+        );
+    }
+
+    /**
+     * Adds packages to metadata and publishes it optimistically: metadata is built on the
+     * current revision without locks and is rebuilt if other update published metadata first,
+     * see {@link AstoRepomdRevision}.
+     * @param list Packages to add
+     * @return Completable action
+     */
+    private CompletionStage<Void> publish(final List<Package.Meta> list) {
+        final AstoRepomdRevision revision = new AstoRepomdRevision(this.asto);
+        final List<Key> read = list.stream()
+            .<Key>map(meta -> new Key.From(RpmUpload.TO_ADD, meta.href()))
+            .collect(Collectors.toList());
+        return revision.update(
+            base -> new AstoMetadataAdd(this.asto, this.cnfg).perform(list).thenCompose(
+                temp -> this.generateRepomdAndMoveXmls(revision, base, temp, read)
+            )
         );
     }
 
     /**
-     * Creates repomd metadata file and moves all other metadata xmls to repository
-     * with storage lock.
+     * Creates repomd metadata file and moves all other metadata xmls to repository if
+     * metadata revision was not changed and fencing check passes: metadata files and
+     * packages are published first and repomd is switched to them last, see
+     * {@link AstoRepodata}. Only the packages added to the metadata are moved from
+     * {@link RpmUpload#TO_ADD}, packages staged meanwhile are left for the next update.
+     * Temp location is removed in any case.
+     * @param revision Metadata revision
+     * @param base Revision, metadata was built on
      * @param temp Temp location o metadata files
+     * @param read Keys of the packages added to the metadata in {@link RpmUpload#TO_ADD}
      * @return Completable action
+     * @checkstyle ParameterNumberCheck (5 lines)
      */
-    private CompletionStage<Void> generateRepomdAndMoveXmls(final Key temp) {
-        return new AstoCreateRepomd(this.asto, this.cnfg).perform(temp).thenCompose(
-            nothing -> new AstoMetadataNames(this.asto, this.cnfg).prepareNames(temp).thenCompose(
-                keys -> {
-                    final StorageLock lock = new StorageLock(this.asto, AstoRepoAdd.META);
-                    return lock.acquire().thenCompose(ignored -> this.remove(AstoRepoAdd.META))
-                        .thenCompose(
-                            ignored -> CompletableFuture.allOf(
-                                keys.entrySet().stream().map(
-                                    entry -> this.asto.move(entry.getKey(), entry.getValue())
-                                ).toArray(CompletableFuture[]::new)
-                            )
-                        ).thenCompose(
-                            ignored -> this.asto.list(RpmUpload.TO_ADD)
-                                .thenCompose(
-                                    list -> CompletableFuture.allOf(
-                                        list.stream().map(
-                                            key -> this.asto.move(
-                                                key, AstoRepoAdd.removeTempPart(key)
-                                            )
-                                        ).toArray(CompletableFuture[]::new)
-                                    )
-                                )
-                        )
-                        .thenCompose(ignored -> lock.release())
-                        .thenCompose(ignored -> this.remove(temp));
+    private CompletionStage<Void> generateRepomdAndMoveXmls(final AstoRepomdRevision revision,
+        final String base, final Key temp, final List<Key> read) {
+        final Optional<String> gen = AstoRepodata.generation(this.cnfg);
+        return new AstoCreateRepomd(this.asto, this.cnfg).perform(temp, gen).thenCompose(
+            nothing -> new AstoMetadataNames(this.asto, this.cnfg).prepareNames(temp, gen)
+        ).thenCompose(
+            keys -> revision.publish(
+                base,
+                () -> this.fence.get().thenCompose(
+                    ignored -> new AstoRepodata(this.asto).publish(
+                        keys,
+                        () -> CompletableFuture.allOf(
+                            read.stream().map(
+                                key -> this.asto.move(key, AstoRepoAdd.removeTempPart(key))
+                            ).toArray(CompletableFuture[]::new)
+                        ),
+                        this.cnfg.generations().orElse(0)
+                    )
+                ).thenCompose(
+                    ignored -> new AstoChecksumSidecar(this.asto).remove(read)
+                ).thenCompose(
+                    ignored -> new AstoHeaderSidecar(this.asto).remove(read)
+                )
+            )
+        ).handle(
+            (nothing, err) -> this.remove(temp).thenCompose(
+                removed -> {
+                    final CompletionStage<Void> res;
+                    if (err == null) {
+                        res = CompletableFuture.allOf();
+                    } else {
+                        res = new FailedCompletionStage<>(err);
+                    }
+                    return res;
                 }
             )
-        );
+        ).thenCompose(Function.identity());
     }
 
     /**
-     * Read new packages metadata.
+     * Read new packages metadata. Packages are read in parallel within
+     * {@link RepoConfig#readLimits()}: the number of the packages read at once is limited
+     * and the package read is started only when its size fits into the bytes budget. Invalid
+     * packages are removed together with their upload sidecars.
      * @return Completable action with the list of packages metadata to add
      */
     private CompletionStage<List<Package.Meta>> read() {
+        final RepoConfig.ReadLimits limits = this.cnfg.readLimits();
+        final ReadBudget budget = new ReadBudget(limits.bytes());
         return SingleInterop.fromFuture(this.asto.list(RpmUpload.TO_ADD))
             .flatMapPublisher(Flowable::fromIterable)
-            .parallel().runOn(Schedulers.io())
             .flatMap(
-                key -> Flowable.fromFuture(
-                    new AstoRpmPackage(this.asto, this.cnfg.digest()).packageMeta(
-                        key, AstoRepoAdd.removeTempPart(key).string()
-                    ).toCompletableFuture()
-                ).onErrorResumeNext(
+                key -> SingleInterop.fromFuture(
+                    this.asto.metadata(key)
+                        .thenApply(meta -> meta.read(Meta.OP_SIZE).map(Long::longValue).orElse(0L))
+                        .thenCompose(
+                            size -> budget.read(
+                                size,
+                                () -> new AstoRpmPackage(
+                                    this.asto, this.cnfg.digest(), this.cnfg.executor()
+                                ).packageMeta(key, AstoRepoAdd.removeTempPart(key).string())
+                            )
+                        )
+                ).toFlowable().onErrorResumeNext(
                     throwable -> {
                         Logger.warn(
                             this, "Failed to parse rpm package %s\n%s",
                             key.string(), throwable.getMessage()
                         );
                         return new RxStorageWrapper(this.asto).delete(key)
-                            .andThen(Flowable.empty());
+                            .andThen(
+                                CompletableInterop.fromFuture(
+                                    new AstoChecksumSidecar(this.asto)
+                                        .remove(Collections.singletonList(key))
+                                        .thenCompose(
+                                            nothing -> new AstoHeaderSidecar(this.asto)
+                                                .remove(Collections.singletonList(key))
+                                        )
+                                )
+                            ).andThen(Flowable.empty());
                     }
-                )
-            ).sequential().observeOn(Schedulers.io()).toList().to(SingleInterop.get());
+                ),
+                limits.reads()
+            ).observeOn(Schedulers.from(this.cnfg.executor()))
+            .toList().to(SingleInterop.get());
     }
 
     /**
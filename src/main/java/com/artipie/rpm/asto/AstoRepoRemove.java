@@ -4,11 +4,10 @@
  */
 package com.artipie.rpm.asto;
 
+import com.artipie.asto.FailedCompletionStage;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.ext.ContentDigest;
 import com.artipie.asto.key.KeyExcludeFirst;
-import com.artipie.asto.lock.storage.StorageLock;
 import com.artipie.asto.rx.RxStorageWrapper;
 import com.artipie.rpm.RepoConfig;
 import com.artipie.rpm.http.RpmRemove;
@@ -16,11 +15,15 @@ import com.artipie.rpm.meta.PackageInfo;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
 import io.reactivex.Observable;
 import io.reactivex.Single;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Workflow to remove packages from repository.
@@ -29,11 +32,6 @@ import java.util.concurrent.CompletionStage;
  */
 public final class AstoRepoRemove {
 
-    /**
-     * Metadata key.
-     */
-    private static final Key META = new Key.From("repodata");
-
     /**
      * Asto storage.
      */
@@ -49,17 +47,38 @@ public final class AstoRepoRemove {
      */
     private final Optional<Collection<PackageInfo>> infos;
 
+    /**
+     * Fencing check, performed right before metadata is published.
+     */
+    private final Supplier<CompletionStage<Void>> fence;
+
     /**
      * Ctor.
      * @param asto Abstract storage
      * @param cnfg Repository config
      * @param infos Collection with removed packages info if required
+     * @param fence Fencing check, performed right before metadata is published, for
+     *  example {@link LeaseLock#verify()} of the lock the update is performed under
+     * @checkstyle ParameterNumberCheck (3 lines)
      */
     public AstoRepoRemove(final Storage asto, final RepoConfig cnfg,
-        final Optional<Collection<PackageInfo>> infos) {
+        final Optional<Collection<PackageInfo>> infos,
+        final Supplier<CompletionStage<Void>> fence) {
         this.asto = asto;
         this.cnfg = cnfg;
         this.infos = infos;
+        this.fence = fence;
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param cnfg Repository config
+     * @param infos Collection with removed packages info if required
+     */
+    public AstoRepoRemove(final Storage asto, final RepoConfig cnfg,
+        final Optional<Collection<PackageInfo>> infos) {
+        this(asto, cnfg, infos, CompletableFuture::allOf);
     }
 
     /**
@@ -85,35 +104,25 @@ public final class AstoRepoRemove {
     /**
      * Performs whole workflow to remove items by provided checksums from
      * the repository. Rpm packages themselves are considered to be already removed
-     * from the repository.
+     * from the repository. Metadata is published optimistically: it's built on the current
+     * revision without locks and is rebuilt if other update published metadata first,
+     * see {@link AstoRepomdRevision}.
      * @param checksums Checksums of the packages to remove to
      * @return Completable action
      */
     public CompletionStage<Void> perform(final Collection<String> checksums) {
-        return new AstoMetadataRemove(this.asto, this.cnfg, this.infos).perform(checksums)
-            .thenCompose(
-                temp -> new AstoCreateRepomd(this.asto, this.cnfg).perform(temp).thenCompose(
-                    nothing -> new AstoMetadataNames(this.asto, this.cnfg).prepareNames(temp)
-                        .thenCompose(
-                            keys -> {
-                                final StorageLock lock =
-                                    new StorageLock(this.asto, AstoRepoRemove.META);
-                                return lock.acquire()
-                                    .thenCompose(ignored -> this.remove(AstoRepoRemove.META))
-                                    .thenCompose(
-                                        ignored -> CompletableFuture.allOf(
-                                            keys.entrySet().stream().map(
-                                                entry ->
-                                                    this.asto.move(entry.getKey(), entry.getValue())
-                                            ).toArray(CompletableFuture[]::new)
-                                        )
-                                    ).thenCompose(ignored -> lock.release()).thenCompose(
-                                        ignored -> this.remove(temp)
-                                    );
-                            }
-                        )
-                )
-            );
+        final AstoRepomdRevision revision = new AstoRepomdRevision(this.asto);
+        return revision.update(
+            base -> {
+                final Optional<Collection<PackageInfo>> removed =
+                    this.infos.map(any -> new ArrayList<>(0));
+                return new AstoMetadataRemove(this.asto, this.cnfg, removed).perform(checksums)
+                    .thenCompose(temp -> this.generateRepomdAndMoveXmls(revision, base, temp))
+                    .thenAccept(
+                        nothing -> this.infos.ifPresent(all -> all.addAll(removed.get()))
+                    );
+            }
+        );
     }
 
     /**
@@ -122,7 +131,18 @@ public final class AstoRepoRemove {
      * @return Completable action
      */
     public CompletionStage<Void> perform() {
-        return this.checksums().thenCompose(this::perform).thenCompose(
+        return new AstoPrimaryIndex(this.asto).checksums().thenCompose(this::perform);
+    }
+
+    /**
+     * Performs whole workflow to remove items, listed in {@link RpmRemove#TO_RM} location, from
+     * the repository, checksums of the published packages are taken from given index.
+     * @param published Published packages locations and checksums, see
+     *  {@link AstoPrimaryIndex#checksums()}
+     * @return Completable action
+     */
+    public CompletionStage<Void> perform(final Map<String, String> published) {
+        return this.checksums(published).thenCompose(this::perform).thenCompose(
             ignored -> this.asto.list(RpmRemove.TO_RM).thenCompose(
                 list -> CompletableFuture.allOf(
                     list.stream().map(
@@ -135,6 +155,45 @@ public final class AstoRepoRemove {
         );
     }
 
+    /**
+     * Creates repomd metadata file and moves all other metadata xmls to repository if
+     * metadata revision was not changed and fencing check passes: metadata files are
+     * published first and repomd is switched to them last, see {@link AstoRepodata}.
+     * Temp location is removed in any case.
+     * @param revision Metadata revision
+     * @param base Revision, metadata was built on
+     * @param temp Temp location o metadata files
+     * @return Completable action
+     */
+    private CompletionStage<Void> generateRepomdAndMoveXmls(final AstoRepomdRevision revision,
+        final String base, final Key temp) {
+        final Optional<String> gen = AstoRepodata.generation(this.cnfg);
+        return new AstoCreateRepomd(this.asto, this.cnfg).perform(temp, gen).thenCompose(
+            nothing -> new AstoMetadataNames(this.asto, this.cnfg).prepareNames(temp, gen)
+        ).thenCompose(
+            keys -> revision.publish(
+                base,
+                () -> this.fence.get().thenCompose(
+                    ignored -> new AstoRepodata(this.asto).publish(
+                        keys, CompletableFuture::allOf, this.cnfg.generations().orElse(0)
+                    )
+                )
+            )
+        ).handle(
+            (nothing, err) -> this.remove(temp).thenCompose(
+                removed -> {
+                    final CompletionStage<Void> res;
+                    if (err == null) {
+                        res = CompletableFuture.allOf();
+                    } else {
+                        res = new FailedCompletionStage<>(err);
+                    }
+                    return res;
+                }
+            )
+        ).thenCompose(Function.identity());
+    }
+
     /**
      * Removes all items found by the key.
      * @param key Key to remove items
@@ -150,22 +209,26 @@ public final class AstoRepoRemove {
     }
 
     /**
-     * Calculate checksums of the packages to remove and removes items from
-     * temp location {@link RpmRemove#TO_RM}.
+     * Obtain checksums of the packages to remove, listed in temp location
+     * {@link RpmRemove#TO_RM}. Checksums of the published packages are found by package
+     * location in the primary metadata index, checksums are calculated only for the packages
+     * absent in the metadata.
+     * @param index Published packages locations and checksums
      * @return Checksums list
      */
-    private CompletionStage<List<String>> checksums() {
-        final RxStorageWrapper rxsto = new RxStorageWrapper(this.asto);
-        return rxsto.list(RpmRemove.TO_RM)
+    private CompletionStage<List<String>> checksums(final Map<String, String> index) {
+        return new RxStorageWrapper(this.asto).list(RpmRemove.TO_RM)
             .flatMapObservable(Observable::fromIterable)
             .map(AstoRepoRemove::removeTemp)
             .flatMapSingle(
-                key -> rxsto.value(key).flatMap(
-                    val -> Single.fromFuture(
-                        new ContentDigest(val, () -> this.cnfg.digest().messageDigest())
-                            .hex().toCompletableFuture()
+                key -> Optional.ofNullable(index.get(key.string())).map(Single::just)
+                    .orElseGet(
+                        () -> Single.fromFuture(
+                            new AstoLocalFiles(this.asto, this.cnfg.executor())
+                                .hex(key, this.cnfg.digest())
+                                .toCompletableFuture()
+                        )
                     )
-                )
             ).toList().to(SingleInterop.get());
     }
 
@@ -0,0 +1,228 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.XmlRepomdChecksums;
+import java.io.ByteArrayInputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Repository metadata directory `repodata`. Metadata files are published either directly to
+ * `repodata/` or, when {@link com.artipie.rpm.RepoConfig#generations()} is configured, to the
+ * immutable generation directory `repodata/<generation>/`. In both cases `repomd.xml` is the
+ * pointer to the current metadata set: it's always located in `repodata/` and is replaced
+ * after all the files it refers to are published, so readers never see a partially published
+ * set. Files of the replaced sets are removed only after the pointer switch, the configured
+ * number of the previous generations is kept for the clients, which read the previous
+ * `repomd.xml`. When naming policy does not depend on the checksum (for example,
+ * {@link com.artipie.rpm.StandardNamingPolicy#PLAIN}), new files would replace the published
+ * ones in `repodata/` before `repomd.xml` is switched, so such metadata is always published to
+ * the generation directory, see {@link AstoRepodata#generation(RepoConfig)}.
+ * @since 1.11
+ */
+public final class AstoRepodata {
+
+    /**
+     * Metadata key.
+     */
+    private static final Key META = new Key.From("repodata");
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     */
+    public AstoRepodata(final Storage asto) {
+        this.asto = asto;
+    }
+
+    /**
+     * Current metadata files: files, listed in `repodata/repomd.xml`, followed by the other
+     * files located directly in `repodata/`. Files of the other generations are not included.
+     * @return Completable action with metadata files keys
+     */
+    public CompletionStage<List<Key>> files() {
+        final Key repomd = new Key.From(AstoRepodata.META, AstoCreateRepomd.REPOMD);
+        return this.asto.list(AstoRepodata.META).thenCompose(
+            list -> {
+                final CompletionStage<Set<String>> refs;
+                if (list.contains(repomd)) {
+                    refs = this.asto.value(repomd)
+                        .thenCompose(val -> new PublisherAs(val).bytes())
+                        .thenApply(
+                            bytes -> new HashSet<>(
+                                new XmlRepomdChecksums(new ByteArrayInputStream(bytes))
+                                    .read().checksums().keySet()
+                            )
+                        );
+                } else {
+                    refs = CompletableFuture.completedFuture(Collections.emptySet());
+                }
+                return refs.thenApply(
+                    hrefs -> Stream.concat(
+                        list.stream().filter(key -> hrefs.contains(key.string())),
+                        list.stream().filter(
+                            key -> !hrefs.contains(key.string())
+                                && key.parent().equals(Optional.of(AstoRepodata.META))
+                        )
+                    ).collect(Collectors.toList())
+                );
+            }
+        );
+    }
+
+    /**
+     * Publishes metadata files: moves metadata files from temp location, then performs
+     * preparation action, switches `repomd.xml` and `metalink.xml` to the new set and removes
+     * the files of the replaced sets, keeping given number of the previous generations.
+     * @param names Map of the temp metadata location -> location in the repository, see
+     *  {@link AstoMetadataNames}
+     * @param prepare Action to perform before the switch, for example, to publish packages
+     *  new metadata refers to
+     * @param keep Number of the previous generations to keep
+     * @return Completable action
+     */
+    CompletionStage<Void> publish(final Map<Key, Key> names,
+        final Supplier<CompletionStage<Void>> prepare, final int keep) {
+        final Key repomd = new Key.From(AstoRepodata.META, AstoCreateRepomd.REPOMD);
+        final Key metalink = new Key.From(AstoRepodata.META, AstoCreateRepomd.METALINK);
+        return CompletableFuture.allOf(
+            names.entrySet().stream()
+                .filter(
+                    entry -> !entry.getValue().equals(repomd)
+                        && !entry.getValue().equals(metalink)
+                ).map(entry -> this.asto.move(entry.getKey(), entry.getValue()))
+                .toArray(CompletableFuture[]::new)
+        ).thenCompose(nothing -> prepare.get())
+            .thenCompose(nothing -> this.move(names, repomd))
+            .thenCompose(nothing -> this.move(names, metalink))
+            .thenCompose(nothing -> this.cleanup(names.values(), keep));
+    }
+
+    /**
+     * Removes metadata files, which are not published, keeping files of the given number of
+     * the newest previous generations. Files, located directly in `repodata/`, are considered
+     * to be the oldest generation.
+     * @param published Published files
+     * @param keep Number of the previous generations to keep
+     * @return Completable action
+     */
+    CompletionStage<Void> cleanup(final Collection<Key> published, final int keep) {
+        return this.asto.list(AstoRepodata.META).thenCompose(
+            list -> CompletableFuture.allOf(
+                list.stream().filter(key -> !published.contains(key))
+                    .collect(Collectors.groupingBy(AstoRepodata::generationOf))
+                    .entrySet().stream()
+                    .sorted(Map.Entry.<String, List<Key>>comparingByKey().reversed())
+                    .skip(keep)
+                    .flatMap(entry -> entry.getValue().stream())
+                    .map(this.asto::delete)
+                    .toArray(CompletableFuture[]::new)
+            )
+        );
+    }
+
+    /**
+     * Generation to publish new metadata to: new generation if generations are configured or
+     * naming policy gives the same names to the files with different checksums, otherwise
+     * metadata is published directly to `repodata/`.
+     * @param cnfg Repository config
+     * @return Generation name, empty to publish metadata to `repodata/`
+     */
+    static Optional<String> generation(final RepoConfig cnfg) {
+        final Optional<String> res;
+        if (cnfg.generations().isPresent()
+            || cnfg.naming().fullName(XmlPackage.PRIMARY, "0")
+                .equals(cnfg.naming().fullName(XmlPackage.PRIMARY, "1"))) {
+            res = Optional.of(AstoRepodata.generation());
+        } else {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * New generation name: creation time followed by random part, so generations names
+     * are ordered by creation time.
+     * @return Generation name
+     */
+    static String generation() {
+        return String.format(
+            "%013d-%s", System.currentTimeMillis(),
+            UUID.randomUUID().toString().substring(0, 8)
+        );
+    }
+
+    /**
+     * Location of the metadata file in generation directory.
+     * @param name Metadata file location, provided by naming policy, `repodata/<name>`
+     * @param generation Generation name, empty if files are published directly to `repodata/`
+     * @return Location of the metadata file
+     */
+    static String location(final String name, final Optional<String> generation) {
+        final String prefix = String.format("%s/", AstoRepodata.META.string());
+        final String res;
+        if (generation.isPresent() && name.startsWith(prefix)) {
+            res = String.format(
+                "%s%s/%s", prefix, generation.get(), name.substring(prefix.length())
+            );
+        } else {
+            res = name;
+        }
+        return res;
+    }
+
+    /**
+     * Moves repository index file to the repository if it's found in names map.
+     * @param names Names map
+     * @param target Index key in the repository
+     * @return Completable action
+     */
+    private CompletionStage<Void> move(final Map<Key, Key> names, final Key target) {
+        return CompletableFuture.allOf(
+            names.entrySet().stream().filter(entry -> entry.getValue().equals(target))
+                .map(entry -> this.asto.move(entry.getKey(), entry.getValue()))
+                .toArray(CompletableFuture[]::new)
+        );
+    }
+
+    /**
+     * Generation of the metadata file: name of the directory in `repodata/`, empty for the
+     * files located directly in `repodata/`.
+     * @param key Metadata file key
+     * @return Generation name
+     */
+    private static String generationOf(final Key key) {
+        final String name = key.string().substring(AstoRepodata.META.string().length() + 1);
+        final String res;
+        if (name.contains("/")) {
+            res = name.substring(0, name.indexOf('/'));
+        } else {
+            res = "";
+        }
+        return res;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.jcabi.log.Logger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Revision of the repository metadata: checksum of the published `repodata/repomd.xml`.
+ * Repomd is the pointer to the current metadata files, so metadata is published with
+ * compare-and-swap of the revision: new metadata is built aside from the published one
+ * without locks and is published only if the revision was not changed since the update
+ * started. Conflicting update rebuilds its changes on top of the new revision and retries.
+ * Storage does not support conditional writes, so the revision check and the swap are
+ * performed under short {@link LeaseLock} of the metadata.
+ * @since 1.11
+ */
+final class AstoRepomdRevision {
+
+    /**
+     * Max attempts to publish metadata.
+     */
+    static final int ATTEMPTS = 10;
+
+    /**
+     * Backoff step between the attempts in milliseconds.
+     */
+    private static final long BACKOFF = 50;
+
+    /**
+     * Metadata key.
+     */
+    private static final Key META = new Key.From("repodata");
+
+    /**
+     * Revision of the repository without metadata.
+     */
+    private static final String NONE = "none";
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     */
+    AstoRepomdRevision(final Storage asto) {
+        this.asto = asto;
+    }
+
+    /**
+     * Current metadata revision.
+     * @return Completable action with revision
+     */
+    CompletionStage<String> current() {
+        final Key repomd = new Key.From(AstoRepomdRevision.META, AstoCreateRepomd.REPOMD);
+        return this.asto.exists(repomd).thenCompose(
+            exists -> {
+                final CompletionStage<String> res;
+                if (exists) {
+                    res = this.asto.value(repomd)
+                        .thenCompose(content -> new PublisherAs(content).bytes())
+                        .thenApply(DigestUtils::sha256Hex);
+                } else {
+                    res = CompletableFuture.completedFuture(AstoRepomdRevision.NONE);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Publishes metadata if current revision is equal to the expected one. If metadata lock
+     * is held by other update, the revision is about to be changed, so it's the conflict too.
+     * @param expected Revision, new metadata was built on
+     * @param swap Action to replace published metadata with the new one
+     * @return Completable action, failed with {@link Conflict} if revision was changed or
+     *  metadata lock was not acquired
+     */
+    CompletionStage<Void> publish(final String expected,
+        final Supplier<CompletionStage<Void>> swap) {
+        final LeaseLock lock = new LeaseLock(this.asto, AstoRepomdRevision.META);
+        return lock.acquire().handle(
+            (acquired, failure) -> {
+                final CompletionStage<Void> res;
+                if (failure == null) {
+                    res = this.current().thenCompose(
+                        current -> {
+                            final CompletionStage<Void> swapped;
+                            if (current.equals(expected)) {
+                                swapped = swap.get();
+                            } else {
+                                swapped = new FailedCompletionStage<>(
+                                    new Conflict(expected, current)
+                                );
+                            }
+                            return swapped;
+                        }
+                    ).handle(
+                        (nothing, err) -> lock.release().thenCompose(
+                            released -> {
+                                final CompletionStage<Void> done;
+                                if (err == null) {
+                                    done = CompletableFuture.allOf();
+                                } else {
+                                    done = new FailedCompletionStage<>(
+                                        AstoRepomdRevision.unwrap(err)
+                                    );
+                                }
+                                return done;
+                            }
+                        )
+                    ).thenCompose(Function.identity());
+                } else {
+                    res = new FailedCompletionStage<>(
+                        new Conflict(expected, AstoRepomdRevision.unwrap(failure))
+                    );
+                }
+                return res;
+            }
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Performs metadata update optimistically: update accepts current revision, builds new
+     * metadata on it and publishes it with {@link #publish(String, Supplier)}. On conflict
+     * update is performed again on the new revision after short randomized backoff, at most
+     * {@link #ATTEMPTS} times.
+     * @param update Metadata update
+     * @param <T> Update result type
+     * @return Completable action with update result
+     */
+    <T> CompletionStage<T> update(final Function<String, CompletionStage<T>> update) {
+        return this.update(update, 1);
+    }
+
+    /**
+     * Performs metadata update attempt.
+     * @param update Metadata update
+     * @param attempt Attempt number
+     * @param <T> Update result type
+     * @return Completable action with update result
+     */
+    private <T> CompletionStage<T> update(final Function<String, CompletionStage<T>> update,
+        final int attempt) {
+        return this.current().thenCompose(update).handle(
+            (res, err) -> {
+                final CompletionStage<T> next;
+                if (err == null) {
+                    next = CompletableFuture.completedFuture(res);
+                } else if (AstoRepomdRevision.unwrap(err) instanceof Conflict
+                    && attempt < AstoRepomdRevision.ATTEMPTS) {
+                    Logger.info(
+                        this, "Metadata revision conflict, attempt %d: %s",
+                        attempt, AstoRepomdRevision.unwrap(err).getMessage()
+                    );
+                    next = CompletableFuture.runAsync(
+                        () -> { },
+                        CompletableFuture.delayedExecutor(
+                            AstoRepomdRevision.BACKOFF * attempt
+                                + ThreadLocalRandom.current().nextLong(AstoRepomdRevision.BACKOFF),
+                            TimeUnit.MILLISECONDS
+                        )
+                    ).thenCompose(nothing -> this.update(update, attempt + 1));
+                } else {
+                    next = new FailedCompletionStage<>(AstoRepomdRevision.unwrap(err));
+                }
+                return next;
+            }
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Unwraps completion exception.
+     * @param err Error
+     * @return Error cause
+     */
+    private static Throwable unwrap(final Throwable err) {
+        Throwable res = err;
+        while (res instanceof CompletionException && res.getCause() != null) {
+            res = res.getCause();
+        }
+        return res;
+    }
+
+    /**
+     * Metadata revision was changed by other update.
+     * @since 1.11
+     */
+    @SuppressWarnings("serial")
+    static final class Conflict extends ArtipieException {
+
+        /**
+         * Ctor.
+         * @param expected Expected revision
+         * @param current Current revision
+         */
+        Conflict(final String expected, final String current) {
+            super(
+                String.format(
+                    "Metadata revision `%s` was changed to `%s` by other update",
+                    expected, current
+                )
+            );
+        }
+
+        /**
+         * Ctor.
+         * @param expected Expected revision
+         * @param cause Metadata lock acquire failure
+         */
+        Conflict(final String expected, final Throwable cause) {
+            super(
+                String.format(
+                    "Metadata revision `%s` is being changed by other update", expected
+                ),
+                cause
+            );
+        }
+    }
+}
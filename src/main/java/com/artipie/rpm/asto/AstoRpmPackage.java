@@ -6,18 +6,32 @@ package com.artipie.rpm.asto;
 
 import com.artipie.ArtipieException;
 import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
 import com.artipie.asto.Storage;
 import com.artipie.asto.ext.ContentDigest;
 import com.artipie.asto.misc.UncheckedIOFunc;
+import com.artipie.asto.misc.UncheckedIOSupplier;
 import com.artipie.asto.streams.ContentAsStream;
+import com.artipie.rpm.BlockingThreads;
 import com.artipie.rpm.Digest;
+import com.artipie.rpm.FileChecksum;
 import com.artipie.rpm.RpmMetadata;
+import com.artipie.rpm.pkg.CachedMeta;
 import com.artipie.rpm.pkg.Checksum;
 import com.artipie.rpm.pkg.FilePackageHeader;
 import com.artipie.rpm.pkg.Package;
+import com.artipie.rpm.pkg.PackageHead;
+import com.artipie.rpm.pkg.RpmHeader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.redline_rpm.header.Header;
+import org.apache.commons.lang3.tuple.ImmutableTriple;
 
 /**
  * Rpm package metadata from the storage.
@@ -36,14 +50,30 @@ public final class AstoRpmPackage {
      */
     private final Digest dgst;
 
+    /**
+     * Executor for blocking stages.
+     */
+    private final Executor exec;
+
     /**
      * Ctor.
      * @param asto Asto storage
      * @param dgst Digest algorithm
+     * @param exec Executor for blocking stages
      */
-    public AstoRpmPackage(final Storage asto, final Digest dgst) {
+    public AstoRpmPackage(final Storage asto, final Digest dgst, final Executor exec) {
         this.asto = asto;
         this.dgst = dgst;
+        this.exec = exec;
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param dgst Digest algorithm
+     */
+    public AstoRpmPackage(final Storage asto, final Digest dgst) {
+        this(asto, dgst, BlockingThreads.AUTO.executor());
     }
 
     /**
@@ -62,6 +92,177 @@ public final class AstoRpmPackage {
      * @return Completable action
      */
     public CompletionStage<Package.Meta> packageMeta(final Key key, final String path) {
+        return new AstoChecksumSidecar(this.asto).read(key, this.dgst).thenCombine(
+            new AstoHeaderSidecar(this.asto).read(key), ImmutablePair::new
+        ).thenCompose(
+            sidecars -> {
+                final Optional<Path> file = new AstoLocalFiles(this.asto, this.exec).path(key);
+                final CompletionStage<Package.Meta> res;
+                if (file.isPresent()) {
+                    res = CompletableFuture.supplyAsync(
+                        new UncheckedIOSupplier<Package.Meta>(
+                            () -> this.fromFile(
+                                file.get(), path, sidecars.getLeft(), sidecars.getRight()
+                            )
+                        ),
+                        this.exec
+                    );
+                } else {
+                    res = this.fromStorage(key, path, sidecars.getLeft(), sidecars.getRight());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Obtain rpm package metadata reading the package from local file system. Checksum
+     * and header from the upload sidecars are used if the sidecars exist and belong to the
+     * package: head digest (and size for the checksum) match, only the package head is read
+     * to check it and the header is parsed from this head if header sidecar does not match.
+     * Otherwise checksum is calculated and header is read from the file.
+     * @param file Package file
+     * @param path Package repository relative path
+     * @param sidecar Checksum, size and head digest from the upload sidecar
+     * @param header Head digest and header from the upload sidecar
+     * @return Package metadata
+     * @throws IOException On IO error
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private Package.Meta fromFile(final Path file, final String path,
+        final Optional<ImmutableTriple<String, Long, String>> sidecar,
+        final Optional<ImmutablePair<String, RpmHeader>> header) throws IOException {
+        final long size = Files.size(file);
+        final Optional<PackageHead> head;
+        if (sidecar.isPresent() || header.isPresent()) {
+            try (InputStream input = Files.newInputStream(file)) {
+                head = Optional.of(new PackageHead().read(input));
+            }
+        } else {
+            head = Optional.empty();
+        }
+        final Optional<String> digest = head.map(PackageHead::digest);
+        final String hex;
+        if (sidecar.isPresent() && sidecar.get().getMiddle() == size
+            && digest.equals(Optional.of(sidecar.get().getRight()))) {
+            hex = sidecar.get().getLeft();
+        } else {
+            hex = new FileChecksum(file, this.dgst).hex();
+        }
+        final RpmHeader hdr;
+        if (header.isPresent() && digest.equals(Optional.of(header.get().getLeft()))) {
+            hdr = header.get().getRight();
+        } else if (head.isPresent()) {
+            hdr = head.get().header();
+        } else {
+            hdr = new FilePackageHeader(file).rpmHeader();
+        }
+        return new CachedMeta(
+            new RpmMetadata.RpmItem(hdr, size, new Checksum.Simple(this.dgst, hex), path)
+        );
+    }
+
+    /**
+     * Obtain rpm package metadata reading the package via storage API. Checksum
+     * and header from the upload sidecars are used if the sidecars exist and belong to the
+     * package: head digest (and size for the checksum) match, only the package head is read
+     * to check it and the header is parsed from this head if header sidecar does not match.
+     * Otherwise checksum is calculated and header is read from the storage.
+     * @param key Package key
+     * @param path Package repository relative path
+     * @param sidecar Checksum, size and head digest from the upload sidecar
+     * @param header Head digest and header from the upload sidecar
+     * @return Completable action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Package.Meta> fromStorage(final Key key, final String path,
+        final Optional<ImmutableTriple<String, Long, String>> sidecar,
+        final Optional<ImmutablePair<String, RpmHeader>> header) {
+        final CompletionStage<Optional<PackageHead>> head;
+        if (sidecar.isPresent() || header.isPresent()) {
+            head = this.asto.value(key)
+                .thenCompose(val -> new PackageHead().read(val))
+                .thenApply(Optional::of);
+        } else {
+            head = CompletableFuture.completedFuture(Optional.empty());
+        }
+        return head.thenCompose(
+            read -> {
+                final Optional<String> digest = read.map(PackageHead::digest);
+                final CompletionStage<ImmutablePair<String, Long>> sum;
+                if (sidecar.isPresent() && digest.equals(Optional.of(sidecar.get().getRight()))) {
+                    sum = this.checksum(key, sidecar.get());
+                } else {
+                    sum = this.checksum(key);
+                }
+                final CompletionStage<RpmHeader> hdr;
+                if (header.isPresent() && digest.equals(Optional.of(header.get().getLeft()))) {
+                    hdr = CompletableFuture.completedFuture(header.get().getRight());
+                } else if (read.isPresent()) {
+                    hdr = CompletableFuture.supplyAsync(
+                        new UncheckedIOSupplier<>(() -> read.get().header()), this.exec
+                    );
+                } else {
+                    hdr = this.header(key);
+                }
+                return sum.thenCombine(
+                    hdr,
+                    (pair, val) -> new CachedMeta(
+                        new RpmMetadata.RpmItem(
+                            val, pair.getValue(),
+                            new Checksum.Simple(this.dgst, pair.getKey()), path
+                        )
+                    )
+                );
+            }
+        );
+    }
+
+    /**
+     * Package checksum and size from the sidecar if package size matches, otherwise
+     * checksum is calculated reading the package via storage API.
+     * @param key Package key
+     * @param sidecar Checksum, size and head digest from the upload sidecar
+     * @return Completable action with hex checksum and size
+     */
+    private CompletionStage<ImmutablePair<String, Long>> checksum(final Key key,
+        final ImmutableTriple<String, Long, String> sidecar) {
+        return this.asto.metadata(key)
+            .thenApply(meta -> meta.read(Meta.OP_SIZE))
+            .thenCompose(
+                size -> {
+                    final CompletionStage<ImmutablePair<String, Long>> res;
+                    if (size.isPresent() && size.get().longValue() == sidecar.getMiddle()) {
+                        res = CompletableFuture.completedFuture(
+                            new ImmutablePair<>(sidecar.getLeft(), sidecar.getMiddle())
+                        );
+                    } else {
+                        res = this.checksum(key);
+                    }
+                    return res;
+                }
+            );
+    }
+
+    /**
+     * Read package header via storage API.
+     * @param key Package key
+     * @return Completable action with the header
+     */
+    private CompletionStage<RpmHeader> header(final Key key) {
+        return this.asto.value(key).thenCompose(
+            val -> new ContentAsStream<RpmHeader>(val).process(
+                new UncheckedIOFunc<>(input -> new FilePackageHeader(input).rpmHeader())
+            )
+        );
+    }
+
+    /**
+     * Calculate package checksum reading it via storage API.
+     * @param key Package key
+     * @return Completable action with hex checksum and size
+     */
+    private CompletionStage<ImmutablePair<String, Long>> checksum(final Key key) {
         return this.asto.value(key).thenCompose(
             val -> new ContentDigest(val, this.dgst::messageDigest).hex().thenApply(
                 hex -> new ImmutablePair<>(
@@ -69,16 +270,6 @@ public final class AstoRpmPackage {
                     val.size().orElseThrow(() -> new ArtipieException("Content size unknown!"))
                 )
             )
-        ).thenCompose(
-            pair -> this.asto.value(key).thenCompose(
-                val -> new ContentAsStream<Header>(val).process(
-                    new UncheckedIOFunc<>(input -> new FilePackageHeader(input).header())
-                ).thenApply(
-                    header -> new RpmMetadata.RpmItem(
-                        header, pair.getValue(), new Checksum.Simple(this.dgst, pair.getKey()), path
-                    )
-                )
-            )
         );
     }
 }
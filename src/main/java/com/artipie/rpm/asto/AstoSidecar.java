@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Location of the data, saved aside of the storage items. Sidecar of the item `key` is stored
+ * by the key `root/key.ext`, sidecar name does not end with `.rpm`, so packages scans never
+ * take it for a package.
+ * @since 1.11
+ */
+final class AstoSidecar {
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Sidecars root key.
+     */
+    private final Key root;
+
+    /**
+     * Sidecar name extension.
+     */
+    private final String ext;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param root Sidecars root key
+     * @param ext Sidecar name extension
+     */
+    AstoSidecar(final Storage asto, final Key root, final String ext) {
+        this.asto = asto;
+        this.root = root;
+        this.ext = ext;
+    }
+
+    /**
+     * Save sidecar of the item.
+     * @param key Item key
+     * @param bytes Sidecar content
+     * @return Completable action
+     */
+    CompletionStage<Void> save(final Key key, final byte[] bytes) {
+        return this.asto.save(this.key(key), new Content.From(bytes));
+    }
+
+    /**
+     * Read sidecar of the item.
+     * @param key Item key
+     * @return Completable action with sidecar content, empty if sidecar does not exist
+     */
+    CompletionStage<Optional<byte[]>> read(final Key key) {
+        final Key sidecar = this.key(key);
+        return this.asto.exists(sidecar).thenCompose(
+            exists -> {
+                final CompletionStage<Optional<byte[]>> res;
+                if (exists) {
+                    res = this.asto.value(sidecar)
+                        .thenCompose(val -> new PublisherAs(val).bytes())
+                        .thenApply(Optional::of);
+                } else {
+                    res = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Remove sidecars of all the items found by the key.
+     * @param key Items key
+     * @return Completable action
+     */
+    CompletionStage<Void> remove(final Key key) {
+        return this.asto.list(new Key.From(this.root, key)).thenCompose(
+            list -> CompletableFuture.allOf(
+                list.stream().map(this.asto::delete).toArray(CompletableFuture[]::new)
+            )
+        );
+    }
+
+    /**
+     * Remove sidecars of the items.
+     * @param keys Items keys
+     * @return Completable action
+     */
+    CompletionStage<Void> remove(final Collection<Key> keys) {
+        return CompletableFuture.allOf(
+            keys.stream().map(this::key).map(
+                sidecar -> this.asto.exists(sidecar).thenCompose(
+                    exists -> {
+                        final CompletionStage<Void> res;
+                        if (exists) {
+                            res = this.asto.delete(sidecar);
+                        } else {
+                            res = CompletableFuture.allOf();
+                        }
+                        return res;
+                    }
+                ).toCompletableFuture()
+            ).toArray(CompletableFuture[]::new)
+        );
+    }
+
+    /**
+     * Sidecar key of the item.
+     * @param key Item key
+     * @return Sidecar key
+     */
+    private Key key(final Key key) {
+        return new Key.From(this.root, String.format("%s%s", key.string(), this.ext));
+    }
+}
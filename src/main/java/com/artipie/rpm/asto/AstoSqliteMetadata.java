@@ -0,0 +1,309 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.misc.UncheckedIOFunc;
+import com.artipie.asto.misc.UncheckedIOSupplier;
+import com.artipie.asto.streams.ContentAsStream;
+import com.artipie.asto.streams.StorageValuePipeline;
+import com.artipie.rpm.FileChecksum;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.meta.SqliteMetadata;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.pkg.Package;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+/**
+ * Sqlite metadata databases, generated along with metadata xmls when
+ * {@link RepoConfig#sqlite()} is enabled. Databases are updated incrementally: published
+ * database is decompressed, removed packages are deleted from it and added packages are
+ * inserted, if there is no published database, it is created from the whole metadata xml.
+ * Databases are saved into temp location as `<TYPE>_DB` items compressed with bzip2, open
+ * checksum and size are saved the same way as for metadata xmls. Bzip2 is used, though zstd
+ * is available for zchunk metadata, as it's the only database compression read by any yum
+ * and dnf version.
+ * @since 1.11
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ClassFanOutComplexityCheck (500 lines)
+ */
+final class AstoSqliteMetadata {
+
+    /**
+     * Temp database item name suffix.
+     */
+    static final String SUFFIX = "_DB";
+
+    /**
+     * Database file extension.
+     */
+    static final String EXT = ".sqlite.bz2";
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repository config.
+     */
+    private final RepoConfig cnfg;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     */
+    AstoSqliteMetadata(final Storage asto, final RepoConfig cnfg) {
+        this.asto = asto;
+        this.cnfg = cnfg;
+    }
+
+    /**
+     * Updates databases for the metadata xmls, found in temp location. Does nothing
+     * if sqlite databases are not enabled.
+     * @param temp Temp location
+     * @param removed Checksums of the removed packages
+     * @param added Added packages metadata
+     * @return Completable action
+     */
+    CompletionStage<Void> update(final Key temp, final Collection<String> removed,
+        final Collection<Package.Meta> added) {
+        final CompletionStage<Void> res;
+        if (this.cnfg.sqlite()) {
+            res = new AstoRepodata(this.asto).files().thenCompose(
+                list -> CompletableFuture.allOf(
+                    new XmlPackage.Stream(this.cnfg.filelists()).get().map(
+                        type -> this.update(
+                            temp, type, AstoSqliteMetadata.existing(list, type), removed, added
+                        ).toCompletableFuture()
+                    ).toArray(CompletableFuture[]::new)
+                )
+            );
+        } else {
+            res = CompletableFuture.allOf();
+        }
+        return res;
+    }
+
+    /**
+     * Temp location item name of the database.
+     * @param type Metadata type
+     * @return Item name
+     */
+    static String item(final XmlPackage type) {
+        return String.format("%s%s", type.name(), AstoSqliteMetadata.SUFFIX);
+    }
+
+    /**
+     * Database name for the metadata xml name.
+     * @param xml Metadata xml name
+     * @return Database name
+     */
+    static String name(final String xml) {
+        return xml.replace(".xml.gz", AstoSqliteMetadata.EXT);
+    }
+
+    /**
+     * Updates database of the metadata type, if temp location has metadata xml of this type.
+     * @param temp Temp location
+     * @param type Metadata type
+     * @param published Published database key
+     * @param removed Checksums of the removed packages
+     * @param added Added packages metadata
+     * @return Completable action
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    private CompletionStage<Void> update(final Key temp, final XmlPackage type,
+        final Optional<Key> published, final Collection<String> removed,
+        final Collection<Package.Meta> added) {
+        final Key xml = new Key.From(temp, type.name());
+        final Key dbkey = new Key.From(temp, AstoSqliteMetadata.item(type));
+        return this.asto.exists(xml).thenCompose(
+            exists -> {
+                CompletionStage<Void> res = CompletableFuture.allOf();
+                if (exists) {
+                    final Path file = new UncheckedIOSupplier<>(
+                        () -> Files.createTempFile("rpm-sqlite", ".sqlite")
+                    ).get();
+                    res = this.checksum(xml).thenCompose(
+                        checksum -> {
+                            final CompletionStage<Void> filled;
+                            if (published.isPresent()) {
+                                filled = this.copy(published.get(), file).thenCompose(
+                                    nothing -> this.fill(
+                                        new SqliteMetadata(file, type), removed,
+                                        Optional.of(
+                                            new ByteArrayInputStream(
+                                                AstoMetadataAdd.xml(added, type)
+                                            )
+                                        ),
+                                        checksum
+                                    )
+                                );
+                            } else {
+                                filled = this.asto.value(xml).thenCompose(
+                                    val -> new ContentAsStream<Void>(val).process(
+                                        new UncheckedIOFunc<>(
+                                            input -> {
+                                                new SqliteMetadata(file, type).update(
+                                                    Collections.emptyList(),
+                                                    Optional.of(
+                                                        new GzipCompressorInputStream(
+                                                            new BufferedInputStream(input), true
+                                                        )
+                                                    ),
+                                                    checksum
+                                                );
+                                                input.transferTo(OutputStream.nullOutputStream());
+                                                return null;
+                                            }
+                                        )
+                                    )
+                                );
+                            }
+                            return filled;
+                        }
+                    ).thenCompose(nothing -> this.save(file, dbkey))
+                        .handle(
+                            (nothing, err) -> {
+                                new UncheckedIOSupplier<>(() -> Files.deleteIfExists(file)).get();
+                                if (err != null) {
+                                    throw new ArtipieIOException(
+                                        String.format("Failed to update %s database", type), err
+                                    );
+                                }
+                                return nothing;
+                            }
+                        );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Open checksum of the metadata xml from temp location.
+     * @param xml Metadata xml temp key
+     * @return Completable action with the hex checksum
+     */
+    private CompletionStage<String> checksum(final Key xml) {
+        return this.asto.value(
+            new Key.From(String.format("%s.%s", xml.string(), this.cnfg.digest().name()))
+        ).thenCompose(
+            val -> new PublisherAs(val).asciiString()
+        ).thenApply(str -> str.split(" ")[0]);
+    }
+
+    /**
+     * Decompress published database to local file.
+     * @param published Published database key
+     * @param file Local file
+     * @return Completable action
+     */
+    private CompletionStage<Void> copy(final Key published, final Path file) {
+        return this.asto.value(published).thenCompose(
+            val -> new ContentAsStream<Void>(val).process(
+                new UncheckedIOFunc<>(
+                    input -> {
+                        Files.copy(
+                            new BZip2CompressorInputStream(new BufferedInputStream(input), true),
+                            file, StandardCopyOption.REPLACE_EXISTING
+                        );
+                        return null;
+                    }
+                )
+            )
+        );
+    }
+
+    /**
+     * Saves open checksum and size of the database and the database compressed with
+     * bzip2 into temp location.
+     * @param file Database file
+     * @param dbkey Temp database key
+     * @return Completable action
+     */
+    private CompletionStage<Void> save(final Path file, final Key dbkey) {
+        return CompletableFuture.supplyAsync(
+            new UncheckedIOSupplier<>(
+                () -> String.format(
+                    "%s %d", new FileChecksum(file, this.cnfg.digest()).hex(), Files.size(file)
+                )
+            ),
+            this.cnfg.executor()
+        ).thenCompose(
+            str -> this.asto.save(
+                new Key.From(String.format("%s.%s", dbkey.string(), this.cnfg.digest().name())),
+                new Content.From(str.getBytes(StandardCharsets.US_ASCII))
+            )
+        ).thenCompose(
+            nothing -> new StorageValuePipeline<>(this.asto, dbkey).process(
+                (input, out) -> AstoSqliteMetadata.bzip(file, out)
+            )
+        );
+    }
+
+    /**
+     * Updates database asynchronously.
+     * @param db Database
+     * @param removed Checksums of the removed packages
+     * @param added Metadata xml with the added packages
+     * @param checksum Open checksum of the metadata xml
+     * @return Completable action
+     */
+    private CompletionStage<Void> fill(final SqliteMetadata db,
+        final Collection<String> removed, final Optional<InputStream> added,
+        final String checksum) {
+        return CompletableFuture.runAsync(
+            () -> new UncheckedIOSupplier<>(() -> db.update(removed, added, checksum)).get(),
+            this.cnfg.executor()
+        );
+    }
+
+    /**
+     * Compress file with bzip2.
+     * @param file File
+     * @param out Output
+     */
+    private static void bzip(final Path file, final OutputStream out) {
+        try (BZip2CompressorOutputStream bzip = new BZip2CompressorOutputStream(out)) {
+            Files.copy(file, bzip);
+        } catch (final IOException err) {
+            throw new ArtipieIOException(err);
+        }
+    }
+
+    /**
+     * Published database of the metadata type.
+     * @param list Repository metadata items
+     * @param type Metadata type
+     * @return Database key if found
+     */
+    private static Optional<Key> existing(final Collection<Key> list, final XmlPackage type) {
+        final String name = String.format("%s%s", type.lowercase(), AstoSqliteMetadata.EXT);
+        return list.stream().filter(item -> item.string().endsWith(name)).findFirst();
+    }
+}
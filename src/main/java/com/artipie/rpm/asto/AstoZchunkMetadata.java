@@ -0,0 +1,146 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.streams.StorageValuePipeline;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.ZchunkXml;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+/**
+ * Zchunk metadata, generated along with gziped metadata xmls when {@link RepoConfig#zchunk()}
+ * is enabled. Metadata xmls from temp location are compressed with {@link ZchunkXml} and
+ * saved into temp location as `<TYPE>_ZCK` items, open checksum and size are the same as for
+ * metadata xmls.
+ * @since 1.11
+ */
+final class AstoZchunkMetadata {
+
+    /**
+     * Temp zchunk item name suffix.
+     */
+    static final String SUFFIX = "_ZCK";
+
+    /**
+     * Zchunk file extension.
+     */
+    static final String EXT = ".xml.zck";
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repository config.
+     */
+    private final RepoConfig cnfg;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     */
+    AstoZchunkMetadata(final Storage asto, final RepoConfig cnfg) {
+        this.asto = asto;
+        this.cnfg = cnfg;
+    }
+
+    /**
+     * Creates zchunk metadata for the metadata xmls, found in temp location. Does nothing
+     * if zchunk metadata is not enabled.
+     * @param temp Temp location
+     * @return Completable action
+     */
+    CompletionStage<Void> update(final Key temp) {
+        final CompletionStage<Void> res;
+        if (this.cnfg.zchunk()) {
+            res = CompletableFuture.allOf(
+                new XmlPackage.Stream(this.cnfg.filelists()).get().map(
+                    type -> this.update(temp, type).toCompletableFuture()
+                ).toArray(CompletableFuture[]::new)
+            );
+        } else {
+            res = CompletableFuture.allOf();
+        }
+        return res;
+    }
+
+    /**
+     * Temp location item name of the zchunk metadata.
+     * @param type Metadata type
+     * @return Item name
+     */
+    static String item(final XmlPackage type) {
+        return String.format("%s%s", type.name(), AstoZchunkMetadata.SUFFIX);
+    }
+
+    /**
+     * Zchunk metadata name for the metadata xml name.
+     * @param xml Metadata xml name
+     * @return Zchunk metadata name
+     */
+    static String name(final String xml) {
+        return xml.replace(".xml.gz", AstoZchunkMetadata.EXT);
+    }
+
+    /**
+     * Creates zchunk metadata of the metadata type, if temp location has metadata xml of
+     * this type.
+     * @param temp Temp location
+     * @param type Metadata type
+     * @return Completable action
+     */
+    private CompletionStage<Void> update(final Key temp, final XmlPackage type) {
+        final Key xml = new Key.From(temp, type.name());
+        final Key zck = new Key.From(temp, AstoZchunkMetadata.item(type));
+        final String dgst = this.cnfg.digest().name();
+        return this.asto.exists(xml).thenCompose(
+            exists -> {
+                CompletionStage<Void> res = CompletableFuture.allOf();
+                if (exists) {
+                    res = new StorageValuePipeline<>(this.asto, xml, zck).process(
+                        (input, out) -> AstoZchunkMetadata.compress(input.get(), out)
+                    ).thenCompose(
+                        nothing -> this.asto.value(
+                            new Key.From(String.format("%s.%s", xml.string(), dgst))
+                        )
+                    ).thenCompose(
+                        open -> this.asto.save(
+                            new Key.From(String.format("%s.%s", zck.string(), dgst)), open
+                        )
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Compress gziped metadata xml into zchunk.
+     * @param gzip Gziped metadata xml
+     * @param out Output
+     */
+    private static void compress(final InputStream gzip, final OutputStream out) {
+        try (OutputStream buf = new BufferedOutputStream(out)) {
+            new ZchunkXml(buf).write(
+                new GzipCompressorInputStream(new BufferedInputStream(gzip), true)
+            );
+        } catch (final IOException err) {
+            throw new ArtipieIOException(err);
+        }
+    }
+}
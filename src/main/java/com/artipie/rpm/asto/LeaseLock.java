@@ -0,0 +1,275 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.lock.Lock;
+import com.artipie.asto.lock.storage.StorageLock;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Storage lock with short lease. Lease is acquired as {@link StorageLock} with expiration
+ * in {@code ttl} and is renewed by the heartbeat every third of {@code ttl} while the lock is
+ * held, so the lock of the crashed node is freed in {@code ttl} and long operations keep the
+ * lock. Each acquisition writes lease identifier to the fencing record of the target,
+ * {@link #verify()} checks that lease was not lost and no other node acquired the lock after
+ * this one, it should be called right before the results of the operation are published.
+ * @since 1.11
+ */
+public final class LeaseLock implements Lock {
+
+    /**
+     * Default lease time to live.
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+
+    /**
+     * Locks proposals root, see {@link StorageLock}.
+     */
+    private static final Key LOCKS = new Key.From(".artipie-locks");
+
+    /**
+     * Fencing records root.
+     */
+    private static final Key FENCES = new Key.From(".artipie-fences");
+
+    /**
+     * Heartbeat scheduler.
+     */
+    private static final ScheduledExecutorService HEARTBEAT =
+        Executors.newSingleThreadScheduledExecutor(
+            task -> {
+                final Thread thread = new Thread(task, "rpm-lease-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Lock target key.
+     */
+    private final Key target;
+
+    /**
+     * Lease time to live.
+     */
+    private final Duration ttl;
+
+    /**
+     * Lease identifier: lock proposal name and fencing record value.
+     */
+    private final String uuid;
+
+    /**
+     * Lease expiration.
+     */
+    private final AtomicReference<Instant> expires;
+
+    /**
+     * Was lease lost?
+     */
+    private final AtomicBoolean lost;
+
+    /**
+     * Heartbeat task.
+     */
+    private final AtomicReference<Optional<ScheduledFuture<?>>> beat;
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param target Lock target key
+     */
+    public LeaseLock(final Storage storage, final Key target) {
+        this(storage, target, LeaseLock.DEFAULT_TTL);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param target Lock target key
+     * @param ttl Lease time to live
+     */
+    public LeaseLock(final Storage storage, final Key target, final Duration ttl) {
+        this.storage = storage;
+        this.target = target;
+        this.ttl = ttl;
+        this.uuid = UUID.randomUUID().toString();
+        this.expires = new AtomicReference<>(Instant.EPOCH);
+        this.lost = new AtomicBoolean();
+        this.beat = new AtomicReference<>(Optional.empty());
+    }
+
+    @Override
+    public CompletionStage<Void> acquire() {
+        final Instant exp = Instant.now().plus(this.ttl);
+        return new StorageLock(this.storage, this.target, this.uuid, Optional.of(exp)).acquire()
+            .thenCompose(
+                nothing -> {
+                    this.expires.set(exp);
+                    this.lost.set(false);
+                    final long period = Math.max(this.ttl.toMillis() / 3, 1);
+                    this.beat.getAndSet(
+                        Optional.of(
+                            LeaseLock.HEARTBEAT.scheduleAtFixedRate(
+                                this::renew, period, period, TimeUnit.MILLISECONDS
+                            )
+                        )
+                    ).ifPresent(prev -> prev.cancel(false));
+                    return this.storage.save(
+                        this.fenceKey(),
+                        new Content.From(this.uuid.getBytes(StandardCharsets.US_ASCII))
+                    );
+                }
+            );
+    }
+
+    @Override
+    public CompletionStage<Void> release() {
+        this.beat.getAndSet(Optional.empty()).ifPresent(task -> task.cancel(false));
+        return this.owner().thenCompose(
+            owner -> {
+                final CompletionStage<Void> res;
+                if (owner.equals(Optional.of(this.uuid))) {
+                    res = this.storage.delete(this.fenceKey());
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        ).thenCompose(nothing -> this.storage.exists(this.proposal())).thenCompose(
+            exists -> {
+                final CompletionStage<Void> res;
+                if (exists) {
+                    res = new StorageLock(
+                        this.storage, this.target, this.uuid, Optional.empty()
+                    ).release();
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Verifies that the lease is still held: it was renewed in time and the fencing record
+     * of the target was not overwritten by other node.
+     * @return Completable action, failed with {@link ArtipieException} if lease was lost
+     */
+    public CompletionStage<Void> verify() {
+        final CompletionStage<Void> res;
+        if (this.lost.get() || Instant.now().isAfter(this.expires.get())) {
+            res = new FailedCompletionStage<>(
+                new ArtipieException(String.format("Lease of `%s` lock expired", this.target))
+            );
+        } else {
+            res = this.owner().thenCompose(
+                owner -> {
+                    final CompletionStage<Void> fenced;
+                    if (owner.equals(Optional.of(this.uuid))) {
+                        fenced = CompletableFuture.allOf();
+                    } else {
+                        fenced = new FailedCompletionStage<>(
+                            new ArtipieException(
+                                String.format(
+                                    "Lock `%s` was acquired by other node `%s`",
+                                    this.target, owner.orElse("unknown")
+                                )
+                            )
+                        );
+                    }
+                    return fenced;
+                }
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Renews lease: saves new expiration to the lock proposal. If previous lease expired
+     * before renewal, other node could acquire the lock, so the lease is considered lost
+     * and heartbeat is stopped.
+     */
+    private void renew() {
+        final Instant now = Instant.now();
+        if (this.lost.get() || now.isAfter(this.expires.get())) {
+            this.lost.set(true);
+            this.beat.get().ifPresent(task -> task.cancel(false));
+        } else {
+            final Instant exp = now.plus(this.ttl);
+            this.storage.save(
+                this.proposal(),
+                new Content.From(exp.toString().getBytes(StandardCharsets.US_ASCII))
+            ).handle(
+                (nothing, err) -> {
+                    if (err == null && !Instant.now().isAfter(this.expires.get())) {
+                        this.expires.set(exp);
+                    }
+                    return nothing;
+                }
+            );
+        }
+    }
+
+    /**
+     * Reads fencing record of the target: identifier of the last lease, which acquired the lock.
+     * @return Completable action with lease identifier, empty if the lock is not held
+     */
+    private CompletionStage<Optional<String>> owner() {
+        final Key key = this.fenceKey();
+        return this.storage.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<Optional<String>> res;
+                if (exists) {
+                    res = this.storage.value(key)
+                        .thenCompose(content -> new PublisherAs(content).asciiString())
+                        .thenApply(Optional::of);
+                } else {
+                    res = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Lock proposal key of this lease, see {@link StorageLock}.
+     * @return Key
+     */
+    private Key proposal() {
+        return new Key.From(new Key.From(LeaseLock.LOCKS, this.target), this.uuid);
+    }
+
+    /**
+     * Fencing record key of the target.
+     * @return Key
+     */
+    private Key fenceKey() {
+        return new Key.From(new Key.From(LeaseLock.FENCES, this.target), "owner");
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.SubStorage;
+import com.artipie.asto.fs.FileStorage;
+import java.nio.file.Path;
+
+/**
+ * Storage, which items are the files of the local directory. Wrap the storage with this class
+ * to let the adapter read and copy the items directly from disk with {@link AstoLocalFiles}.
+ * Any storage can be wrapped (for example, logging or caching storage over
+ * {@link FileStorage}), as long as its item with key `a/b` is the file `a/b` of the directory.
+ * @since 1.11
+ */
+public final class LocalStorage extends Storage.Wrap {
+
+    /**
+     * Origin storage.
+     */
+    private final Storage origin;
+
+    /**
+     * Root directory.
+     */
+    private final Path dir;
+
+    /**
+     * Ctor.
+     * @param dir Root directory
+     */
+    public LocalStorage(final Path dir) {
+        this(new FileStorage(dir), dir);
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin storage, which items are the files of the directory
+     * @param dir Root directory
+     */
+    public LocalStorage(final Storage origin, final Path dir) {
+        super(origin);
+        this.origin = origin;
+        this.dir = dir;
+    }
+
+    /**
+     * Root directory.
+     * @return Directory path
+     */
+    public Path root() {
+        return this.dir;
+    }
+
+    /**
+     * Sub storage with the prefix, which is local as well.
+     * @param prefix Key prefix
+     * @return Local sub storage
+     */
+    public LocalStorage sub(final Key prefix) {
+        final LocalStorage res;
+        if (prefix.string().isEmpty()) {
+            res = this;
+        } else {
+            res = new LocalStorage(
+                new SubStorage(prefix, this.origin), this.dir.resolve(prefix.string())
+            );
+        }
+        return res;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Budget of the bytes, retained by the concurrent reads. Read is started when its estimated
+ * size fits into the budget, otherwise it waits in the queue until previous reads are
+ * finished and release their bytes. Reads are started in the order they were requested,
+ * read which is larger than the whole budget is started alone.
+ * @since 1.11
+ */
+final class ReadBudget {
+
+    /**
+     * Budget bytes.
+     */
+    private final long total;
+
+    /**
+     * Waiting reads.
+     */
+    private final Queue<Pending> pending;
+
+    /**
+     * Bytes, used by the started reads.
+     */
+    private long used;
+
+    /**
+     * Ctor.
+     * @param total Budget bytes
+     */
+    ReadBudget(final long total) {
+        this.total = total;
+        this.pending = new ArrayDeque<>(0);
+    }
+
+    /**
+     * Perform read within the budget.
+     * @param size Estimated bytes, retained by the read
+     * @param read Read action
+     * @param <T> Read result type
+     * @return Completable action with the read result
+     */
+    <T> CompletionStage<T> read(final long size, final Supplier<CompletionStage<T>> read) {
+        final long bytes = Math.min(Math.max(size, 0L), this.total);
+        final CompletableFuture<Void> start = new CompletableFuture<>();
+        final List<CompletableFuture<Void>> ready;
+        synchronized (this.pending) {
+            this.pending.add(new Pending(bytes, start));
+            ready = this.ready();
+        }
+        ready.forEach(item -> item.complete(null));
+        return start.thenCompose(nothing -> read.get()).whenComplete(
+            (res, err) -> this.release(bytes)
+        );
+    }
+
+    /**
+     * Bytes, used by the started reads.
+     * @return Used bytes
+     */
+    long used() {
+        synchronized (this.pending) {
+            return this.used;
+        }
+    }
+
+    /**
+     * Release bytes of the finished read and start waiting reads, which fit into the budget.
+     * @param bytes Bytes to release
+     */
+    private void release(final long bytes) {
+        final List<CompletableFuture<Void>> ready;
+        synchronized (this.pending) {
+            this.used = this.used - bytes;
+            ready = this.ready();
+        }
+        ready.forEach(item -> item.complete(null));
+    }
+
+    /**
+     * Take waiting reads, which fit into the budget, from the queue and reserve their bytes.
+     * Must be called under the queue lock.
+     * @return Reads to start
+     */
+    private List<CompletableFuture<Void>> ready() {
+        final List<CompletableFuture<Void>> res = new ArrayList<>(0);
+        while (!this.pending.isEmpty()
+            && this.used + this.pending.peek().bytes <= this.total) {
+            final Pending next = this.pending.poll();
+            this.used = this.used + next.bytes;
+            res.add(next.start);
+        }
+        return res;
+    }
+
+    /**
+     * Waiting read.
+     * @since 1.11
+     */
+    private static final class Pending {
+
+        /**
+         * Estimated read bytes.
+         */
+        private final long bytes;
+
+        /**
+         * Read start signal.
+         */
+        private final CompletableFuture<Void> start;
+
+        /**
+         * Ctor.
+         * @param bytes Estimated read bytes
+         * @param start Read start signal
+         */
+        Pending(final long bytes, final CompletableFuture<Void> start) {
+            this.bytes = bytes;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,480 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.cron;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.KeyLastPart;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.rpm.asto.LeaseLock;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Coordination of the scheduled repository updates between the nodes, sharing the storage.
+ * Nodes register themselves in the storage with {@link #heartbeat()}: node record holds the
+ * node lease expiration, node is considered to be alive until its lease expires. One of the
+ * nodes is elected as a leader with {@link LeaseLock}, the leader publishes the ring of the live
+ * nodes on each heartbeat and removes the records of the expired nodes. Repositories are
+ * assigned to the live nodes of the ring with consistent hashing ({@link HashRing}), so the
+ * updates are spread evenly and only the repositories of the joined or left node are
+ * reassigned. The update of the repository is performed with
+ * {@link #perform(String, long, Supplier)} by the assigned node once per schedule tick: the
+ * last claimed tick is recorded for each repository.
+ * @since 1.11
+ */
+public final class CronCluster {
+
+    /**
+     * Default node lease time to live.
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+
+    /**
+     * Nodes records root.
+     */
+    private static final Key NODES = new Key.From(".artipie-cron", "nodes");
+
+    /**
+     * Nodes ring key.
+     */
+    private static final Key RING = new Key.From(".artipie-cron", "ring");
+
+    /**
+     * Performed ticks records root.
+     */
+    private static final Key TICKS = new Key.From(".artipie-cron", "ticks");
+
+    /**
+     * Leader lock target.
+     */
+    private static final Key LEADER = new Key.From(".artipie-cron", "leader");
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Node name, unique in the cluster.
+     */
+    private final String node;
+
+    /**
+     * Node lease time to live.
+     */
+    private final Duration ttl;
+
+    /**
+     * Leadership lock.
+     */
+    private final LeaseLock leadership;
+
+    /**
+     * Is this node a leader?
+     */
+    private final AtomicBoolean leader;
+
+    /**
+     * Ctor.
+     * @param storage Storage, shared by the nodes
+     * @param node Node name, unique in the cluster
+     */
+    public CronCluster(final Storage storage, final String node) {
+        this(storage, node, CronCluster.DEFAULT_TTL);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage, shared by the nodes
+     * @param node Node name, unique in the cluster
+     * @param ttl Node lease time to live
+     */
+    public CronCluster(final Storage storage, final String node, final Duration ttl) {
+        this.storage = storage;
+        this.node = node;
+        this.ttl = ttl;
+        this.leadership = new LeaseLock(storage, CronCluster.LEADER, ttl);
+        this.leader = new AtomicBoolean();
+    }
+
+    /**
+     * Node heartbeat: renews the node lease and takes or keeps the leadership, the leader
+     * publishes the ring of the live nodes. Should be called more often than node lease
+     * expires, for example, every third of time to live.
+     * @return Completable action
+     */
+    public CompletionStage<Void> heartbeat() {
+        return this.storage.save(
+            new Key.From(CronCluster.NODES, this.node),
+            new Content.From(
+                Instant.now().plus(this.ttl).toString().getBytes(StandardCharsets.US_ASCII)
+            )
+        ).thenCompose(nothing -> this.lead()).thenCompose(
+            lead -> {
+                final CompletionStage<Void> res;
+                if (lead) {
+                    res = this.publish();
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Heartbeat interval: third of the node lease time to live.
+     * @return Interval
+     */
+    public Duration interval() {
+        return this.ttl.dividedBy(3);
+    }
+
+    /**
+     * Is this node the leader of the cluster according to the last heartbeat?
+     * @return True if node is the leader
+     */
+    public boolean leader() {
+        return this.leader.get();
+    }
+
+    /**
+     * Live nodes of the cluster: nodes, which lease was not expired.
+     * @return Completable action with live nodes names
+     */
+    public CompletionStage<List<String>> live() {
+        final Instant now = Instant.now();
+        return this.expirations().thenApply(
+            nodes -> nodes.stream().filter(item -> item.expires().isAfter(now))
+                .map(Expiration::node).sorted().collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Checks whether the repository is assigned to this node: repositories are assigned to
+     * the live nodes of the ring, published by the leader. If the leader did not publish the
+     * ring yet, repositories are assigned to the live nodes.
+     * @param repo Repository name
+     * @return Completable action with true if repository is assigned to this node
+     */
+    public CompletionStage<Boolean> owns(final String repo) {
+        return this.ring().thenCompose(
+            ring -> this.live().thenApply(
+                live -> {
+                    List<String> nodes = ring.stream().filter(live::contains)
+                        .collect(Collectors.toList());
+                    if (nodes.isEmpty()) {
+                        nodes = live;
+                    }
+                    return new HashRing(nodes).owner(repo)
+                        .map(this.node::equals).orElse(false);
+                }
+            )
+        );
+    }
+
+    /**
+     * Performs repository update for the schedule tick if the repository is assigned to this
+     * node and update for this or later tick was not claimed yet. The tick is claimed before
+     * the update, see {@link #claim(Key, long)}, so the update of the tick is performed at most
+     * once even if several nodes consider the repository assigned to them.
+     * @param repo Repository name
+     * @param tick Schedule tick, for example, scheduled update time in seconds
+     * @param update Repository update
+     * @return Completable action with true if update was performed by this node
+     */
+    public CompletionStage<Boolean> perform(final String repo, final long tick,
+        final Supplier<CompletionStage<Void>> update) {
+        final Key key = new Key.From(CronCluster.TICKS, repo);
+        return this.owns(repo).thenCompose(
+            owns -> {
+                final CompletionStage<Boolean> res;
+                if (owns) {
+                    res = this.claim(key, tick);
+                } else {
+                    res = CompletableFuture.completedFuture(false);
+                }
+                return res;
+            }
+        ).thenCompose(
+            claimed -> {
+                final CompletionStage<Boolean> res;
+                if (claimed) {
+                    res = update.get().thenApply(nothing -> true);
+                } else {
+                    res = CompletableFuture.completedFuture(false);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Leaves the cluster: removes the node record and releases leadership, repositories of
+     * the node are reassigned on the next leader heartbeat.
+     * @return Completable action
+     */
+    public CompletionStage<Void> leave() {
+        final Key key = new Key.From(CronCluster.NODES, this.node);
+        return this.storage.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<Void> res;
+                if (exists) {
+                    res = this.storage.delete(key);
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        ).thenCompose(
+            nothing -> {
+                final CompletionStage<Void> res;
+                if (this.leader.getAndSet(false)) {
+                    res = this.leadership.release();
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Claims the schedule tick of the repository under the lock of the tick record: the last
+     * claimed tick is re-read and the tick is recorded only if it's later than the last one.
+     * If the lock is held by another node, the tick is being claimed by that node.
+     * @param key Tick record key
+     * @param tick Schedule tick
+     * @return Completable action with true if tick was claimed by this node
+     */
+    private CompletionStage<Boolean> claim(final Key key, final long tick) {
+        final LeaseLock lock = new LeaseLock(this.storage, key, this.ttl);
+        return lock.acquire().handle((nothing, err) -> err == null).thenCompose(
+            locked -> {
+                final CompletionStage<Boolean> res;
+                if (locked) {
+                    res = this.read(key).thenCompose(
+                        last -> {
+                            final CompletionStage<Boolean> saved;
+                            if (last.map(Long::parseLong).orElse(Long.MIN_VALUE) < tick) {
+                                saved = this.storage.save(
+                                    key,
+                                    new Content.From(
+                                        String.valueOf(tick).getBytes(StandardCharsets.US_ASCII)
+                                    )
+                                ).thenApply(nothing -> true);
+                            } else {
+                                saved = CompletableFuture.completedFuture(false);
+                            }
+                            return saved;
+                        }
+                    ).handle(
+                        (claimed, err) -> lock.release().thenCompose(
+                            nothing -> {
+                                final CompletableFuture<Boolean> done =
+                                    new CompletableFuture<>();
+                                if (err == null) {
+                                    done.complete(claimed);
+                                } else {
+                                    done.completeExceptionally(err);
+                                }
+                                return done;
+                            }
+                        )
+                    ).thenCompose(Function.identity());
+                } else {
+                    res = CompletableFuture.completedFuture(false);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Takes or keeps the leadership: the leader verifies its lease and releases it if lease
+     * was lost, other nodes try to acquire the leadership lock.
+     * @return Completable action with true if this node is the leader
+     */
+    private CompletionStage<Boolean> lead() {
+        final CompletionStage<Boolean> res;
+        if (this.leader.get()) {
+            res = this.leadership.verify().handle((nothing, err) -> err == null).thenCompose(
+                held -> {
+                    final CompletionStage<Boolean> kept;
+                    if (held) {
+                        kept = CompletableFuture.completedFuture(true);
+                    } else {
+                        kept = this.leadership.release().thenApply(nothing -> false);
+                    }
+                    return kept;
+                }
+            );
+        } else {
+            res = this.leadership.acquire().handle((nothing, err) -> err == null);
+        }
+        return res.thenApply(
+            lead -> {
+                this.leader.set(lead);
+                return lead;
+            }
+        );
+    }
+
+    /**
+     * Publishes the ring of the live nodes and removes the records of the expired nodes.
+     * @return Completable action
+     */
+    private CompletionStage<Void> publish() {
+        final Instant now = Instant.now();
+        return this.expirations().thenCompose(
+            nodes -> CompletableFuture.allOf(
+                nodes.stream().filter(item -> !item.expires().isAfter(now))
+                    .map(item -> this.storage.delete(new Key.From(CronCluster.NODES, item.node())))
+                    .toArray(CompletableFuture[]::new)
+            ).thenCompose(
+                nothing -> this.storage.save(
+                    CronCluster.RING,
+                    new Content.From(
+                        nodes.stream().filter(item -> item.expires().isAfter(now))
+                            .map(Expiration::node).sorted()
+                            .collect(Collectors.joining("\n"))
+                            .getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            )
+        );
+    }
+
+    /**
+     * Nodes ring, published by the leader.
+     * @return Completable action with nodes names, empty if ring was not published
+     */
+    private CompletionStage<Collection<String>> ring() {
+        return this.read(CronCluster.RING).thenApply(
+            ring -> ring.filter(val -> !val.isEmpty())
+                .<Collection<String>>map(val -> Arrays.asList(val.split("\n")))
+                .orElse(Collections.emptyList())
+        );
+    }
+
+    /**
+     * Nodes leases expirations, read from nodes records. Records, which can't be read, are
+     * skipped.
+     * @return Completable action with nodes leases
+     */
+    private CompletionStage<List<Expiration>> expirations() {
+        return this.storage.list(CronCluster.NODES).thenCompose(
+            keys -> {
+                final List<CompletableFuture<Optional<Expiration>>> all = keys.stream().map(
+                    key -> this.read(key).thenApply(
+                        val -> val.flatMap(
+                            str -> CronCluster.expiration(new KeyLastPart(key).get(), str)
+                        )
+                    ).toCompletableFuture()
+                ).collect(Collectors.toList());
+                return CompletableFuture.allOf(all.toArray(CompletableFuture[]::new))
+                    .thenApply(
+                        nothing -> all.stream().map(CompletableFuture::join)
+                            .flatMap(Optional::stream).collect(Collectors.toList())
+                    );
+            }
+        );
+    }
+
+    /**
+     * Reads storage item as string.
+     * @param key Item key
+     * @return Completable action with item value, empty if item does not exist
+     */
+    private CompletionStage<Optional<String>> read(final Key key) {
+        return this.storage.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<Optional<String>> res;
+                if (exists) {
+                    res = this.storage.value(key)
+                        .thenCompose(val -> new PublisherAs(val).string(StandardCharsets.UTF_8))
+                        .thenApply(Optional::of);
+                } else {
+                    res = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Parses node lease expiration.
+     * @param node Node name
+     * @param value Node record value
+     * @return Node lease expiration, empty if value is not valid
+     */
+    private static Optional<Expiration> expiration(final String node, final String value) {
+        Optional<Expiration> res;
+        try {
+            res = Optional.of(new Expiration(node, Instant.parse(value.trim())));
+        } catch (final DateTimeParseException ignored) {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * Node lease expiration.
+     * @since 1.11
+     */
+    private static final class Expiration {
+
+        /**
+         * Node name.
+         */
+        private final String name;
+
+        /**
+         * Lease expiration.
+         */
+        private final Instant time;
+
+        /**
+         * Ctor.
+         * @param name Node name
+         * @param time Lease expiration
+         */
+        Expiration(final String name, final Instant time) {
+            this.name = name;
+            this.time = time;
+        }
+
+        /**
+         * Node name.
+         * @return Name
+         */
+        String node() {
+            return this.name;
+        }
+
+        /**
+         * Lease expiration.
+         * @return Expiration time
+         */
+        Instant expires() {
+            return this.time;
+        }
+    }
+}
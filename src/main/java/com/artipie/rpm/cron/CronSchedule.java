@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.cron;
+
+import com.artipie.ArtipieException;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * Schedule in unix cron format: five space separated fields `minute hour day-of-month month
+ * day-of-week`. Each field is `*`, a number, a range `a-b` or a comma separated list of them,
+ * optionally followed by step `/n`. Day of week is from 0 to 7, both 0 and 7 are Sunday. As in
+ * unix cron, when both day of month and day of week are restricted, the time matches if
+ * either of them matches.
+ * @since 1.11
+ */
+public final class CronSchedule {
+
+    /**
+     * Max years to search next fire time in.
+     */
+    private static final int YEARS = 5;
+
+    /**
+     * Cron expression.
+     */
+    private final String expr;
+
+    /**
+     * Minutes.
+     */
+    private final BitSet minutes;
+
+    /**
+     * Hours.
+     */
+    private final BitSet hours;
+
+    /**
+     * Days of month.
+     */
+    private final BitSet days;
+
+    /**
+     * Months.
+     */
+    private final BitSet months;
+
+    /**
+     * Days of week, Sunday is 0.
+     */
+    private final BitSet weekdays;
+
+    /**
+     * Is day of month restricted?
+     */
+    private final boolean bydays;
+
+    /**
+     * Is day of week restricted?
+     */
+    private final boolean byweekdays;
+
+    /**
+     * Ctor.
+     * @param expr Cron expression
+     * @throws ArtipieException If expression is not valid
+     * @checkstyle MagicNumberCheck (30 lines)
+     */
+    public CronSchedule(final String expr) {
+        this.expr = expr;
+        final String[] fields = expr.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new ArtipieException(
+                String.format("Cron expression `%s` should have five fields", expr)
+            );
+        }
+        this.minutes = this.field(fields[0], 0, 59);
+        this.hours = this.field(fields[1], 0, 23);
+        this.days = this.field(fields[2], 1, 31);
+        this.months = this.field(fields[3], 1, 12);
+        this.weekdays = this.field(fields[4], 0, 7);
+        if (this.weekdays.get(7)) {
+            this.weekdays.set(0);
+        }
+        this.bydays = !fields[2].startsWith("*");
+        this.byweekdays = !fields[4].startsWith("*");
+    }
+
+    /**
+     * Next fire time, strictly after the given time.
+     * @param after Time to search fire time after
+     * @return Next fire time
+     * @throws ArtipieException If schedule never fires, e.g. `0 0 31 2 *`
+     */
+    public ZonedDateTime next(final ZonedDateTime after) {
+        final ZonedDateTime limit = after.plusYears(CronSchedule.YEARS);
+        ZonedDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        boolean found = false;
+        while (!found && time.isBefore(limit)) {
+            if (!this.months.get(time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!this.day(time)) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!this.hours.get(time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!this.minutes.get(time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new ArtipieException(
+                String.format("Cron expression `%s` never fires", this.expr)
+            );
+        }
+        return time;
+    }
+
+    @Override
+    public String toString() {
+        return this.expr;
+    }
+
+    /**
+     * Checks whether the day matches day of month and day of week fields.
+     * @param time Time
+     * @return True if day matches
+     */
+    private boolean day(final ZonedDateTime time) {
+        final boolean mday = this.days.get(time.getDayOfMonth());
+        final boolean wday = this.weekdays.get(time.getDayOfWeek().getValue() % 7);
+        final boolean res;
+        if (this.bydays && this.byweekdays) {
+            res = mday || wday;
+        } else {
+            res = mday && wday;
+        }
+        return res;
+    }
+
+    /**
+     * Parses cron field.
+     * @param field Field value
+     * @param min Min allowed value
+     * @param max Max allowed value
+     * @return Set of the field values
+     * @throws ArtipieException If field is not valid
+     */
+    private BitSet field(final String field, final int min, final int max) {
+        final BitSet res = new BitSet(max + 1);
+        for (final String part : field.split(",")) {
+            final String[] step = part.split("/", -1);
+            final String[] range = step[0].split("-", -1);
+            final int from;
+            final int upto;
+            if ("*".equals(step[0])) {
+                from = min;
+                upto = max;
+            } else {
+                from = this.number(range[0], min, max);
+                if (range.length > 1) {
+                    upto = this.number(range[1], from, max);
+                } else if (step.length > 1) {
+                    upto = max;
+                } else {
+                    upto = from;
+                }
+            }
+            final int inc;
+            if (step.length > 1) {
+                inc = this.number(step[1], 1, max);
+            } else {
+                inc = 1;
+            }
+            if (step.length > 2 || range.length > 2) {
+                throw this.invalid(field);
+            }
+            for (int val = from; val <= upto; val += inc) {
+                res.set(val);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Parses cron field number.
+     * @param value Number value
+     * @param min Min allowed value
+     * @param max Max allowed value
+     * @return Number
+     * @throws ArtipieException If number is not valid
+     */
+    private int number(final String value, final int min, final int max) {
+        final int res;
+        try {
+            res = Integer.parseInt(value);
+        } catch (final NumberFormatException err) {
+            throw this.invalid(value);
+        }
+        if (res < min || res > max) {
+            throw this.invalid(value);
+        }
+        return res;
+    }
+
+    /**
+     * Invalid expression error.
+     * @param part Invalid expression part
+     * @return Error
+     */
+    private ArtipieException invalid(final String part) {
+        return new ArtipieException(
+            String.format("Cron expression `%s` is not valid: `%s`", this.expr, part)
+        );
+    }
+}
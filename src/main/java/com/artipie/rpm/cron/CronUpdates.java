@@ -0,0 +1,293 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.cron;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.artipie.asto.SubStorage;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.Rpm;
+import com.artipie.rpm.http.RpmRemove;
+import com.artipie.rpm.http.RpmUpload;
+import com.jcabi.log.Logger;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Scheduled repository updates: runs {@link Rpm#batchUpdate(Key)} of the repository by
+ * {@link RepoConfig#cron()} schedule. Next update is planned only after the previous one is
+ * finished, so updates never overlap and ticks missed during long update are skipped. Before
+ * the update repository packages fingerprint (packages names, sizes, checksums and
+ * modification times, including the packages staged for addition and removal) is compared with
+ * the fingerprint of the last successful update, and update is skipped if packages were not
+ * changed. When {@link CronCluster} is provided, node heartbeats are sent by the scheduler and
+ * the update is performed only by the node, the repository is assigned to.
+ * @since 1.11
+ */
+public final class CronUpdates implements Closeable {
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Repository key.
+     */
+    private final Key repo;
+
+    /**
+     * Repository config.
+     */
+    private final RepoConfig cnfg;
+
+    /**
+     * Nodes cluster.
+     */
+    private final Optional<CronCluster> cluster;
+
+    /**
+     * Update schedule.
+     */
+    private final CronSchedule schedule;
+
+    /**
+     * Scheduler timer.
+     */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * Packages fingerprint of the last successful update.
+     */
+    private final AtomicReference<Optional<String>> state;
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param repo Repository key
+     * @param cnfg Repository config with cron schedule
+     */
+    public CronUpdates(final Storage storage, final Key repo, final RepoConfig cnfg) {
+        this(storage, repo, cnfg, Optional.empty());
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage, shared by the cluster nodes
+     * @param repo Repository key
+     * @param cnfg Repository config with cron schedule, {@link RepoConfig#name()} is used as
+     *  repository name in cluster
+     * @param cluster Nodes cluster
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public CronUpdates(final Storage storage, final Key repo, final RepoConfig cnfg,
+        final CronCluster cluster) {
+        this(storage, repo, cnfg, Optional.of(cluster));
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param repo Repository key
+     * @param cnfg Repository config with cron schedule
+     * @param cluster Nodes cluster
+     * @throws ArtipieException If cron schedule is not configured or is not valid
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private CronUpdates(final Storage storage, final Key repo, final RepoConfig cnfg,
+        final Optional<CronCluster> cluster) {
+        this.storage = storage;
+        this.repo = repo;
+        this.cnfg = cnfg;
+        this.cluster = cluster;
+        this.schedule = new CronSchedule(
+            cnfg.cron().orElseThrow(
+                () -> new ArtipieException("Repository update schedule is not configured")
+            )
+        );
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+            task -> new Thread(task, "rpm-cron-updates")
+        );
+        this.state = new AtomicReference<>(Optional.empty());
+    }
+
+    /**
+     * Starts scheduled updates. Scheduler thread keeps running until {@link #close()}.
+     */
+    public void start() {
+        this.cluster.ifPresent(
+            nodes -> this.timer.scheduleWithFixedDelay(
+                () -> nodes.heartbeat().handle(
+                    (nothing, err) -> {
+                        if (err != null) {
+                            Logger.warn(this, "Cron node heartbeat failed: %[exception]s", err);
+                        }
+                        return nothing;
+                    }
+                ),
+                0, nodes.interval().toMillis(), TimeUnit.MILLISECONDS
+            )
+        );
+        this.plan();
+    }
+
+    /**
+     * Waits until scheduled updates are stopped.
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public void await() throws InterruptedException {
+        this.timer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        this.timer.shutdownNow();
+        this.cluster.ifPresent(nodes -> nodes.leave().toCompletableFuture().join());
+    }
+
+    /**
+     * Performs scheduled update for the tick: in cluster, update is performed only by the node
+     * the repository is assigned to, update is skipped if repository packages were not changed
+     * since the last successful update.
+     * @param tick Schedule tick, scheduled update time in seconds
+     * @return Completable action with true if repository was updated
+     */
+    CompletionStage<Boolean> tick(final long tick) {
+        final CompletionStage<Boolean> res;
+        if (this.cluster.isPresent()) {
+            final AtomicBoolean updated = new AtomicBoolean();
+            res = this.cluster.get().perform(
+                this.cnfg.name(), tick, () -> this.update().thenAccept(updated::set)
+            ).thenApply(performed -> updated.get());
+        } else {
+            res = this.update();
+        }
+        return res;
+    }
+
+    /**
+     * Plans update at the next schedule tick, next update is planned when this one is finished.
+     */
+    private void plan() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        final ZonedDateTime next = this.schedule.next(now);
+        try {
+            this.timer.schedule(
+                () -> this.tick(next.toEpochSecond()).handle(
+                    (updated, err) -> {
+                        if (err == null) {
+                            Logger.info(
+                                this, "Scheduled update of %s at %s: %s",
+                                this.repo, next, updated
+                            );
+                        } else {
+                            Logger.warn(
+                                this, "Scheduled update of %s failed: %[exception]s",
+                                this.repo, err
+                            );
+                        }
+                        this.plan();
+                        return updated;
+                    }
+                ),
+                Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS
+            );
+        } catch (final RejectedExecutionException ignored) {
+            Logger.debug(this, "Scheduled updates of %s are stopped", this.repo);
+        }
+    }
+
+    /**
+     * Updates repository if its packages were changed since the last successful update.
+     * @return Completable action with true if repository was updated
+     */
+    private CompletionStage<Boolean> update() {
+        return this.fingerprint().thenCompose(
+            current -> {
+                final CompletionStage<Boolean> res;
+                if (this.state.get().equals(Optional.of(current))) {
+                    res = CompletableFuture.completedFuture(false);
+                } else {
+                    res = new Rpm(this.storage, this.cnfg).batchUpdate(this.repo)
+                        .to(CompletableInterop.await())
+                        .thenApply(
+                            nothing -> {
+                                this.state.set(Optional.of(current));
+                                return true;
+                            }
+                        );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Repository packages fingerprint: checksum of the sorted packages names, sizes, checksums
+     * and modification times, as far as storage provides them. Packages staged for addition
+     * and removal (see {@link RpmUpload#TO_ADD} and {@link RpmRemove#TO_RM}) are included,
+     * other service items, which names start with dot (locks, temp locations), are skipped.
+     * @return Completable action with fingerprint
+     */
+    private CompletionStage<String> fingerprint() {
+        final Storage sub = new SubStorage(this.repo, this.storage);
+        return sub.list(Key.ROOT).thenCompose(
+            keys -> {
+                final List<CompletableFuture<String>> all = keys.stream()
+                    .filter(key -> key.string().endsWith(".rpm"))
+                    .filter(CronUpdates::tracked)
+                    .map(
+                        key -> sub.metadata(key).thenApply(
+                            meta -> String.join(
+                                " ", key.string(),
+                                String.valueOf(
+                                    meta.read(Meta.OP_SIZE).map(Long::longValue).orElse(-1L)
+                                ),
+                                meta.read(Meta.OP_MD5).map(String::valueOf).orElse("-"),
+                                meta.read(Meta.OP_UPDATED_AT).map(Instant::toString).orElse("-")
+                            )
+                        )
+                    ).collect(Collectors.toList());
+                return CompletableFuture.allOf(all.toArray(CompletableFuture[]::new))
+                    .thenApply(
+                        nothing -> DigestUtils.sha256Hex(
+                            all.stream().map(CompletableFuture::join).sorted()
+                                .collect(Collectors.joining("\n"))
+                        )
+                    );
+            }
+        );
+    }
+
+    /**
+     * Whether the item is tracked by fingerprint: repository packages and packages staged for
+     * addition and removal.
+     * @param key Item key
+     * @return True if item is tracked
+     */
+    private static boolean tracked(final Key key) {
+        final String name = key.string();
+        return !name.startsWith(".")
+            || name.startsWith(String.format("%s/", RpmUpload.TO_ADD.string()))
+            || name.startsWith(String.format("%s/", RpmRemove.TO_RM.string()));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.cron;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Consistent hash ring of the cluster nodes. Each node is placed on the ring at several
+ * points (virtual nodes), so the keys are spread evenly between the nodes and when the node
+ * joins or leaves the cluster, only the keys of this node are moved to the other nodes.
+ * @since 1.11
+ */
+final class HashRing {
+
+    /**
+     * Default number of the ring points per node.
+     */
+    static final int REPLICAS = 128;
+
+    /**
+     * Ring: point -> node.
+     */
+    private final NavigableMap<Long, String> ring;
+
+    /**
+     * Ctor.
+     * @param nodes Cluster nodes
+     */
+    HashRing(final Collection<String> nodes) {
+        this(nodes, HashRing.REPLICAS);
+    }
+
+    /**
+     * Ctor.
+     * @param nodes Cluster nodes
+     * @param replicas Number of the ring points per node
+     */
+    HashRing(final Collection<String> nodes, final int replicas) {
+        this.ring = new TreeMap<>();
+        for (final String node : nodes) {
+            for (int idx = 0; idx < replicas; idx += 1) {
+                this.ring.put(HashRing.hash(String.format("%s#%d", node, idx)), node);
+            }
+        }
+    }
+
+    /**
+     * Node, the key is assigned to: the node of the first ring point clockwise from the key.
+     * @param key Key
+     * @return Node, empty if ring has no nodes
+     */
+    Optional<String> owner(final String key) {
+        final Optional<String> res;
+        if (this.ring.isEmpty()) {
+            res = Optional.empty();
+        } else {
+            res = Optional.ofNullable(this.ring.ceilingEntry(HashRing.hash(key)))
+                .or(() -> Optional.of(this.ring.firstEntry()))
+                .map(Map.Entry::getValue);
+        }
+        return res;
+    }
+
+    /**
+     * Ring point of the value.
+     * @param val Value
+     * @return Ring point
+     */
+    private static long hash(final String val) {
+        return ByteBuffer.wrap(DigestUtils.sha256(val)).getLong();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Byte ranges from `Range` request header, see
+ * <a href="https://www.rfc-editor.org/rfc/rfc9110#name-range">RFC 9110</a>.
+ * @since 1.11
+ */
+final class ByteRanges {
+
+    /**
+     * Ranges unit prefix.
+     */
+    private static final String UNIT = "bytes=";
+
+    /**
+     * Single range spec pattern: `first-last`, `first-` or `-suffix`.
+     */
+    private static final Pattern SPEC =
+        Pattern.compile("^(?<first>\\d{0,18})-(?<last>\\d{0,18})$");
+
+    /**
+     * Range header value.
+     */
+    private final String header;
+
+    /**
+     * Ctor.
+     * @param header Range header value
+     */
+    ByteRanges(final String header) {
+        this.header = header.trim();
+    }
+
+    /**
+     * Whether header is a syntactically valid bytes range set.
+     * @return True if valid
+     */
+    boolean valid() {
+        return this.header.startsWith(ByteRanges.UNIT)
+            && Arrays.stream(this.specs()).allMatch(ByteRanges::validSpec);
+    }
+
+    /**
+     * Whether at least one of the ranges can be satisfied for the representation
+     * of the given size. Should be called for the valid ranges only.
+     * @param size Representation size
+     * @return True if satisfiable
+     */
+    boolean satisfiable(final long size) {
+        return Arrays.stream(this.specs()).anyMatch(
+            spec -> {
+                final Matcher mtchr = ByteRanges.SPEC.matcher(spec);
+                final boolean res;
+                if (mtchr.matches() && mtchr.group("first").isEmpty()) {
+                    res = size > 0 && Long.parseLong(mtchr.group("last")) > 0;
+                } else {
+                    res = mtchr.matches() && Long.parseLong(mtchr.group("first")) < size;
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Checks single range spec: at least one of the positions should be present,
+     * last position should not be less than the first one.
+     * @param spec Range spec
+     * @return True if valid
+     */
+    private static boolean validSpec(final String spec) {
+        final Matcher mtchr = ByteRanges.SPEC.matcher(spec);
+        final boolean res;
+        if (!mtchr.matches()) {
+            res = false;
+        } else if (mtchr.group("first").isEmpty() || mtchr.group("last").isEmpty()) {
+            res = !(mtchr.group("first").isEmpty() && mtchr.group("last").isEmpty());
+        } else {
+            res = Long.parseLong(mtchr.group("first")) <= Long.parseLong(mtchr.group("last"));
+        }
+        return res;
+    }
+
+    /**
+     * Range specs.
+     * @return Array of trimmed specs
+     */
+    private String[] specs() {
+        return Arrays.stream(this.header.substring(ByteRanges.UNIT.length()).split(","))
+            .map(String::trim)
+            .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.rpm.Digest;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.codec.binary.Hex;
+import org.reactivestreams.Publisher;
+
+/**
+ * Request body, which calculates checksums and size of the passing data,
+ * checksums and size are available after the body publisher was fully consumed.
+ * @since 1.11
+ */
+final class DigestedBody {
+
+    /**
+     * Origin body.
+     */
+    private final Publisher<ByteBuffer> origin;
+
+    /**
+     * Message digests.
+     */
+    private final Map<Digest, MessageDigest> digests;
+
+    /**
+     * Calculated hex checksums.
+     */
+    private final Map<Digest, String> hexes;
+
+    /**
+     * Body size.
+     */
+    private final AtomicLong size;
+
+    /**
+     * Ctor.
+     * @param origin Origin body
+     * @param algorithms Digest algorithms
+     */
+    DigestedBody(final Publisher<ByteBuffer> origin, final Collection<Digest> algorithms) {
+        this.origin = origin;
+        this.digests = new EnumMap<>(Digest.class);
+        algorithms.forEach(alg -> this.digests.put(alg, alg.messageDigest()));
+        this.hexes = new EnumMap<>(Digest.class);
+        this.size = new AtomicLong();
+    }
+
+    /**
+     * Body publisher.
+     * @return Publisher, which updates digests on each chunk
+     */
+    Publisher<ByteBuffer> publisher() {
+        return Flowable.fromPublisher(this.origin).doOnNext(
+            buf -> {
+                this.digests.values().forEach(dgst -> dgst.update(buf.duplicate()));
+                this.size.addAndGet(buf.remaining());
+            }
+        );
+    }
+
+    /**
+     * Hex checksum of the consumed body.
+     * @param alg Digest algorithm
+     * @return Hex checksum
+     */
+    String hex(final Digest alg) {
+        return this.hexes.computeIfAbsent(
+            alg, key -> Hex.encodeHexString(this.digests.get(key).digest())
+        );
+    }
+
+    /**
+     * Size of the consumed body.
+     * @return Size in bytes
+     */
+    long size() {
+        return this.size.get();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.rpm.pkg.InvalidPackageException;
+import com.artipie.rpm.pkg.PackageHead;
+import com.artipie.rpm.pkg.RpmHeader;
+import io.reactivex.Flowable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.reactivestreams.Publisher;
+
+/**
+ * RPM package request body, which reads the package header from the first bytes of the body.
+ * The bytes are held back until the whole header is received and parsed, if the package
+ * is invalid, the body publisher fails before any byte is passed downstream.
+ * @since 1.11
+ */
+final class InlineHeader {
+
+    /**
+     * Origin body.
+     */
+    private final Publisher<ByteBuffer> origin;
+
+    /**
+     * Package head.
+     */
+    private final PackageHead head;
+
+    /**
+     * Parsed header.
+     */
+    private RpmHeader header;
+
+    /**
+     * Ctor.
+     * @param origin Origin body
+     */
+    InlineHeader(final Publisher<ByteBuffer> origin) {
+        this.origin = origin;
+        this.head = new PackageHead();
+    }
+
+    /**
+     * Body publisher.
+     * @return Publisher, which fails with {@link InvalidPackageException} if package is invalid
+     */
+    Publisher<ByteBuffer> publisher() {
+        return Flowable.fromPublisher(this.origin)
+            .concatMapIterable(this::accept)
+            .concatWith(
+                Flowable.defer(
+                    () -> {
+                        final Flowable<ByteBuffer> res;
+                        if (this.header == null) {
+                            res = Flowable.error(
+                                new InvalidPackageException(
+                                    new IllegalStateException("Package header is incomplete")
+                                )
+                            );
+                        } else {
+                            res = Flowable.empty();
+                        }
+                        return res;
+                    }
+                )
+            );
+    }
+
+    /**
+     * Package header, available after the body publisher was consumed.
+     * @return Header if it was read
+     */
+    Optional<RpmHeader> header() {
+        return Optional.ofNullable(this.header);
+    }
+
+    /**
+     * Package head digest, available after the body publisher was consumed, see
+     * {@link PackageHead#digest()}.
+     * @return Hex digest of the package head
+     */
+    String digest() {
+        return this.head.digest();
+    }
+
+    /**
+     * Accept next chunk of the body.
+     * @param chunk Body chunk
+     * @return Chunks to pass downstream
+     * @throws IOException On error
+     */
+    private List<ByteBuffer> accept(final ByteBuffer chunk) throws IOException {
+        final List<ByteBuffer> res;
+        if (this.header == null) {
+            if (this.head.accept(chunk)) {
+                this.header = this.head.header();
+                res = Collections.singletonList(this.head.received());
+            } else {
+                res = Collections.emptyList();
+            }
+        } else {
+            res = Collections.singletonList(chunk);
+        }
+        return res;
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.artipie.http.Headers;
+import com.artipie.http.headers.Login;
+import com.artipie.http.rq.RqHeaders;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.asto.AstoChecksumSidecar;
+import com.artipie.rpm.asto.AstoHeaderSidecar;
+import com.artipie.rpm.asto.AstoLocalFiles;
+import com.artipie.rpm.asto.AstoPrimaryIndex;
+import com.artipie.rpm.asto.AstoRepoAdd;
+import com.artipie.rpm.pkg.InvalidPackageException;
+import com.artipie.rpm.pkg.PackageHead;
+import com.artipie.scheduling.ArtifactEvent;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import org.reactivestreams.Publisher;
+
+/**
+ * Uploaded packages staging: packages are saved into {@link RpmUpload#TO_ADD} location
+ * and then added to the repository metadata.
+ * @since 1.11
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class PackageStaging {
+
+    /**
+     * Root of the temp locations, where uploaded packages are received and verified before
+     * they are moved to {@link RpmUpload#TO_ADD}.
+     */
+    private static final Key UPLOADS = new Key.From(".uploads");
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repo config.
+     */
+    private final RepoConfig config;
+
+    /**
+     * Artipie artifact upload/remove events.
+     */
+    private final Optional<Queue<ArtifactEvent>> events;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param config Repository configuration
+     * @param events Artipie artifact upload/remove events
+     */
+    PackageStaging(final Storage asto, final RepoConfig config,
+        final Optional<Queue<ArtifactEvent>> events) {
+        this.asto = asto;
+        this.config = config;
+        this.events = events;
+    }
+
+    /**
+     * Save package into {@link RpmUpload#TO_ADD} location calculating its checksums and reading
+     * its header on the fly. Package is received into the temp location outside of
+     * {@link RpmUpload#TO_ADD} and is moved there only after it was verified, so metadata
+     * updates never see not verified package. Invalid package is not saved.
+     * Checksums, supplied by client in `X-Checksum-Sha1` or `X-Checksum-Sha256` headers,
+     * are verified, package is removed if any of them does not match. Checksum, size and
+     * header of the accepted package are saved with {@link AstoChecksumSidecar} and
+     * {@link AstoHeaderSidecar}, so that metadata update does not need to read the package.
+     * @param key Package key
+     * @param headers Request headers
+     * @param body Request body
+     * @return Completable action with true if package was accepted
+     */
+    CompletionStage<Boolean> save(final Key key,
+        final Iterable<Map.Entry<String, String>> headers, final Publisher<ByteBuffer> body) {
+        final Map<Digest, String> expected = new EnumMap<>(Digest.class);
+        for (final Digest dgst : Digest.values()) {
+            final RqHeaders hdr = new RqHeaders(headers, PackageStaging.checksumHeader(dgst));
+            if (!hdr.isEmpty()) {
+                expected.put(dgst, hdr.get(0).trim());
+            }
+        }
+        final Set<Digest> algorithms = EnumSet.of(this.config.digest());
+        algorithms.addAll(expected.keySet());
+        final InlineHeader inline = new InlineHeader(body);
+        final DigestedBody digested = new DigestedBody(inline.publisher(), algorithms);
+        final Key target = new Key.From(RpmUpload.TO_ADD, key);
+        final Key temp = new Key.From(
+            PackageStaging.UPLOADS, UUID.randomUUID().toString(), key.string()
+        );
+        return this.asto.save(temp, new Content.From(digested.publisher())).handle(
+            (nothing, err) -> {
+                if (err != null && !PackageStaging.invalidPackage(err)) {
+                    throw new CompletionException(err);
+                }
+                return err == null;
+            }
+        ).thenCompose(
+            saved -> {
+                final CompletionStage<Boolean> res;
+                if (!saved) {
+                    res = CompletableFuture.completedFuture(false);
+                } else if (expected.entrySet().stream().allMatch(
+                    entry -> entry.getValue().equalsIgnoreCase(digested.hex(entry.getKey()))
+                )) {
+                    res = new AstoChecksumSidecar(this.asto).save(
+                        target, this.config.digest(), digested.hex(this.config.digest()),
+                        digested.size(), inline.digest()
+                    ).thenCompose(
+                        ignored -> new AstoHeaderSidecar(this.asto)
+                            .save(target, inline.header().get(), inline.digest())
+                    ).thenCompose(ignored -> this.asto.move(temp, target))
+                        .thenApply(ignored -> true);
+                } else {
+                    res = this.asto.delete(temp).thenApply(ignored -> false);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Save package into {@link RpmUpload#TO_ADD} location without receiving its content:
+     * package with the checksum, supplied by client in `X-Checksum-Sha1` or
+     * `X-Checksum-Sha256` header of the repository digest algorithm, is looked up in the
+     * repository primary metadata and copied by the storage. Checksum and size of the
+     * copied package are saved with {@link AstoChecksumSidecar}, only the head of the copied
+     * package is read to bind the sidecar to it.
+     * @param key Package key
+     * @param headers Request headers
+     * @return Completable action with true if package was found and copied
+     */
+    CompletionStage<Boolean> deduplicate(final Key key,
+        final Iterable<Map.Entry<String, String>> headers) {
+        final RqHeaders hdr =
+            new RqHeaders(headers, PackageStaging.checksumHeader(this.config.digest()));
+        final CompletionStage<Boolean> res;
+        if (hdr.isEmpty()) {
+            res = CompletableFuture.completedFuture(false);
+        } else {
+            final String checksum = hdr.get(0).trim();
+            final Key target = new Key.From(RpmUpload.TO_ADD, key);
+            res = new AstoPrimaryIndex(this.asto).find(checksum).thenCompose(
+                found -> found.map(
+                    src -> new AstoLocalFiles(this.asto, this.config.executor())
+                        .copy(src, this.asto, target)
+                        .thenCompose(nothing -> this.asto.metadata(target))
+                        .thenApply(meta -> meta.read(Meta.OP_SIZE).<Long>map(val -> val))
+                        .thenCompose(
+                            size -> this.asto.value(target)
+                                .thenCompose(val -> new PackageHead().read(val))
+                                .thenCompose(
+                                    head -> new AstoChecksumSidecar(this.asto).save(
+                                        target, this.config.digest(),
+                                        checksum.toLowerCase(Locale.US),
+                                        size.orElseThrow(
+                                            () -> new ArtipieException("Content size unknown!")
+                                        ),
+                                        head.digest()
+                                    )
+                                )
+                        ).thenApply(nothing -> true)
+                ).orElseGet(() -> CompletableFuture.completedFuture(false))
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Checks whether error was caused by invalid package.
+     * @param err Error
+     * @return True if package is invalid
+     */
+    private static boolean invalidPackage(final Throwable err) {
+        Throwable cause = err;
+        while (cause != null && !(cause instanceof InvalidPackageException)) {
+            cause = cause.getCause();
+        }
+        return cause != null;
+    }
+
+    /**
+     * Update repository metadata if required: metadata is not updated if update is skipped
+     * by the request or repository is updated by schedule.
+     * @param skip Whether update is skipped by the request
+     * @param headers Request headers
+     * @return Completable action
+     */
+    CompletionStage<Void> update(final boolean skip,
+        final Iterable<Map.Entry<String, String>> headers) {
+        final CompletionStage<Void> result;
+        if (skip || this.config.mode() == RepoConfig.UpdateMode.CRON) {
+            result = CompletableFuture.allOf();
+        } else {
+            final AstoRepoAdd repo = new AstoRepoAdd(this.asto, this.config);
+            result = this.events.map(
+                queue -> repo.performWithResult().thenAccept(
+                    list -> list.forEach(
+                        info -> queue.add(
+                            new ArtifactEvent(
+                                RpmUpload.REPO_TYPE, this.config.name(),
+                                new Login(new Headers.From(headers)).getValue(),
+                                info.name(), info.version(), info.packageSize()
+                            )
+                        )
+                    )
+                )
+            ).orElseGet(repo::perform);
+        }
+        return result;
+    }
+
+    /**
+     * Name of the header with client supplied checksum.
+     * @param dgst Digest algorithm
+     * @return Header name
+     */
+    private static String checksumHeader(final Digest dgst) {
+        return String.format("X-Checksum-%s", dgst.name());
+    }
+}
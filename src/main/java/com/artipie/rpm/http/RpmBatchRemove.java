@@ -0,0 +1,376 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.ContentDigest;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.ContentType;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.asto.AstoPrimaryIndex;
+import com.artipie.rpm.meta.XmlPrimaryPackages;
+import com.artipie.scheduling.ArtifactEvent;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice to remove several rpm packages with one request and one metadata update.
+ * Request body lists packages to remove, one package per line: package repository
+ * relative path optionally followed by the package checksum of the repository digest
+ * algorithm, separated with whitespace. Packages without checksum are removed only with
+ * `force=true` request parameter. Instead of the path, line can contain packages selector:
+ * package NEVRA (`name-[epoch:]version-release.arch`) or whitespace separated
+ * `field=value` pairs, where field is one of `name`, `epoch`, `version`, `release` and
+ * `arch`, all the published packages matching selector are removed. Selectors do not carry
+ * checksums, so they are accepted only with `force=true` request parameter as well.
+ * Packages are looked up in the repository primary metadata, so that published packages
+ * are not read to verify checksums. Packages are validated concurrently, valid packages
+ * are saved into {@link RpmRemove#TO_RM} location and removed from the repository
+ * in a single metadata cleaning pass.
+ * Response body is xml document with the result for each listed package:
+ * <pre>{@code
+ * <remove>
+ *   <package path="one.rpm" status="accepted"/>
+ *   <package path="two.rpm" status="not_found"/>
+ * </remove>
+ * }</pre>
+ * Possible statuses are `accepted`, `not_found` (package does not exist or nothing matches
+ * selector) and `invalid` (path is not rpm package, checksum does not match or is absent
+ * without `force`, selector is invalid or is used without `force`).
+ * Request supports `skip_update` parameter as {@link RpmRemove}.
+ * @since 1.11
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class RpmBatchRemove implements Slice {
+
+    /**
+     * Request path pattern.
+     */
+    public static final Pattern PTRN = Pattern.compile("^.*/\\.remove$");
+
+    /**
+     * Accepted status.
+     */
+    private static final String ACCEPTED = "accepted";
+
+    /**
+     * Invalid status.
+     */
+    private static final String INVALID = "invalid";
+
+    /**
+     * Not found status.
+     */
+    private static final String NOT_FOUND = "not_found";
+
+    /**
+     * Selector fields.
+     */
+    private static final Set<String> FIELDS = new HashSet<>(
+        Arrays.asList(
+            XmlPrimaryPackages.Entry.NAME, XmlPrimaryPackages.Entry.EPOCH,
+            XmlPrimaryPackages.Entry.VERSION, XmlPrimaryPackages.Entry.RELEASE,
+            XmlPrimaryPackages.Entry.ARCH
+        )
+    );
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repository config.
+     */
+    private final RepoConfig cnfg;
+
+    /**
+     * Artifact upload/remove events.
+     */
+    private final Optional<Queue<ArtifactEvent>> events;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repo config
+     * @param events Artifact events
+     */
+    public RpmBatchRemove(final Storage asto, final RepoConfig cnfg,
+        final Optional<Queue<ArtifactEvent>> events) {
+        this.asto = asto;
+        this.cnfg = cnfg;
+        this.events = events;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final RpmUpload.Request request = new RpmUpload.Request(line);
+        return new AsyncResponse(
+            new PublisherAs(new Content.From(body)).string(StandardCharsets.UTF_8).thenCombine(
+                new AstoPrimaryIndex(this.asto).packages(),
+                (text, index) -> Map.entry(index, this.results(text, request.force(), index))
+            ).thenCompose(
+                pair -> {
+                    final Map<String, CompletableFuture<String>> results = pair.getValue();
+                    final CompletionStage<Response> res;
+                    if (results.isEmpty()) {
+                        res = CompletableFuture.completedFuture(
+                            new RsWithStatus(RsStatus.BAD_REQUEST)
+                        );
+                    } else {
+                        res = CompletableFuture.allOf(
+                            results.values().toArray(new CompletableFuture[0])
+                        ).thenApply(
+                            nothing -> results.entrySet().stream().collect(
+                                Collectors.toMap(
+                                    Map.Entry::getKey, entry -> entry.getValue().join(),
+                                    (first, second) -> first, LinkedHashMap::new
+                                )
+                            )
+                        ).thenCompose(
+                            statuses -> this.update(
+                                request.skipUpdate(), statuses,
+                                RpmBatchRemove.published(pair.getKey())
+                            ).thenApply(
+                                nothing -> new RsWithBody(
+                                    new RsWithHeaders(
+                                        new RsWithStatus(RsStatus.ACCEPTED),
+                                        new Headers.From(new ContentType("application/xml"))
+                                    ),
+                                    RpmBulkUpload.document("remove", statuses),
+                                    StandardCharsets.UTF_8
+                                )
+                            )
+                        );
+                    }
+                    return res;
+                }
+            )
+        );
+    }
+
+    /**
+     * Validate listed packages and save valid packages into {@link RpmRemove#TO_RM} location.
+     * @param text Request body
+     * @param force Whether package without checksum or by selector can be removed
+     * @param index Published packages
+     * @return Packages paths or selectors with completable actions with the status
+     */
+    private Map<String, CompletableFuture<String>> results(final String text,
+        final boolean force, final List<XmlPrimaryPackages.Entry> index) {
+        final Map<String, String> published = RpmBatchRemove.published(index);
+        final Map<String, CompletableFuture<String>> res = new LinkedHashMap<>();
+        for (final String item : text.split("\n")) {
+            final String line = item.trim();
+            final String[] parts = line.split("\\s+");
+            if (parts[0].endsWith(".rpm")) {
+                res.put(
+                    parts[0],
+                    this.accept(
+                        parts[0], Arrays.stream(parts).skip(1).findFirst(), force,
+                        Optional.ofNullable(published.get(parts[0]))
+                    ).toCompletableFuture()
+                );
+            } else if (!line.isEmpty() && force) {
+                res.putAll(this.select(line, parts, index));
+            } else if (!line.isEmpty()) {
+                res.put(line, CompletableFuture.completedFuture(RpmBatchRemove.INVALID));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Find published packages by selector and save them into {@link RpmRemove#TO_RM}
+     * location.
+     * @param line Selector line
+     * @param parts Selector parts
+     * @param index Published packages
+     * @return Packages locations or selector with completable actions with the status
+     */
+    private Map<String, CompletableFuture<String>> select(final String line,
+        final String[] parts, final List<XmlPrimaryPackages.Entry> index) {
+        final Optional<Predicate<XmlPrimaryPackages.Entry>> selector =
+            RpmBatchRemove.selector(parts);
+        final List<XmlPrimaryPackages.Entry> found = selector.map(
+            pred -> index.stream().filter(pred).collect(Collectors.toList())
+        ).orElse(Collections.emptyList());
+        final Map<String, CompletableFuture<String>> res = new LinkedHashMap<>();
+        if (selector.isEmpty()) {
+            res.put(line, CompletableFuture.completedFuture(RpmBatchRemove.INVALID));
+        } else if (found.isEmpty()) {
+            res.put(line, CompletableFuture.completedFuture(RpmBatchRemove.NOT_FOUND));
+        } else {
+            found.forEach(
+                pkg -> res.put(
+                    pkg.location(),
+                    this.mark(new Key.From(pkg.location())).toCompletableFuture()
+                )
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Validate package by path and save it into {@link RpmRemove#TO_RM} location if it is
+     * valid. Checksum of the published package is taken from the primary metadata, checksum
+     * of the package, absent in metadata, is calculated.
+     * @param path Package path
+     * @param checksum Package checksum
+     * @param force Whether package without checksum can be removed
+     * @param published Package checksum from the primary metadata
+     * @return Completable action with the package status
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<String> accept(final String path, final Optional<String> checksum,
+        final boolean force, final Optional<String> published) {
+        final Optional<Key> key = RpmBulkUpload.key(path);
+        final CompletionStage<String> res;
+        if (key.isEmpty() || checksum.isEmpty() && !force) {
+            res = CompletableFuture.completedFuture(RpmBatchRemove.INVALID);
+        } else if (checksum.isPresent()) {
+            res = published.<CompletionStage<String>>map(CompletableFuture::completedFuture)
+                .orElseGet(
+                    () -> this.asto.value(key.get()).thenCompose(
+                        val -> new ContentDigest(val, this.cnfg.digest()::messageDigest).hex()
+                    )
+                ).handle(
+                    (hex, err) -> {
+                        final Optional<Boolean> valid;
+                        if (err == null) {
+                            valid = Optional.of(hex.equalsIgnoreCase(checksum.get()));
+                        } else {
+                            valid = Optional.empty();
+                        }
+                        return valid;
+                    }
+                ).thenCompose(
+                    valid -> {
+                        final CompletionStage<String> status;
+                        if (valid.isEmpty()) {
+                            status = CompletableFuture.completedFuture(RpmBatchRemove.NOT_FOUND);
+                        } else if (valid.get()) {
+                            status = this.mark(key.get());
+                        } else {
+                            status = CompletableFuture.completedFuture(RpmBatchRemove.INVALID);
+                        }
+                        return status;
+                    }
+                );
+        } else {
+            res = this.mark(key.get());
+        }
+        return res;
+    }
+
+    /**
+     * Save existing package into {@link RpmRemove#TO_RM} location.
+     * @param key Package key
+     * @return Completable action with the package status
+     */
+    private CompletionStage<String> mark(final Key key) {
+        return this.asto.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<String> res;
+                if (exists) {
+                    res = this.asto.save(new Key.From(RpmRemove.TO_RM, key), Content.EMPTY)
+                        .thenApply(nothing -> RpmBatchRemove.ACCEPTED);
+                } else {
+                    res = CompletableFuture.completedFuture(RpmBatchRemove.NOT_FOUND);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Packages selector: either NEVRA (`name-[epoch:]version-release.arch`) or whitespace
+     * separated `field=value` pairs, where field is one of `name`, `epoch`, `version`,
+     * `release` and `arch`.
+     * @param parts Selector parts
+     * @return Packages predicate, empty if selector is invalid
+     */
+    private static Optional<Predicate<XmlPrimaryPackages.Entry>> selector(final String[] parts) {
+        final Optional<Predicate<XmlPrimaryPackages.Entry>> res;
+        if (parts.length == 1 && !parts[0].contains("=")) {
+            res = Optional.of(pkg -> pkg.matches(parts[0]));
+        } else {
+            final Map<String, String> fields = new HashMap<>();
+            for (final String part : parts) {
+                final String[] pair = part.split("=", 2);
+                if (pair.length == 2 && RpmBatchRemove.FIELDS.contains(pair[0])) {
+                    fields.put(pair[0], pair[1]);
+                }
+            }
+            if (fields.size() == parts.length) {
+                res = Optional.of(pkg -> pkg.matches(fields));
+            } else {
+                res = Optional.empty();
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Remove accepted packages from the repository if update is required.
+     * @param skip Whether update is skipped by the request
+     * @param statuses Packages statuses
+     * @param published Published packages locations and checksums
+     * @return Completable action
+     */
+    private CompletionStage<Void> update(final boolean skip, final Map<String, String> statuses,
+        final Map<String, String> published) {
+        final CompletionStage<Void> res;
+        if (skip || this.cnfg.mode() != RepoConfig.UpdateMode.UPLOAD
+            || !statuses.containsValue(RpmBatchRemove.ACCEPTED)) {
+            res = CompletableFuture.allOf();
+        } else {
+            res = new RpmRemove(this.asto, this.cnfg, this.events).update(published);
+        }
+        return res;
+    }
+
+    /**
+     * Published packages locations and checksums.
+     * @param index Published packages
+     * @return Map of the package location and checksum
+     */
+    private static Map<String, String> published(final List<XmlPrimaryPackages.Entry> index) {
+        return index.stream().collect(
+            Collectors.toMap(
+                XmlPrimaryPackages.Entry::location, XmlPrimaryPackages.Entry::checksum,
+                (first, second) -> first
+            )
+        );
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.streams.ContentAsStream;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.ContentType;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.scheduling.ArtifactEvent;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice for bulk rpm packages upload: request body is a tar archive with packages.
+ * Archive is read while the body is received, packages are unpacked into
+ * {@link RpmUpload#TO_ADD} location one by one: the single archive reading thread passes
+ * entry bytes to the package staging through the bounded queue, staging takes them on the
+ * repository blocking executor ({@link RepoConfig#executor()}), so neither the archive nor
+ * the package is kept on disk or in memory. Repository metadata is updated once for all the
+ * packages from the archive.
+ * Response body is xml document with the result for each archive entry:
+ * <pre>{@code
+ * <upload>
+ *   <package path="one.rpm" status="accepted"/>
+ *   <package path="two.rpm" status="conflict"/>
+ * </upload>
+ * }</pre>
+ * Possible statuses are `accepted`, `conflict` (package already exists and override is not
+ * requested), `invalid` (package is invalid), `rejected` (entry path is absolute, contains
+ * `..` or dot-prefixed segments or targets `repodata`) and `skipped` (entry is not rpm
+ * package). Malformed or truncated archive is answered with 400 status, packages unpacked
+ * before the malformed entry stay in {@link RpmUpload#TO_ADD} location.
+ * Request supports the same `override` and `skip_update` parameters as {@link RpmUpload}.
+ * @since 1.11
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class RpmBulkUpload implements Slice {
+
+    /**
+     * Read buffer size.
+     */
+    private static final int BUFSIZE = 64 * 1024;
+
+    /**
+     * Max number of entry chunks, read from archive and not yet taken by staging.
+     */
+    private static final int QUEUE = 16;
+
+    /**
+     * Queue offer timeout, milliseconds.
+     */
+    private static final long POLL = 100;
+
+    /**
+     * Repository metadata directory name.
+     */
+    private static final String REPODATA = "repodata";
+
+    /**
+     * Accepted status.
+     */
+    private static final String ACCEPTED = "accepted";
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repo config.
+     */
+    private final RepoConfig config;
+
+    /**
+     * Artipie artifact upload/remove events.
+     */
+    private final Optional<Queue<ArtifactEvent>> events;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param config Repository configuration
+     * @param events Artipie artifact upload/remove events
+     */
+    public RpmBulkUpload(final Storage asto, final RepoConfig config,
+        final Optional<Queue<ArtifactEvent>> events) {
+        this.asto = asto;
+        this.config = config;
+        this.events = events;
+    }
+
+    @Override
+    public Response response(final String line,
+        final Iterable<Map.Entry<String, String>> headers, final Publisher<ByteBuffer> body) {
+        final RpmUpload.Request request = new RpmUpload.Request(line);
+        final PackageStaging staging = new PackageStaging(this.asto, this.config, this.events);
+        return new AsyncResponse(
+            this.unpack(body, request.override(), staging).thenCompose(
+                results -> {
+                    final CompletionStage<Response> res;
+                    if (results.isPresent()) {
+                        final CompletionStage<Void> update;
+                        if (results.get().containsValue(RpmBulkUpload.ACCEPTED)) {
+                            update = staging.update(request.skipUpdate(), headers);
+                        } else {
+                            update = CompletableFuture.allOf();
+                        }
+                        res = update.thenApply(
+                            nothing -> new RsWithBody(
+                                new RsWithHeaders(
+                                    new RsWithStatus(RsStatus.ACCEPTED),
+                                    new Headers.From(new ContentType("application/xml"))
+                                ),
+                                RpmBulkUpload.document("upload", results.get()),
+                                StandardCharsets.UTF_8
+                            )
+                        );
+                    } else {
+                        res = CompletableFuture.completedFuture(
+                            new RsWithStatus(RsStatus.BAD_REQUEST)
+                        );
+                    }
+                    return res;
+                }
+            )
+        );
+    }
+
+    /**
+     * Unpack packages from tar archive request body.
+     * @param body Request body
+     * @param override Whether existing packages should be overridden
+     * @param staging Packages staging
+     * @return Completable action with entries paths and results, empty if archive is invalid
+     */
+    private CompletionStage<Optional<Map<String, String>>> unpack(
+        final Publisher<ByteBuffer> body, final boolean override,
+        final PackageStaging staging) {
+        return new ContentAsStream<Map<String, String>>(body).process(
+            input -> {
+                final Map<String, String> results = new LinkedHashMap<>();
+                final TarArchiveInputStream tar = new TarArchiveInputStream(input);
+                Optional<TarArchiveEntry> entry = RpmBulkUpload.nextEntry(tar);
+                while (entry.isPresent()) {
+                    final String status = this.status(tar, entry.get(), override, staging);
+                    if (entry.get().isFile()) {
+                        results.put(entry.get().getName(), status);
+                    }
+                    entry = RpmBulkUpload.nextEntry(tar);
+                }
+                RpmBulkUpload.drain(input);
+                return results;
+            }
+        ).handle(
+            (results, err) -> {
+                final Optional<Map<String, String>> res;
+                if (err == null) {
+                    res = Optional.of(results);
+                } else if (RpmBulkUpload.unwrap(err) instanceof UncheckedIOException) {
+                    res = Optional.empty();
+                } else {
+                    throw new CompletionException(RpmBulkUpload.unwrap(err));
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Handle archive entry: stage the package if entry is a package with safe path. Method
+     * is called by the archive reading thread and returns when entry is handled.
+     * @param tar Archive stream positioned at the entry
+     * @param entry Archive entry
+     * @param override Whether existing packages should be overridden
+     * @param staging Packages staging
+     * @return Entry status
+     * @throws UncheckedIOException If archive is invalid
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private String status(final InputStream tar, final TarArchiveEntry entry,
+        final boolean override, final PackageStaging staging) {
+        final Optional<Key> key = RpmBulkUpload.key(entry.getName());
+        final String res;
+        if (!entry.isFile() || !entry.getName().endsWith(".rpm")) {
+            res = "skipped";
+        } else if (key.isEmpty()) {
+            res = "rejected";
+        } else if (!override && this.asto.exists(key.get()).join()) {
+            res = "conflict";
+        } else if (this.stage(tar, key.get(), staging)) {
+            res = RpmBulkUpload.ACCEPTED;
+        } else {
+            res = "invalid";
+        }
+        return res;
+    }
+
+    /**
+     * Stage the package from archive entry. Entry bytes are read by the archive reading
+     * thread and put into the bounded queue, staging publisher takes them on the blocking
+     * executor. Reading stops as soon as staging is done, e.g. when the package header is
+     * invalid, the rest of the entry is skipped by the archive stream.
+     * @param tar Archive stream positioned at the entry
+     * @param key Package key
+     * @param staging Packages staging
+     * @return True if package was staged
+     * @throws UncheckedIOException If archive is invalid
+     */
+    private boolean stage(final InputStream tar, final Key key, final PackageStaging staging) {
+        final BlockingQueue<ByteBuffer> queue = new ArrayBlockingQueue<>(RpmBulkUpload.QUEUE);
+        final CompletableFuture<Boolean> saved = staging.save(
+            key, Headers.EMPTY,
+            Flowable.<ByteBuffer>generate(
+                emitter -> {
+                    final ByteBuffer chunk = queue.take();
+                    if (chunk.hasRemaining()) {
+                        emitter.onNext(chunk);
+                    } else {
+                        emitter.onComplete();
+                    }
+                }
+            ).subscribeOn(Schedulers.from(this.config.executor()))
+        ).toCompletableFuture();
+        boolean ended = false;
+        try {
+            while (!ended && !saved.isDone()) {
+                final byte[] buf = new byte[RpmBulkUpload.BUFSIZE];
+                final int read = tar.read(buf);
+                if (read < 0) {
+                    ended = true;
+                    RpmBulkUpload.offer(queue, ByteBuffer.allocate(0), saved);
+                } else {
+                    RpmBulkUpload.offer(queue, ByteBuffer.wrap(buf, 0, read), saved);
+                }
+            }
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        } finally {
+            if (!ended) {
+                RpmBulkUpload.offer(queue, ByteBuffer.allocate(0), saved);
+            }
+        }
+        return saved.join();
+    }
+
+    /**
+     * Put entry chunk into the staging queue, waiting for the free space while staging is not
+     * done. When staging is done, chunk is offered without waiting: the end of the entry
+     * releases the staging publisher, if it still waits for the next chunk.
+     * @param queue Staging queue
+     * @param chunk Entry chunk, empty chunk marks the end of the entry
+     * @param saved Staging result
+     */
+    private static void offer(final BlockingQueue<ByteBuffer> queue, final ByteBuffer chunk,
+        final CompletableFuture<Boolean> saved) {
+        try {
+            boolean offered = false;
+            while (!offered && !saved.isDone()) {
+                offered = queue.offer(chunk, RpmBulkUpload.POLL, TimeUnit.MILLISECONDS);
+            }
+            if (!offered) {
+                queue.offer(chunk);
+            }
+        } catch (final InterruptedException err) {
+            Thread.currentThread().interrupt();
+            throw new ArtipieIOException(err);
+        }
+    }
+
+    /**
+     * Read next archive entry.
+     * @param tar Archive stream
+     * @return Next entry, empty at the end of the archive
+     * @throws UncheckedIOException If archive is invalid
+     */
+    private static Optional<TarArchiveEntry> nextEntry(final TarArchiveInputStream tar) {
+        try {
+            return Optional.ofNullable(tar.getNextTarEntry());
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        } catch (final IllegalArgumentException err) {
+            throw new UncheckedIOException(new IOException(err));
+        }
+    }
+
+    /**
+     * Read the rest of the body after the end of archive, body can be padded with
+     * empty blocks, which are not read by the archive stream.
+     * @param input Body stream
+     * @throws UncheckedIOException On error
+     */
+    private static void drain(final InputStream input) {
+        try {
+            final byte[] buf = new byte[RpmBulkUpload.BUFSIZE];
+            int read = 0;
+            while (read >= 0) {
+                read = input.read(buf);
+            }
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+    }
+
+    /**
+     * Unwrap completion error.
+     * @param err Error
+     * @return Cause of the completion error
+     */
+    private static Throwable unwrap(final Throwable err) {
+        Throwable res = err;
+        while (res instanceof CompletionException && res.getCause() != null) {
+            res = res.getCause();
+        }
+        return res;
+    }
+
+    /**
+     * Package key from the archive entry or request path, empty if path is not a plain rpm
+     * package path: it's absolute, contains `..` or dot-prefixed segments (service locations
+     * such as `.add`, `.checksums` or `.headers`) or targets `repodata`.
+     * @param name Entry name or path
+     * @return Package key
+     */
+    static Optional<Key> key(final String name) {
+        final String[] parts = Arrays.stream(name.split("/"))
+            .filter(part -> !part.isEmpty() && !".".equals(part))
+            .toArray(String[]::new);
+        final Optional<Key> res;
+        if (parts.length == 0 || name.startsWith("/") || !name.endsWith(".rpm")
+            || Arrays.stream(parts).anyMatch(
+                part -> part.startsWith(".") || RpmBulkUpload.REPODATA.equals(part)
+            )) {
+            res = Optional.empty();
+        } else {
+            res = Optional.of(new Key.From(parts));
+        }
+        return res;
+    }
+
+    /**
+     * Results document.
+     * @param root Document root element name
+     * @param results Entries paths and results
+     * @return Xml document
+     */
+    static String document(final String root, final Map<String, String> results) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            final XMLStreamWriter writer = XMLOutputFactory.newInstance()
+                .createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            writer.writeStartElement(root);
+            for (final Map.Entry<String, String> item : results.entrySet()) {
+                writer.writeEmptyElement("package");
+                writer.writeAttribute("path", item.getKey());
+                writer.writeAttribute("status", item.getValue());
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } catch (final XMLStreamException err) {
+            throw new ArtipieIOException(err);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
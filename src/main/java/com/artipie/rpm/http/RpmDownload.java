@@ -0,0 +1,413 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.KeyLastPart;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.ContentLength;
+import com.artipie.http.headers.Header;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqHeaders;
+import com.artipie.http.rs.RsFull;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.slice.KeyFromPath;
+import com.artipie.http.slice.SliceDownload;
+import com.artipie.rpm.meta.XmlRepomdChecksums;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice to download repository files. Repository metadata is served with
+ * strong ETag, built from the checksums from repomd.xml, and Last-Modified, equal to
+ * repomd.xml revision, conditional requests with `If-None-Match` and `If-Modified-Since`
+ * headers are answered with 304 status. Metadata files with checksum in the name and
+ * files of metadata generations `repodata/<generation>/` are marked as immutable. Package
+ * requests with unsatisfiable `Range` are answered with 416 status. Mirrors metalink is
+ * served as `application/metalink+xml` and is always revalidated.
+ * @since 1.11
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class RpmDownload implements Slice {
+
+    /**
+     * Repomd file name.
+     */
+    private static final String REPOMD = "repomd.xml";
+
+    /**
+     * Metalink file name.
+     */
+    private static final String METALINK = "metalink.xml";
+
+    /**
+     * Repository metadata directory name.
+     */
+    private static final String REPODATA = "repodata";
+
+    /**
+     * Cache control for the files which can be changed.
+     */
+    private static final String REVALIDATE = "no-cache";
+
+    /**
+     * Cache control for the files which are never changed.
+     */
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    /**
+     * Accept ranges header name.
+     */
+    private static final String RANGES = "Accept-Ranges";
+
+    /**
+     * Name of the metadata file with checksum prefix.
+     */
+    private static final Pattern HASH_NAMED = Pattern.compile("^[0-9a-f]{32,128}-.+$");
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Origin download slice.
+     */
+    private final Slice origin;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     */
+    public RpmDownload(final Storage asto) {
+        this.asto = asto;
+        this.origin = new SliceDownload(asto);
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final Key key = new KeyFromPath(new RequestLineFrom(line).uri().getPath());
+        final Optional<Key> repodata = RpmDownload.repodata(key);
+        final Response res;
+        if (repodata.isPresent()) {
+            final Key repomd = new Key.From(repodata.get(), RpmDownload.REPOMD);
+            if (key.equals(repomd)) {
+                res = this.repomd(repomd, headers);
+            } else if (key.equals(new Key.From(repodata.get(), RpmDownload.METALINK))) {
+                res = new RsWithHeaders(
+                    this.origin.response(line, headers, body),
+                    new Header("Content-Type", "application/metalink+xml"),
+                    new Header("Cache-Control", RpmDownload.REVALIDATE)
+                );
+            } else {
+                res = this.metadata(repomd, key, line, headers, body);
+            }
+        } else {
+            final RqHeaders range = new RqHeaders(headers, "Range");
+            final Response full = this.origin.response(line, headers, body);
+            if (range.isEmpty() || !new RqHeaders(headers, "If-Range").isEmpty()) {
+                res = full;
+            } else {
+                res = this.ranged(key, new ByteRanges(range.get(0)), full);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Handle request with `Range` header: ranges, which can't be satisfied for the
+     * stored item, are answered with 416 status, otherwise full representation is sent
+     * with `Accept-Ranges: none`, as partial content responses are not supported.
+     * @param key Requested item key
+     * @param ranges Requested ranges
+     * @param full Full representation response
+     * @return Response
+     */
+    private Response ranged(final Key key, final ByteRanges ranges, final Response full) {
+        final Response res;
+        if (ranges.valid()) {
+            res = new AsyncResponse(
+                this.asto.exists(key).thenCompose(
+                    exists -> {
+                        final CompletionStage<Response> rsp;
+                        if (exists) {
+                            rsp = this.asto.metadata(key)
+                                .thenApply(meta -> meta.read(Meta.OP_SIZE).<Long>map(val -> val))
+                                .thenApply(
+                                    size -> {
+                                        final Response val;
+                                        if (size.isPresent()
+                                            && !ranges.satisfiable(size.get())) {
+                                            val = new RsWithHeaders(
+                                                new RsWithStatus(RsStatus.BAD_RANGE),
+                                                new Header(
+                                                    "Content-Range",
+                                                    String.format("bytes */%d", size.get())
+                                                ),
+                                                new Header(RpmDownload.RANGES, "none")
+                                            );
+                                        } else {
+                                            val = new RsWithHeaders(
+                                                full, new Header(RpmDownload.RANGES, "none")
+                                            );
+                                        }
+                                        return val;
+                                    }
+                                );
+                        } else {
+                            rsp = CompletableFuture.completedFuture(full);
+                        }
+                        return rsp;
+                    }
+                )
+            );
+        } else {
+            res = full;
+        }
+        return res;
+    }
+
+    /**
+     * Serve repomd.xml, ETag is calculated from the repomd bytes.
+     * @param key Repomd key
+     * @param headers Request headers
+     * @return Response
+     */
+    private Response repomd(final Key key, final Iterable<Map.Entry<String, String>> headers) {
+        return new AsyncResponse(
+            this.asto.exists(key).thenCompose(
+                exists -> {
+                    final CompletionStage<Response> res;
+                    if (exists) {
+                        res = this.asto.value(key)
+                            .thenCompose(val -> new PublisherAs(val).bytes())
+                            .thenApply(
+                                bytes -> {
+                                    final Headers hdrs = RpmDownload.cacheHeaders(
+                                        DigestUtils.sha256Hex(bytes),
+                                        new XmlRepomdChecksums(new ByteArrayInputStream(bytes))
+                                            .read().timestamp(),
+                                        RpmDownload.REVALIDATE
+                                    );
+                                    final Response resp;
+                                    if (RpmDownload.notModified(headers, hdrs)) {
+                                        resp = new RsWithHeaders(
+                                            new RsWithStatus(RsStatus.NOT_MODIFIED), hdrs
+                                        );
+                                    } else {
+                                        resp = new RsFull(
+                                            RsStatus.OK,
+                                            new Headers.From(
+                                                hdrs, new ContentLength(bytes.length)
+                                            ),
+                                            new Content.From(bytes)
+                                        );
+                                    }
+                                    return resp;
+                                }
+                            );
+                    } else {
+                        res = CompletableFuture.completedFuture(
+                            new RsWithStatus(RsStatus.NOT_FOUND)
+                        );
+                    }
+                    return res;
+                }
+            )
+        );
+    }
+
+    /**
+     * Serve metadata file, ETag is obtained from repomd.xml.
+     * @param repomd Repomd key
+     * @param key Requested file key
+     * @param line Request line
+     * @param headers Request headers
+     * @param body Request body
+     * @return Response
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private Response metadata(final Key repomd, final Key key, final String line,
+        final Iterable<Map.Entry<String, String>> headers, final Publisher<ByteBuffer> body) {
+        final String control;
+        if (key.parent().equals(RpmDownload.repodata(key))) {
+            control = RpmDownload.cacheControl(new KeyLastPart(key).get());
+        } else {
+            control = RpmDownload.IMMUTABLE;
+        }
+        return new AsyncResponse(
+            this.asto.exists(repomd).thenCompose(
+                exists -> {
+                    final CompletionStage<Optional<Headers>> res;
+                    if (exists) {
+                        res = this.asto.value(repomd)
+                            .thenCompose(val -> new PublisherAs(val).bytes())
+                            .thenApply(
+                                bytes -> new XmlRepomdChecksums(new ByteArrayInputStream(bytes))
+                                    .read()
+                            ).thenApply(
+                                info -> info.checksums().entrySet().stream()
+                                    .filter(
+                                        entry -> key.string().equals(entry.getKey())
+                                            || key.string().endsWith(
+                                                String.format("/%s", entry.getKey())
+                                            )
+                                    )
+                                    .findFirst()
+                                    .map(
+                                        entry -> RpmDownload.cacheHeaders(
+                                            entry.getValue(), info.timestamp(), control
+                                        )
+                                    )
+                            );
+                    } else {
+                        res = CompletableFuture.completedFuture(Optional.empty());
+                    }
+                    return res;
+                }
+            ).thenCompose(
+                hdrs -> {
+                    final CompletionStage<Response> res;
+                    if (hdrs.isPresent() && RpmDownload.notModified(headers, hdrs.get())) {
+                        res = CompletableFuture.completedFuture(
+                            new RsWithHeaders(
+                                new RsWithStatus(RsStatus.NOT_MODIFIED), hdrs.get()
+                            )
+                        );
+                    } else {
+                        final Response resp = this.origin.response(line, headers, body);
+                        res = CompletableFuture.completedFuture(
+                            hdrs.<Response>map(val -> new RsWithHeaders(resp, val)).orElse(resp)
+                        );
+                    }
+                    return res;
+                }
+            )
+        );
+    }
+
+    /**
+     * Repository metadata directory of the requested file: file is located either directly in
+     * `repodata` directory or in its generation directory, see
+     * {@link com.artipie.rpm.asto.AstoRepodata}.
+     * @param key Requested file key
+     * @return Metadata directory key, empty if file is not a metadata file
+     */
+    private static Optional<Key> repodata(final Key key) {
+        return Stream.of(key.parent(), key.parent().flatMap(Key::parent))
+            .flatMap(Optional::stream)
+            .filter(dir -> new KeyLastPart(dir).get().equals(RpmDownload.REPODATA))
+            .findFirst();
+    }
+
+    /**
+     * Cache control header value: files with checksum in the name are immutable.
+     * @param name File name
+     * @return Cache control value
+     */
+    private static String cacheControl(final String name) {
+        final String res;
+        if (RpmDownload.HASH_NAMED.matcher(name).matches()) {
+            res = RpmDownload.IMMUTABLE;
+        } else {
+            res = RpmDownload.REVALIDATE;
+        }
+        return res;
+    }
+
+    /**
+     * Caching headers.
+     * @param etag ETag value without quotes
+     * @param modified Last modification time, unix time in seconds, if known
+     * @param control Cache control header value
+     * @return Headers
+     */
+    private static Headers cacheHeaders(final String etag, final Optional<Long> modified,
+        final String control) {
+        final List<Map.Entry<String, String>> res = new ArrayList<>(3);
+        res.add(new Header("ETag", String.format("\"%s\"", etag)));
+        modified.ifPresent(
+            time -> res.add(
+                new Header(
+                    "Last-Modified",
+                    DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                        ZonedDateTime.ofInstant(Instant.ofEpochSecond(time), ZoneOffset.UTC)
+                    )
+                )
+            )
+        );
+        res.add(new Header("Cache-Control", control));
+        return new Headers.From(res);
+    }
+
+    /**
+     * Checks whether requested file was not modified according to conditional
+     * request headers. `If-None-Match` has precedence over `If-Modified-Since`.
+     * @param request Request headers
+     * @param response Caching response headers
+     * @return True if file was not modified
+     */
+    private static boolean notModified(final Iterable<Map.Entry<String, String>> request,
+        final Headers response) {
+        final String etag = new RqHeaders(response, "ETag").get(0);
+        final RqHeaders match = new RqHeaders(request, "If-None-Match");
+        final boolean res;
+        if (match.isEmpty()) {
+            final RqHeaders since = new RqHeaders(request, "If-Modified-Since");
+            final RqHeaders modified = new RqHeaders(response, "Last-Modified");
+            res = !since.isEmpty() && !modified.isEmpty()
+                && RpmDownload.notModifiedSince(since.get(0), modified.get(0));
+        } else {
+            res = match.stream().flatMap(val -> Arrays.stream(val.split(",")))
+                .map(String::trim)
+                .map(val -> val.replaceFirst("^W/", ""))
+                .anyMatch(val -> "*".equals(val) || etag.equals(val));
+        }
+        return res;
+    }
+
+    /**
+     * Checks `If-Modified-Since` header value against last modification time.
+     * @param since Header value
+     * @param modified Last modification time
+     * @return True if file was not modified since the time
+     */
+    private static boolean notModifiedSince(final String since, final String modified) {
+        boolean res;
+        try {
+            res = !ZonedDateTime.parse(modified, DateTimeFormatter.RFC_1123_DATE_TIME)
+                .isAfter(ZonedDateTime.parse(since, DateTimeFormatter.RFC_1123_DATE_TIME));
+        } catch (final DateTimeParseException ignored) {
+            res = false;
+        }
+        return res;
+    }
+}
@@ -15,6 +15,7 @@ import com.artipie.http.async.AsyncResponse;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithStatus;
 import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.asto.AstoPrimaryIndex;
 import com.artipie.rpm.asto.AstoRepoRemove;
 import com.artipie.rpm.meta.PackageInfo;
 import com.artipie.scheduling.ArtifactEvent;
@@ -85,70 +86,110 @@ public final class RpmRemove implements Slice {
         final RpmUpload.Request request = new RpmUpload.Request(line);
         final Key temp = new Key.From(RpmRemove.TO_RM, request.file());
         return new AsyncResponse(
-            this.asto.save(temp, Content.EMPTY).thenApply(nothing -> RpmRemove.checksum(headers))
-                .thenCompose(
-                    checksum -> checksum.map(sum -> this.validate(request.file(), sum))
-                        .orElse(CompletableFuture.completedFuture(request.force())).thenCompose(
-                            valid -> {
-                                CompletionStage<RsStatus> res = CompletableFuture
-                                    .completedFuture(RsStatus.ACCEPTED);
-                                if (valid && this.cnfg.mode() == RepoConfig.UpdateMode.UPLOAD
-                                    && !request.skipUpdate()) {
-                                    res = this.events.map(
-                                        queue -> {
-                                            final Collection<PackageInfo> infos =
-                                                new ArrayList<>(1);
-                                            return new AstoRepoRemove(this.asto, this.cnfg, infos)
-                                                .perform().thenAccept(
-                                                    nothing -> infos.forEach(
-                                                        item -> queue.add(
-                                                            new ArtifactEvent(
-                                                                RpmUpload.REPO_TYPE,
-                                                                this.cnfg.name(), item.name(),
-                                                                item.version()
-                                                            )
-                                                        )
-                                                    )
-                                                );
-                                        }
-                                    ).orElseGet(
-                                        () -> new AstoRepoRemove(this.asto, this.cnfg).perform()
-                                    ).thenApply(ignored -> RsStatus.ACCEPTED);
-                                } else if (!valid) {
-                                    res = this.asto.delete(temp)
-                                        .thenApply(nothing -> RsStatus.BAD_REQUEST);
-                                }
-                                return res.thenApply(RsWithStatus::new);
+            this.asto.save(temp, Content.EMPTY).thenCompose(
+                nothing -> new AstoPrimaryIndex(this.asto).checksums()
+            ).thenCompose(
+                index -> RpmRemove.checksum(headers)
+                    .map(sum -> this.validate(request.file(), sum, index))
+                    .orElse(CompletableFuture.completedFuture(request.force())).thenCompose(
+                        valid -> {
+                            CompletionStage<RsStatus> res = CompletableFuture
+                                .completedFuture(RsStatus.ACCEPTED);
+                            if (valid && this.cnfg.mode() == RepoConfig.UpdateMode.UPLOAD
+                                && !request.skipUpdate()) {
+                                res = this.update(index).thenApply(ignored -> RsStatus.ACCEPTED);
+                            } else if (!valid) {
+                                res = this.asto.delete(temp)
+                                    .thenApply(nothing -> RsStatus.BAD_REQUEST);
                             }
-                        )
-                )
+                            return res.thenApply(RsWithStatus::new);
+                        }
+                    )
+            )
         );
     }
 
+    /**
+     * Remove packages, saved into {@link RpmRemove#TO_RM} location, from the repository
+     * and its metadata, adding events about removed packages into the queue if required.
+     * Primary metadata is read once per request, so the published packages index, which was
+     * already read by the request, is passed here.
+     * @param index Published packages locations and checksums, see
+     *  {@link AstoPrimaryIndex#checksums()}
+     * @return Completable action
+     */
+    CompletionStage<Void> update(final Map<String, String> index) {
+        return this.events.map(
+            queue -> {
+                final Collection<PackageInfo> infos = new ArrayList<>(1);
+                return new AstoRepoRemove(this.asto, this.cnfg, infos).perform(index).thenAccept(
+                    nothing -> infos.forEach(
+                        item -> queue.add(
+                            new ArtifactEvent(
+                                RpmUpload.REPO_TYPE, this.cnfg.name(), item.name(),
+                                item.version()
+                            )
+                        )
+                    )
+                );
+            }
+        ).orElseGet(() -> new AstoRepoRemove(this.asto, this.cnfg).perform(index));
+    }
+
     /**
      * Validate rpm package to remove. Valid if:
      * a) package exists,
-     * b) checksums (checksum of the existing package = checksum from request header) are equal.
+     * b) checksums (checksum of the existing package = checksum from request header) are equal,
+     * checksum of the published package is taken from the primary metadata without reading
+     * the package.
      * @param file File key
      * @param checksum Accepted checksum to compare
+     * @param index Published packages locations and checksums
      * @return True is package is valid
      */
-    private CompletionStage<Boolean> validate(final Key file, final Pair<String, String> checksum) {
+    private CompletionStage<Boolean> validate(final Key file, final Pair<String, String> checksum,
+        final Map<String, String> index) {
         return this.asto.exists(file).thenCompose(
             exists -> {
                 CompletionStage<Boolean> res = CompletableFuture.completedFuture(false);
                 if (exists) {
-                    res = this.asto.value(file).thenCompose(
-                        val -> new ContentDigest(
-                            val, () -> new Digests.FromString(checksum.getKey()).get().get()
-                        ).hex().thenApply(pkg -> pkg.equals(checksum.getValue()))
-                    );
+                    res = this.published(file, checksum.getKey(), index).thenCompose(
+                        published -> published.<CompletionStage<String>>map(
+                            CompletableFuture::completedFuture
+                        ).orElseGet(
+                            () -> this.asto.value(file).thenCompose(
+                                val -> new ContentDigest(
+                                    val,
+                                    () -> new Digests.FromString(checksum.getKey()).get().get()
+                                ).hex()
+                            )
+                        )
+                    ).thenApply(pkg -> pkg.equals(checksum.getValue()));
                 }
                 return res;
             }
         );
     }
 
+    /**
+     * Checksum of the published package from the repository primary metadata, empty if
+     * package is not published or algorithm differs from the repository digest.
+     * @param file File key
+     * @param alg Checksum algorithm
+     * @param index Published packages locations and checksums
+     * @return Completable action with the checksum
+     */
+    private CompletionStage<Optional<String>> published(final Key file, final String alg,
+        final Map<String, String> index) {
+        final Optional<String> res;
+        if (this.cnfg.digest().messageDigest().getAlgorithm().equalsIgnoreCase(alg)) {
+            res = Optional.ofNullable(index.get(file.string()));
+        } else {
+            res = Optional.empty();
+        }
+        return CompletableFuture.completedFuture(res);
+    }
+
     /**
      * Obtain algorithm and checksum from headers.
      * @param headers Headers
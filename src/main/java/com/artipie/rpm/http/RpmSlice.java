@@ -15,7 +15,6 @@ import com.artipie.http.rt.ByMethodsRule;
 import com.artipie.http.rt.RtRule;
 import com.artipie.http.rt.RtRulePath;
 import com.artipie.http.rt.SliceRoute;
-import com.artipie.http.slice.SliceDownload;
 import com.artipie.http.slice.SliceSimple;
 import com.artipie.rpm.RepoConfig;
 import com.artipie.scheduling.ArtifactEvent;
@@ -75,29 +74,91 @@ public final class RpmSlice extends Slice.Wrap {
         final Authentication auth,
         final RepoConfig config,
         final Optional<Queue<ArtifactEvent>> events
+    ) {
+        this(
+            storage, policy, auth, config, events,
+            new UploadJobs(storage, config.executor())
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param policy Access policy.
+     * @param auth Auth details.
+     * @param config Repository configuration.
+     * @param events Artifact events queue
+     * @param jobs Asynchronous upload jobs
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    private RpmSlice(
+        final Storage storage,
+        final Policy<?> policy,
+        final Authentication auth,
+        final RepoConfig config,
+        final Optional<Queue<ArtifactEvent>> events,
+        final UploadJobs jobs
     ) {
         super(
             new SliceRoute(
+                new RtRulePath(
+                    new RtRule.All(
+                        new ByMethodsRule(RqMethod.GET), new RtRule.ByPath(RpmUploadJobs.PTRN)
+                    ),
+                    new BasicAuthzSlice(
+                        new RpmUploadJobs(jobs),
+                        auth,
+                        new OperationControl(
+                            policy, new AdapterBasicPermission(config.name(), Action.Standard.READ)
+                        )
+                    )
+                ),
                 new RtRulePath(
                     new ByMethodsRule(RqMethod.GET),
                     new BasicAuthzSlice(
-                        new SliceDownload(storage),
+                        new RpmDownload(storage),
                         auth,
                         new OperationControl(
                             policy, new AdapterBasicPermission(config.name(), Action.Standard.READ)
                         )
                     )
                 ),
+                new RtRulePath(
+                    new RtRule.All(
+                        new ByMethodsRule(RqMethod.PUT), new RtRule.ByPath(".*\\.tar$")
+                    ),
+                    new BasicAuthzSlice(
+                        new RpmBulkUpload(storage, config, events),
+                        auth,
+                        new OperationControl(
+                            policy, new AdapterBasicPermission(config.name(), Action.Standard.WRITE)
+                        )
+                    )
+                ),
                 new RtRulePath(
                     new ByMethodsRule(RqMethod.PUT),
                     new BasicAuthzSlice(
-                        new RpmUpload(storage, config, events),
+                        new RpmUpload(storage, config, events, jobs),
                         auth,
                         new OperationControl(
                             policy, new AdapterBasicPermission(config.name(), Action.Standard.WRITE)
                         )
                     )
                 ),
+                new RtRulePath(
+                    new RtRule.All(
+                        new ByMethodsRule(RqMethod.DELETE),
+                        new RtRule.ByPath(RpmBatchRemove.PTRN)
+                    ),
+                    new BasicAuthzSlice(
+                        new RpmBatchRemove(storage, config, events),
+                        auth,
+                        new OperationControl(
+                            policy,
+                            new AdapterBasicPermission(config.name(), Action.Standard.DELETE)
+                        )
+                    )
+                ),
                 new RtRulePath(
                     new ByMethodsRule(RqMethod.DELETE),
                     new BasicAuthzSlice(
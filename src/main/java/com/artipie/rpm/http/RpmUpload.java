@@ -4,19 +4,18 @@
  */
 package com.artipie.rpm.http;
 
-import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.http.Headers;
 import com.artipie.http.Response;
 import com.artipie.http.Slice;
 import com.artipie.http.async.AsyncResponse;
-import com.artipie.http.headers.Login;
+import com.artipie.http.headers.Header;
 import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqHeaders;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithHeaders;
 import com.artipie.http.rs.RsWithStatus;
 import com.artipie.rpm.RepoConfig;
-import com.artipie.rpm.asto.AstoRepoAdd;
 import com.artipie.scheduling.ArtifactEvent;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Streams;
@@ -32,7 +31,18 @@ import java.util.stream.Stream;
 import org.reactivestreams.Publisher;
 
 /**
- * Slice for rpm packages upload.
+ * Slice for rpm packages upload. Checksums of the package can be supplied by client in
+ * `X-Checksum-Sha1` or `X-Checksum-Sha256` headers, package is not accepted and
+ * 400 status is returned if checksum does not match or package is invalid.
+ * With `async=true` parameter the response is sent as soon as the package is saved,
+ * repository metadata is updated in background and `Location` header of the response
+ * points to the update job status resource by the absolute path from the repository root,
+ * see {@link RpmUploadJobs}. With `skip_update`
+ * parameter there is no update to wait for, so no job is started.
+ * With `X-Checksum-Deploy: true` header the request body is not read: the package with
+ * the checksum from `X-Checksum-*` header of the repository digest algorithm is found in
+ * the repository primary metadata and copied under the requested key by the storage,
+ * 404 status is returned if there is no such package, so client has to send the content.
  *
  * @since 0.8.3
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
@@ -65,6 +75,11 @@ public final class RpmUpload implements Slice {
      */
     private final Optional<Queue<ArtifactEvent>> events;
 
+    /**
+     * Asynchronous metadata update jobs.
+     */
+    private final UploadJobs jobs;
+
     /**
      * RPM repository HTTP API.
      *
@@ -74,9 +89,24 @@ public final class RpmUpload implements Slice {
      */
     RpmUpload(final Storage storage, final RepoConfig config,
         final Optional<Queue<ArtifactEvent>> events) {
+        this(storage, config, events, new UploadJobs(storage, config.executor()));
+    }
+
+    /**
+     * RPM repository HTTP API.
+     *
+     * @param storage Storage
+     * @param config Repository configuration
+     * @param events Artipie artifact upload/remove events
+     * @param jobs Asynchronous metadata update jobs
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    RpmUpload(final Storage storage, final RepoConfig config,
+        final Optional<Queue<ArtifactEvent>> events, final UploadJobs jobs) {
         this.asto = storage;
         this.config = config;
         this.events = events;
+        this.jobs = jobs;
     }
 
     @Override
@@ -94,47 +124,68 @@ public final class RpmUpload implements Slice {
         return new AsyncResponse(
             conflict.thenCompose(
                 conflicts -> {
-                    final CompletionStage<RsStatus> status;
+                    final CompletionStage<Response> res;
                     if (conflicts) {
-                        status = CompletableFuture.completedFuture(RsStatus.CONFLICT);
+                        res = CompletableFuture.completedFuture(
+                            new RsWithStatus(RsStatus.CONFLICT)
+                        );
                     } else {
-                        status = this.asto.save(
-                            new Key.From(RpmUpload.TO_ADD, key), new Content.From(body)
-                        ).thenCompose(
-                            ignored -> {
-                                final CompletionStage<Void> result;
-                                if (request.skipUpdate()
-                                    || this.config.mode() == RepoConfig.UpdateMode.CRON) {
-                                    result = CompletableFuture.allOf();
-                                } else {
-                                    final AstoRepoAdd repo =
-                                        new AstoRepoAdd(this.asto, this.config);
-                                    result = this.events.map(
-                                        queue -> repo.performWithResult().thenAccept(
-                                            list -> list.forEach(
-                                                info -> queue.add(
-                                                    new ArtifactEvent(
-                                                        RpmUpload.REPO_TYPE, this.config.name(),
-                                                        new Login(new Headers.From(headers))
-                                                            .getValue(),
-                                                        info.name(), info.version(),
-                                                        info.packageSize()
-                                                    )
-                                                )
+                        final PackageStaging staging =
+                            new PackageStaging(this.asto, this.config, this.events);
+                        final CompletionStage<Boolean> saved;
+                        final RsStatus rejected;
+                        if (RpmUpload.checksumDeploy(headers)) {
+                            saved = staging.deduplicate(key, headers);
+                            rejected = RsStatus.NOT_FOUND;
+                        } else {
+                            saved = staging.save(key, headers, body);
+                            rejected = RsStatus.BAD_REQUEST;
+                        }
+                        res = saved.thenCompose(
+                            valid -> {
+                                final CompletionStage<Response> rsp;
+                                if (!valid) {
+                                    rsp = CompletableFuture.completedFuture(
+                                        new RsWithStatus(rejected)
+                                    );
+                                } else if (request.async() && !request.skipUpdate()) {
+                                    rsp = this.jobs.start(
+                                        key.string(), () -> staging.update(false, headers)
+                                    ).thenApply(
+                                        job -> new RsWithHeaders(
+                                            new RsWithStatus(RsStatus.ACCEPTED),
+                                            new Header(
+                                                "Location",
+                                                String.format("/%s/%s", UploadJobs.PATH, job)
                                             )
                                         )
-                                    ).orElseGet(repo::perform);
+                                    );
+                                } else {
+                                    rsp = staging.update(request.skipUpdate(), headers)
+                                        .thenApply(
+                                            nothing -> new RsWithStatus(RsStatus.ACCEPTED)
+                                        );
                                 }
-                                return result;
+                                return rsp;
                             }
-                        ).thenApply(nothing -> RsStatus.ACCEPTED);
+                        );
                     }
-                    return status;
+                    return res;
                 }
-            ).thenApply(RsWithStatus::new)
+            )
         );
     }
 
+    /**
+     * Checks whether client requested checksum deploy with `X-Checksum-Deploy: true` header.
+     * @param headers Request headers
+     * @return True if package content is not sent and should be found by checksum
+     */
+    private static boolean checksumDeploy(final Iterable<Map.Entry<String, String>> headers) {
+        return new RqHeaders(headers, "X-Checksum-Deploy").stream()
+            .anyMatch(val -> "true".equalsIgnoreCase(val.trim()));
+    }
+
     /**
      * Request line.
      *
@@ -188,6 +239,15 @@ public final class RpmUpload implements Slice {
             return this.hasParamValue("skip_update=true");
         }
 
+        /**
+         * Returns `async` param.
+         *
+         * @return Async param value, <code>false</code> - if absent
+         */
+        public boolean async() {
+            return this.hasParamValue("async=true");
+        }
+
         /**
          * Returns `force` param.
          *
@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.ContentType;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqParams;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.reactivestreams.Publisher;
+
+/**
+ * Status of the asynchronous upload job, see {@link RpmUpload}. Job status is one of
+ * `pending`, `done` (metadata with the package is published) or `failed`, response body is
+ * xml document like {@code <job id="..." status="done"/>}. With `wait` parameter the
+ * request is held until the job is finished, but no longer than given number of seconds.
+ * Statuses are read from the repository storage, so the job started on any node is found.
+ * @since 1.11
+ */
+public final class RpmUploadJobs implements Slice {
+
+    /**
+     * Job path pattern.
+     */
+    static final Pattern PTRN = Pattern.compile(
+        String.format("^.*/%s/(?<id>[0-9a-f\\-]{36})$", Pattern.quote(UploadJobs.PATH))
+    );
+
+    /**
+     * Max wait time in seconds.
+     */
+    private static final long MAX_WAIT = 60;
+
+    /**
+     * Upload jobs.
+     */
+    private final UploadJobs jobs;
+
+    /**
+     * Ctor.
+     * @param jobs Upload jobs
+     */
+    RpmUploadJobs(final UploadJobs jobs) {
+        this.jobs = jobs;
+    }
+
+    @Override
+    public Response response(final String line,
+        final Iterable<Map.Entry<String, String>> headers, final Publisher<ByteBuffer> body) {
+        final URI uri = new RequestLineFrom(line).uri();
+        final Matcher matcher = RpmUploadJobs.PTRN.matcher(uri.getPath());
+        final Response res;
+        if (matcher.matches()) {
+            final String id = matcher.group("id");
+            res = new AsyncResponse(
+                this.jobs.status(id, RpmUploadJobs.wait(uri)).thenApply(
+                    status -> status.<Response>map(
+                        val -> new RsWithBody(
+                            new RsWithHeaders(
+                                new RsWithStatus(RsStatus.OK),
+                                new Headers.From(new ContentType("application/xml"))
+                            ),
+                            String.format("<job id=\"%s\" status=\"%s\"/>", id, val),
+                            StandardCharsets.UTF_8
+                        )
+                    ).orElseGet(() -> new RsWithStatus(RsStatus.NOT_FOUND))
+                )
+            );
+        } else {
+            res = new RsWithStatus(RsStatus.NOT_FOUND);
+        }
+        return res;
+    }
+
+    /**
+     * Wait time from `wait` request parameter.
+     * @param uri Request uri
+     * @return Time in seconds
+     */
+    private static long wait(final URI uri) {
+        long res;
+        try {
+            res = new RqParams(uri).value("wait")
+                .map(Long::parseLong)
+                .orElse(0L);
+        } catch (final NumberFormatException ignored) {
+            res = 0L;
+        }
+        return Math.max(0L, Math.min(res, RpmUploadJobs.MAX_WAIT));
+    }
+}
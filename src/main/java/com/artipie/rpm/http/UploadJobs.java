@@ -0,0 +1,544 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.rpm.asto.AstoPrimaryIndex;
+import com.jcabi.log.Logger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous repository metadata update jobs, started by uploads. Jobs statuses are kept
+ * in the repository storage under {@link UploadJobs#PATH}, so the status is available on any
+ * node, which shares the storage. Updates are run on the repository blocking executor one
+ * at a time: jobs started while an update is running are coalesced into the single next
+ * update, as every update publishes all the packages staged by that moment (artifact events
+ * of the coalesced update are reported with the headers of the latest job). Only the latest
+ * {@link UploadJobs#MAX} jobs of this node are kept, statuses of older jobs are removed.
+ * Job status record keeps the status, job start time and the package repository path:
+ * pending job, which is not run by this node (the node, which started it, could die before
+ * the update), is resolved from the published metadata: the job is done if the package
+ * left {@link RpmUpload#TO_ADD} location and is listed in the primary metadata, and failed if
+ * it left the staging location but was not published. Statuses older than
+ * {@link UploadJobs#TTL} are swept from storage by any node at most once per
+ * {@link UploadJobs#SWEEP}, so they don't pile up after restarts.
+ * @since 1.11
+ */
+final class UploadJobs {
+
+    /**
+     * Jobs resources path.
+     */
+    static final String PATH = ".jobs";
+
+    /**
+     * Pending job status.
+     */
+    static final String PENDING = "pending";
+
+    /**
+     * Done job status.
+     */
+    static final String DONE = "done";
+
+    /**
+     * Failed job status.
+     */
+    static final String FAILED = "failed";
+
+    /**
+     * Job status time to live in milliseconds, one day.
+     */
+    private static final long TTL = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Min interval between statuses sweeps in milliseconds, one hour.
+     */
+    private static final long SWEEP = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * Max number of the jobs to keep.
+     */
+    private static final int MAX = 10_000;
+
+    /**
+     * Status poll interval in milliseconds for the jobs of other nodes.
+     */
+    private static final long POLL = 500;
+
+    /**
+     * Storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Executor to run updates on.
+     */
+    private final Executor exec;
+
+    /**
+     * Jobs of this node by id.
+     */
+    private final Map<String, CompletableFuture<Void>> jobs;
+
+    /**
+     * Time of the last statuses sweep in milliseconds.
+     */
+    private final AtomicLong swept;
+
+    /**
+     * Jobs waiting for the next update, guarded by this object.
+     */
+    private Batch next;
+
+    /**
+     * Whether update is running, guarded by this object.
+     */
+    private boolean running;
+
+    /**
+     * Ctor.
+     * @param asto Storage
+     * @param exec Executor to run updates on
+     */
+    UploadJobs(final Storage asto, final Executor exec) {
+        this.asto = asto;
+        this.exec = exec;
+        this.jobs = Collections.synchronizedMap(new Latest());
+        this.swept = new AtomicLong();
+    }
+
+    /**
+     * Start the job, statuses sweep is started too if it's due.
+     * @param location Repository path of the staged package
+     * @param update Repository metadata update, which publishes all the staged packages
+     * @return Completable action with job id
+     */
+    CompletionStage<String> start(final String location,
+        final Supplier<CompletionStage<Void>> update) {
+        final long now = System.currentTimeMillis();
+        final long last = this.swept.get();
+        if (now - last >= UploadJobs.SWEEP && this.swept.compareAndSet(last, now)) {
+            this.sweep(now).exceptionally(
+                err -> {
+                    Logger.warn(this, "Failed to sweep upload jobs: %[exception]s", err);
+                    return null;
+                }
+            );
+        }
+        final String id = UUID.randomUUID().toString();
+        return this.save(id, new Status(UploadJobs.PENDING, now, location)).thenApply(
+            nothing -> {
+                final CompletableFuture<Void> job = new CompletableFuture<>();
+                this.jobs.put(id, job);
+                this.enqueue(id, job, update);
+                return id;
+            }
+        );
+    }
+
+    /**
+     * Job status: `pending`, `done` or `failed`. If job is pending, waits for its completion,
+     * but no longer than given time.
+     * @param id Job id
+     * @param seconds Max time to wait in seconds
+     * @return Completable action with status, empty if job is not found
+     */
+    CompletionStage<Optional<String>> status(final String id, final long seconds) {
+        final CompletableFuture<Void> job = this.jobs.get(id);
+        final CompletionStage<Void> await;
+        if (seconds <= 0) {
+            await = CompletableFuture.allOf();
+        } else if (job == null) {
+            await = this.poll(id, System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds));
+        } else {
+            await = job.handle((nothing, err) -> nothing)
+                .completeOnTimeout(null, seconds, TimeUnit.SECONDS);
+        }
+        return await.thenCompose(nothing -> this.current(id))
+            .thenApply(status -> status.map(val -> val.name));
+    }
+
+    /**
+     * Remove statuses of the jobs started before {@link UploadJobs#TTL} from now.
+     * @param now Current time in milliseconds
+     * @return Completable action
+     */
+    CompletionStage<Void> sweep(final long now) {
+        return this.asto.list(new Key.From(UploadJobs.PATH)).thenCompose(
+            keys -> CompletableFuture.allOf(
+                keys.stream().map(
+                    key -> this.asto.value(key)
+                        .thenCompose(val -> new PublisherAs(val).string(StandardCharsets.UTF_8))
+                        .thenCompose(
+                            str -> {
+                                final CompletionStage<Void> res;
+                                if (Status.parse(str).map(val -> val.time).orElse(0L)
+                                    < now - UploadJobs.TTL) {
+                                    res = this.asto.delete(key);
+                                } else {
+                                    res = CompletableFuture.allOf();
+                                }
+                                return res;
+                            }
+                        ).toCompletableFuture()
+                ).toArray(CompletableFuture[]::new)
+            )
+        );
+    }
+
+    /**
+     * Add job to the next update and run it if no update is running.
+     * @param id Job id
+     * @param job Job
+     * @param update Repository metadata update
+     */
+    private void enqueue(final String id, final CompletableFuture<Void> job,
+        final Supplier<CompletionStage<Void>> update) {
+        final Optional<Batch> run;
+        synchronized (this) {
+            if (this.next == null) {
+                this.next = new Batch();
+            }
+            this.next.add(id, job, update);
+            if (this.running) {
+                run = Optional.empty();
+            } else {
+                this.running = true;
+                run = Optional.of(this.next);
+                this.next = null;
+            }
+        }
+        run.ifPresent(this::run);
+    }
+
+    /**
+     * Run the update of the jobs batch, then the update of the jobs queued meanwhile.
+     * @param batch Jobs batch
+     */
+    private void run(final Batch batch) {
+        CompletableFuture.supplyAsync(batch.update, this.exec)
+            .thenCompose(Function.identity())
+            .handle((nothing, err) -> Optional.ofNullable(err))
+            .thenCompose(err -> this.finish(batch, err))
+            .whenComplete(
+                (nothing, err) -> {
+                    final Optional<Batch> following;
+                    synchronized (this) {
+                        following = Optional.ofNullable(this.next);
+                        this.next = null;
+                        this.running = following.isPresent();
+                    }
+                    following.ifPresent(this::run);
+                }
+            );
+    }
+
+    /**
+     * Save statuses of the batch jobs and complete them.
+     * @param batch Jobs batch
+     * @param err Update error
+     * @return Completable action
+     */
+    private CompletionStage<Void> finish(final Batch batch, final Optional<Throwable> err) {
+        final String status;
+        if (err.isPresent()) {
+            status = UploadJobs.FAILED;
+            Logger.warn(
+                this, "Upload jobs %s failed: %[exception]s", batch.jobs.keySet(), err.get()
+            );
+        } else {
+            status = UploadJobs.DONE;
+        }
+        return CompletableFuture.allOf(
+            batch.jobs.keySet().stream()
+                .map(id -> this.update(id, status).toCompletableFuture())
+                .toArray(CompletableFuture[]::new)
+        ).handle(
+            (nothing, failure) -> {
+                if (failure != null) {
+                    Logger.warn(
+                        this, "Failed to save upload jobs %s status: %[exception]s",
+                        batch.jobs.keySet(), failure
+                    );
+                }
+                batch.jobs.values().forEach(
+                    job -> err.ifPresentOrElse(job::completeExceptionally, () -> job.complete(null))
+                );
+                return null;
+            }
+        );
+    }
+
+    /**
+     * Poll job status in storage until it's not pending or deadline is reached.
+     * @param id Job id
+     * @param deadline Deadline by {@link System#nanoTime()}
+     * @return Completable action
+     */
+    private CompletionStage<Void> poll(final String id, final long deadline) {
+        return this.current(id).thenCompose(
+            status -> {
+                final CompletionStage<Void> res;
+                if (status.map(val -> UploadJobs.PENDING.equals(val.name)).orElse(false)
+                    && System.nanoTime() < deadline) {
+                    res = CompletableFuture.runAsync(
+                        () -> { },
+                        CompletableFuture.delayedExecutor(UploadJobs.POLL, TimeUnit.MILLISECONDS)
+                    ).thenCompose(nothing -> this.poll(id, deadline));
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Current job status: pending status of the job, which is not run by this node, is
+     * resolved from the published metadata.
+     * @param id Job id
+     * @return Completable action with status, empty if job is not found
+     */
+    private CompletionStage<Optional<Status>> current(final String id) {
+        return this.read(id).thenCompose(
+            status -> {
+                final CompletionStage<Optional<Status>> res;
+                if (status.isPresent() && UploadJobs.PENDING.equals(status.get().name)
+                    && !this.jobs.containsKey(id)) {
+                    res = this.resolve(id, status.get()).thenApply(Optional::of);
+                } else {
+                    res = CompletableFuture.completedFuture(status);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Resolve pending job status from the published metadata: job is pending while its
+     * package is staged, done if the package is published and failed otherwise. Resolved
+     * status is saved.
+     * @param id Job id
+     * @param status Pending status
+     * @return Completable action with resolved status
+     */
+    private CompletionStage<Status> resolve(final String id, final Status status) {
+        return this.asto.exists(new Key.From(RpmUpload.TO_ADD, status.location)).thenCompose(
+            staged -> {
+                final CompletionStage<Status> res;
+                if (staged) {
+                    res = CompletableFuture.completedFuture(status);
+                } else {
+                    res = new AstoPrimaryIndex(this.asto).checksums().thenApply(
+                        published -> {
+                            final String name;
+                            if (published.containsKey(status.location)) {
+                                name = UploadJobs.DONE;
+                            } else {
+                                name = UploadJobs.FAILED;
+                            }
+                            return new Status(name, status.time, status.location);
+                        }
+                    ).thenCompose(
+                        resolved -> this.save(id, resolved).thenApply(nothing -> resolved)
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Update job status in storage, start time and package path are kept.
+     * @param id Job id
+     * @param name New status
+     * @return Completable action
+     */
+    private CompletionStage<Void> update(final String id, final String name) {
+        return this.read(id).thenCompose(
+            status -> this.save(
+                id,
+                status.map(val -> new Status(name, val.time, val.location)).orElseGet(
+                    () -> new Status(name, System.currentTimeMillis(), "")
+                )
+            )
+        );
+    }
+
+    /**
+     * Read job status from storage.
+     * @param id Job id
+     * @return Completable action with status, empty if job is not found
+     */
+    private CompletionStage<Optional<Status>> read(final String id) {
+        final Key key = UploadJobs.key(id);
+        return this.asto.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<Optional<Status>> res;
+                if (exists) {
+                    res = this.asto.value(key)
+                        .thenCompose(val -> new PublisherAs(val).string(StandardCharsets.UTF_8))
+                        .thenApply(Status::parse);
+                } else {
+                    res = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Save job status to storage.
+     * @param id Job id
+     * @param status Status
+     * @return Completable action
+     */
+    private CompletionStage<Void> save(final String id, final Status status) {
+        return this.asto.save(
+            UploadJobs.key(id),
+            new Content.From(status.toString().getBytes(StandardCharsets.UTF_8))
+        );
+    }
+
+    /**
+     * Job status key.
+     * @param id Job id
+     * @return Storage key
+     */
+    private static Key key(final String id) {
+        return new Key.From(UploadJobs.PATH, id);
+    }
+
+    /**
+     * Job status record: status name, job start time and package repository path separated
+     * by space, for example `pending 1697650000000 libs/abc.rpm`.
+     * @since 1.11
+     */
+    private static final class Status {
+
+        /**
+         * Status name.
+         */
+        private final String name;
+
+        /**
+         * Job start time in milliseconds.
+         */
+        private final long time;
+
+        /**
+         * Repository path of the package.
+         */
+        private final String location;
+
+        /**
+         * Ctor.
+         * @param name Status name
+         * @param time Job start time in milliseconds
+         * @param location Repository path of the package
+         */
+        Status(final String name, final long time, final String location) {
+            this.name = name;
+            this.time = time;
+            this.location = location;
+        }
+
+        @Override
+        public String toString() {
+            return String.join(" ", this.name, String.valueOf(this.time), this.location);
+        }
+
+        /**
+         * Parse status record.
+         * @param str Status record
+         * @return Status, empty if record has unknown format
+         */
+        static Optional<Status> parse(final String str) {
+            final String[] parts = str.split(" ", 3);
+            Optional<Status> res = Optional.empty();
+            if (parts.length == 3) {
+                try {
+                    res = Optional.of(new Status(parts[0], Long.parseLong(parts[1]), parts[2]));
+                } catch (final NumberFormatException ignored) {
+                    res = Optional.empty();
+                }
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Jobs to complete with a single update.
+     * @since 1.11
+     */
+    private static final class Batch {
+
+        /**
+         * Jobs by id.
+         */
+        private final Map<String, CompletableFuture<Void>> jobs = new LinkedHashMap<>();
+
+        /**
+         * Update of the latest job.
+         */
+        private Supplier<CompletionStage<Void>> update;
+
+        /**
+         * Add job to the batch.
+         * @param id Job id
+         * @param job Job
+         * @param action Job update
+         */
+        void add(final String id, final CompletableFuture<Void> job,
+            final Supplier<CompletionStage<Void>> action) {
+            this.jobs.put(id, job);
+            this.update = action;
+        }
+    }
+
+    /**
+     * Map, which keeps only {@link UploadJobs#MAX} latest jobs and removes the
+     * statuses of the evicted jobs from storage.
+     * @since 1.11
+     */
+    @SuppressWarnings("serial")
+    private final class Latest extends LinkedHashMap<String, CompletableFuture<Void>> {
+
+        @Override
+        protected boolean removeEldestEntry(
+            final Map.Entry<String, CompletableFuture<Void>> eldest
+        ) {
+            final boolean res = this.size() > UploadJobs.MAX;
+            if (res) {
+                UploadJobs.this.asto.delete(UploadJobs.key(eldest.getKey())).exceptionally(
+                    err -> {
+                        Logger.warn(
+                            UploadJobs.this, "Failed to remove upload job %s: %[exception]s",
+                            eldest.getKey(), err
+                        );
+                        return null;
+                    }
+                );
+            }
+            return res;
+        }
+    }
+}
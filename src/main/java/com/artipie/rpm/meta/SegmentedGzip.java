@@ -0,0 +1,418 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Metadata xml compressed as multi-member gzip: header member holds the document prolog
+ * and root element start tag with `packages` count, body members hold batches of `package`
+ * elements and footer member holds the root element end tag. Each member is a regular gzip
+ * member, so the file is read by any gzip reader, and carries `RP` extra field with member
+ * type and length, so that members are found and copied without decompression. Packages are
+ * appended by writing new header, copying existing body members as is and writing new
+ * body members and footer, only the appended packages are compressed. Each append adds
+ * body member smaller than the batch, so once {@link SegmentedGzip#COMPACT} such members are
+ * collected at the end of the body, they are decompressed and compressed again together with
+ * the appended packages, so that metadata does not degrade into many tiny members.
+ * Input/output streams are not closed, resources should be closed from the outside.
+ * @since 1.11
+ */
+public final class SegmentedGzip {
+
+    /**
+     * Uncompressed size of the body member.
+     */
+    private static final int BATCH = 1024 * 1024;
+
+    /**
+     * Number of the trailing body members smaller than the batch, which are merged on append.
+     */
+    private static final int COMPACT = 16;
+
+    /**
+     * Member header length: fixed gzip header, extra field length and `RP` extra field.
+     */
+    private static final int HEAD = 21;
+
+    /**
+     * Member trailer length: crc and uncompressed size.
+     */
+    private static final int TRAILER = 8;
+
+    /**
+     * Header member type.
+     */
+    private static final byte HEADER = 'H';
+
+    /**
+     * Body member type.
+     */
+    private static final byte BODY = 'B';
+
+    /**
+     * Footer member type.
+     */
+    private static final byte FOOTER = 'F';
+
+    /**
+     * Package start tag beginning.
+     */
+    private static final byte[] OPEN = "<package".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Package end tag.
+     */
+    private static final byte[] CLOSE = "</package>".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Packages count attribute.
+     */
+    private static final Pattern COUNT = Pattern.compile("packages=\"(\\d*)\"");
+
+    /**
+     * Output.
+     */
+    private final OutputStream out;
+
+    /**
+     * Ctor.
+     * @param out Output
+     */
+    public SegmentedGzip(final OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Compress metadata xml.
+     * @param xml Metadata xml
+     * @throws IOException On IO error or if package element is not closed
+     */
+    public void write(final InputStream xml) throws IOException {
+        this.split(xml, UnaryOperator.identity(), InputStream.nullInputStream());
+    }
+
+    /**
+     * Append packages to segmented metadata. Packages to append are read from the metadata
+     * xml of the same type, which contains only these packages. Nothing is written if
+     * existing metadata is not segmented or has no packages, existing metadata is read
+     * to the end in any case.
+     * @param existing Existing segmented metadata
+     * @param xml Metadata xml with the packages to append
+     * @param added Count of the packages to append
+     * @return Packages count of the result, empty if packages were not appended
+     * @throws IOException On IO error
+     */
+    public Optional<Long> append(final InputStream existing, final InputStream xml,
+        final long added) throws IOException {
+        final byte[] head = existing.readNBytes(SegmentedGzip.HEAD);
+        Optional<Long> res = Optional.empty();
+        if (SegmentedGzip.type(head) == SegmentedGzip.HEADER) {
+            final Matcher count = SegmentedGzip.COUNT.matcher(
+                new String(
+                    SegmentedGzip.inflate(SegmentedGzip.member(existing, head)),
+                    StandardCharsets.UTF_8
+                )
+            );
+            if (count.find() && !count.group(1).isEmpty() && Long.parseLong(count.group(1)) > 0) {
+                final long total = Long.parseLong(count.group(1)) + added;
+                this.split(
+                    xml,
+                    prolog -> SegmentedGzip.COUNT.matcher(prolog)
+                        .replaceFirst(String.format("packages=\"%d\"", total)),
+                    existing
+                );
+                res = Optional.of(total);
+            }
+        }
+        existing.transferTo(OutputStream.nullOutputStream());
+        return res;
+    }
+
+    /**
+     * Split metadata xml into header, body and footer members. Existing body members are
+     * copied right after the header, compacted trailing members are written along with
+     * the packages of the xml.
+     * @param xml Metadata xml
+     * @param prolog Transformation of the header
+     * @param bodies Existing segmented metadata positioned after the header member
+     * @throws IOException On IO error or if package element is not closed
+     * @checkstyle CyclomaticComplexityCheck (60 lines)
+     */
+    @SuppressWarnings({"PMD.CognitiveComplexity", "PMD.CyclomaticComplexity"})
+    private void split(final InputStream xml, final UnaryOperator<String> prolog,
+        final InputStream bodies) throws IOException {
+        byte[] buf = new byte[SegmentedGzip.BATCH];
+        int len = 0;
+        boolean started = false;
+        boolean eof = false;
+        while (!eof) {
+            if (len == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            final int read = xml.read(buf, len, buf.length - len);
+            eof = read < 0;
+            if (read > 0) {
+                len = len + read;
+            }
+            if (!started) {
+                final int idx = SegmentedGzip.open(buf, len);
+                if (idx >= 0 || eof) {
+                    final int end;
+                    if (idx >= 0) {
+                        end = idx;
+                    } else {
+                        end = len;
+                    }
+                    this.write(
+                        SegmentedGzip.HEADER,
+                        prolog.apply(new String(buf, 0, end, StandardCharsets.UTF_8))
+                            .getBytes(StandardCharsets.UTF_8)
+                    );
+                    final byte[] tail = this.copy(bodies);
+                    final byte[] rest = Arrays.copyOfRange(buf, end, len);
+                    buf = new byte[Math.max(SegmentedGzip.BATCH, tail.length + rest.length)];
+                    System.arraycopy(tail, 0, buf, 0, tail.length);
+                    System.arraycopy(rest, 0, buf, tail.length, rest.length);
+                    len = tail.length + rest.length;
+                    started = true;
+                }
+            }
+            if (started && (len >= SegmentedGzip.BATCH || eof)) {
+                final int end = SegmentedGzip.close(buf, len);
+                if (end > 0) {
+                    this.write(SegmentedGzip.BODY, Arrays.copyOf(buf, end));
+                    System.arraycopy(buf, end, buf, 0, len - end);
+                    len = len - end;
+                }
+                if (eof && len > 0) {
+                    if (SegmentedGzip.open(buf, len) >= 0) {
+                        throw new IOException("Package element is not closed");
+                    }
+                    this.write(SegmentedGzip.FOOTER, Arrays.copyOf(buf, len));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy body members of segmented metadata, stops on footer member or end of input.
+     * Trailing members smaller than the batch are not copied, but returned decompressed,
+     * if there are at least {@link SegmentedGzip#COMPACT} of them.
+     * @param gzip Segmented metadata
+     * @return Decompressed packages of the compacted members, empty if nothing is compacted
+     * @throws IOException On IO error or if member is truncated
+     */
+    private byte[] copy(final InputStream gzip) throws IOException {
+        final List<byte[]> heads = new ArrayList<>(SegmentedGzip.COMPACT);
+        final List<byte[]> small = new ArrayList<>(SegmentedGzip.COMPACT);
+        byte[] head = gzip.readNBytes(SegmentedGzip.HEAD);
+        while (SegmentedGzip.type(head) == SegmentedGzip.BODY) {
+            final byte[] member = SegmentedGzip.member(gzip, head);
+            heads.add(head);
+            small.add(member);
+            if (SegmentedGzip.size(member) >= SegmentedGzip.BATCH) {
+                this.flush(heads, small);
+            }
+            head = gzip.readNBytes(SegmentedGzip.HEAD);
+        }
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        if (small.size() >= SegmentedGzip.COMPACT) {
+            for (final byte[] member : small) {
+                res.write(SegmentedGzip.inflate(member));
+            }
+        } else {
+            this.flush(heads, small);
+        }
+        return res.toByteArray();
+    }
+
+    /**
+     * Write members as is and clear the lists.
+     * @param heads Members headers
+     * @param members Members bytes after the headers
+     * @throws IOException On IO error
+     */
+    private void flush(final List<byte[]> heads, final List<byte[]> members)
+        throws IOException {
+        for (int idx = 0; idx < heads.size(); idx = idx + 1) {
+            this.out.write(heads.get(idx));
+            this.out.write(members.get(idx));
+        }
+        heads.clear();
+        members.clear();
+    }
+
+    /**
+     * Write gzip member.
+     * @param type Member type
+     * @param data Uncompressed data
+     * @throws IOException On IO error
+     * @checkstyle MagicNumberCheck (30 lines)
+     */
+    private void write(final byte type, final byte[] data) throws IOException {
+        final ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try (DeflaterOutputStream dos = new DeflaterOutputStream(deflated, deflater)) {
+            dos.write(data);
+        } finally {
+            deflater.end();
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        this.out.write(
+            ByteBuffer.allocate(SegmentedGzip.HEAD).order(ByteOrder.LITTLE_ENDIAN)
+                .put((byte) 0x1f).put((byte) 0x8b).put((byte) Deflater.DEFLATED).put((byte) 4)
+                .putInt(0).put((byte) 0).put((byte) 255).putShort((short) 9)
+                .put((byte) 'R').put((byte) 'P').putShort((short) 5).put(type)
+                .putInt(SegmentedGzip.HEAD + deflated.size() + SegmentedGzip.TRAILER)
+                .array()
+        );
+        deflated.writeTo(this.out);
+        this.out.write(
+            ByteBuffer.allocate(SegmentedGzip.TRAILER).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt((int) crc.getValue()).putInt(data.length).array()
+        );
+    }
+
+    /**
+     * Type of the segmented metadata member.
+     * @param head Member header
+     * @return Member type or zero if it is not a segmented metadata member
+     * @checkstyle MagicNumberCheck (20 lines)
+     * @checkstyle BooleanExpressionComplexityCheck (20 lines)
+     */
+    private static byte type(final byte[] head) {
+        byte res = 0;
+        if (head.length == SegmentedGzip.HEAD && head[0] == (byte) 0x1f
+            && head[1] == (byte) 0x8b && head[2] == Deflater.DEFLATED && head[3] == 4
+            && head[10] == 9 && head[11] == 0 && head[12] == 'R' && head[13] == 'P'
+            && head[14] == 5 && head[15] == 0) {
+            res = head[16];
+        }
+        return res;
+    }
+
+    /**
+     * Read the rest of the member: compressed data and trailer.
+     * @param gzip Segmented metadata positioned after the member header
+     * @param head Member header
+     * @return Member bytes after the header
+     * @throws IOException On IO error or if member is truncated
+     * @checkstyle MagicNumberCheck (10 lines)
+     */
+    private static byte[] member(final InputStream gzip, final byte[] head) throws IOException {
+        final int length = ByteBuffer.wrap(head, 17, 4).order(ByteOrder.LITTLE_ENDIAN).getInt()
+            - SegmentedGzip.HEAD;
+        final byte[] res = gzip.readNBytes(Math.max(length, 0));
+        if (length < SegmentedGzip.TRAILER || res.length != length) {
+            throw new IOException("Segmented metadata member is truncated");
+        }
+        return res;
+    }
+
+    /**
+     * Uncompressed size of the member data from the member trailer.
+     * @param member Member bytes after the header
+     * @return Uncompressed size
+     * @checkstyle MagicNumberCheck (10 lines)
+     */
+    private static long size(final byte[] member) {
+        return Integer.toUnsignedLong(
+            ByteBuffer.wrap(member, member.length - 4, 4).order(ByteOrder.LITTLE_ENDIAN).getInt()
+        );
+    }
+
+    /**
+     * Decompress member data.
+     * @param member Member bytes after the header
+     * @return Uncompressed bytes
+     * @throws IOException If data is corrupted
+     */
+    private static byte[] inflate(final byte[] member) throws IOException {
+        final Inflater inflater = new Inflater(true);
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try {
+            inflater.setInput(member, 0, member.length - SegmentedGzip.TRAILER);
+            final byte[] buf = new byte[SegmentedGzip.BATCH / 64];
+            while (!inflater.finished() && !inflater.needsInput()) {
+                res.write(buf, 0, inflater.inflate(buf));
+            }
+        } catch (final DataFormatException err) {
+            throw new IOException(err);
+        } finally {
+            inflater.end();
+        }
+        return res.toByteArray();
+    }
+
+    /**
+     * Find the first package start tag.
+     * @param buf Bytes
+     * @param len Bytes count
+     * @return Position or -1 if not found
+     */
+    private static int open(final byte[] buf, final int len) {
+        int res = -1;
+        final int last = len - SegmentedGzip.OPEN.length - 1;
+        for (int pos = 0; pos <= last && res < 0; pos = pos + 1) {
+            final byte next = buf[pos + SegmentedGzip.OPEN.length];
+            if (SegmentedGzip.matches(buf, pos, SegmentedGzip.OPEN)
+                && (Character.isWhitespace(next) || next == '>' || next == '/')) {
+                res = pos;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Find the end of the last package end tag.
+     * @param buf Bytes
+     * @param len Bytes count
+     * @return Position after the tag or -1 if not found
+     */
+    private static int close(final byte[] buf, final int len) {
+        int res = -1;
+        for (int pos = len - SegmentedGzip.CLOSE.length; pos >= 0 && res < 0; pos = pos - 1) {
+            if (SegmentedGzip.matches(buf, pos, SegmentedGzip.CLOSE)) {
+                res = pos + SegmentedGzip.CLOSE.length;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Checks whether bytes sequence is found at the position.
+     * @param buf Bytes
+     * @param pos Position
+     * @param what Bytes sequence
+     * @return True if found
+     */
+    private static boolean matches(final byte[] buf, final int pos, final byte[] what) {
+        int idx = 0;
+        while (idx < what.length && buf[pos + idx] == what[idx]) {
+            idx = idx + 1;
+        }
+        return idx == what.length;
+    }
+}
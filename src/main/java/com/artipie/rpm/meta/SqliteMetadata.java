@@ -0,0 +1,586 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Sqlite metadata database (`primary_db`, `filelists_db` or `other_db`) in the format of
+ * createrepo, database version 10. Database is filled from the metadata xml of the same type:
+ * packages are removed by checksums (`pkgId`) and added from the xml, so that existing
+ * database is updated incrementally, new database is created from the whole metadata xml.
+ * @since 1.11
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ClassFanOutComplexityCheck (500 lines)
+ */
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.TooManyMethods"})
+public final class SqliteMetadata {
+
+    /**
+     * Database version.
+     */
+    public static final int VERSION = 10;
+
+    /**
+     * Package element.
+     */
+    private static final String PACKAGE = "package";
+
+    /**
+     * Dependencies tables of the primary database.
+     */
+    private static final Set<String> DEPS = Set.of(
+        "requires", "provides", "conflicts", "obsoletes",
+        "suggests", "enhances", "recommends", "supplements"
+    );
+
+    /**
+     * Primary database schema.
+     */
+    private static final List<String> PRIMARY = Stream.concat(
+        Stream.of(
+            String.join(
+                " ",
+                "CREATE TABLE packages (pkgKey INTEGER PRIMARY KEY, pkgId TEXT, name TEXT,",
+                "arch TEXT, version TEXT, epoch TEXT, release TEXT, summary TEXT,",
+                "description TEXT, url TEXT, time_file INTEGER, time_build INTEGER,",
+                "rpm_license TEXT, rpm_vendor TEXT, rpm_group TEXT, rpm_buildhost TEXT,",
+                "rpm_sourcerpm TEXT, rpm_header_start INTEGER, rpm_header_end INTEGER,",
+                "rpm_packager TEXT, size_package INTEGER, size_installed INTEGER,",
+                "size_archive INTEGER, location_href TEXT, location_base TEXT,",
+                "checksum_type TEXT)"
+            ),
+            "CREATE TABLE files (name TEXT, type TEXT, pkgKey INTEGER)",
+            "CREATE INDEX packagename ON packages (name)",
+            "CREATE INDEX packageId ON packages (pkgId)",
+            "CREATE INDEX filenames ON files (name)",
+            "CREATE INDEX pkgfiles ON files (pkgKey)"
+        ),
+        SqliteMetadata.DEPS.stream().sorted().flatMap(
+            table -> Stream.of(
+                String.format(
+                    // @checkstyle LineLengthCheck (1 line)
+                    "CREATE TABLE %s (name TEXT, flags TEXT, epoch TEXT, version TEXT, release TEXT, pkgKey INTEGER%s)",
+                    table, SqliteMetadata.pre(table)
+                ),
+                String.format("CREATE INDEX pkg%s ON %s (pkgKey)", table, table),
+                String.format("CREATE INDEX %sname ON %s (name)", table, table)
+            )
+        )
+    ).collect(Collectors.toList());
+
+    /**
+     * Filelists database schema.
+     */
+    private static final List<String> FILELISTS = Arrays.asList(
+        "CREATE TABLE packages (pkgKey INTEGER PRIMARY KEY, pkgId TEXT)",
+        "CREATE TABLE filelist (pkgKey INTEGER, dirname TEXT, filenames TEXT, filetypes TEXT)",
+        "CREATE INDEX keyfile ON filelist (pkgKey)",
+        "CREATE INDEX pkgId ON packages (pkgId)",
+        "CREATE INDEX dirnames ON filelist (dirname)"
+    );
+
+    /**
+     * Other database schema.
+     */
+    private static final List<String> OTHER = Arrays.asList(
+        "CREATE TABLE packages (pkgKey INTEGER PRIMARY KEY, pkgId TEXT)",
+        "CREATE TABLE changelog (pkgKey INTEGER, author TEXT, date INTEGER, changelog TEXT)",
+        "CREATE INDEX keychange ON changelog (pkgKey)",
+        "CREATE INDEX pkgId ON packages (pkgId)"
+    );
+
+    /**
+     * Database file.
+     */
+    private final Path file;
+
+    /**
+     * Metadata type.
+     */
+    private final XmlPackage type;
+
+    /**
+     * Ctor.
+     * @param file Database file, empty file is a new database
+     * @param type Metadata type
+     */
+    public SqliteMetadata(final Path file, final XmlPackage type) {
+        this.file = file;
+        this.type = type;
+    }
+
+    /**
+     * Updates database in one transaction: removes packages, adds packages from the metadata
+     * xml and sets checksum of the metadata xml, database corresponds to.
+     * @param removed Checksums of the packages to remove
+     * @param added Metadata xml with the packages to add
+     * @param checksum Open checksum of the corresponding metadata xml
+     * @return Count of the added packages
+     * @throws IOException On database or xml error
+     */
+    public long update(final Collection<String> removed, final Optional<InputStream> added,
+        final String checksum) throws IOException {
+        long res = 0;
+        try (Connection conn = DriverManager.getConnection(
+            String.format("jdbc:sqlite:%s", this.file.toAbsolutePath())
+        )) {
+            conn.setAutoCommit(false);
+            this.schema(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                "DELETE FROM packages WHERE pkgId = ?"
+            )) {
+                for (final String id : removed) {
+                    stmt.setString(1, id);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            if (added.isPresent()) {
+                res = this.add(conn, added.get());
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM db_info");
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO db_info (dbversion, checksum) VALUES (?, ?)"
+            )) {
+                stmt.setInt(1, SqliteMetadata.VERSION);
+                stmt.setString(2, checksum);
+                stmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (final SQLException | XMLStreamException err) {
+            throw new IOException(err);
+        }
+        return res;
+    }
+
+    /**
+     * Creates database schema if database is new.
+     * @param conn Connection
+     * @throws SQLException On error
+     */
+    private void schema(final Connection conn) throws SQLException {
+        final boolean exists;
+        try (Statement stmt = conn.createStatement();
+            ResultSet rset = stmt.executeQuery(
+                "SELECT name FROM sqlite_master WHERE type = 'table' AND name = 'db_info'"
+            )) {
+            exists = rset.next();
+        }
+        if (!exists) {
+            final List<String> ddl = new ArrayList<>(0);
+            ddl.add("CREATE TABLE db_info (dbversion INTEGER, checksum TEXT)");
+            final List<String> children;
+            if (this.type == XmlPackage.PRIMARY) {
+                ddl.addAll(SqliteMetadata.PRIMARY);
+                children = Stream.concat(
+                    Stream.of("files"),
+                    SqliteMetadata.DEPS.stream().sorted()
+                ).collect(Collectors.toList());
+            } else if (this.type == XmlPackage.FILELISTS) {
+                ddl.addAll(SqliteMetadata.FILELISTS);
+                children = List.of("filelist");
+            } else {
+                ddl.addAll(SqliteMetadata.OTHER);
+                children = List.of("changelog");
+            }
+            ddl.add(
+                String.format(
+                    "CREATE TRIGGER removals AFTER DELETE ON packages BEGIN %s END",
+                    children.stream().map(
+                        table -> String.format(
+                            "DELETE FROM %s WHERE pkgKey = old.pkgKey;", table
+                        )
+                    ).collect(Collectors.joining(" "))
+                )
+            );
+            try (Statement stmt = conn.createStatement()) {
+                for (final String sql : ddl) {
+                    stmt.executeUpdate(sql);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds packages from metadata xml.
+     * @param conn Connection
+     * @param xml Metadata xml
+     * @return Count of the added packages
+     * @throws SQLException On database error
+     * @throws XMLStreamException On xml error
+     * @checkstyle CyclomaticComplexityCheck (60 lines)
+     */
+    @SuppressWarnings({"PMD.CognitiveComplexity", "PMD.CyclomaticComplexity"})
+    private long add(final Connection conn, final InputStream xml)
+        throws SQLException, XMLStreamException {
+        final XMLStreamReader reader = new InputFactoryImpl().createXMLStreamReader(xml);
+        long cnt = 0;
+        SqliteMetadata.Pkg pkg = new Pkg();
+        String deps = "";
+        try (SqliteMetadata.Rows rows = new Rows(conn)) {
+            while (reader.hasNext()) {
+                final int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    final String name = reader.getLocalName();
+                    if (SqliteMetadata.PACKAGE.equals(name)) {
+                        pkg = new Pkg();
+                        pkg.fields.put("pkgId", SqliteMetadata.attr(reader, "pkgid"));
+                    } else if (SqliteMetadata.DEPS.contains(name)) {
+                        deps = name;
+                    } else if ("entry".equals(name)) {
+                        pkg.deps.add(SqliteMetadata.dependency(reader, deps));
+                    } else {
+                        SqliteMetadata.element(reader, name, pkg);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT
+                    && SqliteMetadata.PACKAGE.equals(reader.getLocalName())) {
+                    this.insert(rows, pkg);
+                    cnt = cnt + 1;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return cnt;
+    }
+
+    /**
+     * Reads package element.
+     * @param reader Xml reader positioned at the element start
+     * @param name Element name
+     * @param pkg Package to read to
+     * @throws XMLStreamException On xml error
+     * @checkstyle CyclomaticComplexityCheck (60 lines)
+     */
+    @SuppressWarnings({"PMD.CognitiveComplexity", "PMD.CyclomaticComplexity"})
+    private static void element(final XMLStreamReader reader, final String name,
+        final SqliteMetadata.Pkg pkg) throws XMLStreamException {
+        final Map<String, String> fields = pkg.fields;
+        if ("version".equals(name)) {
+            fields.put("epoch", SqliteMetadata.attr(reader, "epoch"));
+            fields.put("version", SqliteMetadata.attr(reader, "ver"));
+            fields.put("release", SqliteMetadata.attr(reader, "rel"));
+        } else if ("checksum".equals(name)) {
+            fields.put("checksum_type", SqliteMetadata.attr(reader, "type"));
+            fields.put("pkgId", reader.getElementText());
+        } else if ("time".equals(name)) {
+            fields.put("time_file", SqliteMetadata.attr(reader, "file"));
+            fields.put("time_build", SqliteMetadata.attr(reader, "build"));
+        } else if ("size".equals(name)) {
+            fields.put("size_package", SqliteMetadata.attr(reader, "package"));
+            fields.put("size_installed", SqliteMetadata.attr(reader, "installed"));
+            fields.put("size_archive", SqliteMetadata.attr(reader, "archive"));
+        } else if ("location".equals(name)) {
+            fields.put("location_href", SqliteMetadata.attr(reader, "href"));
+            fields.put("location_base", reader.getAttributeValue(XMLConstants.XML_NS_URI, "base"));
+        } else if ("header-range".equals(name)) {
+            fields.put("rpm_header_start", SqliteMetadata.attr(reader, "start"));
+            fields.put("rpm_header_end", SqliteMetadata.attr(reader, "end"));
+        } else if (Set.of("license", "vendor", "group", "buildhost", "sourcerpm").contains(name)) {
+            fields.put(String.format("rpm_%s", name), reader.getElementText());
+        } else if ("packager".equals(name)) {
+            fields.put("rpm_packager", reader.getElementText());
+        } else if (Set.of("name", "arch", "summary", "description", "url").contains(name)) {
+            fields.put(name, reader.getElementText());
+        } else if ("file".equals(name)) {
+            final String kind = Optional.ofNullable(reader.getAttributeValue(null, "type"))
+                .orElse("file");
+            pkg.files.add(new String[] {reader.getElementText(), kind});
+        } else if ("changelog".equals(name)) {
+            pkg.changelogs.add(
+                new String[] {
+                    SqliteMetadata.attr(reader, "author"),
+                    SqliteMetadata.attr(reader, "date"),
+                    reader.getElementText(),
+                }
+            );
+        }
+    }
+
+    /**
+     * Inserts package into database.
+     * @param rows Rows inserts
+     * @param pkg Package
+     * @throws SQLException On error
+     */
+    private void insert(final SqliteMetadata.Rows rows, final SqliteMetadata.Pkg pkg)
+        throws SQLException {
+        final long key;
+        if (this.type == XmlPackage.PRIMARY) {
+            key = rows.pkg(pkg.fields);
+            for (final String[] file : pkg.files) {
+                final Map<String, String> row = new LinkedHashMap<>();
+                row.put("name", file[0]);
+                row.put("type", file[1]);
+                rows.insert("files", SqliteMetadata.keyed(row, key));
+            }
+            for (final Map<String, String> dep : pkg.deps) {
+                final Map<String, String> row = new LinkedHashMap<>(dep);
+                rows.insert(
+                    row.remove(SqliteMetadata.PACKAGE), SqliteMetadata.keyed(row, key)
+                );
+            }
+        } else {
+            key = rows.pkg(Map.of("pkgId", pkg.fields.get("pkgId")));
+            if (this.type == XmlPackage.FILELISTS) {
+                for (final Map<String, String> row : SqliteMetadata.dirs(pkg.files)) {
+                    rows.insert("filelist", SqliteMetadata.keyed(row, key));
+                }
+            } else {
+                for (final String[] log : pkg.changelogs) {
+                    final Map<String, String> row = new LinkedHashMap<>();
+                    row.put("author", log[0]);
+                    row.put("date", log[1]);
+                    row.put("changelog", log[2]);
+                    rows.insert("changelog", SqliteMetadata.keyed(row, key));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds package key column to the row.
+     * @param row Row
+     * @param key Package key
+     * @return Row with the package key
+     */
+    private static Map<String, String> keyed(final Map<String, String> row, final long key) {
+        row.put("pkgKey", String.valueOf(key));
+        return row;
+    }
+
+    /**
+     * Filelist rows: files are grouped by directory, names are joined with `/` and
+     * types are encoded with one letter: `f` for file, `d` for directory and `g` for ghost.
+     * Directory of the root level files is `/`.
+     * @param files Files paths and types
+     * @return Filelist rows
+     */
+    private static List<Map<String, String>> dirs(final List<String[]> files) {
+        final Map<String, String[]> dirs = new LinkedHashMap<>();
+        for (final String[] file : files) {
+            final int slash = file[0].lastIndexOf('/');
+            final String name;
+            if (slash > 0) {
+                name = file[0].substring(0, slash);
+            } else {
+                name = "/";
+            }
+            final String[] dir = dirs.computeIfAbsent(name, ignored -> new String[] {null, ""});
+            final String fname = file[0].substring(slash + 1);
+            if (dir[0] == null) {
+                dir[0] = fname;
+            } else {
+                dir[0] = String.join("/", dir[0], fname);
+            }
+            dir[1] = dir[1].concat(file[1].substring(0, 1));
+        }
+        return dirs.entrySet().stream().map(
+            entry -> {
+                final Map<String, String> row = new LinkedHashMap<>();
+                row.put("dirname", entry.getKey());
+                row.put("filenames", entry.getValue()[0]);
+                row.put("filetypes", entry.getValue()[1]);
+                return row;
+            }
+        ).collect(Collectors.toList());
+    }
+
+    /**
+     * Dependency row, table name is kept under `package` key.
+     * @param reader Xml reader positioned at the entry start
+     * @param table Dependency table
+     * @return Row
+     */
+    private static Map<String, String> dependency(final XMLStreamReader reader,
+        final String table) {
+        final Map<String, String> row = new HashMap<>();
+        row.put(SqliteMetadata.PACKAGE, table);
+        row.put("name", SqliteMetadata.attr(reader, "name"));
+        row.put("flags", reader.getAttributeValue(null, "flags"));
+        row.put("epoch", reader.getAttributeValue(null, "epoch"));
+        row.put("version", reader.getAttributeValue(null, "ver"));
+        row.put("release", reader.getAttributeValue(null, "rel"));
+        if ("requires".equals(table)) {
+            row.put(
+                "pre",
+                Optional.ofNullable(reader.getAttributeValue(null, "pre"))
+                    .filter(pre -> "1".equals(pre) || "true".equals(pre))
+                    .map(pre -> "TRUE").orElse("FALSE")
+            );
+        }
+        return row;
+    }
+
+    /**
+     * Attribute value.
+     * @param reader Xml reader positioned at the element start
+     * @param name Attribute name
+     * @return Value, empty if attribute is absent
+     */
+    private static String attr(final XMLStreamReader reader, final String name) {
+        return Optional.ofNullable(reader.getAttributeValue(null, name)).orElse("");
+    }
+
+    /**
+     * Extra column definition for the dependencies table.
+     * @param table Table name
+     * @return Column definition
+     */
+    private static String pre(final String table) {
+        final String res;
+        if ("requires".equals(table)) {
+            res = ", pre BOOLEAN DEFAULT FALSE";
+        } else {
+            res = "";
+        }
+        return res;
+    }
+
+    /**
+     * Package read from metadata xml.
+     * @since 1.11
+     */
+    private static final class Pkg {
+
+        /**
+         * Package columns.
+         */
+        private final Map<String, String> fields = new LinkedHashMap<>();
+
+        /**
+         * Files paths and types.
+         */
+        private final List<String[]> files = new ArrayList<>(0);
+
+        /**
+         * Dependencies rows.
+         */
+        private final List<Map<String, String>> deps = new ArrayList<>(0);
+
+        /**
+         * Changelogs: author, date and text.
+         */
+        private final List<String[]> changelogs = new ArrayList<>(0);
+    }
+
+    /**
+     * Rows inserts with prepared statements cache.
+     * @since 1.11
+     */
+    private static final class Rows implements AutoCloseable {
+
+        /**
+         * Connection.
+         */
+        private final Connection conn;
+
+        /**
+         * Prepared statements by sql.
+         */
+        private final Map<String, PreparedStatement> cache;
+
+        /**
+         * Ctor.
+         * @param conn Connection
+         */
+        Rows(final Connection conn) {
+            this.conn = conn;
+            this.cache = new HashMap<>();
+        }
+
+        /**
+         * Inserts package row into `packages` table.
+         * @param row Columns values
+         * @return Package key, generated row id
+         * @throws SQLException On error
+         */
+        long pkg(final Map<String, String> row) throws SQLException {
+            final PreparedStatement stmt = this.statement("packages", row);
+            stmt.executeUpdate();
+            final long res;
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                keys.next();
+                res = keys.getLong(1);
+            }
+            return res;
+        }
+
+        /**
+         * Inserts row into table.
+         * @param table Table name
+         * @param row Columns values
+         * @throws SQLException On error
+         */
+        void insert(final String table, final Map<String, String> row) throws SQLException {
+            this.statement(table, row).executeUpdate();
+        }
+
+        /**
+         * Prepared insert statement with the row values set, statements of `packages`
+         * table return generated keys.
+         * @param table Table name
+         * @param row Columns values
+         * @return Statement
+         * @throws SQLException On error
+         */
+        private PreparedStatement statement(final String table, final Map<String, String> row)
+            throws SQLException {
+            final List<String> columns = new ArrayList<>(row.keySet());
+            final String sql = String.format(
+                "INSERT INTO %s (%s) VALUES (%s)",
+                table, String.join(", ", columns),
+                columns.stream().map(col -> "?").collect(Collectors.joining(", "))
+            );
+            PreparedStatement stmt = this.cache.get(sql);
+            if (stmt == null) {
+                if ("packages".equals(table)) {
+                    stmt = this.conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                } else {
+                    stmt = this.conn.prepareStatement(sql);
+                }
+                this.cache.put(sql, stmt);
+            }
+            for (int idx = 0; idx < columns.size(); idx = idx + 1) {
+                stmt.setString(idx + 1, row.get(columns.get(idx)));
+            }
+            return stmt;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            for (final PreparedStatement stmt : this.cache.values()) {
+                stmt.close();
+            }
+        }
+    }
+}
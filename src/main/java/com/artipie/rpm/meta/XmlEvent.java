@@ -8,6 +8,7 @@ import com.artipie.rpm.pkg.HeaderTags;
 import com.artipie.rpm.pkg.Package;
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 import javax.xml.stream.XMLEventFactory;
@@ -153,20 +154,19 @@ public interface XmlEvent {
             final XMLEventFactory events = XMLEventFactory.newFactory();
             final HeaderTags tags = new HeaderTags(meta);
             try {
-                final String[] files = tags.baseNames().toArray(new String[0]);
-                final String[] dirs = tags.dirNames().toArray(new String[0]);
-                final int[] did = tags.dirIndexes();
+                final List<String> files = tags.baseNames();
+                final List<String> paths = tags.filePaths();
                 final int[] fmod = tags.fileModes();
                 final int[] flags = tags.fileFlags();
-                for (int idx = 0; idx < files.length; idx += 1) {
-                    final String fle = files[idx];
+                for (int idx = 0; idx < files.size(); idx += 1) {
+                    final String fle = files.get(idx);
                     // @checkstyle MethodBodyCommentsCheck (2 lines)
                     // @todo #388:30min This condition is not covered with unit test, extend
                     //  the test to check this case and make sure it works properly.
                     if (fle.isEmpty() || fle.charAt(0) == '.') {
                         continue;
                     }
-                    final String path = String.format("%s%s", dirs[did[idx]], fle);
+                    final String path = paths.get(idx);
                     if (this.filter.test(path)) {
                         continue;
                     }
@@ -190,16 +190,15 @@ public interface XmlEvent {
          * @return Set of file items
          */
         public Set<String> files(final HeaderTags tags) {
-            final String[] files = tags.baseNames().toArray(new String[0]);
-            final String[] dirs = tags.dirNames().toArray(new String[0]);
-            final int[] did = tags.dirIndexes();
-            final Set<String> res = new HashSet<>(files.length);
-            for (int idx = 0; idx < files.length; idx += 1) {
-                final String fle = files[idx];
+            final List<String> files = tags.baseNames();
+            final List<String> paths = tags.filePaths();
+            final Set<String> res = new HashSet<>(files.size());
+            for (int idx = 0; idx < files.size(); idx += 1) {
+                final String fle = files.get(idx);
                 if (fle.isEmpty() || fle.charAt(0) == '.') {
                     continue;
                 }
-                final String path = String.format("%s%s", dirs[did[idx]], fle);
+                final String path = paths.get(idx);
                 if (!this.filter.test(path)) {
                     res.add(path);
                 }
@@ -4,7 +4,6 @@
  */
 package com.artipie.rpm.meta;
 
-import com.artipie.rpm.RpmMetadata;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -12,11 +11,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.Collection;
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLEventWriter;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.XMLEvent;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.UnaryOperator;
 
 /**
  * Xml maid.
@@ -74,8 +71,9 @@ public interface XmlMaid {
 
         /**
          * Implementation of {@link XmlMaid} that accepts streams and cleans xml by pkgid attribute
-         * in package tag. Input/output streams are not closed in this implementation, resources
-         * should be closed from the outside.
+         * in package tag. Packages are filtered by raw bytes with {@link XmlPackageBlocks},
+         * ids are looked up in a hash set. Input/output streams are not closed in this
+         * implementation, resources should be closed from the outside.
          * @since 1.4
          */
         public static final class Stream implements XmlMaid {
@@ -102,60 +100,12 @@ public interface XmlMaid {
 
             @Override
             public long clean(final Collection<String> ids) throws IOException {
-                final long res;
-                try {
-                    final XMLEventReader reader =
-                        RpmMetadata.INPUT_FACTORY.createXMLEventReader(this.input);
-                    final XMLEventWriter writer =
-                        RpmMetadata.OUTPUT_FACTORY.createXMLEventWriter(this.out);
-                    try {
-                        res = Stream.process(ids, reader, writer);
-                    } finally {
-                        writer.close();
-                        reader.close();
-                    }
-                } catch (final XMLStreamException err) {
-                    throw new IOException(err);
-                }
-                return res;
-            }
-
-            /**
-             * Process lines.
-             * @param ids Not valid ids list
-             * @param reader Reader
-             * @param writer Writes
-             * @return Valid packages count
-             * @throws XMLStreamException When error occurs
-             */
-            private static long process(final Collection<String> ids, final XMLEventReader reader,
-                final XMLEventWriter writer) throws XMLStreamException {
-                boolean valid = true;
-                long cnt = 0;
-                XMLEvent event;
-                while (reader.hasNext()) {
-                    event = reader.nextEvent();
-                    if (event.isStartElement()
-                        && event.asStartElement().getName().getLocalPart().equals(ByPkgidAttr.TAG)
-                    ) {
-                        if (ids.contains(
-                            event.asStartElement().getAttributeByName(new QName("pkgid")).getValue()
-                        )) {
-                            valid = false;
-                        } else {
-                            valid = true;
-                            cnt = cnt + 1;
-                        }
-                    }
-                    if (valid) {
-                        writer.add(event);
-                    }
-                    if (event.isEndElement()
-                        && event.asEndElement().getName().getLocalPart().equals(ByPkgidAttr.TAG)) {
-                        valid = true;
-                    }
-                }
-                return cnt;
+                final Set<String> set = new HashSet<>(ids);
+                return new XmlPackageBlocks(this.input, this.out).filter(
+                    UnaryOperator.identity(),
+                    block -> XmlPackageBlocks.attribute(block, "pkgid")
+                        .map(pkgid -> !set.contains(pkgid)).orElse(true)
+                );
             }
         }
 
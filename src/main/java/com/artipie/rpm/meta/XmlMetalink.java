@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.RepoConfig;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import javax.xml.stream.XMLStreamException;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Metalink `metalink.xml` writer. Metalink describes `repomd.xml` with its size, revision
+ * and checksums and lists repository mirrors with preferences: dnf chooses the mirror by
+ * preference and rejects mirrors which serve `repomd.xml` not matching the metalink.
+ * @since 1.11
+ */
+public final class XmlMetalink {
+
+    /**
+     * Mirror manager namespace.
+     */
+    private static final String MM = "http://fedorahosted.org/mirrormanager";
+
+    /**
+     * Repomd xml name.
+     */
+    private static final String REPOMD = "repomd.xml";
+
+    /**
+     * Output stream.
+     */
+    private final OutputStream out;
+
+    /**
+     * Ctor.
+     * @param out Output stream
+     */
+    public XmlMetalink(final OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes metalink for repomd.xml.
+     * @param repomd Repomd xml bytes
+     * @param mirrors Repository mirrors
+     * @throws XmlException On error
+     */
+    public void write(final byte[] repomd, final List<RepoConfig.Mirror> mirrors) {
+        final Optional<Long> timestamp =
+            new XmlRepomdChecksums(new ByteArrayInputStream(repomd)).read().timestamp();
+        try {
+            final XmlFile xml = new XmlFile(this.out);
+            xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            xml.writeStartElement("metalink");
+            xml.writeDefaultNamespace("http://www.metalinker.org/");
+            xml.writeNamespace("mm0", XmlMetalink.MM);
+            xml.writeAttribute("version", "3.0");
+            xml.writeAttribute("type", "dynamic");
+            if (timestamp.isPresent()) {
+                xml.writeAttribute(
+                    "pubdate",
+                    DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                        ZonedDateTime.ofInstant(
+                            Instant.ofEpochSecond(timestamp.get()), ZoneOffset.UTC
+                        )
+                    )
+                );
+            }
+            xml.writeAttribute("generator", "artipie");
+            xml.writeStartElement("files");
+            xml.writeStartElement("file");
+            xml.writeAttribute("name", XmlMetalink.REPOMD);
+            if (timestamp.isPresent()) {
+                xml.writeStartElement("mm0", "timestamp", XmlMetalink.MM);
+                xml.writeCharacters(String.valueOf(timestamp.get()));
+                xml.writeEndElement();
+            }
+            xml.writeStartElement("size");
+            xml.writeCharacters(String.valueOf(repomd.length));
+            xml.writeEndElement();
+            xml.writeStartElement("verification");
+            XmlMetalink.hash(xml, "md5", DigestUtils.md5Hex(repomd));
+            XmlMetalink.hash(xml, "sha1", DigestUtils.sha1Hex(repomd));
+            XmlMetalink.hash(xml, "sha256", DigestUtils.sha256Hex(repomd));
+            XmlMetalink.hash(xml, "sha512", DigestUtils.sha512Hex(repomd));
+            xml.writeEndElement();
+            xml.writeStartElement("resources");
+            xml.writeAttribute("maxconnections", "1");
+            for (final RepoConfig.Mirror mirror : mirrors) {
+                final String protocol = URI.create(mirror.url()).getScheme()
+                    .toLowerCase(Locale.US);
+                xml.writeStartElement("url");
+                xml.writeAttribute("protocol", protocol);
+                xml.writeAttribute("type", protocol);
+                xml.writeAttribute("preference", String.valueOf(mirror.preference()));
+                xml.writeCharacters(
+                    String.format("%s/repodata/%s", mirror.url(), XmlMetalink.REPOMD)
+                );
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (final XMLStreamException err) {
+            throw new XmlException("Failed to write metalink", err);
+        }
+    }
+
+    /**
+     * Writes verification hash.
+     * @param xml Xml writer
+     * @param type Hash type
+     * @param hex Hash hex value
+     * @throws XMLStreamException On error
+     */
+    private static void hash(final XmlFile xml, final String type, final String hex)
+        throws XMLStreamException {
+        xml.writeStartElement("hash");
+        xml.writeAttribute("type", type);
+        xml.writeCharacters(hex);
+        xml.writeEndElement();
+    }
+}
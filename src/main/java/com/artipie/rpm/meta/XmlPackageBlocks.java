@@ -0,0 +1,345 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Metadata xml, read as raw bytes split into `package` elements. Packages are filtered
+ * without xml events decoding: bytes of the kept packages and everything between them
+ * are copied to the output as is. Metadata is expected to be well-formed, `package`
+ * elements are neither nested nor empty, as it is in repository metadata files.
+ * Input/output streams are not closed, resources should be closed from the outside.
+ * @since 1.11
+ */
+final class XmlPackageBlocks {
+
+    /**
+     * Read buffer size.
+     */
+    private static final int BUFSIZE = 64 * 1024;
+
+    /**
+     * Package start tag beginning.
+     */
+    private static final byte[] OPEN = "<package".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Package end tag.
+     */
+    private static final byte[] CLOSE = "</package>".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Input.
+     */
+    private final InputStream input;
+
+    /**
+     * Output.
+     */
+    private final OutputStream out;
+
+    /**
+     * Read buffer.
+     */
+    private byte[] buf;
+
+    /**
+     * Number of bytes in buffer.
+     */
+    private int len;
+
+    /**
+     * Ctor.
+     * @param input Input
+     * @param out Output
+     */
+    XmlPackageBlocks(final InputStream input, final OutputStream out) {
+        this.input = input;
+        this.out = out;
+        this.buf = new byte[XmlPackageBlocks.BUFSIZE];
+    }
+
+    /**
+     * Copy metadata to output, skipping packages, which are not accepted by the predicate.
+     * Predicate receives package element bytes from `<package` to `</package>` inclusive.
+     * @param prolog Transformation of the metadata part before the first package
+     * @param keep Packages predicate
+     * @return Count of the kept packages
+     * @throws IOException On IO error or if package element is not closed
+     * @checkstyle CyclomaticComplexityCheck (100 lines)
+     * @checkstyle ExecutableStatementCountCheck (100 lines)
+     */
+    @SuppressWarnings({"PMD.CognitiveComplexity", "PMD.CyclomaticComplexity"})
+    long filter(final UnaryOperator<String> prolog, final Predicate<ByteBuffer> keep)
+        throws IOException {
+        long cnt = 0;
+        boolean started = false;
+        boolean inside = false;
+        boolean eof = false;
+        int from = 0;
+        while (!eof) {
+            eof = !this.fill();
+            boolean found = true;
+            while (found) {
+                if (inside) {
+                    final int idx = XmlPackageBlocks.indexOf(
+                        ByteBuffer.wrap(this.buf, 0, this.len), XmlPackageBlocks.CLOSE, from
+                    );
+                    found = idx >= 0;
+                    if (found) {
+                        final int end = idx + XmlPackageBlocks.CLOSE.length;
+                        if (keep.test(ByteBuffer.wrap(this.buf, 0, end).asReadOnlyBuffer())) {
+                            this.out.write(this.buf, 0, end);
+                            cnt = cnt + 1;
+                        }
+                        this.shift(end);
+                        inside = false;
+                        from = 0;
+                    } else {
+                        from = Math.max(from, this.len - XmlPackageBlocks.CLOSE.length + 1);
+                    }
+                } else {
+                    final int idx = this.open(from);
+                    found = idx >= 0;
+                    if (found) {
+                        this.write(idx, started, prolog);
+                        started = true;
+                        inside = true;
+                        from = XmlPackageBlocks.OPEN.length;
+                    } else if (started) {
+                        this.write(
+                            Math.max(0, this.len - XmlPackageBlocks.OPEN.length), true, prolog
+                        );
+                        from = 0;
+                    } else {
+                        from = Math.max(0, this.len - XmlPackageBlocks.OPEN.length);
+                    }
+                }
+            }
+        }
+        if (inside) {
+            throw new IOException("Package element is not closed");
+        }
+        this.write(this.len, started, prolog);
+        return cnt;
+    }
+
+    /**
+     * Value of the attribute of the package start tag.
+     * @param block Package element bytes
+     * @param name Attribute name
+     * @return Attribute value if found
+     */
+    static Optional<String> attribute(final ByteBuffer block, final String name) {
+        return XmlPackageBlocks.attribute(block, 0, name);
+    }
+
+    /**
+     * Text of the first element with given name inside the package.
+     * @param block Package element bytes
+     * @param tag Element name
+     * @return Element text if element is found
+     */
+    static Optional<String> text(final ByteBuffer block, final String tag) {
+        final int start = XmlPackageBlocks.element(block, tag);
+        Optional<String> res = Optional.empty();
+        if (start >= 0) {
+            final int body = XmlPackageBlocks.indexOf(block, new byte[] {'>'}, start) + 1;
+            final int end = XmlPackageBlocks.indexOf(block, new byte[] {'<'}, body);
+            if (body > 0 && end >= 0) {
+                res = Optional.of(XmlPackageBlocks.string(block, body, end));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Value of the attribute of the first element with given name inside the package.
+     * @param block Package element bytes
+     * @param tag Element name
+     * @param name Attribute name
+     * @return Attribute value if found
+     */
+    static Optional<String> attribute(final ByteBuffer block, final String tag,
+        final String name) {
+        final int start = XmlPackageBlocks.element(block, tag);
+        Optional<String> res = Optional.empty();
+        if (start >= 0) {
+            res = XmlPackageBlocks.attribute(block, start, name);
+        }
+        return res;
+    }
+
+    /**
+     * Value of the attribute of the start tag.
+     * @param block Package element bytes
+     * @param start Start tag position
+     * @param name Attribute name
+     * @return Attribute value if found
+     */
+    private static Optional<String> attribute(final ByteBuffer block, final int start,
+        final String name) {
+        final int end = XmlPackageBlocks.indexOf(block, new byte[] {'>'}, start);
+        final ByteBuffer tag = block.duplicate();
+        tag.limit(Math.max(end, 0));
+        int pos = start;
+        Optional<String> res = Optional.empty();
+        while (res.isEmpty() && pos >= 0 && end >= 0) {
+            pos = XmlPackageBlocks.indexOf(
+                tag, String.format("%s=", name).getBytes(StandardCharsets.US_ASCII), pos
+            );
+            if (pos > 0 && Character.isWhitespace(tag.get(pos - 1))
+                && pos + name.length() + 1 < tag.limit()) {
+                final int value = pos + name.length() + 2;
+                final int close = XmlPackageBlocks.indexOf(
+                    tag, new byte[] {tag.get(value - 1)}, value
+                );
+                if (close >= 0) {
+                    res = Optional.of(XmlPackageBlocks.string(tag, value, close));
+                }
+            }
+            if (pos >= 0) {
+                pos = pos + 1;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Find the first element start tag by name.
+     * @param block Package element bytes
+     * @param tag Element name
+     * @return Start tag position or -1 if not found
+     */
+    private static int element(final ByteBuffer block, final String tag) {
+        final byte[] open = String.format("<%s", tag).getBytes(StandardCharsets.US_ASCII);
+        int pos = XmlPackageBlocks.indexOf(block, open, 1);
+        while (pos >= 0 && !XmlPackageBlocks.delimiter(block, pos + open.length)) {
+            pos = XmlPackageBlocks.indexOf(block, open, pos + 1);
+        }
+        return pos;
+    }
+
+    /**
+     * Read more bytes into the buffer, growing it if it is full.
+     * @return False if input is over
+     * @throws IOException On IO error
+     */
+    private boolean fill() throws IOException {
+        if (this.len == this.buf.length) {
+            final byte[] grown = new byte[this.buf.length * 2];
+            System.arraycopy(this.buf, 0, grown, 0, this.len);
+            this.buf = grown;
+        }
+        final int read = this.input.read(this.buf, this.len, this.buf.length - this.len);
+        if (read > 0) {
+            this.len = this.len + read;
+        }
+        return read >= 0;
+    }
+
+    /**
+     * Find package start tag in the buffer.
+     * @param from Position to start search from
+     * @return Position or -1 if not found
+     */
+    private int open(final int from) {
+        final ByteBuffer data = ByteBuffer.wrap(this.buf, 0, this.len);
+        int pos = XmlPackageBlocks.indexOf(data, XmlPackageBlocks.OPEN, from);
+        while (pos >= 0 && pos + XmlPackageBlocks.OPEN.length < this.len
+            && !XmlPackageBlocks.delimiter(data, pos + XmlPackageBlocks.OPEN.length)) {
+            pos = XmlPackageBlocks.indexOf(data, XmlPackageBlocks.OPEN, pos + 1);
+        }
+        if (pos + XmlPackageBlocks.OPEN.length >= this.len) {
+            pos = -1;
+        }
+        return pos;
+    }
+
+    /**
+     * Write first bytes of the buffer to the output and remove them from the buffer.
+     * @param count Bytes count
+     * @param started Whether the first package was found, otherwise bytes are prolog
+     * @param prolog Prolog transformation
+     * @throws IOException On IO error
+     */
+    private void write(final int count, final boolean started,
+        final UnaryOperator<String> prolog) throws IOException {
+        if (started) {
+            this.out.write(this.buf, 0, count);
+        } else {
+            this.out.write(
+                prolog.apply(new String(this.buf, 0, count, StandardCharsets.UTF_8))
+                    .getBytes(StandardCharsets.UTF_8)
+            );
+        }
+        this.shift(count);
+    }
+
+    /**
+     * Remove first bytes from the buffer.
+     * @param count Bytes count
+     */
+    private void shift(final int count) {
+        System.arraycopy(this.buf, count, this.buf, 0, this.len - count);
+        this.len = this.len - count;
+    }
+
+    /**
+     * Checks whether byte at the position ends tag name.
+     * @param data Bytes
+     * @param pos Position
+     * @return True if byte is whitespace, `>` or `/`
+     */
+    private static boolean delimiter(final ByteBuffer data, final int pos) {
+        final byte chr = data.get(pos);
+        return Character.isWhitespace(chr) || chr == '>' || chr == '/';
+    }
+
+    /**
+     * Find bytes sequence.
+     * @param data Bytes to search in, from position zero to the limit
+     * @param what Bytes to find
+     * @param from Position to start search from
+     * @return Position or -1 if not found
+     */
+    private static int indexOf(final ByteBuffer data, final byte[] what, final int from) {
+        final int last = data.limit() - what.length;
+        int res = -1;
+        for (int pos = Math.max(from, 0); pos <= last && res < 0; pos = pos + 1) {
+            int idx = 0;
+            while (idx < what.length && data.get(pos + idx) == what[idx]) {
+                idx = idx + 1;
+            }
+            if (idx == what.length) {
+                res = pos;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Decode bytes.
+     * @param data Bytes
+     * @param start Start position
+     * @param end End position, exclusive
+     * @return String
+     */
+    private static String string(final ByteBuffer data, final int start, final int end) {
+        final byte[] bytes = new byte[end - start];
+        for (int idx = 0; idx < bytes.length; idx = idx + 1) {
+            bytes[idx] = data.get(start + idx);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
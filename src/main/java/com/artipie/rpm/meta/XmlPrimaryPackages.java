@@ -0,0 +1,219 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.misc.UncheckedIOConsumer;
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * Extracts packages identity from primary xml: name, epoch, version, release, arch,
+ * checksum and location of each package.
+ * @since 1.11
+ */
+public final class XmlPrimaryPackages {
+
+    /**
+     * Primary input stream.
+     */
+    private final InputStream inp;
+
+    /**
+     * Ctor.
+     * @param inp Primary input stream
+     */
+    public XmlPrimaryPackages(final InputStream inp) {
+        this.inp = inp;
+    }
+
+    /**
+     * Reads xml.
+     * @return List of the packages
+     */
+    public List<Entry> read() {
+        final List<Entry> res = new ArrayList<>(0);
+        try {
+            final XMLEventReader reader = new InputFactoryImpl().createXMLEventReader(this.inp);
+            Map<String, String> fields = new HashMap<>();
+            while (reader.hasNext()) {
+                final XMLEvent event = reader.nextEvent();
+                if (event.isStartElement()) {
+                    final StartElement tag = event.asStartElement();
+                    final String name = tag.getName().getLocalPart();
+                    if (Entry.NAME.equals(name) || Entry.ARCH.equals(name)
+                        || Entry.CHECKSUM.equals(name)) {
+                        fields.put(name, reader.getElementText());
+                    } else if ("version".equals(name)) {
+                        fields.put(Entry.EPOCH, XmlPrimaryPackages.attr(tag, "epoch"));
+                        fields.put(Entry.VERSION, XmlPrimaryPackages.attr(tag, "ver"));
+                        fields.put(Entry.RELEASE, XmlPrimaryPackages.attr(tag, "rel"));
+                    } else if (Entry.LOCATION.equals(name)) {
+                        fields.put(Entry.LOCATION, XmlPrimaryPackages.attr(tag, "href"));
+                    }
+                }
+                if (event.isEndElement()
+                    && event.asEndElement().getName().getLocalPart().equals("package")) {
+                    res.add(new Entry(fields));
+                    fields = new HashMap<>();
+                }
+            }
+            reader.close();
+        } catch (final XMLStreamException err) {
+            throw new ArtipieIOException(err);
+        } finally {
+            Optional.of(this.inp).ifPresent(new UncheckedIOConsumer<>(InputStream::close));
+        }
+        return res;
+    }
+
+    /**
+     * Attribute value.
+     * @param tag Xml tag
+     * @param name Attribute name
+     * @return Value, empty if attribute is absent
+     */
+    private static String attr(final StartElement tag, final String name) {
+        return Optional.ofNullable(tag.getAttributeByName(new QName(name)))
+            .map(Attribute::getValue).orElse("");
+    }
+
+    /**
+     * Package from primary xml.
+     * @since 1.11
+     */
+    public static final class Entry {
+
+        /**
+         * Name field.
+         */
+        public static final String NAME = "name";
+
+        /**
+         * Epoch field.
+         */
+        public static final String EPOCH = "epoch";
+
+        /**
+         * Version field.
+         */
+        public static final String VERSION = "version";
+
+        /**
+         * Release field.
+         */
+        public static final String RELEASE = "release";
+
+        /**
+         * Arch field.
+         */
+        public static final String ARCH = "arch";
+
+        /**
+         * Checksum field.
+         */
+        public static final String CHECKSUM = "checksum";
+
+        /**
+         * Location field.
+         */
+        public static final String LOCATION = "location";
+
+        /**
+         * Package fields.
+         */
+        private final Map<String, String> fields;
+
+        /**
+         * Ctor.
+         * @param fields Package fields
+         */
+        public Entry(final Map<String, String> fields) {
+            this.fields = fields;
+        }
+
+        /**
+         * Package field value.
+         * @param name Field name
+         * @return Value, empty if field is absent
+         */
+        public String field(final String name) {
+            return this.fields.getOrDefault(name, "");
+        }
+
+        /**
+         * Package checksum.
+         * @return Checksum hex
+         */
+        public String checksum() {
+            return this.field(Entry.CHECKSUM);
+        }
+
+        /**
+         * Package repository relative location.
+         * @return Location
+         */
+        public String location() {
+            return this.field(Entry.LOCATION);
+        }
+
+        /**
+         * Package identity in `name-epoch:version-release.arch` form.
+         * @return Package NEVRA
+         */
+        public String nevra() {
+            return String.format(
+                "%s-%s:%s-%s.%s", this.field(Entry.NAME), this.epoch(),
+                this.field(Entry.VERSION), this.field(Entry.RELEASE), this.field(Entry.ARCH)
+            );
+        }
+
+        /**
+         * Checks whether package matches selector: fields, absent in selector, match
+         * any value.
+         * @param selector Fields values to match
+         * @return True if package matches all the selector fields
+         */
+        public boolean matches(final Map<String, String> selector) {
+            return selector.entrySet().stream()
+                .allMatch(entry -> entry.getValue().equals(this.field(entry.getKey())));
+        }
+
+        /**
+         * Checks whether package matches NEVRA, epoch can be omitted if it is zero.
+         * @param nevra Package NEVRA
+         * @return True if package has given NEVRA
+         */
+        public boolean matches(final String nevra) {
+            return this.nevra().equals(nevra) || "0".equals(this.epoch())
+                && this.nevra().equals(nevra.replaceFirst("-([^-:]+-[^-]+)$", "-0:$1"));
+        }
+
+        /**
+         * Package epoch, absent epoch is zero.
+         * @return Epoch
+         */
+        private String epoch() {
+            final String res;
+            if (this.field(Entry.EPOCH).isEmpty()) {
+                res = "0";
+            } else {
+                res = this.field(Entry.EPOCH);
+            }
+            return res;
+        }
+    }
+}
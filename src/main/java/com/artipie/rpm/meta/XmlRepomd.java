@@ -195,6 +195,42 @@ public final class XmlRepomd implements Closeable {
             this.xml.writeEndElement();
         }
 
+        /**
+         * Add zchunk header checksum.
+         * @param checksum Checksum
+         * @throws XMLStreamException On error
+         * @throws IOException On checksum error
+         */
+        public void headerChecksum(final Checksum checksum)
+            throws XMLStreamException, IOException {
+            this.xml.writeStartElement("header-checksum");
+            this.xml.writeAttribute("type", checksum.digest().type());
+            this.xml.writeCharacters(checksum.hex());
+            this.xml.writeEndElement();
+        }
+
+        /**
+         * Add zchunk header size.
+         * @param size Size in bytes
+         * @throws XMLStreamException On error
+         */
+        public void headerSize(final long size) throws XMLStreamException {
+            this.xml.writeStartElement("header-size");
+            this.xml.writeCharacters(Long.toString(size));
+            this.xml.writeEndElement();
+        }
+
+        /**
+         * Add sqlite database version.
+         * @param version Database version
+         * @throws XMLStreamException On error
+         */
+        public void databaseVersion(final int version) throws XMLStreamException {
+            this.xml.writeStartElement("database_version");
+            this.xml.writeCharacters(Integer.toString(version));
+            this.xml.writeEndElement();
+        }
+
         @Override
         public void close() {
             try {
@@ -0,0 +1,175 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.misc.UncheckedIOConsumer;
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * Extracts revision, metadata files locations and checksums from repomd xml.
+ * @since 1.11
+ */
+public final class XmlRepomdChecksums {
+
+    /**
+     * Repomd input stream.
+     */
+    private final InputStream inp;
+
+    /**
+     * Ctor.
+     * @param inp Repomd input stream
+     */
+    public XmlRepomdChecksums(final InputStream inp) {
+        this.inp = inp;
+    }
+
+    /**
+     * Reads xml.
+     * @return Repomd revision and metadata files checksums
+     */
+    @SuppressWarnings("PMD.CyclomaticComplexity")
+    public Result read() {
+        final Map<String, String> res = new HashMap<>();
+        String revision = "";
+        Optional<Long> latest = Optional.empty();
+        try {
+            final XMLEventReader reader = new InputFactoryImpl().createXMLEventReader(this.inp);
+            XMLEvent event;
+            String location = "";
+            String checksum = "";
+            while (reader.hasNext()) {
+                event = reader.nextEvent();
+                if (XmlRepomdChecksums.isTag(event, "revision")) {
+                    revision = reader.getElementText().trim();
+                }
+                if (XmlRepomdChecksums.isTag(event, "timestamp")) {
+                    final Optional<Long> time =
+                        XmlRepomdChecksums.number(reader.getElementText().trim());
+                    if (time.isPresent() && time.get() > latest.orElse(Long.MIN_VALUE)) {
+                        latest = time;
+                    }
+                }
+                if (XmlRepomdChecksums.isTag(event, "location")) {
+                    location = event.asStartElement()
+                        .getAttributeByName(new QName("href")).getValue();
+                }
+                if (XmlRepomdChecksums.isTag(event, "checksum")) {
+                    checksum = reader.getElementText().trim();
+                }
+                if (event.isEndElement()
+                    && event.asEndElement().getName().getLocalPart().equals("data")) {
+                    res.put(location, checksum);
+                }
+            }
+            reader.close();
+        } catch (final XMLStreamException err) {
+            throw new ArtipieIOException(err);
+        } finally {
+            Optional.of(this.inp).ifPresent(new UncheckedIOConsumer<>(InputStream::close));
+        }
+        final Optional<Long> numeric = XmlRepomdChecksums.number(revision);
+        if (numeric.isPresent()) {
+            latest = numeric;
+        }
+        return new Result(revision, latest, res);
+    }
+
+    /**
+     * Parses number.
+     * @param value Value
+     * @return Number, empty if value is not a number
+     */
+    private static Optional<Long> number(final String value) {
+        Optional<Long> res;
+        try {
+            res = Optional.of(Long.parseLong(value));
+        } catch (final NumberFormatException ignored) {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * Checks event.
+     * @param event Event
+     * @param tag Xml tag name
+     * @return True is this event is xml tag with given tag name
+     */
+    private static boolean isTag(final XMLEvent event, final String tag) {
+        return event.isStartElement()
+            && event.asStartElement().getName().getLocalPart().equals(tag);
+    }
+
+    /**
+     * Repomd reading result.
+     * @since 1.11
+     */
+    public static final class Result {
+
+        /**
+         * Repomd revision.
+         */
+        private final String rev;
+
+        /**
+         * Repomd timestamp, unix time in seconds.
+         */
+        private final Optional<Long> time;
+
+        /**
+         * Metadata files locations and checksums.
+         */
+        private final Map<String, String> sums;
+
+        /**
+         * Ctor.
+         * @param rev Repomd revision
+         * @param time Repomd timestamp
+         * @param sums Metadata files locations and checksums
+         */
+        public Result(final String rev, final Optional<Long> time,
+            final Map<String, String> sums) {
+            this.rev = rev;
+            this.time = time;
+            this.sums = sums;
+        }
+
+        /**
+         * Repomd revision as is: usually unix time in seconds when repomd was created, but
+         * can be any string, for example, VCS commit hash.
+         * @return Revision, empty if repomd has no revision
+         */
+        public String revision() {
+            return this.rev;
+        }
+
+        /**
+         * Repomd timestamp: revision if it is a number, otherwise the latest timestamp of
+         * the metadata files.
+         * @return Unix time in seconds, empty if repomd has no numeric revision and timestamps
+         */
+        public Optional<Long> timestamp() {
+            return this.time;
+        }
+
+        /**
+         * Metadata files locations and checksums.
+         * @return Map of the location and checksum
+         */
+        public Map<String, String> checksums() {
+            return this.sums;
+        }
+    }
+}
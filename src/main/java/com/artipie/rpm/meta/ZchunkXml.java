@@ -0,0 +1,418 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.github.luben.zstd.Zstd;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import javax.xml.bind.DatatypeConverter;
+
+/**
+ * Metadata xml compressed into zchunk format (version 1): every `package` element is a
+ * separate zstd compressed chunk, the part before the first package and the part after the last
+ * package are chunks too. Chunks are compressed independently without dictionary, so the same
+ * package is always the same chunk and clients download only the chunks they do not have.
+ * Header uses sha256 checksum, chunks use sha512/128 checksums of the compressed data.
+ * Input/output streams are not closed, resources should be closed from the outside.
+ * @since 1.11
+ */
+public final class ZchunkXml {
+
+    /**
+     * File identifier.
+     */
+    private static final byte[] ID = {0, 'Z', 'C', 'K', '1'};
+
+    /**
+     * Sha256 checksum type.
+     */
+    private static final int SHA256 = 1;
+
+    /**
+     * Sha512/128 checksum type.
+     */
+    private static final int SHA512_128 = 3;
+
+    /**
+     * Zstd compression type.
+     */
+    private static final int ZSTD = 2;
+
+    /**
+     * Chunk checksum length.
+     */
+    private static final int CHUNK_SUM = 16;
+
+    /**
+     * Header checksum length.
+     */
+    private static final int HEADER_SUM = 32;
+
+    /**
+     * Read buffer size.
+     */
+    private static final int BUFSIZE = 64 * 1024;
+
+    /**
+     * Package start tag beginning.
+     */
+    private static final byte[] OPEN = "<package".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Package end tag.
+     */
+    private static final byte[] CLOSE = "</package>".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Output.
+     */
+    private final OutputStream out;
+
+    /**
+     * Ctor.
+     * @param out Output
+     */
+    public ZchunkXml(final OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Compress metadata xml. Compressed chunks are kept in temp file until the header
+     * with chunks index is written.
+     * @param xml Metadata xml
+     * @throws IOException On IO error or if package element is not closed
+     */
+    public void write(final InputStream xml) throws IOException {
+        final Path tmp = Files.createTempFile("rpm-zchunk", ".zck");
+        try {
+            final List<byte[]> index = new ArrayList<>(0);
+            final MessageDigest data = ZchunkXml.digest("SHA-256");
+            try (OutputStream chunks = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                ZchunkXml.split(
+                    xml,
+                    chunk -> {
+                        final byte[] compressed = Zstd.compress(
+                            chunk, Zstd.defaultCompressionLevel()
+                        );
+                        data.update(compressed);
+                        chunks.write(compressed);
+                        final ByteArrayOutputStream entry = new ByteArrayOutputStream();
+                        entry.write(
+                            ZchunkXml.digest("SHA-512").digest(compressed), 0, ZchunkXml.CHUNK_SUM
+                        );
+                        ZchunkXml.compint(entry, compressed.length);
+                        ZchunkXml.compint(entry, chunk.length);
+                        index.add(entry.toByteArray());
+                    }
+                );
+            }
+            this.out.write(ZchunkXml.header(data.digest(), index));
+            Files.copy(tmp, this.out);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Read header checksum and header size (including the lead) of the zchunk file.
+     * @param zck Zchunk file
+     * @return Header checksum in hex and header size
+     * @throws IOException On IO error or if file is not a zchunk file with sha256 header
+     */
+    public static Header header(final InputStream zck) throws IOException {
+        final byte[] id = zck.readNBytes(ZchunkXml.ID.length);
+        if (!Arrays.equals(id, ZchunkXml.ID) || ZchunkXml.compint(zck) != ZchunkXml.SHA256) {
+            throw new IOException("Not a zchunk file with sha256 header checksum");
+        }
+        final long size = ZchunkXml.compint(zck);
+        final byte[] sum = zck.readNBytes(ZchunkXml.HEADER_SUM);
+        if (sum.length != ZchunkXml.HEADER_SUM) {
+            throw new IOException("Zchunk lead is truncated");
+        }
+        final ByteArrayOutputStream lead = new ByteArrayOutputStream();
+        lead.write(ZchunkXml.ID);
+        ZchunkXml.compint(lead, ZchunkXml.SHA256);
+        ZchunkXml.compint(lead, size);
+        return new Header(
+            DatatypeConverter.printHexBinary(sum).toLowerCase(Locale.US),
+            lead.size() + ZchunkXml.HEADER_SUM + size
+        );
+    }
+
+    /**
+     * Lead and header: preface, index and signatures, header checksum is calculated over the
+     * lead without the checksum itself and the header.
+     * @param data Checksum of all compressed chunks
+     * @param chunks Index entries of the chunks
+     * @return Lead and header bytes
+     * @throws IOException On error
+     */
+    private static byte[] header(final byte[] data, final List<byte[]> chunks) throws IOException {
+        final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        ZchunkXml.compint(index, ZchunkXml.SHA512_128);
+        ZchunkXml.compint(index, chunks.size() + 1);
+        index.write(new byte[ZchunkXml.CHUNK_SUM]);
+        ZchunkXml.compint(index, 0);
+        ZchunkXml.compint(index, 0);
+        for (final byte[] chunk : chunks) {
+            index.write(chunk);
+        }
+        final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        header.write(data);
+        ZchunkXml.compint(header, 0);
+        ZchunkXml.compint(header, ZchunkXml.ZSTD);
+        ZchunkXml.compint(header, index.size());
+        index.writeTo(header);
+        ZchunkXml.compint(header, 0);
+        final ByteArrayOutputStream lead = new ByteArrayOutputStream();
+        lead.write(ZchunkXml.ID);
+        ZchunkXml.compint(lead, ZchunkXml.SHA256);
+        ZchunkXml.compint(lead, header.size());
+        final MessageDigest sum = ZchunkXml.digest("SHA-256");
+        sum.update(lead.toByteArray());
+        sum.update(header.toByteArray());
+        lead.write(sum.digest());
+        header.writeTo(lead);
+        return lead.toByteArray();
+    }
+
+    /**
+     * Split metadata xml into chunks: the part before the first package, packages with
+     * whitespaces before them and the part after the last package.
+     * @param xml Metadata xml
+     * @param chunks Chunks consumer
+     * @throws IOException On IO error or if package element is not closed
+     * @checkstyle CyclomaticComplexityCheck (60 lines)
+     */
+    @SuppressWarnings({"PMD.CognitiveComplexity", "PMD.CyclomaticComplexity"})
+    private static void split(final InputStream xml, final ZchunkXml.Chunks chunks)
+        throws IOException {
+        byte[] buf = new byte[ZchunkXml.BUFSIZE];
+        int len = 0;
+        boolean started = false;
+        boolean eof = false;
+        while (!eof) {
+            if (len == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            final int read = xml.read(buf, len, buf.length - len);
+            eof = read < 0;
+            if (read > 0) {
+                len = len + read;
+            }
+            if (!started) {
+                final int idx = ZchunkXml.open(buf, len);
+                if (idx >= 0) {
+                    ZchunkXml.chunk(chunks, buf, idx);
+                    System.arraycopy(buf, idx, buf, 0, len - idx);
+                    len = len - idx;
+                    started = true;
+                } else if (eof) {
+                    ZchunkXml.chunk(chunks, buf, len);
+                }
+            }
+            int close = ZchunkXml.close(buf, len);
+            while (started && close > 0) {
+                ZchunkXml.chunk(chunks, buf, close);
+                System.arraycopy(buf, close, buf, 0, len - close);
+                len = len - close;
+                close = ZchunkXml.close(buf, len);
+            }
+            if (started && eof && len > 0) {
+                if (ZchunkXml.open(buf, len) >= 0) {
+                    throw new IOException("Package element is not closed");
+                }
+                ZchunkXml.chunk(chunks, buf, len);
+            }
+        }
+    }
+
+    /**
+     * Pass first bytes of the buffer to chunks consumer if there are any.
+     * @param chunks Chunks consumer
+     * @param buf Bytes
+     * @param len Chunk length
+     * @throws IOException On IO error
+     */
+    private static void chunk(final ZchunkXml.Chunks chunks, final byte[] buf, final int len)
+        throws IOException {
+        if (len > 0) {
+            chunks.accept(Arrays.copyOf(buf, len));
+        }
+    }
+
+    /**
+     * Find the first package start tag.
+     * @param buf Bytes
+     * @param len Bytes count
+     * @return Position or -1 if not found
+     */
+    private static int open(final byte[] buf, final int len) {
+        int res = -1;
+        final int last = len - ZchunkXml.OPEN.length - 1;
+        for (int pos = 0; pos <= last && res < 0; pos = pos + 1) {
+            final byte next = buf[pos + ZchunkXml.OPEN.length];
+            if (ZchunkXml.matches(buf, pos, ZchunkXml.OPEN)
+                && (Character.isWhitespace(next) || next == '>' || next == '/')) {
+                res = pos;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Find the end of the first package end tag.
+     * @param buf Bytes
+     * @param len Bytes count
+     * @return Position after the tag or -1 if not found
+     */
+    private static int close(final byte[] buf, final int len) {
+        int res = -1;
+        final int last = len - ZchunkXml.CLOSE.length;
+        for (int pos = 0; pos <= last && res < 0; pos = pos + 1) {
+            if (ZchunkXml.matches(buf, pos, ZchunkXml.CLOSE)) {
+                res = pos + ZchunkXml.CLOSE.length;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Checks whether bytes sequence is found at the position.
+     * @param buf Bytes
+     * @param pos Position
+     * @param what Bytes sequence
+     * @return True if found
+     */
+    private static boolean matches(final byte[] buf, final int pos, final byte[] what) {
+        int idx = 0;
+        while (idx < what.length && buf[pos + idx] == what[idx]) {
+            idx = idx + 1;
+        }
+        return idx == what.length;
+    }
+
+    /**
+     * Write zchunk compressed integer: 7 bits per byte starting from the least significant
+     * ones, the highest bit is set in the last byte.
+     * @param out Output
+     * @param value Value
+     * @throws IOException On IO error
+     * @checkstyle MagicNumberCheck (15 lines)
+     */
+    private static void compint(final OutputStream out, final long value) throws IOException {
+        long rest = value;
+        while (rest > 127) {
+            out.write((int) (rest & 127));
+            rest = rest >>> 7;
+        }
+        out.write((int) (rest | 128));
+    }
+
+    /**
+     * Read zchunk compressed integer.
+     * @param input Input
+     * @return Value
+     * @throws IOException On IO error or if input is over
+     * @checkstyle MagicNumberCheck (20 lines)
+     */
+    private static long compint(final InputStream input) throws IOException {
+        long res = 0;
+        int shift = 0;
+        int next = 0;
+        while ((next & 128) == 0) {
+            next = input.read();
+            if (next < 0 || shift > 56) {
+                throw new IOException("Invalid zchunk compressed integer");
+            }
+            res = res | (long) (next & 127) << shift;
+            shift = shift + 7;
+        }
+        return res;
+    }
+
+    /**
+     * Message digest.
+     * @param algorithm Algorithm name
+     * @return Digest
+     */
+    private static MessageDigest digest(final String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException err) {
+            throw new IllegalStateException(err);
+        }
+    }
+
+    /**
+     * Zchunk header checksum and size.
+     * @since 1.11
+     */
+    public static final class Header {
+
+        /**
+         * Header checksum hex.
+         */
+        private final String hex;
+
+        /**
+         * Header size including the lead.
+         */
+        private final long length;
+
+        /**
+         * Ctor.
+         * @param hex Header checksum hex
+         * @param length Header size including the lead
+         */
+        Header(final String hex, final long length) {
+            this.hex = hex;
+            this.length = length;
+        }
+
+        /**
+         * Header sha256 checksum.
+         * @return Checksum hex
+         */
+        public String checksum() {
+            return this.hex;
+        }
+
+        /**
+         * Header size including the lead.
+         * @return Size in bytes
+         */
+        public long size() {
+            return this.length;
+        }
+    }
+
+    /**
+     * Chunks consumer.
+     * @since 1.11
+     */
+    @FunctionalInterface
+    private interface Chunks {
+
+        /**
+         * Accept uncompressed chunk.
+         * @param chunk Chunk bytes
+         * @throws IOException On IO error
+         */
+        void accept(byte[] chunk) throws IOException;
+    }
+}
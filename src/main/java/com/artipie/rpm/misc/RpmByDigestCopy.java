@@ -7,23 +7,44 @@ package com.artipie.rpm.misc;
 import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.ext.ContentDigest;
 import com.artipie.asto.ext.Digests;
 import com.artipie.asto.ext.KeyLastPart;
-import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.asto.misc.UncheckedIOScalar;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
 import io.reactivex.Completable;
 import io.reactivex.Flowable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import javax.xml.bind.DatatypeConverter;
+import org.apache.commons.io.FileUtils;
 
 /**
  * Copy rpms from one storage to another filtering by digests.
+ * Packages are never loaded into memory: when package checksum is known from the
+ * primary index, excluded packages are not read at all and other packages are
+ * copied as is, otherwise package is copied to the local temp directory calculating
+ * the digest on the fly and then copied to the destination if it is not excluded.
+ * Excluded packages and temp items never appear in the destination storage.
  * @since 0.11
  */
 public final class RpmByDigestCopy {
 
+    /**
+     * Default number of packages copied concurrently.
+     */
+    private static final int CONCURRENCY = 8;
+
     /**
      * Storage to copy from.
      */
@@ -37,29 +58,61 @@ public final class RpmByDigestCopy {
     /**
      * Content hex digests to exclude.
      */
-    private final List<String> digests;
+    private final Set<String> digests;
 
     /**
      * Digest algorithm.
      */
     private final Digests algorithm;
 
+    /**
+     * Known packages checksums: package location relatively to the key to
+     * copy from and hex checksum, calculated with the same digest algorithm.
+     */
+    private final Map<String, String> index;
+
+    /**
+     * Max number of packages copied concurrently.
+     */
+    private final int concurrency;
+
     /**
      * Ctor.
      * @param from Storage to copy from
      * @param key Key to copy from
      * @param digests Content digests to exclude
      * @param algorithm Digest algorithm
+     * @param index Known packages checksums, map of the package location relatively to
+     *  the key and checksum, for example, read by
+     *  {@link com.artipie.rpm.meta.XmlPrimaryChecksums}
+     * @param concurrency Max number of packages copied concurrently
      * @checkstyle ParameterNumberCheck (5 lines)
      */
     public RpmByDigestCopy(
         final Storage from, final Key key, final List<String> digests,
-        final Digests algorithm
+        final Digests algorithm, final Map<String, String> index, final int concurrency
     ) {
         this.from = from;
-        this.digests = digests;
+        this.digests = new HashSet<>(digests);
         this.key = key;
         this.algorithm = algorithm;
+        this.index = index;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Ctor.
+     * @param from Storage to copy from
+     * @param key Key to copy from
+     * @param digests Content digests to exclude
+     * @param algorithm Digest algorithm
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public RpmByDigestCopy(
+        final Storage from, final Key key, final List<String> digests,
+        final Digests algorithm
+    ) {
+        this(from, key, digests, algorithm, Collections.emptyMap(), RpmByDigestCopy.CONCURRENCY);
     }
 
     /**
@@ -82,38 +135,83 @@ public final class RpmByDigestCopy {
             .flatMapPublisher(Flowable::fromIterable)
             .filter(item -> item.string().endsWith(".rpm"))
             .flatMapCompletable(
-                rpm -> Completable.fromFuture(
-                    this.from.value(rpm).thenCompose(content -> this.handleRpm(dest, rpm, content))
-                )
+                rpm -> CompletableInterop.fromFuture(this.handleRpm(dest, rpm)),
+                false, this.concurrency
             );
     }
 
     /**
-     * Handle rpm: calc its digest and check whether it's present in digests list, save if to
+     * Handle rpm: check whether its digest is present in digests list, save it to
      * storage if necessary.
      * @param dest Where to copy
      * @param rpm Rpm file key
-     * @param content Rpm content
      * @return CompletionStage action
      */
-    private CompletionStage<Void> handleRpm(
-        final Storage dest, final Key rpm, final Content content
-    ) {
-        return new PublisherAs(content).bytes().thenCompose(
-            source -> new ContentDigest(new Content.From(source), this.algorithm)
-                .hex().thenCompose(
-                    hex -> {
-                        final CompletableFuture<Void> res;
-                        if (this.digests.contains(hex)) {
-                            res = CompletableFuture.allOf();
-                        } else {
-                            res = dest.save(
-                                new Key.From(new KeyLastPart(rpm).get()), new Content.From(source)
-                            );
-                        }
-                        return res;
-                    }
+    private CompletionStage<Void> handleRpm(final Storage dest, final Key rpm) {
+        final Key target = new Key.From(new KeyLastPart(rpm).get());
+        final String known = this.index.get(this.relative(rpm));
+        final CompletionStage<Void> res;
+        if (known == null) {
+            res = this.copyWithDigest(dest, rpm, target);
+        } else if (this.digests.contains(known)) {
+            res = CompletableFuture.allOf();
+        } else {
+            res = this.from.value(rpm).thenCompose(content -> dest.save(target, content));
+        }
+        return res;
+    }
+
+    /**
+     * Copy rpm to the local temp directory calculating digest on the fly, then copy it to
+     * the target location if digest is not excluded. Destination storage is written only
+     * after the exclusion is decided, temp directory is removed in any case.
+     * @param dest Where to copy
+     * @param rpm Rpm file key
+     * @param target Target key
+     * @return CompletionStage action
+     */
+    private CompletionStage<Void> copyWithDigest(final Storage dest, final Key rpm,
+        final Key target) {
+        final MessageDigest digest = this.algorithm.get();
+        final Path dir = new UncheckedIOScalar<>(
+            () -> Files.createTempDirectory("rpm-copy")
+        ).value();
+        final Storage stage = new FileStorage(dir);
+        return this.from.value(rpm).thenCompose(
+            content -> stage.save(
+                target,
+                new Content.From(
+                    content.size(),
+                    Flowable.fromPublisher(content).doOnNext(buf -> digest.update(buf.duplicate()))
                 )
-            );
+            )
+        ).thenCompose(
+            nothing -> {
+                final CompletionStage<Void> res;
+                if (this.digests.contains(
+                    DatatypeConverter.printHexBinary(digest.digest()).toLowerCase(Locale.US)
+                )) {
+                    res = CompletableFuture.allOf();
+                } else {
+                    res = stage.value(target).thenCompose(val -> dest.save(target, val));
+                }
+                return res;
+            }
+        ).whenComplete(
+            (nothing, err) -> FileUtils.deleteQuietly(dir.toFile())
+        );
+    }
+
+    /**
+     * Item key relatively to the key to copy from.
+     * @param item Item key
+     * @return Relative location
+     */
+    private String relative(final Key item) {
+        String res = item.string();
+        if (!this.key.equals(Key.ROOT)) {
+            res = res.substring(this.key.string().length() + 1);
+        }
+        return res;
     }
 }
@@ -0,0 +1,206 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.pkg;
+
+import com.artipie.rpm.Digest;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.redline_rpm.header.AbstractHeader;
+
+/**
+ * Package metadata which decodes each header tag, checksum and files paths list
+ * only once. The same instance is supposed to be shared by primary, other and
+ * filelists writers, so it's safe to use it from several threads.
+ * @since 1.11
+ */
+public final class CachedMeta implements Package.Meta {
+
+    /**
+     * Origin metadata.
+     */
+    private final Package.Meta origin;
+
+    /**
+     * Decoded headers by tag code.
+     */
+    private final Map<Integer, Package.MetaHeader> headers;
+
+    /**
+     * Memoized checksum.
+     */
+    private final Checksum sum;
+
+    /**
+     * Memoized files paths list.
+     */
+    private volatile List<String> paths;
+
+    /**
+     * Ctor.
+     * @param origin Origin metadata
+     */
+    public CachedMeta(final Package.Meta origin) {
+        this.origin = origin;
+        this.headers = new ConcurrentHashMap<>();
+        this.sum = new CachedChecksum(origin);
+    }
+
+    @Override
+    public Package.MetaHeader header(final AbstractHeader.Tag tag) {
+        return this.headers.computeIfAbsent(
+            tag.getCode(), code -> new CachedHeader(this.origin.header(tag))
+        );
+    }
+
+    @Override
+    public Checksum checksum() {
+        return this.sum;
+    }
+
+    @Override
+    public long size() {
+        return this.origin.size();
+    }
+
+    @Override
+    public String href() {
+        return this.origin.href();
+    }
+
+    @Override
+    public int[] range() {
+        return this.origin.range();
+    }
+
+    /**
+     * Package files full paths, see {@link HeaderTags#filePaths()}.
+     * @return Files paths
+     */
+    List<String> paths() {
+        List<String> res = this.paths;
+        if (res == null) {
+            final HeaderTags tags = new HeaderTags(this);
+            res = HeaderTags.join(tags.baseNames(), tags.dirNames(), tags.dirIndexes());
+            this.paths = res;
+        }
+        return res;
+    }
+
+    /**
+     * Header which decodes values from origin only once.
+     * @since 1.11
+     */
+    private static final class CachedHeader implements Package.MetaHeader {
+
+        /**
+         * Origin header.
+         */
+        private final Package.MetaHeader origin;
+
+        /**
+         * Decoded strings.
+         */
+        private volatile List<String> strings;
+
+        /**
+         * Decoded ints.
+         */
+        private volatile int[] ints;
+
+        /**
+         * Ctor.
+         * @param origin Origin header
+         */
+        CachedHeader(final Package.MetaHeader origin) {
+            this.origin = origin;
+        }
+
+        @Override
+        public String asString(final String def) {
+            final List<String> list = this.asStrings();
+            final String res;
+            if (list.isEmpty()) {
+                res = def;
+            } else {
+                res = list.get(0);
+            }
+            return res;
+        }
+
+        @Override
+        public int asInt(final int def) {
+            final int[] arr = this.asInts();
+            final int res;
+            if (arr.length == 0) {
+                res = def;
+            } else {
+                res = arr[0];
+            }
+            return res;
+        }
+
+        @Override
+        public List<String> asStrings() {
+            List<String> res = this.strings;
+            if (res == null) {
+                res = this.origin.asStrings();
+                this.strings = res;
+            }
+            return res;
+        }
+
+        @Override
+        public int[] asInts() {
+            int[] res = this.ints;
+            if (res == null) {
+                res = this.origin.asInts();
+                this.ints = res;
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Checksum which calculates hex only once.
+     * @since 1.11
+     */
+    private static final class CachedChecksum implements Checksum {
+
+        /**
+         * Origin metadata.
+         */
+        private final Package.Meta origin;
+
+        /**
+         * Calculated hex.
+         */
+        private volatile String hex;
+
+        /**
+         * Ctor.
+         * @param origin Origin metadata
+         */
+        CachedChecksum(final Package.Meta origin) {
+            this.origin = origin;
+        }
+
+        @Override
+        public Digest digest() {
+            return this.origin.checksum().digest();
+        }
+
+        @Override
+        public String hex() throws IOException {
+            String res = this.hex;
+            if (res == null) {
+                res = this.origin.checksum().hex();
+                this.hex = res;
+            }
+            return res;
+        }
+    }
+}
@@ -6,6 +6,8 @@ package com.artipie.rpm.pkg;
 
 import com.artipie.asto.misc.UncheckedIOScalar;
 import com.jcabi.log.Logger;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
@@ -27,10 +29,30 @@ import org.redline_rpm.header.Header;
  */
 public final class FilePackageHeader {
 
+    /**
+     * RPM lead magic number.
+     */
+    private static final int LEAD_MAGIC = 0xEDABEEDB;
+
+    /**
+     * RPM lead size.
+     */
+    private static final int LEAD = 96;
+
+    /**
+     * Drain buffer size.
+     */
+    private static final int BUFSIZE = 1024;
+
     /**
      * The RPM file input stream.
      */
-    private final InputStream pckg;
+    private final UncheckedIOScalar<InputStream> pckg;
+
+    /**
+     * Whether the stream should be read till the end after the header was read.
+     */
+    private final boolean drain;
 
     /**
      * Ctor.
@@ -38,16 +60,28 @@ public final class FilePackageHeader {
      * @param file The RPM file.
      */
     public FilePackageHeader(final InputStream file) {
-        this.pckg = file;
+        this(new UncheckedIOScalar<>(() -> file), true);
     }
 
     /**
-     * Ctor.
+     * Ctor. The file is opened only when header is read, when lazy header is
+     * read, only header bytes are read from the file.
      *
      * @param file The RPM file.
      */
     public FilePackageHeader(final Path file) {
-        this(new UncheckedIOScalar<>(() -> Files.newInputStream(file)).value());
+        this(new UncheckedIOScalar<>(() -> Files.newInputStream(file)), false);
+    }
+
+    /**
+     * Primary ctor.
+     *
+     * @param pckg The RPM file input stream.
+     * @param drain Whether the stream should be read till the end after the header was read
+     */
+    private FilePackageHeader(final UncheckedIOScalar<InputStream> pckg, final boolean drain) {
+        this.pckg = pckg;
+        this.drain = drain;
     }
 
     /**
@@ -60,7 +94,7 @@ public final class FilePackageHeader {
      */
     @SuppressWarnings("PMD.AvoidCatchingGenericException")
     public Header header() throws InvalidPackageException, IOException {
-        try (ReadableByteChannel chan = Channels.newChannel(this.pckg)) {
+        try (ReadableByteChannel chan = Channels.newChannel(this.pckg.value())) {
             final Format format;
             try {
                 format = new Scanner(
@@ -71,13 +105,98 @@ public final class FilePackageHeader {
                 throw new InvalidPackageException(ex);
             }
             final Header header = format.getHeader();
-            Logger.debug(this, "header: %s", header.toString());
-            final int bufsize = 1024;
-            int read = 1;
-            while (read > 0) {
-                read = chan.read(ByteBuffer.allocate(bufsize));
+            FilePackageHeader.drain(chan);
+            return header;
+        }
+    }
+
+    /**
+     * Get header decoded lazily: only the main header bytes are kept in memory,
+     * the tags are decoded on demand.
+     * Note: after the header was read from channel, for proper work of piped IO streams in
+     * {@link com.artipie.asto.streams.ContentAsStream}, it's necessary fully read the channel.
+     * @return The header.
+     * @throws InvalidPackageException In case package is invalid.
+     * @throws IOException In case of I/O error.
+     */
+    public RpmHeader rpmHeader() throws InvalidPackageException, IOException {
+        try (ReadableByteChannel chan = Channels.newChannel(this.pckg.value())) {
+            final DataInputStream input = new DataInputStream(Channels.newInputStream(chan));
+            final RpmHeader header;
+            try {
+                final byte[] lead = new byte[FilePackageHeader.LEAD];
+                input.readFully(lead);
+                if (ByteBuffer.wrap(lead).getInt() != FilePackageHeader.LEAD_MAGIC) {
+                    throw new InvalidPackageException(
+                        new IllegalStateException("Invalid RPM lead magic number")
+                    );
+                }
+                final ByteBuffer sign = FilePackageHeader.section(input);
+                final int hsize = sign.getInt(sign.position() + 12);
+                final int pad = (hsize + 7 & ~7) - hsize;
+                input.skipNBytes(pad);
+                final ByteBuffer main = FilePackageHeader.section(input);
+                header = new RpmHeader(
+                    main.slice(),
+                    FilePackageHeader.LEAD + sign.capacity() + pad + main.position()
+                );
+            } catch (final EOFException ex) {
+                throw new InvalidPackageException(ex);
+            }
+            if (this.drain) {
+                FilePackageHeader.drain(chan);
             }
             return header;
         }
     }
+
+    /**
+     * Read header structure section: preamble, index and data. Returned buffer is
+     * positioned at the section preamble, bytes before the position are zero
+     * alignment bytes which were skipped.
+     * @param input Package input
+     * @return Header structure bytes
+     * @throws IOException In case of I/O error
+     */
+    private static ByteBuffer section(final DataInputStream input) throws IOException {
+        final byte[] preamble = new byte[RpmHeader.PREAMBLE];
+        input.readFully(preamble);
+        int skip = 0;
+        if (ByteBuffer.wrap(preamble).getInt() == 0) {
+            skip = Integer.BYTES;
+            System.arraycopy(preamble, skip, preamble, 0, RpmHeader.PREAMBLE - skip);
+            input.readFully(preamble, RpmHeader.PREAMBLE - skip, skip);
+        }
+        final ByteBuffer pre = ByteBuffer.wrap(preamble);
+        if (pre.getInt(0) != RpmHeader.MAGIC) {
+            throw new InvalidPackageException(
+                new IllegalStateException("Invalid RPM header magic number")
+            );
+        }
+        final int count = pre.getInt(8);
+        final int size = pre.getInt(12);
+        if (count < 0 || size < 0) {
+            throw new InvalidPackageException(
+                new IllegalStateException("Invalid RPM header size")
+            );
+        }
+        final byte[] bytes = new byte[skip + RpmHeader.PREAMBLE + count * RpmHeader.ENTRY + size];
+        System.arraycopy(preamble, 0, bytes, skip, RpmHeader.PREAMBLE);
+        input.readFully(bytes, skip + RpmHeader.PREAMBLE, bytes.length - skip - RpmHeader.PREAMBLE);
+        return ByteBuffer.wrap(bytes).position(skip);
+    }
+
+    /**
+     * Read the channel till the end.
+     * @param chan Channel
+     * @throws IOException In case of I/O error
+     */
+    private static void drain(final ReadableByteChannel chan) throws IOException {
+        final ByteBuffer buf = ByteBuffer.allocate(FilePackageHeader.BUFSIZE);
+        int read = 1;
+        while (read > 0) {
+            buf.clear();
+            read = chan.read(buf);
+        }
+    }
 }
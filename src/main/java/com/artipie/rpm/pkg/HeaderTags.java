@@ -5,6 +5,7 @@
 package com.artipie.rpm.pkg;
 
 import com.artipie.ArtipieException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -236,6 +237,22 @@ public final class HeaderTags {
         return this.meta.header(Header.HeaderTag.DIRNAMES).asStrings();
     }
 
+    /**
+     * Full paths of the package files: dir name joined with base name, in the order
+     * of {@link #baseNames()}. When metadata is {@link CachedMeta}, the list is
+     * built only once per package.
+     * @return Files paths
+     */
+    public List<String> filePaths() {
+        final List<String> res;
+        if (this.meta instanceof CachedMeta) {
+            res = ((CachedMeta) this.meta).paths();
+        } else {
+            res = HeaderTags.join(this.baseNames(), this.dirNames(), this.dirIndexes());
+        }
+        return res;
+    }
+
     /**
      * Get the dir indexes header.
      * @return Value of header tag DIRINDEXES.
@@ -268,6 +285,22 @@ public final class HeaderTags {
         return this.meta.header(Header.HeaderTag.CHANGELOG).asStrings();
     }
 
+    /**
+     * Join files dir names with base names.
+     * @param files Base names
+     * @param dirs Dir names
+     * @param did Dir indexes
+     * @return Files paths
+     */
+    static List<String> join(final List<String> files, final List<String> dirs,
+        final int[] did) {
+        final List<String> res = new ArrayList<>(files.size());
+        for (int idx = 0; idx < files.size(); idx += 1) {
+            res.add(dirs.get(did[idx]).concat(files.get(idx)));
+        }
+        return res;
+    }
+
     /**
      * Rpm package version, format is [epoch]:[version]-[release].
      * Comparison in implemented by first comparing epoch values as integer and
@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.pkg;
+
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Flowable;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletionStage;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.reactivestreams.Publisher;
+
+/**
+ * Head of the RPM package: lead, signature and main header, the bytes which precede the
+ * payload. Head is collected from the first chunks of the package, see
+ * {@link RpmHeaderPrefix}, the rest of the package is not read. Signature and main header
+ * carry the payload and files digests, so head digest identifies the package content and is
+ * used to check that the data, saved aside of the package, belongs to this very package.
+ * @since 1.11
+ */
+public final class PackageHead {
+
+    /**
+     * Max head size.
+     */
+    private static final long MAX = 64L * 1024 * 1024;
+
+    /**
+     * Initial buffer size.
+     */
+    private static final int INIT = 8 * 1024;
+
+    /**
+     * Received first bytes of the package.
+     */
+    private byte[] buf;
+
+    /**
+     * Number of received bytes.
+     */
+    private int len;
+
+    /**
+     * Required head length, zero until it's calculated.
+     */
+    private long need;
+
+    /**
+     * Ctor.
+     */
+    public PackageHead() {
+        this.buf = new byte[PackageHead.INIT];
+    }
+
+    /**
+     * Accept next chunk of the package, chunks are not accepted after the head is complete.
+     * @param chunk Package chunk
+     * @return True if head is complete
+     * @throws InvalidPackageException If package is not valid
+     */
+    public boolean accept(final ByteBuffer chunk) {
+        if (!this.complete()) {
+            final int size = chunk.remaining();
+            if (this.len + size > this.buf.length) {
+                final byte[] grown = new byte[Math.max(this.buf.length * 2, this.len + size)];
+                System.arraycopy(this.buf, 0, grown, 0, this.len);
+                this.buf = grown;
+            }
+            chunk.duplicate().get(this.buf, this.len, size);
+            this.len = this.len + size;
+            this.need = new RpmHeaderPrefix(ByteBuffer.wrap(this.buf, 0, this.len)).length();
+            if (this.need > PackageHead.MAX) {
+                throw new InvalidPackageException(
+                    new IllegalStateException(String.format("Header is too large: %d", this.need))
+                );
+            }
+        }
+        return this.complete();
+    }
+
+    /**
+     * Is head complete?
+     * @return True if all the head bytes were accepted
+     */
+    public boolean complete() {
+        return this.need > 0 && this.need <= this.len;
+    }
+
+    /**
+     * All the accepted bytes, including the bytes after the head.
+     * @return Read-only buffer
+     */
+    public ByteBuffer received() {
+        return ByteBuffer.wrap(this.buf, 0, this.len).asReadOnlyBuffer();
+    }
+
+    /**
+     * Head bytes.
+     * @return Bytes of the lead, signature and main header
+     * @throws InvalidPackageException If head is incomplete
+     */
+    public byte[] bytes() {
+        if (!this.complete()) {
+            throw new InvalidPackageException(
+                new IllegalStateException("Package header is incomplete")
+            );
+        }
+        return Arrays.copyOf(this.buf, (int) this.need);
+    }
+
+    /**
+     * Main header of the package.
+     * @return Header
+     * @throws IOException On error
+     */
+    public RpmHeader header() throws IOException {
+        return new FilePackageHeader(new ByteArrayInputStream(this.bytes())).rpmHeader();
+    }
+
+    /**
+     * Head digest.
+     * @return Hex SHA-256 of the head bytes
+     */
+    public String digest() {
+        return DigestUtils.sha256Hex(this.bytes());
+    }
+
+    /**
+     * Read head from the package content, the content is cancelled when head is complete.
+     * @param content Package content
+     * @return Completable action with this head
+     */
+    public CompletionStage<PackageHead> read(final Publisher<ByteBuffer> content) {
+        return Flowable.fromPublisher(content).takeUntil(this::accept).ignoreElements()
+            .to(CompletableInterop.await()).thenApply(nothing -> this);
+    }
+
+    /**
+     * Read head from the package input stream, the rest of the stream is not read.
+     * @param input Package input stream
+     * @return This head
+     * @throws IOException On error
+     */
+    public PackageHead read(final InputStream input) throws IOException {
+        final byte[] chunk = new byte[PackageHead.INIT];
+        int read = 0;
+        while (!this.complete() && read >= 0) {
+            read = input.read(chunk);
+            if (read > 0) {
+                this.accept(ByteBuffer.wrap(chunk, 0, read));
+            }
+        }
+        return this;
+    }
+}
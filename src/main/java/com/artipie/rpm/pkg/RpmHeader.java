@@ -0,0 +1,308 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.pkg;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.redline_rpm.header.AbstractHeader;
+
+/**
+ * Main header of the RPM package, decoded lazily from the backing buffer.
+ * The index of the header is mapped once on creation, tag values are decoded
+ * only when requested via {@link #header(AbstractHeader.Tag)}.
+ * @since 1.11
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+public final class RpmHeader {
+
+    /**
+     * Header structure magic number.
+     */
+    static final int MAGIC = 0x8EADE801;
+
+    /**
+     * Size of the header preamble: magic, reserved, index count and data size.
+     */
+    static final int PREAMBLE = 16;
+
+    /**
+     * Size of the index entry: tag, type, offset and count.
+     */
+    static final int ENTRY = 16;
+
+    /**
+     * Header structure bytes, starting from the preamble.
+     */
+    private final ByteBuffer buf;
+
+    /**
+     * Offset of the header in the package file.
+     */
+    private final int start;
+
+    /**
+     * Tag code to index entry position.
+     */
+    private final Map<Integer, Integer> index;
+
+    /**
+     * Ctor.
+     * @param buf Header structure bytes, starting from the preamble
+     * @param start Offset of the header in the package file
+     */
+    public RpmHeader(final ByteBuffer buf, final int start) {
+        this.buf = buf;
+        this.start = start;
+        this.index = RpmHeader.map(buf);
+    }
+
+    /**
+     * Read header tag value.
+     * @param tag Tag
+     * @return Header value
+     */
+    public Package.MetaHeader header(final AbstractHeader.Tag tag) {
+        final Integer pos = this.index.get(tag.getCode());
+        final Package.MetaHeader res;
+        if (pos == null) {
+            res = new FilePackage.EntryHeader((AbstractHeader.Entry<?>) null);
+        } else {
+            res = new Entry(this.buf, pos);
+        }
+        return res;
+    }
+
+    /**
+     * Offset of the header in the package file.
+     * @return Start position
+     */
+    public int startPos() {
+        return this.start;
+    }
+
+    /**
+     * Offset of the header end in the package file.
+     * @return End position
+     */
+    public int endPos() {
+        return this.start + this.buf.limit();
+    }
+
+    /**
+     * Header structure bytes, starting from the preamble.
+     * @return Read-only buffer
+     */
+    public ByteBuffer bytes() {
+        return this.buf.asReadOnlyBuffer().rewind();
+    }
+
+    /**
+     * Map header index: tag code to the index entry position.
+     * @param buf Header structure bytes
+     * @return Tags index
+     */
+    private static Map<Integer, Integer> map(final ByteBuffer buf) {
+        final int count = buf.getInt(8);
+        final Map<Integer, Integer> res = new HashMap<>(count * 4 / 3 + 1);
+        for (int num = 0; num < count; num = num + 1) {
+            final int pos = RpmHeader.PREAMBLE + num * RpmHeader.ENTRY;
+            res.putIfAbsent(buf.getInt(pos), pos);
+        }
+        return res;
+    }
+
+    /**
+     * Header entry decoded from the buffer on demand.
+     * @since 1.11
+     */
+    private static final class Entry implements Package.MetaHeader {
+
+        /**
+         * INT16 type.
+         */
+        private static final int INT16 = 3;
+
+        /**
+         * INT32 type.
+         */
+        private static final int INT32 = 4;
+
+        /**
+         * STRING type.
+         */
+        private static final int STRING = 6;
+
+        /**
+         * STRING_ARRAY type.
+         */
+        private static final int STRING_ARRAY = 8;
+
+        /**
+         * I18NSTRING type.
+         */
+        private static final int I18NSTRING = 9;
+
+        /**
+         * Header structure bytes.
+         */
+        private final ByteBuffer buf;
+
+        /**
+         * Index entry position.
+         */
+        private final int pos;
+
+        /**
+         * Ctor.
+         * @param buf Header structure bytes
+         * @param pos Index entry position
+         */
+        Entry(final ByteBuffer buf, final int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        @Override
+        public String asString(final String def) {
+            final String res;
+            if (this.strings() && this.count() > 0) {
+                res = this.string(this.offset());
+            } else {
+                res = def;
+            }
+            return res;
+        }
+
+        @Override
+        public int asInt(final int def) {
+            final int type = this.type();
+            final int res;
+            if (this.count() == 0) {
+                res = def;
+            } else if (type == Entry.INT16) {
+                res = this.buf.getShort(this.offset());
+            } else if (type == Entry.INT32) {
+                res = this.buf.getInt(this.offset());
+            } else {
+                res = def;
+            }
+            return res;
+        }
+
+        @Override
+        public List<String> asStrings() {
+            final List<String> res;
+            if (this.strings()) {
+                final int count = this.count();
+                res = new ArrayList<>(count);
+                int off = this.offset();
+                for (int num = 0; num < count; num = num + 1) {
+                    final int end = this.terminator(off);
+                    res.add(this.decode(off, end));
+                    off = end + 1;
+                }
+            } else {
+                res = Collections.emptyList();
+            }
+            return res;
+        }
+
+        @Override
+        public int[] asInts() {
+            final int type = this.type();
+            final int count = this.count();
+            final int off = this.offset();
+            final int[] res;
+            if (type == Entry.INT16) {
+                res = new int[count];
+                for (int num = 0; num < count; num = num + 1) {
+                    res[num] = this.buf.getShort(off + num * Short.BYTES);
+                }
+            } else if (type == Entry.INT32) {
+                res = new int[count];
+                for (int num = 0; num < count; num = num + 1) {
+                    res[num] = this.buf.getInt(off + num * Integer.BYTES);
+                }
+            } else {
+                res = new int[0];
+            }
+            return res;
+        }
+
+        /**
+         * Entry data type.
+         * @return Type code
+         */
+        private int type() {
+            return this.buf.getInt(this.pos + 4);
+        }
+
+        /**
+         * Absolute offset of the entry value in the buffer.
+         * @return Offset
+         */
+        private int offset() {
+            return RpmHeader.PREAMBLE + this.buf.getInt(8) * RpmHeader.ENTRY
+                + this.buf.getInt(this.pos + 8);
+        }
+
+        /**
+         * Number of values in the entry.
+         * @return Values count
+         */
+        private int count() {
+            return this.buf.getInt(this.pos + 12);
+        }
+
+        /**
+         * Whether this entry holds string values.
+         * @return True if entry is string
+         */
+        private boolean strings() {
+            final int type = this.type();
+            return type == Entry.STRING || type == Entry.STRING_ARRAY
+                || type == Entry.I18NSTRING;
+        }
+
+        /**
+         * Read null-terminated string.
+         * @param off String offset
+         * @return String value
+         */
+        private String string(final int off) {
+            return this.decode(off, this.terminator(off));
+        }
+
+        /**
+         * Find position of the string null terminator.
+         * @param off String offset
+         * @return Terminator position
+         */
+        private int terminator(final int off) {
+            int end = off;
+            while (end < this.buf.limit() && this.buf.get(end) != 0) {
+                end = end + 1;
+            }
+            return end;
+        }
+
+        /**
+         * Decode UTF-8 string bytes.
+         * @param from Start position, inclusive
+         * @param end End position, exclusive
+         * @return String value
+         */
+        private String decode(final int from, final int end) {
+            final byte[] bytes = new byte[end - from];
+            this.buf.get(from, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
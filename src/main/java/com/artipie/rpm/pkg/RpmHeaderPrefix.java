@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.pkg;
+
+import java.nio.ByteBuffer;
+
+/**
+ * First bytes of the RPM package. Calculates how many bytes of the package are
+ * required to read the package header: lead, signature and main header, without
+ * reading the payload.
+ * @since 1.11
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+public final class RpmHeaderPrefix {
+
+    /**
+     * RPM lead magic number.
+     */
+    private static final int LEAD_MAGIC = 0xEDABEEDB;
+
+    /**
+     * RPM lead size.
+     */
+    private static final int LEAD = 96;
+
+    /**
+     * Package first bytes.
+     */
+    private final ByteBuffer prefix;
+
+    /**
+     * Ctor.
+     * @param prefix Package first bytes
+     */
+    public RpmHeaderPrefix(final ByteBuffer prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Number of the package bytes required to read the header. When the prefix is too
+     * short to calculate it, the length of the prefix required to continue calculation
+     * is returned, so the result is always greater than the prefix length until
+     * the prefix contains whole header.
+     * @return Required length
+     * @throws InvalidPackageException If prefix is not a valid RPM package beginning
+     */
+    public long length() {
+        final int size = this.prefix.remaining();
+        long res = Integer.BYTES;
+        if (size >= Integer.BYTES) {
+            if (this.prefix.getInt(this.prefix.position()) != RpmHeaderPrefix.LEAD_MAGIC) {
+                throw new InvalidPackageException(
+                    new IllegalStateException("Invalid RPM lead magic number")
+                );
+            }
+            res = this.section(RpmHeaderPrefix.LEAD, true);
+            if (res <= size) {
+                res = this.section(res, false);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Calculate header section end.
+     * @param start Section start
+     * @param sign Whether section is signature, signature is padded to 8 bytes
+     * @return Section end or required prefix length to read the section preamble
+     */
+    private long section(final long start, final boolean sign) {
+        final int size = this.prefix.remaining();
+        long res = start + RpmHeader.PREAMBLE;
+        if (res <= size) {
+            long pos = start;
+            if (this.intAt(pos) == 0) {
+                pos = pos + Integer.BYTES;
+                res = pos + RpmHeader.PREAMBLE;
+            }
+            if (res <= size) {
+                if (this.intAt(pos) != RpmHeader.MAGIC) {
+                    throw new InvalidPackageException(
+                        new IllegalStateException("Invalid RPM header magic number")
+                    );
+                }
+                final int count = this.intAt(pos + 8);
+                final int data = this.intAt(pos + 12);
+                if (count < 0 || data < 0) {
+                    throw new InvalidPackageException(
+                        new IllegalStateException("Invalid RPM header size")
+                    );
+                }
+                res = res + (long) count * RpmHeader.ENTRY + data;
+                if (sign) {
+                    res = res + ((data + 7L & ~7L) - data);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Read int from the prefix.
+     * @param pos Position relative to the prefix start
+     * @return Int value
+     */
+    private int intAt(final long pos) {
+        return this.prefix.getInt(this.prefix.position() + (int) pos);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.ArtipieException;
+import java.util.concurrent.CompletableFuture;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link BlockingThreads}.
+ * @since 1.11
+ */
+class BlockingThreadsTest {
+
+    @Test
+    void runsOnPlatformDaemonThreads() {
+        final Thread thread = CompletableFuture.supplyAsync(
+            Thread::currentThread, BlockingThreads.PLATFORM.executor()
+        ).join();
+        MatcherAssert.assertThat(
+            "Runs on daemon thread",
+            thread.isDaemon(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            thread.getName(),
+            Matchers.startsWith("rpm-blocking-")
+        );
+    }
+
+    @Test
+    void fallsBackToPlatformThreads() {
+        Assumptions.assumeFalse(BlockingThreads.virtualSupported());
+        MatcherAssert.assertThat(
+            "Uses platform threads when virtual threads are not supported",
+            BlockingThreads.AUTO.executor(),
+            new IsEqual<>(BlockingThreads.PLATFORM.executor())
+        );
+        Assertions.assertThrows(ArtipieException.class, BlockingThreads.VIRTUAL::executor);
+    }
+
+    @Test
+    void runsOnVirtualThreads() {
+        Assumptions.assumeTrue(BlockingThreads.virtualSupported());
+        MatcherAssert.assertThat(
+            CompletableFuture.supplyAsync(
+                Thread::currentThread, BlockingThreads.AUTO.executor()
+            ).join().toString(),
+            Matchers.startsWith("VirtualThread")
+        );
+    }
+}
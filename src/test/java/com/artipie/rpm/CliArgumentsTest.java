@@ -5,6 +5,9 @@
 package com.artipie.rpm;
 
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Collectors;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.Test;
@@ -63,6 +66,47 @@ class CliArgumentsTest {
         );
     }
 
+    @Test
+    void canParseMirrorsArgument() {
+        MatcherAssert.assertThat(
+            new CliArguments(
+                "--mirrors=https://one.example.com, https://two.example.com"
+            ).config().mirrors().stream()
+                .map(mirror -> String.format("%s %d", mirror.url(), mirror.preference()))
+                .collect(Collectors.toList()),
+            new IsEqual<>(
+                Arrays.asList("https://one.example.com 100", "https://two.example.com 99")
+            )
+        );
+    }
+
+    @Test
+    void canParseReadLimitsArguments() {
+        final RepoConfig.ReadLimits limits = new CliArguments(
+            "--parallel-reads=2", "--read-memory=16"
+        ).config().readLimits();
+        MatcherAssert.assertThat(
+            String.format("%d %d", limits.reads(), limits.bytes()),
+            new IsEqual<>("2 16777216")
+        );
+    }
+
+    @Test
+    void canParseConcurrencyArgument() {
+        MatcherAssert.assertThat(
+            new CliArguments("--concurrency=optimistic").config().concurrency(),
+            new IsEqual<>(RepoConfig.Concurrency.OPTIMISTIC)
+        );
+    }
+
+    @Test
+    void canParseGenerationsArgument() {
+        MatcherAssert.assertThat(
+            new CliArguments("--generations=3").config().generations(),
+            new IsEqual<>(Optional.of(3))
+        );
+    }
+
     @Test
     void canParseNamingPolicyArgumentWithEquals() {
         MatcherAssert.assertThat(
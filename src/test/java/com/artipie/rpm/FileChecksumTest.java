@@ -7,6 +7,7 @@ package com.artipie.rpm;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Random;
 import org.cactoos.io.InputOf;
 import org.cactoos.io.Sha256DigestOf;
 import org.cactoos.text.HexOf;
@@ -19,6 +20,7 @@ import org.junit.jupiter.api.io.TempDir;
  * Test case for {@link FileChecksum}.
  *
  * @since 0.8
+ * @checkstyle MagicNumberCheck (500 lines)
  */
 final class FileChecksumTest {
 
@@ -31,4 +33,16 @@ final class FileChecksumTest {
             new IsEqual<>(new HexOf(new Sha256DigestOf(new InputOf(target))).asString())
         );
     }
+
+    @Test
+    void generatesValidChecksumOfFileLargerThanBuffer(@TempDir final Path tmp) throws Exception {
+        final Path target = tmp.resolve("large.bin");
+        final byte[] bytes = new byte[200 * 1024 + 3];
+        new Random(0).nextBytes(bytes);
+        Files.write(target, bytes);
+        MatcherAssert.assertThat(
+            new FileChecksum(target, Digest.SHA256).hex(),
+            new IsEqual<>(new HexOf(new Sha256DigestOf(new InputOf(target))).asString())
+        );
+    }
 }
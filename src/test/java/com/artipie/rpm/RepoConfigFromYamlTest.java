@@ -9,6 +9,7 @@ import java.util.Optional;
 import org.cactoos.list.ListOf;
 import org.hamcrest.Matcher;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.hamcrest.core.AllOf;
 import org.junit.jupiter.api.Test;
 import org.llorllale.cactoos.matchers.Satisfies;
@@ -27,7 +28,8 @@ public final class RepoConfigFromYamlTest {
         MatcherAssert.assertThat(
             new RepoConfig.FromYaml(
                 Yaml.createYamlMappingBuilder().add("digest", "sha1")
-                .add("naming-policy", "sha256").add("filelists", "false")
+                .add("naming-policy", "sha256").add("filelists", "false").add("threads", "platform")
+                .add("concurrency", "optimistic").add("generations", "2")
                 .add("update", Yaml.createYamlMappingBuilder().add("on", "upload").build()).build(),
                 name
             ),
@@ -36,6 +38,11 @@ public final class RepoConfigFromYamlTest {
                     new Satisfies<>(cfg -> cfg.digest() == Digest.SHA1),
                     new Satisfies<>(cfg -> cfg.naming() == StandardNamingPolicy.SHA256),
                     new Satisfies<>(fromYaml -> !fromYaml.filelists()),
+                    new Satisfies<>(cfg -> cfg.executor() == BlockingThreads.PLATFORM.executor()),
+                    new Satisfies<>(
+                        cfg -> cfg.concurrency() == RepoConfig.Concurrency.OPTIMISTIC
+                    ),
+                    new Satisfies<>(cfg -> cfg.generations().equals(Optional.of(2))),
                     new Satisfies<>(cfg -> cfg.mode() == RepoConfig.UpdateMode.UPLOAD),
                     new Satisfies<>(cfg -> !cfg.cron().isPresent()),
                     new Satisfies<>(cfg -> name.equals(cfg.name()))
@@ -70,6 +77,49 @@ public final class RepoConfigFromYamlTest {
         );
     }
 
+    @Test
+    void readsMirrors() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add(
+                    "mirrors",
+                    Yaml.createYamlSequenceBuilder()
+                        .add("https://one.example.com/rpm")
+                        .add(
+                            Yaml.createYamlMappingBuilder()
+                                .add("url", "https://two.example.com/rpm/")
+                                .add("preference", "20").build()
+                        ).build()
+                ).build(),
+                "mirrored"
+            ).mirrors(),
+            Matchers.contains(
+                new Satisfies<>(
+                    mirror -> "https://one.example.com/rpm".equals(mirror.url())
+                        && mirror.preference() == RepoConfig.Mirror.DEFAULT_PREFERENCE
+                ),
+                new Satisfies<>(
+                    mirror -> "https://two.example.com/rpm".equals(mirror.url())
+                        && mirror.preference() == 20
+                )
+            )
+        );
+    }
+
+    @Test
+    void readsReadLimits() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder()
+                    .add("parallel-reads", "3").add("read-memory", "2").build(),
+                "limited"
+            ).readLimits(),
+            new Satisfies<>(
+                limits -> limits.reads() == 3 && limits.bytes() == 2L * 1024L * 1024L
+            )
+        );
+    }
+
     @Test
     void returnsDefaults() {
         final String name = "test";
@@ -82,6 +132,12 @@ public final class RepoConfigFromYamlTest {
                     new Satisfies<>(RepoConfig::filelists),
                     new Satisfies<>(cfg -> cfg.mode() == RepoConfig.UpdateMode.UPLOAD),
                     new Satisfies<>(cfg -> !cfg.cron().isPresent()),
+                    new Satisfies<>(cfg -> cfg.mirrors().isEmpty()),
+                    new Satisfies<>(cfg -> cfg.executor() == BlockingThreads.AUTO.executor()),
+                    new Satisfies<>(cfg -> cfg.readLimits().reads() >= 4),
+                    new Satisfies<>(cfg -> cfg.readLimits().bytes() > 0),
+                    new Satisfies<>(cfg -> cfg.concurrency() == RepoConfig.Concurrency.LOCK),
+                    new Satisfies<>(cfg -> !cfg.generations().isPresent()),
                     new Satisfies<>(cfg -> cfg.name().equals(name))
                 )
             )
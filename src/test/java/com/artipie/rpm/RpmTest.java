@@ -4,6 +4,7 @@
  */
 package com.artipie.rpm;
 
+import com.amihaiemil.eoyaml.Yaml;
 import com.artipie.asto.Copy;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
@@ -23,6 +24,7 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.stream.Collectors;
@@ -141,19 +143,23 @@ final class RpmTest {
         new TestRpm.Multiple(new TestRpm.Abc(), new TestRpm.Libdeflt()).put(this.storage);
         repo.batchUpdate(Key.ROOT).blockingAwait();
         final Storage stash = new InMemoryStorage();
-        new Copy(
-            this.storage,
-            this.storage.list(new Key.From("repodata")).join().stream()
-                .filter(item -> item.string().endsWith("gz")).collect(Collectors.toList())
-        ).copy(stash).join();
+        final Map<String, Key> before = RpmTest.metadata(this.storage);
+        new Copy(this.storage, new ArrayList<>(before.values())).copy(stash).join();
         new TestRpm.Invalid().put(this.storage);
         repo.batchUpdate(Key.ROOT).blockingAwait();
-        for (final Key key : stash.list(Key.ROOT).join()) {
+        final Map<String, Key> after = RpmTest.metadata(this.storage);
+        MatcherAssert.assertThat(
+            "Metadata files are the same",
+            after.keySet(),
+            new IsEqual<>(before.keySet())
+        );
+        for (final Map.Entry<String, Key> entry : after.entrySet()) {
             MatcherAssert.assertThat(
-                String.format("%s xmls are equal", key.string()),
-                new MetadataBytes(this.storage).value(key),
-                CompareMatcher.isSimilarTo(new MetadataBytes(stash).value(key))
-                    .ignoreWhitespace().normalizeWhitespace()
+                String.format("%s xmls are equal", entry.getKey()),
+                new MetadataBytes(this.storage).value(entry.getValue()),
+                CompareMatcher.isSimilarTo(
+                    new MetadataBytes(stash).value(before.get(entry.getKey()))
+                ).ignoreWhitespace().normalizeWhitespace()
             );
         }
     }
@@ -193,6 +199,33 @@ final class RpmTest {
         );
     }
 
+    @Test
+    void updatesRepoWithOptimisticConcurrency() throws IOException {
+        final RepoConfig cnfg = new RepoConfig.FromYaml(
+            Yaml.createYamlMappingBuilder().add("naming-policy", "sha1")
+                .add("concurrency", "optimistic").build(),
+            "optimistic"
+        );
+        new TestRpm.Multiple(new TestRpm.Abc(), new TestRpm.Libdeflt()).put(this.storage);
+        final Rpm repo = new Rpm(this.storage, cnfg);
+        repo.batchUpdate(Key.ROOT).blockingAwait();
+        new TestRpm.Time().put(this.storage);
+        repo.batchUpdate(Key.ROOT).blockingAwait();
+        MatcherAssert.assertThat(
+            this.storage,
+            Matchers.allOf(
+                new StorageHasMetadata(3, cnfg.filelists(), RpmTest.tmp),
+                new StorageHasRepoMd(cnfg)
+            )
+        );
+        MatcherAssert.assertThat(
+            "Storage has no locks",
+            this.storage.list(Key.ROOT).join().stream()
+                .noneMatch(key -> key.string().contains("lock")),
+            new IsEqual<>(true)
+        );
+    }
+
     @Test
     void throwsExceptionWhenFullUpdatesDoneSimultaneously() throws IOException {
         final Rpm repo =  new Rpm(
@@ -256,7 +289,10 @@ final class RpmTest {
         repo.batchUpdate(key).blockingAwait();
         final Path gzip = Files.createTempFile(RpmTest.tmp, XmlPackage.PRIMARY.name(), "xml.gz");
         Files.write(
-            gzip, new BlockingStorage(substorage).value(new Key.From("repodata/primary.xml.gz"))
+            gzip,
+            new BlockingStorage(substorage).value(
+                RpmTest.metadata(substorage).get("primary.xml.gz")
+            )
         );
         final Path xml = Files.createTempFile(RpmTest.tmp, XmlPackage.PRIMARY.name(), "xml");
         new Gzip(gzip).unpack(xml);
@@ -287,4 +323,20 @@ final class RpmTest {
         );
     }
 
+    /**
+     * Compressed metadata files of the repository by file name.
+     * @param asto Storage
+     * @return Metadata files keys by file name
+     */
+    private static Map<String, Key> metadata(final Storage asto) {
+        return asto.list(new Key.From("repodata")).join().stream()
+            .filter(item -> item.string().endsWith("gz"))
+            .collect(
+                Collectors.toMap(
+                    item -> item.string().substring(item.string().lastIndexOf('/') + 1),
+                    item -> item
+                )
+            );
+    }
+
 }
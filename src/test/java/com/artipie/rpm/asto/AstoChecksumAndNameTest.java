@@ -68,4 +68,16 @@ class AstoChecksumAndNameTest {
         );
     }
 
+    @Test
+    void skipsServiceItems() {
+        final String pkg = "pkg.rpm";
+        this.asto.save(new Key.From(pkg), new Content.From(pkg.getBytes())).join();
+        this.asto.save(new Key.From(".add", pkg), new Content.From(pkg.getBytes())).join();
+        this.asto.save(new Key.From(".checksums", pkg), new Content.From(pkg.getBytes())).join();
+        MatcherAssert.assertThat(
+            new AstoChecksumAndName(this.asto, Digest.SHA256).calculate(Key.ROOT)
+                .toCompletableFuture().join().keySet(),
+            Matchers.contains(pkg)
+        );
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.Digest;
+import java.util.Optional;
+import org.apache.commons.lang3.tuple.ImmutableTriple;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Satisfies;
+
+/**
+ * Test for {@link AstoChecksumSidecar}.
+ * @since 1.11
+ */
+class AstoChecksumSidecarTest {
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+    }
+
+    @Test
+    void savesAndReadsChecksum() {
+        final Key key = new Key.From(".add", "one.rpm");
+        final AstoChecksumSidecar sidecar = new AstoChecksumSidecar(this.asto);
+        sidecar.save(key, Digest.SHA256, "abc123", 10L, "def").toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            sidecar.read(key, Digest.SHA256).toCompletableFuture().join(),
+            new IsEqual<>(Optional.of(new ImmutableTriple<>("abc123", 10L, "def")))
+        );
+    }
+
+    @Test
+    void savesSidecarNotNamedAsPackage() {
+        new AstoChecksumSidecar(this.asto)
+            .save(new Key.From("four.rpm"), Digest.SHA256, "abc", 3L, "def")
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.asto.list(AstoChecksumSidecar.ROOT).join(),
+            Matchers.everyItem(
+                new Satisfies<>(key -> !key.string().endsWith(".rpm"))
+            )
+        );
+    }
+
+    @Test
+    void returnsEmptyForAnotherDigest() {
+        final Key key = new Key.From("two.rpm");
+        final AstoChecksumSidecar sidecar = new AstoChecksumSidecar(this.asto);
+        sidecar.save(key, Digest.SHA1, "def456", 1L, "abc").toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            sidecar.read(key, Digest.SHA256).toCompletableFuture().join(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+
+    @Test
+    void removesSidecars() {
+        final AstoChecksumSidecar sidecar = new AstoChecksumSidecar(this.asto);
+        final Key key = new Key.From(".add", "three.rpm");
+        sidecar.save(key, Digest.SHA256, "abc", 2L, "def").toCompletableFuture().join();
+        sidecar.remove(new Key.From(".add")).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            sidecar.read(key, Digest.SHA256).toCompletableFuture().join(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+}
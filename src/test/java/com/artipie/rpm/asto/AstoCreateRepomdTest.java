@@ -4,6 +4,7 @@
  */
 package com.artipie.rpm.asto;
 
+import com.amihaiemil.eoyaml.Yaml;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.blocking.BlockingStorage;
@@ -13,12 +14,18 @@ import com.artipie.rpm.Digest;
 import com.artipie.rpm.RepoConfig;
 import com.artipie.rpm.StandardNamingPolicy;
 import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.ZchunkXml;
 import com.jcabi.matchers.XhtmlMatchers;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.cactoos.map.MapEntry;
 import org.cactoos.map.MapOf;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.xmlunit.matchers.CompareMatcher;
@@ -96,4 +103,102 @@ class AstoCreateRepomdTest {
         );
     }
 
+    @Test
+    void addsDatabasesRecords() {
+        final Charset charset = StandardCharsets.UTF_8;
+        final BlockingStorage blsto = new BlockingStorage(this.asto);
+        final Key temp = new Key.From("temp");
+        blsto.save(new Key.From(temp, XmlPackage.OTHER.name()), "other".getBytes(charset));
+        blsto.save(
+            new Key.From(temp, String.format("%s.SHA256", XmlPackage.OTHER.name())),
+            "o_other_checksum 34".getBytes(charset)
+        );
+        blsto.save(new Key.From(temp, "OTHER_DB"), "other_db".getBytes(charset));
+        blsto.save(new Key.From(temp, "OTHER_DB.SHA256"), "o_db_checksum 56".getBytes(charset));
+        new AstoCreateRepomd(this.asto, this.conf).perform(temp).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new String(blsto.value(new Key.From(temp, "repomd.xml")), charset),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='repomd']/*[local-name()='data' and @type='other']",
+                // @checkstyle LineLengthCheck (4 lines)
+                "/*[local-name()='repomd']/*[local-name()='data' and @type='other_db']/*[local-name()='open-checksum' and text()='o_db_checksum']",
+                "/*[local-name()='repomd']/*[local-name()='data' and @type='other_db']/*[local-name()='open-size' and text()='56']",
+                "/*[local-name()='repomd']/*[local-name()='data' and @type='other_db']/*[local-name()='database_version' and text()='10']",
+                "/*[local-name()='repomd']/*[local-name()='data' and @type='other_db']/*[local-name()='location' and contains(@href, '-other.sqlite.bz2')]"
+            )
+        );
+    }
+
+    @Test
+    void addsZchunkRecords() throws IOException {
+        final Charset charset = StandardCharsets.UTF_8;
+        final BlockingStorage blsto = new BlockingStorage(this.asto);
+        final Key temp = new Key.From("temp");
+        final ByteArrayOutputStream zck = new ByteArrayOutputStream();
+        new ZchunkXml(zck).write(
+            new ByteArrayInputStream("<otherdata packages=\"0\"></otherdata>".getBytes(charset))
+        );
+        blsto.save(new Key.From(temp, XmlPackage.OTHER.name()), "other".getBytes(charset));
+        blsto.save(new Key.From(temp, "OTHER.SHA256"), "o_other_checksum 34".getBytes(charset));
+        blsto.save(new Key.From(temp, "OTHER_ZCK"), zck.toByteArray());
+        blsto.save(new Key.From(temp, "OTHER_ZCK.SHA256"), "o_other_checksum 34".getBytes(charset));
+        new AstoCreateRepomd(this.asto, this.conf).perform(temp).toCompletableFuture().join();
+        final ZchunkXml.Header header =
+            ZchunkXml.header(new ByteArrayInputStream(zck.toByteArray()));
+        MatcherAssert.assertThat(
+            new String(blsto.value(new Key.From(temp, "repomd.xml")), charset),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='repomd']/*[local-name()='data' and @type='other']",
+                String.format(
+                    // @checkstyle LineLengthCheck (1 line)
+                    "/*[local-name()='repomd']/*[local-name()='data' and @type='other_zck']/*[local-name()='header-checksum' and @type='sha256' and text()='%s']",
+                    header.checksum()
+                ),
+                String.format(
+                    // @checkstyle LineLengthCheck (1 line)
+                    "/*[local-name()='repomd']/*[local-name()='data' and @type='other_zck']/*[local-name()='header-size' and text()='%d']",
+                    header.size()
+                ),
+                // @checkstyle LineLengthCheck (1 line)
+                "/*[local-name()='repomd']/*[local-name()='data' and @type='other_zck']/*[local-name()='location' and contains(@href, '-other.xml.zck')]"
+            )
+        );
+    }
+
+    @Test
+    void createsMetalinkWhenMirrorsConfigured() {
+        final Key temp = new Key.From("temp");
+        new AstoCreateRepomd(
+            this.asto,
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add(
+                    "mirrors",
+                    Yaml.createYamlSequenceBuilder().add("https://edge.example.com").build()
+                ).build(),
+                "test"
+            )
+        ).perform(temp).toCompletableFuture().join();
+        final BlockingStorage blsto = new BlockingStorage(this.asto);
+        MatcherAssert.assertThat(
+            new String(blsto.value(new Key.From(temp, "metalink.xml")), StandardCharsets.UTF_8),
+            XhtmlMatchers.hasXPaths(
+                String.format(
+                    "//*[local-name()='hash' and @type='sha256' and text()='%s']",
+                    DigestUtils.sha256Hex(blsto.value(new Key.From(temp, "repomd.xml")))
+                ),
+                "//*[local-name()='url' and text()='https://edge.example.com/repodata/repomd.xml']"
+            )
+        );
+    }
+
+    @Test
+    void doesNotCreateMetalinkWithoutMirrors() {
+        final Key temp = new Key.From("temp");
+        new AstoCreateRepomd(this.asto, this.conf).perform(temp).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.asto.exists(new Key.From(temp, "metalink.xml")).join(),
+            new IsEqual<>(false)
+        );
+    }
+
 }
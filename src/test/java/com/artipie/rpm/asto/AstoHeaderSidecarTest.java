@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.artipie.rpm.pkg.RpmHeader;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.llorllale.cactoos.matchers.Satisfies;
+import org.redline_rpm.header.Header;
+
+/**
+ * Test for {@link AstoHeaderSidecar}.
+ * @since 1.11
+ */
+class AstoHeaderSidecarTest {
+
+    @Test
+    void savesAndReadsHeader() throws Exception {
+        final Storage asto = new InMemoryStorage();
+        final Key key = new Key.From(".add", "abc.rpm");
+        final RpmHeader header = new FilePackageHeader(new TestRpm.Abc().path()).rpmHeader();
+        final AstoHeaderSidecar sidecar = new AstoHeaderSidecar(asto);
+        sidecar.save(key, header, "0123abcd".repeat(8)).toCompletableFuture().join();
+        final ImmutablePair<String, RpmHeader> pair =
+            sidecar.read(key).toCompletableFuture().join().get();
+        MatcherAssert.assertThat(
+            "Head digest is the same",
+            pair.getLeft(),
+            new IsEqual<>("0123abcd".repeat(8))
+        );
+        final RpmHeader read = pair.getRight();
+        MatcherAssert.assertThat(
+            "Header name is the same",
+            read.header(Header.HeaderTag.NAME).asString(""),
+            new IsEqual<>(header.header(Header.HeaderTag.NAME).asString(""))
+        );
+        MatcherAssert.assertThat(
+            "Header range is the same",
+            new int[] {read.startPos(), read.endPos()},
+            new IsEqual<>(new int[] {header.startPos(), header.endPos()})
+        );
+    }
+
+    @Test
+    void savesSidecarNotNamedAsPackage() throws Exception {
+        final Storage asto = new InMemoryStorage();
+        new AstoHeaderSidecar(asto).save(
+            new Key.From("abc.rpm"), new FilePackageHeader(new TestRpm.Abc().path()).rpmHeader(),
+            "0123abcd".repeat(8)
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            asto.list(AstoHeaderSidecar.ROOT).join(),
+            Matchers.everyItem(new Satisfies<>(key -> !key.string().endsWith(".rpm")))
+        );
+    }
+
+    @Test
+    void ignoresSidecarOfUnknownFormat() {
+        final Storage asto = new InMemoryStorage();
+        final Key key = new Key.From("abc.rpm");
+        asto.save(
+            new Key.From(AstoHeaderSidecar.ROOT, "abc.rpm.hdr"),
+            new Content.From(new byte[] {0, 0, 0, 96, 1, 2, 3})
+        ).join();
+        MatcherAssert.assertThat(
+            new AstoHeaderSidecar(asto).read(key).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+}
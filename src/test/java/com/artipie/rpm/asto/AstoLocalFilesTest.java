@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.LoggingStorage;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.Digest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link AstoLocalFiles}.
+ * @since 1.11
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class AstoLocalFilesTest {
+
+    @Test
+    void resolvesPathInLocalStorage(final @TempDir Path tmp) {
+        final Storage asto = new LocalStorage(tmp);
+        final Key key = new Key.From("abc", "one.rpm");
+        asto.save(key, new Content.From("one".getBytes(StandardCharsets.UTF_8))).join();
+        MatcherAssert.assertThat(
+            new AstoLocalFiles(asto).path(key),
+            new IsEqual<>(Optional.of(tmp.resolve("abc").resolve("one.rpm")))
+        );
+    }
+
+    @Test
+    void resolvesPathInSubStorage(final @TempDir Path tmp) {
+        final Storage asto = new LocalStorage(tmp);
+        asto.save(new Key.From("repo", "two.rpm"), Content.EMPTY).join();
+        MatcherAssert.assertThat(
+            new AstoLocalFiles(AstoLocalFiles.sub(asto, new Key.From("repo")))
+                .path(new Key.From("two.rpm")),
+            new IsEqual<>(Optional.of(tmp.resolve("repo").resolve("two.rpm")))
+        );
+    }
+
+    @Test
+    void resolvesPathInWrappedStorage(final @TempDir Path tmp) {
+        final Storage asto = new LocalStorage(new LoggingStorage(new FileStorage(tmp)), tmp);
+        final Key key = new Key.From("six.rpm");
+        asto.save(key, Content.EMPTY).join();
+        MatcherAssert.assertThat(
+            new AstoLocalFiles(asto).path(key),
+            new IsEqual<>(Optional.of(tmp.resolve("six.rpm")))
+        );
+    }
+
+    @Test
+    void returnsEmptyForNotWrappedFileStorage(final @TempDir Path tmp) {
+        final Storage asto = new FileStorage(tmp);
+        final Key key = new Key.From("seven.rpm");
+        asto.save(key, Content.EMPTY).join();
+        MatcherAssert.assertThat(
+            new AstoLocalFiles(asto).path(key),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+
+    @Test
+    void returnsEmptyForNotLocalStorage() {
+        final Storage asto = new InMemoryStorage();
+        final Key key = new Key.From("three.rpm");
+        asto.save(key, Content.EMPTY).join();
+        MatcherAssert.assertThat(
+            new AstoLocalFiles(asto).path(key),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+
+    @Test
+    void calculatesChecksumOfLocalFile(final @TempDir Path tmp) {
+        final Storage asto = new LocalStorage(tmp);
+        final Key key = new Key.From("four.rpm");
+        final byte[] data = "four".getBytes(StandardCharsets.UTF_8);
+        asto.save(key, new Content.From(data)).join();
+        MatcherAssert.assertThat(
+            new AstoLocalFiles(asto).hex(key, Digest.SHA256).toCompletableFuture().join(),
+            new IsEqual<>(DigestUtils.sha256Hex(data))
+        );
+    }
+
+    @Test
+    void copiesLocalFile(final @TempDir Path tmp) {
+        final Storage asto = new LocalStorage(tmp);
+        final Key key = new Key.From("five.rpm");
+        final byte[] data = "five".getBytes(StandardCharsets.UTF_8);
+        asto.save(key, new Content.From(data)).join();
+        new AstoLocalFiles(asto).copy(key, AstoLocalFiles.sub(asto, new Key.From(".add")), key)
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new BlockingStorage(asto).value(new Key.From(".add", "five.rpm")),
+            new IsEqual<>(data)
+        );
+    }
+}
@@ -20,11 +20,17 @@ import com.artipie.rpm.pkg.FilePackageHeader;
 import com.artipie.rpm.pkg.Package;
 import com.jcabi.matchers.XhtmlMatchers;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Locale;
+import javax.xml.bind.DatatypeConverter;
 import org.cactoos.list.ListOf;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -175,6 +181,101 @@ class AstoMetadataAddTest {
         );
     }
 
+    @Test
+    void appendsPackagesToSegmentedMetadata() throws Exception {
+        final RepoConfig cnfg =
+            new RepoConfig.Simple(AstoMetadataAddTest.DGST, StandardNamingPolicy.SHA256, true);
+        final Key first = new AstoMetadataAdd(this.storage, cnfg).perform(
+            new ListOf<Package.Meta>(AstoMetadataAddTest.meta(new TestRpm.Libdeflt()))
+        ).toCompletableFuture().join();
+        for (final XmlPackage type : XmlPackage.values()) {
+            this.storage.move(
+                new Key.From(first, type.name()),
+                new Key.From("repodata", String.format("%s.xml.gz", type.lowercase()))
+            ).join();
+        }
+        final Key temp = new AstoMetadataAdd(this.storage, cnfg).perform(
+            new ListOf<Package.Meta>(AstoMetadataAddTest.meta(new TestRpm.Abc()))
+        ).toCompletableFuture().join();
+        for (final XmlPackage type : XmlPackage.values()) {
+            final byte[] xml = this.mbytes.value(temp, type);
+            MatcherAssert.assertThat(
+                String.format("Failed to append package to %s", type.name()),
+                new String(xml, StandardCharsets.UTF_8),
+                XhtmlMatchers.hasXPaths(
+                    String.format(
+                        "/*[local-name()='%s' and @packages='2' and count(*)=2]", type.tag()
+                    )
+                )
+            );
+            MatcherAssert.assertThat(
+                String.format("Failed to calculate checksum of appended %s", type.name()),
+                new String(
+                    new BlockingStorage(this.storage).value(
+                        new Key.From(
+                            temp,
+                            String.format("%s.%s", type.name(), AstoMetadataAddTest.DGST.name())
+                        )
+                    ),
+                    StandardCharsets.UTF_8
+                ),
+                new IsEqual<>(
+                    String.format(
+                        "%s %d",
+                        DatatypeConverter.printHexBinary(
+                            AstoMetadataAddTest.DGST.messageDigest().digest(xml)
+                        ).toLowerCase(Locale.US),
+                        xml.length
+                    )
+                )
+            );
+        }
+    }
+
+    @Test
+    void appendsPackagesWhichExistInStorageButAreNotPublished() throws Exception {
+        final RepoConfig cnfg =
+            new RepoConfig.Simple(AstoMetadataAddTest.DGST, StandardNamingPolicy.SHA256, false);
+        final Key first = new AstoMetadataAdd(this.storage, cnfg).perform(
+            new ListOf<Package.Meta>(AstoMetadataAddTest.meta(new TestRpm.Libdeflt()))
+        ).toCompletableFuture().join();
+        final Key primary = new Key.From("repodata", "primary.xml.gz");
+        this.storage.move(new Key.From(first, XmlPackage.PRIMARY.name()), primary).join();
+        new TestRpm.Abc().put(this.storage);
+        final Key temp = new AstoMetadataAdd(this.storage, cnfg).perform(
+            new ListOf<Package.Meta>(AstoMetadataAddTest.meta(new TestRpm.Abc()))
+        ).toCompletableFuture().join();
+        final BlockingStorage blocking = new BlockingStorage(this.storage);
+        final byte[] published = blocking.value(primary);
+        final int header = AstoMetadataAddTest.length(published, 0);
+        final byte[] appended = blocking.value(new Key.From(temp, XmlPackage.PRIMARY.name()));
+        MatcherAssert.assertThat(
+            "Published body member is copied as is",
+            Arrays.equals(
+                Arrays.copyOfRange(
+                    published, header, header + AstoMetadataAddTest.length(published, header)
+                ),
+                Arrays.copyOfRange(
+                    appended, AstoMetadataAddTest.length(appended, 0),
+                    AstoMetadataAddTest.length(appended, 0)
+                        + AstoMetadataAddTest.length(published, header)
+                )
+            ),
+            new IsEqual<>(true)
+        );
+    }
+
+    private static int length(final byte[] gzip, final int member) {
+        return ByteBuffer.wrap(gzip, member + 17, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+    }
+
+    private static Package.Meta meta(final TestRpm rpm) throws IOException {
+        return new FilePackage.Headers(
+            new FilePackageHeader(rpm.path()).header(),
+            rpm.path(), Digest.SHA256, rpm.path().getFileName().toString()
+        );
+    }
+
     private void checksumCheck(final Key res, final XmlPackage other) {
         MatcherAssert.assertThat(
             String.format("Checksum and size are expected to be stored for %s", other.name()),
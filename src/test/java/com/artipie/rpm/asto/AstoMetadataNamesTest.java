@@ -4,6 +4,7 @@
  */
 package com.artipie.rpm.asto;
 
+import com.amihaiemil.eoyaml.Yaml;
 import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
@@ -20,7 +21,9 @@ import org.apache.commons.codec.digest.DigestUtils;
 import org.cactoos.map.MapEntry;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
@@ -53,6 +56,8 @@ class AstoMetadataNamesTest {
         );
         final Key repomd = new Key.From(temp, "repomd.xml");
         this.storage.save(repomd, new Content.From("repomd".getBytes())).join();
+        final Key metalink = new Key.From(temp, "metalink.xml");
+        this.storage.save(metalink, new Content.From("metalink".getBytes())).join();
         final StandardNamingPolicy snp = StandardNamingPolicy.SHA256;
         final Map<Key, Key> res = new AstoMetadataNames(
             this.storage, new RepoConfig.Simple(Digest.SHA256, snp, filelists)
@@ -68,9 +73,39 @@ class AstoMetadataNamesTest {
         expected.add(
             new MapEntry<>(repomd, new Key.From("repodata", "repomd.xml"))
         );
+        expected.add(
+            new MapEntry<>(metalink, new Key.From("repodata", "metalink.xml"))
+        );
         MatcherAssert.assertThat(
             res.entrySet(),
             Matchers.containsInAnyOrder(expected.toArray())
         );
     }
+
+    @Test
+    void preparesDatabasesNames() {
+        final Key temp = new Key.From(UUID.randomUUID().toString());
+        final Key database = new Key.From(temp, "PRIMARY_DB");
+        this.storage.save(database, new Content.From("db".getBytes())).join();
+        final Map<Key, Key> res = new AstoMetadataNames(
+            this.storage,
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder()
+                    .add("filelists", "false")
+                    .add("sqlite", "true")
+                    .build(),
+                "test"
+            )
+        ).prepareNames(temp).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            res.get(database),
+            new IsEqual<>(
+                new Key.From(
+                    String.format(
+                        "repodata/%s-primary.sqlite.bz2", DigestUtils.sha256Hex("db".getBytes())
+                    )
+                )
+            )
+        );
+    }
 }
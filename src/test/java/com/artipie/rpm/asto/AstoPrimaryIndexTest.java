@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AstoPrimaryIndex}.
+ * @since 1.11
+ */
+class AstoPrimaryIndexTest {
+
+    /**
+     * Abc package name.
+     */
+    private static final String ABC = "abc-1.01-26.git20200127.fc32.ppc64le.rpm";
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+    }
+
+    @Test
+    void readsPublishedChecksums() {
+        new TestResource("AstoRepoRemoveTest/primary.xml.gz")
+            .saveTo(this.storage, new Key.From("repodata", "primary.xml.gz"));
+        MatcherAssert.assertThat(
+            new AstoPrimaryIndex(this.storage).checksums().toCompletableFuture().join(),
+            Matchers.allOf(
+                Matchers.hasEntry(
+                    AstoPrimaryIndexTest.ABC,
+                    "b9d10ae3485a5c5f71f0afb1eaf682bfbea4ea667cc3c3975057d6e3d8f2e905"
+                ),
+                Matchers.hasEntry(
+                    "libdeflt1_0-2020.03.27-25.1.armv7hl.rpm",
+                    "47bbb8b2401e8853812e6340f4197252b92463c132f64a257e18c0c8c83ae462"
+                )
+            )
+        );
+    }
+
+    @Test
+    void readsPackagesFromIndexOfPublishedPrimary() {
+        final Key primary = new Key.From("repodata", "primary.xml.gz");
+        new TestResource("AstoRepoRemoveTest/primary.xml.gz").saveTo(this.storage, primary);
+        this.storage.save(
+            new Key.From("repodata", "repomd.xml"),
+            new Content.From(
+                String.join(
+                    "",
+                    "<repomd><revision>1</revision><data type=\"primary\">",
+                    "<checksum type=\"sha256\">abc123</checksum>",
+                    "<location href=\"repodata/primary.xml.gz\"/></data></repomd>"
+                ).getBytes(StandardCharsets.UTF_8)
+            )
+        ).join();
+        this.storage.save(
+            new Key.From(AstoPrimaryIndex.INDEX, "old"), new Content.From(new byte[0])
+        ).join();
+        new AstoPrimaryIndex(this.storage).packages().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Index of the current primary is saved, indexes of the previous are removed",
+            this.storage.list(AstoPrimaryIndex.INDEX).join(),
+            Matchers.contains(new Key.From(AstoPrimaryIndex.INDEX, "abc123"))
+        );
+        this.storage.save(primary, new Content.From("broken".getBytes())).join();
+        MatcherAssert.assertThat(
+            "Packages are read from the index",
+            new AstoPrimaryIndex(this.storage).checksums().toCompletableFuture().join(),
+            Matchers.hasEntry(
+                AstoPrimaryIndexTest.ABC,
+                "b9d10ae3485a5c5f71f0afb1eaf682bfbea4ea667cc3c3975057d6e3d8f2e905"
+            )
+        );
+    }
+
+    @Test
+    void returnsEmptyWhenPrimaryIsAbsent() {
+        MatcherAssert.assertThat(
+            new AstoPrimaryIndex(this.storage).checksums().toCompletableFuture().join()
+                .isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void findsExistingPackageByChecksum() {
+        new TestResource("AstoRepoRemoveTest/primary.xml.gz")
+            .saveTo(this.storage, new Key.From("repodata", "primary.xml.gz"));
+        new TestResource(AstoPrimaryIndexTest.ABC).saveTo(this.storage);
+        final AstoPrimaryIndex index = new AstoPrimaryIndex(this.storage);
+        MatcherAssert.assertThat(
+            "Published and existing package is found",
+            index.find("B9D10AE3485A5C5F71F0AFB1EAF682BFBEA4EA667CC3C3975057D6E3D8F2E905")
+                .toCompletableFuture().join(),
+            new IsEqual<>(Optional.of(new Key.From(AstoPrimaryIndexTest.ABC)))
+        );
+        MatcherAssert.assertThat(
+            "Published package, absent in storage, is not found",
+            index.find("47bbb8b2401e8853812e6340f4197252b92463c132f64a257e18c0c8c83ae462")
+                .toCompletableFuture().join(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+}
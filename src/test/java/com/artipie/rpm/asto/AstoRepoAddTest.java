@@ -4,9 +4,11 @@
  */
 package com.artipie.rpm.asto;
 
+import com.amihaiemil.eoyaml.Yaml;
 import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
+import com.artipie.asto.SubStorage;
 import com.artipie.asto.blocking.BlockingStorage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
@@ -21,6 +23,11 @@ import com.artipie.rpm.meta.XmlPackage;
 import com.jcabi.matchers.XhtmlMatchers;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.hamcrest.core.IsEqual;
@@ -94,6 +101,43 @@ class AstoRepoAddTest {
         );
     }
 
+    @Test
+    void leavesPackagesStagedDuringUpdate() throws IOException {
+        final Key late = new Key.From(RpmUpload.TO_ADD, "late.rpm");
+        final AtomicBoolean staged = new AtomicBoolean();
+        final Storage asto = new Storage.Wrap(this.storage) {
+            @Override
+            public CompletableFuture<Void> move(final Key source, final Key destination) {
+                final CompletableFuture<Void> res;
+                if (staged.compareAndSet(false, true)) {
+                    res = AstoRepoAddTest.this.storage.save(late, Content.EMPTY).thenCompose(
+                        nothing -> new AstoChecksumSidecar(AstoRepoAddTest.this.storage)
+                            .save(late, Digest.SHA256, "abc", 0L, "def")
+                    ).thenCompose(nothing -> super.move(source, destination));
+                } else {
+                    res = super.move(source, destination);
+                }
+                return res;
+            }
+        };
+        new TestRpm.Abc().put(new SubStorage(RpmUpload.TO_ADD, this.storage));
+        new AstoRepoAdd(
+            asto, new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.PLAIN, false)
+        ).perform().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Package staged during update is left in staging location with its sidecar",
+            List.of(
+                this.storage.exists(late).join(),
+                new AstoChecksumSidecar(this.storage).read(late, Digest.SHA256)
+                    .toCompletableFuture().join().isPresent(),
+                this.storage.exists(new Key.From("late.rpm")).join(),
+                this.storage.exists(new Key.From(String.format("%s.rpm", new TestRpm.Abc().name())))
+                    .join()
+            ),
+            new IsEqual<>(List.of(true, true, false, true))
+        );
+    }
+
     @Test
     void addsPackagesToRepo() throws IOException {
         new TestResource("AstoRepoAddTest/filelists.xml.gz")
@@ -184,6 +228,77 @@ class AstoRepoAddTest {
         );
     }
 
+    @Test
+    void addsPackagesWithinReadLimits() throws IOException {
+        final String time = "time-1.7-45.el7.x86_64.rpm";
+        new TestResource(time).saveTo(this.storage, new Key.From(RpmUpload.TO_ADD, time));
+        final String lib = "libnss-mymachines2-245-1.x86_64.rpm";
+        new TestResource(lib).saveTo(this.storage, new Key.From(RpmUpload.TO_ADD, lib));
+        new TestRpm.Abc().put(new SubStorage(RpmUpload.TO_ADD, this.storage));
+        new AstoRepoAdd(
+            this.storage,
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("naming-policy", "plain")
+                    .add("parallel-reads", "1").add("read-memory", "1").build(),
+                "limited"
+            )
+        ).perform().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Primary xml should have three records",
+            new String(this.mbytes.value(XmlPackage.PRIMARY), StandardCharsets.UTF_8),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='metadata' and @packages='3']",
+                //@checkstyle LineLengthCheck (3 lines)
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='abc']",
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='time']",
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='libnss-mymachines2']"
+            )
+        );
+    }
+
+    @Test
+    void publishesMetadataGenerations() throws IOException {
+        final RepoConfig cnfg = new RepoConfig.FromYaml(
+            Yaml.createYamlMappingBuilder().add("naming-policy", "plain")
+                .add("generations", "1").build(),
+            "snapshots"
+        );
+        new TestResource("time-1.7-45.el7.x86_64.rpm")
+            .saveTo(this.storage, new Key.From(RpmUpload.TO_ADD, "time.rpm"));
+        new AstoRepoAdd(this.storage, cnfg).perform().toCompletableFuture().join();
+        new TestResource("libnss-mymachines2-245-1.x86_64.rpm")
+            .saveTo(this.storage, new Key.From(RpmUpload.TO_ADD, "lib.rpm"));
+        new AstoRepoAdd(this.storage, cnfg).perform().toCompletableFuture().join();
+        new TestRpm.Abc().put(new SubStorage(RpmUpload.TO_ADD, this.storage));
+        new AstoRepoAdd(this.storage, cnfg).perform().toCompletableFuture().join();
+        final List<Key> files = new AstoRepodata(this.storage).files().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Repomd refers to primary, filelists and other of the same generation",
+            files.stream().map(Key::parent).flatMap(Optional::stream)
+                .filter(dir -> !dir.equals(AstoRepoAddTest.MTD))
+                .collect(Collectors.toSet()),
+            Matchers.iterableWithSize(1)
+        );
+        MatcherAssert.assertThat(
+            "Current metadata is repomd and three metadata files",
+            files,
+            Matchers.iterableWithSize(4)
+        );
+        MatcherAssert.assertThat(
+            "Primary xml of the last generation should have three records",
+            new AstoPrimaryIndex(this.storage).packages().toCompletableFuture().join(),
+            Matchers.iterableWithSize(3)
+        );
+        MatcherAssert.assertThat(
+            "Last and one previous generations should be kept",
+            this.storage.list(AstoRepoAddTest.MTD).join().stream()
+                .map(Key::parent).flatMap(Optional::stream)
+                .filter(dir -> !dir.equals(AstoRepoAddTest.MTD))
+                .collect(Collectors.toSet()),
+            Matchers.iterableWithSize(2)
+        );
+    }
+
     @Test
     void doesNothingIfOnlyInvalidPackageIsInUpdate() throws IOException {
         new TestResource("AstoRepoAddTest/other.xml.gz")
@@ -222,6 +337,20 @@ class AstoRepoAddTest {
         );
     }
 
+    @Test
+    void removesSidecarsOfInvalidPackage() {
+        final Key key = new Key.From(RpmUpload.TO_ADD, "invalid.rpm");
+        this.storage.save(key, new Content.From(new TestRpm.Invalid().bytes())).join();
+        new AstoChecksumSidecar(this.storage).save(key, Digest.SHA256, "abc", 1L, "def")
+            .toCompletableFuture().join();
+        new AstoRepoAdd(this.storage, new RepoConfig.Simple()).perform()
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.storage.list(AstoChecksumSidecar.ROOT).join(),
+            Matchers.emptyIterable()
+        );
+    }
+
     private void checkMeta(final String file, final XmlPackage primary) throws IOException {
         MatcherAssert.assertThat(
             String.format("Failed to generate %s xml", primary.lowercase()),
@@ -190,4 +190,28 @@ class AstoRepoRemoveTest {
             )
         );
     }
+
+    @Test
+    void takesChecksumsOfPublishedPackagesFromPrimary() throws IOException {
+        final String pkg = "libdeflt1_0-2020.03.27-25.1.armv7hl.rpm";
+        this.storage.save(new Key.From(pkg), new Content.From("not read".getBytes())).join();
+        this.storage.save(new Key.From(RpmRemove.TO_RM, pkg), Content.EMPTY).join();
+        new TestResource("AstoRepoRemoveTest/other.xml.gz")
+            .saveTo(this.storage, new Key.From("repodata", "other.xml.gz"));
+        new TestResource("AstoRepoRemoveTest/primary.xml.gz")
+            .saveTo(this.storage, new Key.From("repodata", "primary.xml.gz"));
+        new TestResource("AstoRepoRemoveTest/repomd.xml")
+            .saveTo(this.storage, new Key.From("repodata", "repomd.xml"));
+        new AstoRepoRemove(this.storage, this.conf).perform().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new String(
+                new MetadataBytes(this.storage).value(XmlPackage.PRIMARY), StandardCharsets.UTF_8
+            ),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='metadata' and @packages='1']",
+                //@checkstyle LineLengthCheck (1 line)
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='abc']"
+            )
+        );
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.StandardNamingPolicy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AstoRepodata}.
+ * @since 1.11
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class AstoRepodataTest {
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+    }
+
+    @Test
+    void readsFilesOfCurrentGeneration() {
+        this.save("repodata/002/primary.xml.gz");
+        this.save("repodata/001/primary.xml.gz");
+        this.save("repodata/other.xml.gz");
+        this.storage.save(
+            new Key.From("repodata", "repomd.xml"),
+            new Content.From(
+                String.join(
+                    "",
+                    "<repomd><revision>1</revision><data type=\"primary\">",
+                    "<checksum type=\"sha256\">abc</checksum>",
+                    "<location href=\"repodata/002/primary.xml.gz\"/></data></repomd>"
+                ).getBytes(StandardCharsets.UTF_8)
+            )
+        ).join();
+        MatcherAssert.assertThat(
+            new AstoRepodata(this.storage).files().toCompletableFuture().join(),
+            Matchers.contains(
+                new Key.From("repodata/002/primary.xml.gz"),
+                new Key.From("repodata/other.xml.gz"),
+                new Key.From("repodata/repomd.xml")
+            )
+        );
+    }
+
+    @Test
+    void readsFlatFilesWithoutRepomd() {
+        this.save("repodata/primary.xml.gz");
+        MatcherAssert.assertThat(
+            new AstoRepodata(this.storage).files().toCompletableFuture().join(),
+            Matchers.contains(new Key.From("repodata/primary.xml.gz"))
+        );
+    }
+
+    @Test
+    void publishesPlainNamedMetadataToGeneration() {
+        MatcherAssert.assertThat(
+            Arrays.asList(
+                AstoRepodata.generation(
+                    new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.PLAIN, false)
+                ).isPresent(),
+                AstoRepodata.generation(
+                    new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.SHA256, false)
+                ).isPresent()
+            ),
+            new IsEqual<>(Arrays.asList(true, false))
+        );
+    }
+
+    @Test
+    void publishesRepomdAfterMetadataAndRemovesOldGenerations() {
+        this.save("repodata/primary.xml.gz");
+        this.save("repodata/001/primary.xml.gz");
+        this.save("repodata/002/primary.xml.gz");
+        this.save("repodata/repomd.xml");
+        this.save("temp/primary");
+        this.save("temp/repomd");
+        final Map<Key, Key> names = new HashMap<>();
+        names.put(new Key.From("temp/primary"), new Key.From("repodata/003/primary.xml.gz"));
+        names.put(new Key.From("temp/repomd"), new Key.From("repodata/repomd.xml"));
+        new AstoRepodata(this.storage).publish(
+            names,
+            () -> {
+                MatcherAssert.assertThat(
+                    "Metadata is published before repomd",
+                    this.storage.exists(new Key.From("repodata/003/primary.xml.gz")).join()
+                        && this.storage.exists(new Key.From("temp/repomd")).join(),
+                    new IsEqual<>(true)
+                );
+                return CompletableFuture.allOf();
+            },
+            1
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.storage.list(new Key.From("repodata")).join(),
+            Matchers.containsInAnyOrder(
+                new Key.From("repodata/002/primary.xml.gz"),
+                new Key.From("repodata/003/primary.xml.gz"),
+                new Key.From("repodata/repomd.xml")
+            )
+        );
+    }
+
+    @Test
+    void removesReplacedFlatFiles() {
+        this.save("repodata/abc-primary.xml.gz");
+        this.save("repodata/def-primary.xml.gz");
+        this.save("repodata/repomd.xml");
+        new AstoRepodata(this.storage).cleanup(
+            Arrays.asList(
+                new Key.From("repodata/def-primary.xml.gz"), new Key.From("repodata/repomd.xml")
+            ),
+            0
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.storage.list(new Key.From("repodata")).join(),
+            Matchers.containsInAnyOrder(
+                new Key.From("repodata/def-primary.xml.gz"), new Key.From("repodata/repomd.xml")
+            )
+        );
+    }
+
+    @Test
+    void locatesFilesInGeneration() {
+        MatcherAssert.assertThat(
+            "Places file to generation directory",
+            AstoRepodata.location("repodata/primary.xml.gz", Optional.of("001")),
+            new IsEqual<>("repodata/001/primary.xml.gz")
+        );
+        MatcherAssert.assertThat(
+            "Keeps file location without generation",
+            AstoRepodata.location("repodata/primary.xml.gz", Optional.empty()),
+            new IsEqual<>("repodata/primary.xml.gz")
+        );
+    }
+
+    @Test
+    void createsOrderedGenerations() throws InterruptedException {
+        final String first = AstoRepodata.generation();
+        Thread.sleep(2);
+        MatcherAssert.assertThat(
+            Collections.max(Arrays.asList(AstoRepodata.generation(), first)),
+            Matchers.not(new IsEqual<>(first))
+        );
+    }
+
+    private void save(final String key) {
+        this.storage.save(
+            new Key.From(key), new Content.From(key.getBytes(StandardCharsets.UTF_8))
+        ).join();
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AstoRepomdRevision}.
+ * @since 1.11
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class AstoRepomdRevisionTest {
+
+    /**
+     * Repomd key.
+     */
+    private static final Key REPOMD = new Key.From("repodata", "repomd.xml");
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+    }
+
+    @Test
+    void readsRevision() {
+        final AstoRepomdRevision revision = new AstoRepomdRevision(this.storage);
+        MatcherAssert.assertThat(
+            "Revision of repository without metadata",
+            revision.current().toCompletableFuture().join(),
+            new IsEqual<>("none")
+        );
+        this.repomd("<repomd/>");
+        MatcherAssert.assertThat(
+            "Revision is repomd checksum",
+            revision.current().toCompletableFuture().join(),
+            new IsEqual<>(DigestUtils.sha256Hex("<repomd/>"))
+        );
+    }
+
+    @Test
+    void publishesWhenRevisionIsNotChanged() {
+        this.repomd("<repomd>1</repomd>");
+        final AstoRepomdRevision revision = new AstoRepomdRevision(this.storage);
+        revision.publish(
+            revision.current().toCompletableFuture().join(),
+            () -> this.storage.save(
+                AstoRepomdRevisionTest.REPOMD,
+                new Content.From("<repomd>2</repomd>".getBytes(StandardCharsets.UTF_8))
+            )
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            revision.current().toCompletableFuture().join(),
+            new IsEqual<>(DigestUtils.sha256Hex("<repomd>2</repomd>"))
+        );
+    }
+
+    @Test
+    void failsToPublishWhenRevisionIsChanged() {
+        this.repomd("<repomd>1</repomd>");
+        final AstoRepomdRevision revision = new AstoRepomdRevision(this.storage);
+        final String base = revision.current().toCompletableFuture().join();
+        this.repomd("<repomd>2</repomd>");
+        final AtomicInteger swaps = new AtomicInteger();
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> revision.publish(
+                base,
+                () -> {
+                    swaps.incrementAndGet();
+                    return CompletableFuture.allOf();
+                }
+            ).toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            "Fails with conflict",
+            err.getCause(),
+            new IsInstanceOf(AstoRepomdRevision.Conflict.class)
+        );
+        MatcherAssert.assertThat(
+            "Does not swap metadata",
+            swaps.get(),
+            new IsEqual<>(0)
+        );
+        MatcherAssert.assertThat(
+            "Releases metadata lock",
+            this.storage.list(Key.ROOT).join(),
+            new IsEqual<>(Collections.singletonList(AstoRepomdRevisionTest.REPOMD))
+        );
+    }
+
+    @Test
+    void retriesUpdateWhenMetadataIsLocked() {
+        this.repomd("<repomd>1</repomd>");
+        final AstoRepomdRevision revision = new AstoRepomdRevision(this.storage);
+        final LeaseLock other = new LeaseLock(this.storage, new Key.From("repodata"));
+        other.acquire().toCompletableFuture().join();
+        final AtomicInteger attempts = new AtomicInteger();
+        final int res = revision.update(
+            base -> revision.publish(
+                base,
+                () -> this.storage.save(
+                    AstoRepomdRevisionTest.REPOMD,
+                    new Content.From("<repomd>2</repomd>".getBytes(StandardCharsets.UTF_8))
+                )
+            ).handle(
+                (nothing, err) -> {
+                    if (attempts.incrementAndGet() == 1) {
+                        MatcherAssert.assertThat(
+                            "Fails with conflict while lock is held",
+                            err.getCause(),
+                            new IsInstanceOf(AstoRepomdRevision.Conflict.class)
+                        );
+                        other.release().toCompletableFuture().join();
+                        throw new CompletionException(err.getCause());
+                    }
+                    return attempts.get();
+                }
+            )
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Update is published after lock is released",
+            res,
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void retriesUpdateOnNewRevision() {
+        this.repomd("<repomd>1</repomd>");
+        final AstoRepomdRevision revision = new AstoRepomdRevision(this.storage);
+        final AtomicInteger attempts = new AtomicInteger();
+        final int res = revision.update(
+            base -> {
+                if (attempts.incrementAndGet() == 1) {
+                    this.repomd("<repomd>concurrent</repomd>");
+                }
+                return revision.publish(
+                    base,
+                    () -> this.storage.save(
+                        AstoRepomdRevisionTest.REPOMD,
+                        new Content.From(
+                            String.format("<repomd>%s</repomd>", base)
+                                .getBytes(StandardCharsets.UTF_8)
+                        )
+                    )
+                ).thenApply(nothing -> attempts.get());
+            }
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Update is performed twice",
+            res,
+            new IsEqual<>(2)
+        );
+        MatcherAssert.assertThat(
+            "Update is published on the concurrent revision",
+            revision.current().toCompletableFuture().join(),
+            new IsEqual<>(
+                DigestUtils.sha256Hex(
+                    String.format(
+                        "<repomd>%s</repomd>",
+                        DigestUtils.sha256Hex("<repomd>concurrent</repomd>")
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void failsAfterMaxAttempts() {
+        final AstoRepomdRevision revision = new AstoRepomdRevision(this.storage);
+        final AtomicInteger attempts = new AtomicInteger();
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> revision.update(
+                base -> {
+                    this.repomd(String.format("<repomd>%d</repomd>", attempts.incrementAndGet()));
+                    return revision.publish(base, CompletableFuture::allOf);
+                }
+            ).toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            "Fails with conflict",
+            err.getCause(),
+            new IsInstanceOf(AstoRepomdRevision.Conflict.class)
+        );
+        MatcherAssert.assertThat(
+            "Tries max attempts",
+            attempts.get(),
+            new IsEqual<>(AstoRepomdRevision.ATTEMPTS)
+        );
+    }
+
+    private void repomd(final String xml) {
+        this.storage.save(
+            AstoRepomdRevisionTest.REPOMD,
+            new Content.From(xml.getBytes(StandardCharsets.UTF_8))
+        ).join();
+    }
+}
@@ -9,13 +9,23 @@ import com.artipie.asto.Storage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
 import com.artipie.rpm.Digest;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.pkg.FilePackageHeader;
 import com.artipie.rpm.pkg.Package;
+import com.artipie.rpm.pkg.PackageHead;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.redline_rpm.header.Header;
 
 /**
@@ -59,4 +69,86 @@ class AstoRpmPackageTest {
         );
     }
 
+    @Test
+    void usesChecksumSidecarOfThePackage() throws IOException {
+        final String name = "time-1.7-45.el7.x86_64.rpm";
+        new TestResource(name).saveTo(this.storage);
+        final Key key = new Key.From(name);
+        new AstoChecksumSidecar(this.storage).save(
+            key, Digest.SHA256, "abc123", 31_064L,
+            new PackageHead().read(new TestResource(name).asInputStream()).digest()
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new AstoRpmPackage(this.storage, Digest.SHA256).packageMeta(key)
+                .toCompletableFuture().join().checksum().hex(),
+            new IsEqual<>("abc123")
+        );
+    }
+
+    @Test
+    void ignoresChecksumSidecarOfAnotherPackage(@TempDir final Path dir) throws IOException {
+        final String name = "time-1.7-45.el7.x86_64.rpm";
+        final Key key = new Key.From(name);
+        final List<String> hexes = new ArrayList<>(2);
+        for (final Storage asto : Arrays.asList(this.storage, new LocalStorage(dir))) {
+            new TestResource(name).saveTo(asto);
+            new AstoChecksumSidecar(asto)
+                .save(key, Digest.SHA256, "abc123", 31_064L, "another")
+                .toCompletableFuture().join();
+            hexes.add(
+                new AstoRpmPackage(asto, Digest.SHA256).packageMeta(key)
+                    .toCompletableFuture().join().checksum().hex()
+            );
+        }
+        MatcherAssert.assertThat(
+            hexes,
+            Matchers.everyItem(
+                new IsEqual<>("fdb381e12e4fa1d4e4b7680b2ca90813b5048c42a0a41d7f1270b5a5d3a5358f")
+            )
+        );
+    }
+
+    @Test
+    void ignoresHeaderSidecarOfAnotherPackage(@TempDir final Path dir) throws IOException {
+        final String name = "time-1.7-45.el7.x86_64.rpm";
+        final Key key = new Key.From(name);
+        final List<List<String>> names = new ArrayList<>(2);
+        for (final Storage asto : Arrays.asList(this.storage, new LocalStorage(dir))) {
+            new TestResource(name).saveTo(asto);
+            new AstoChecksumSidecar(asto).save(
+                key, Digest.SHA256, "abc123", 31_064L,
+                new PackageHead().read(new TestResource(name).asInputStream()).digest()
+            ).toCompletableFuture().join();
+            new AstoHeaderSidecar(asto).save(
+                key, new FilePackageHeader(new TestRpm.Abc().path()).rpmHeader(),
+                new PackageHead().read(
+                    new ByteArrayInputStream(Files.readAllBytes(new TestRpm.Abc().path()))
+                ).digest()
+            ).toCompletableFuture().join();
+            names.add(
+                new AstoRpmPackage(asto, Digest.SHA256).packageMeta(key)
+                    .toCompletableFuture().join().header(Header.HeaderTag.NAME).asStrings()
+            );
+        }
+        MatcherAssert.assertThat(
+            names,
+            Matchers.everyItem(Matchers.contains("time"))
+        );
+    }
+
+    @Test
+    void usesHeaderSidecarOfThePackage() throws IOException {
+        final String name = "time-1.7-45.el7.x86_64.rpm";
+        new TestResource(name).saveTo(this.storage);
+        final Key key = new Key.From(name);
+        new AstoHeaderSidecar(this.storage).save(
+            key, new FilePackageHeader(new TestRpm.Abc().path()).rpmHeader(),
+            new PackageHead().read(new TestResource(name).asInputStream()).digest()
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new AstoRpmPackage(this.storage, Digest.SHA256).packageMeta(key)
+                .toCompletableFuture().join().header(Header.HeaderTag.NAME).asStrings(),
+            Matchers.contains("abc")
+        );
+    }
 }
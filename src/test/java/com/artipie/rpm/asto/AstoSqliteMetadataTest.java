@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.FileChecksum;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.StandardNamingPolicy;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.artipie.rpm.pkg.Package;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link AstoSqliteMetadata}.
+ * @since 1.11
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class AstoSqliteMetadataTest {
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    /**
+     * Test config.
+     */
+    private RepoConfig conf;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+        this.conf = new RepoConfig.FromYaml(
+            Yaml.createYamlMappingBuilder().add("sqlite", "true").build(), "test"
+        );
+    }
+
+    @Test
+    void updatesDatabasesOnAddAndRemove(final @TempDir Path dir) throws Exception {
+        this.publish(
+            new AstoMetadataAdd(this.storage, this.conf).perform(
+                new ListOf<Package.Meta>(AstoSqliteMetadataTest.meta(new TestRpm.Libdeflt()))
+            ).toCompletableFuture().join()
+        );
+        final Key added = new AstoMetadataAdd(this.storage, this.conf).perform(
+            new ListOf<Package.Meta>(AstoSqliteMetadataTest.meta(new TestRpm.Abc()))
+        ).toCompletableFuture().join();
+        for (final XmlPackage type : XmlPackage.values()) {
+            MatcherAssert.assertThat(
+                String.format("Failed to add package to %s database", type.name()),
+                this.query(dir, added, type, "SELECT count(*) FROM packages"),
+                new IsEqual<>("2")
+            );
+            MatcherAssert.assertThat(
+                String.format("Failed to save %s database checksum", type.name()),
+                new String(
+                    new BlockingStorage(this.storage).value(
+                        new Key.From(
+                            added,
+                            String.format(
+                                "%s.%s", AstoSqliteMetadata.item(type), Digest.SHA256.name()
+                            )
+                        )
+                    )
+                ),
+                Matchers.matchesPattern("[0-9a-z]* \\d+")
+            );
+        }
+        this.publish(added);
+        final Key removed = new AstoMetadataRemove(this.storage, this.conf).perform(
+            new ListOf<String>(
+                new FileChecksum(new TestRpm.Libdeflt().path(), Digest.SHA256).hex()
+            )
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Failed to remove package from primary database",
+            this.query(dir, removed, XmlPackage.PRIMARY, "SELECT name FROM packages"),
+            new IsEqual<>("abc")
+        );
+        MatcherAssert.assertThat(
+            "Failed to remove package files from filelists database",
+            this.query(dir, removed, XmlPackage.FILELISTS, "SELECT count(*) FROM filelist"),
+            new IsEqual<>(
+                this.query(
+                    dir, removed, XmlPackage.FILELISTS,
+                    "SELECT count(*) FROM filelist f JOIN packages p ON f.pkgKey = p.pkgKey"
+                )
+            )
+        );
+    }
+
+    @Test
+    void doesNothingWhenDisabled() {
+        final Key temp = new AstoMetadataAdd(
+            this.storage,
+            new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.SHA256, true)
+        ).perform(
+            new ListOf<Package.Meta>(AstoSqliteMetadataTest.meta(new TestRpm.Abc()))
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.storage.list(temp).join().stream().map(Key::string).anyMatch(
+                name -> name.contains(AstoSqliteMetadata.SUFFIX)
+            ),
+            new IsEqual<>(false)
+        );
+    }
+
+    private void publish(final Key temp) {
+        final Map<Key, Key> names = new AstoMetadataNames(this.storage, this.conf)
+            .prepareNames(temp).toCompletableFuture().join();
+        for (final Key item : this.storage.list(new Key.From("repodata")).join()) {
+            this.storage.delete(item).join();
+        }
+        names.forEach((from, to) -> this.storage.move(from, to).join());
+    }
+
+    private String query(final Path dir, final Key temp, final XmlPackage type, final String sql)
+        throws IOException, SQLException {
+        final Path file = Files.createTempFile(dir, type.lowercase(), ".sqlite");
+        Files.copy(
+            new BZip2CompressorInputStream(
+                new ByteArrayInputStream(
+                    new BlockingStorage(this.storage)
+                        .value(new Key.From(temp, AstoSqliteMetadata.item(type)))
+                )
+            ),
+            file, StandardCopyOption.REPLACE_EXISTING
+        );
+        try (Connection conn = DriverManager.getConnection(
+            String.format("jdbc:sqlite:%s", file.toAbsolutePath())
+        );
+            Statement stmt = conn.createStatement();
+            ResultSet rset = stmt.executeQuery(sql)) {
+            rset.next();
+            return rset.getString(1);
+        }
+    }
+
+    private static Package.Meta meta(final TestRpm rpm) {
+        try {
+            return new FilePackage.Headers(
+                new FilePackageHeader(rpm.path()).header(),
+                rpm.path(), Digest.SHA256, rpm.path().getFileName().toString()
+            );
+        } catch (final IOException err) {
+            throw new IllegalStateException(err);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.StandardNamingPolicy;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.ZchunkXml;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.artipie.rpm.pkg.Package;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AstoZchunkMetadata}.
+ * @since 1.11
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class AstoZchunkMetadataTest {
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+    }
+
+    @Test
+    void createsZchunkMetadata() throws IOException {
+        final RepoConfig conf = new RepoConfig.FromYaml(
+            Yaml.createYamlMappingBuilder().add("zchunk", "true").build(), "test"
+        );
+        final Key temp = new AstoMetadataAdd(this.storage, conf).perform(
+            new ListOf<Package.Meta>(AstoZchunkMetadataTest.meta(new TestRpm.Abc()))
+        ).toCompletableFuture().join();
+        final BlockingStorage blsto = new BlockingStorage(this.storage);
+        for (final XmlPackage type : XmlPackage.values()) {
+            MatcherAssert.assertThat(
+                String.format("Failed to create %s zchunk metadata", type.name()),
+                ZchunkXml.header(
+                    new ByteArrayInputStream(
+                        blsto.value(new Key.From(temp, AstoZchunkMetadata.item(type)))
+                    )
+                ).size(),
+                Matchers.greaterThan(0L)
+            );
+            MatcherAssert.assertThat(
+                String.format("Failed to save %s zchunk open checksum", type.name()),
+                blsto.value(
+                    new Key.From(temp, String.format("%s.SHA256", AstoZchunkMetadata.item(type)))
+                ),
+                new IsEqual<>(blsto.value(new Key.From(temp, String.format("%s.SHA256", type))))
+            );
+        }
+        final Map<Key, Key> names = new AstoMetadataNames(this.storage, conf)
+            .prepareNames(temp).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            names.get(new Key.From(temp, AstoZchunkMetadata.item(XmlPackage.PRIMARY))).string(),
+            Matchers.endsWith("-primary.xml.zck")
+        );
+    }
+
+    @Test
+    void doesNothingWhenDisabled() throws IOException {
+        final Key temp = new AstoMetadataAdd(
+            this.storage,
+            new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.SHA256, true)
+        ).perform(
+            new ListOf<Package.Meta>(AstoZchunkMetadataTest.meta(new TestRpm.Abc()))
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.storage.list(temp).join().stream().map(Key::string).anyMatch(
+                name -> name.contains(AstoZchunkMetadata.SUFFIX)
+            ),
+            new IsEqual<>(false)
+        );
+    }
+
+    private static Package.Meta meta(final TestRpm rpm) throws IOException {
+        return new FilePackage.Headers(
+            new FilePackageHeader(rpm.path()).header(),
+            rpm.path(), Digest.SHA256, rpm.path().getFileName().toString()
+        );
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.lock.storage.StorageLock;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link LeaseLock}.
+ * @since 1.11
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class LeaseLockTest {
+
+    /**
+     * Lock target.
+     */
+    private static final Key TARGET = new Key.From("repo");
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+    }
+
+    @Test
+    void verifiesAndReleasesLease() {
+        final LeaseLock lock = new LeaseLock(this.storage, LeaseLockTest.TARGET);
+        lock.acquire().toCompletableFuture().join();
+        lock.verify().toCompletableFuture().join();
+        lock.release().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Lock proposal and fencing record are removed",
+            this.storage.list(Key.ROOT).join(),
+            Matchers.emptyIterable()
+        );
+    }
+
+    @Test
+    void renewsLeaseWhileHeld() throws InterruptedException {
+        final LeaseLock lock = new LeaseLock(
+            this.storage, LeaseLockTest.TARGET, Duration.ofMillis(300)
+        );
+        lock.acquire().toCompletableFuture().join();
+        Thread.sleep(1000);
+        lock.verify().toCompletableFuture().join();
+        final CompletableFuture<Void> other = new LeaseLock(this.storage, LeaseLockTest.TARGET)
+            .acquire().toCompletableFuture();
+        Assertions.assertThrows(CompletionException.class, other::join);
+        lock.release().toCompletableFuture().join();
+    }
+
+    @Test
+    void acquiresLockOfCrashedNodeAfterLeaseExpires() throws InterruptedException {
+        new StorageLock(this.storage, LeaseLockTest.TARGET, Instant.now().plusMillis(200))
+            .acquire().toCompletableFuture().join();
+        Thread.sleep(400);
+        final LeaseLock lock = new LeaseLock(this.storage, LeaseLockTest.TARGET);
+        lock.acquire().toCompletableFuture().join();
+        lock.verify().toCompletableFuture().join();
+        lock.release().toCompletableFuture().join();
+    }
+
+    @Test
+    void failsVerificationWhenLockIsAcquiredByOtherNode() {
+        final LeaseLock lock = new LeaseLock(this.storage, LeaseLockTest.TARGET);
+        lock.acquire().toCompletableFuture().join();
+        final Key proposals = new Key.From(".artipie-locks", LeaseLockTest.TARGET.string());
+        this.storage.list(proposals).join().forEach(key -> this.storage.delete(key).join());
+        final LeaseLock other = new LeaseLock(this.storage, LeaseLockTest.TARGET);
+        other.acquire().toCompletableFuture().join();
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> lock.verify().toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            err.getCause(),
+            new IsInstanceOf(ArtipieException.class)
+        );
+        lock.release().toCompletableFuture().join();
+        other.verify().toCompletableFuture().join();
+        other.release().toCompletableFuture().join();
+    }
+
+    @Test
+    void failsVerificationWhenNotAcquired() {
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> new LeaseLock(this.storage, LeaseLockTest.TARGET).verify()
+                .toCompletableFuture().join()
+        );
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ReadBudget}.
+ * @since 1.11
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class ReadBudgetTest {
+
+    @Test
+    void waitsUntilBytesAreReleased() {
+        final ReadBudget budget = new ReadBudget(10);
+        final CompletableFuture<String> first = new CompletableFuture<>();
+        final CompletableFuture<String> started = new CompletableFuture<>();
+        final CompletionStage<String> one = budget.read(6, () -> first);
+        final CompletionStage<String> two = budget.read(
+            6, () -> {
+                started.complete("started");
+                return CompletableFuture.completedFuture("second");
+            }
+        );
+        MatcherAssert.assertThat(
+            "Second read waits for the first one",
+            started.isDone(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Only first read bytes are used",
+            budget.used(),
+            new IsEqual<>(6L)
+        );
+        first.complete("first");
+        MatcherAssert.assertThat(
+            "Reads are finished",
+            one.toCompletableFuture().join() + two.toCompletableFuture().join(),
+            new IsEqual<>("firstsecond")
+        );
+        MatcherAssert.assertThat(
+            "All bytes are released",
+            budget.used(),
+            new IsEqual<>(0L)
+        );
+    }
+
+    @Test
+    void startsReadsWhichFitTogether() {
+        final ReadBudget budget = new ReadBudget(10);
+        final CompletableFuture<String> first = new CompletableFuture<>();
+        final CompletableFuture<String> second = new CompletableFuture<>();
+        budget.read(4, () -> first);
+        budget.read(5, () -> second);
+        MatcherAssert.assertThat(
+            budget.used(),
+            new IsEqual<>(9L)
+        );
+        first.complete("a");
+        second.complete("b");
+    }
+
+    @Test
+    void runsOversizedReadAlone() {
+        final ReadBudget budget = new ReadBudget(10);
+        final CompletableFuture<String> large = new CompletableFuture<>();
+        final CompletableFuture<String> started = new CompletableFuture<>();
+        budget.read(100, () -> large);
+        final CompletionStage<String> small = budget.read(
+            1, () -> {
+                started.complete("started");
+                return CompletableFuture.completedFuture("small");
+            }
+        );
+        MatcherAssert.assertThat(
+            "Oversized read takes the whole budget",
+            budget.used(),
+            new IsEqual<>(10L)
+        );
+        MatcherAssert.assertThat(
+            "Small read waits for the oversized one",
+            started.isDone(),
+            new IsEqual<>(false)
+        );
+        large.complete("large");
+        MatcherAssert.assertThat(
+            small.toCompletableFuture().join(),
+            new IsEqual<>("small")
+        );
+    }
+
+    @Test
+    void releasesBytesOnFailure() {
+        final ReadBudget budget = new ReadBudget(10);
+        final CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("error"));
+        final CompletionStage<String> res = budget.read(8, () -> failed);
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> res.toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            budget.used(),
+            new IsEqual<>(0L)
+        );
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.cron;
+
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link CronCluster}.
+ * @since 1.11
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class CronClusterTest {
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    /**
+     * First node.
+     */
+    private CronCluster first;
+
+    /**
+     * Second node.
+     */
+    private CronCluster second;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+        this.first = new CronCluster(this.storage, "first");
+        this.second = new CronCluster(this.storage, "second");
+    }
+
+    @AfterEach
+    void leave() {
+        this.first.leave().toCompletableFuture().join();
+        this.second.leave().toCompletableFuture().join();
+    }
+
+    @Test
+    void electsSingleLeader() {
+        this.first.heartbeat().toCompletableFuture().join();
+        this.second.heartbeat().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "First node is the leader",
+            this.first.leader(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Second node is not the leader",
+            this.second.leader(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Both nodes are alive",
+            this.second.live().toCompletableFuture().join(),
+            Matchers.contains("first", "second")
+        );
+    }
+
+    @Test
+    void assignsEachRepositoryToSingleNode() {
+        this.heartbeats();
+        final List<String> repos = IntStream.range(0, 30)
+            .mapToObj(idx -> String.format("repo-%d", idx)).collect(Collectors.toList());
+        final List<Integer> owners = repos.stream().map(
+            repo -> Arrays.asList(this.first, this.second).stream()
+                .filter(node -> node.owns(repo).toCompletableFuture().join())
+                .map(node -> 1).reduce(0, Integer::sum)
+        ).collect(Collectors.toList());
+        MatcherAssert.assertThat(
+            "Each repository is assigned to single node",
+            owners,
+            Matchers.everyItem(new IsEqual<>(1))
+        );
+        MatcherAssert.assertThat(
+            "Repositories are assigned to both nodes",
+            repos.stream().filter(repo -> this.first.owns(repo).toCompletableFuture().join())
+                .count(),
+            Matchers.allOf(Matchers.greaterThan(0L), Matchers.lessThan(30L))
+        );
+    }
+
+    @Test
+    void performsUpdateOncePerTick() {
+        this.heartbeats();
+        final AtomicInteger updates = new AtomicInteger();
+        for (int tick = 1; tick <= 3; tick += 1) {
+            for (final CronCluster node : Arrays.asList(this.first, this.second)) {
+                for (int attempt = 0; attempt < 2; attempt += 1) {
+                    node.perform(
+                        "repo", tick,
+                        () -> {
+                            updates.incrementAndGet();
+                            return CompletableFuture.allOf();
+                        }
+                    ).toCompletableFuture().join();
+                }
+            }
+        }
+        MatcherAssert.assertThat(updates.get(), new IsEqual<>(3));
+    }
+
+    @Test
+    void claimsTickBeforeUpdate() {
+        this.first.heartbeat().toCompletableFuture().join();
+        final AtomicInteger updates = new AtomicInteger();
+        final CompletableFuture<Void> running = new CompletableFuture<Void>()
+            .completeOnTimeout(null, 500, TimeUnit.MILLISECONDS);
+        final List<CompletableFuture<Boolean>> all = IntStream.range(0, 5).mapToObj(
+            idx -> this.first.perform(
+                "repo", 1L,
+                () -> {
+                    updates.incrementAndGet();
+                    return running;
+                }
+            ).toCompletableFuture()
+        ).collect(Collectors.toList());
+        MatcherAssert.assertThat(
+            "Only one of concurrent attempts performed the update",
+            all.stream().map(CompletableFuture::join).filter(Boolean::booleanValue).count(),
+            new IsEqual<>(1L)
+        );
+        MatcherAssert.assertThat(
+            "Update was started once",
+            updates.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void reassignsRepositoriesOfExpiredNode() throws InterruptedException {
+        final CronCluster expiring = new CronCluster(
+            this.storage, "expiring", Duration.ofMillis(300)
+        );
+        expiring.heartbeat().toCompletableFuture().join();
+        this.second.heartbeat().toCompletableFuture().join();
+        expiring.heartbeat().toCompletableFuture().join();
+        Thread.sleep(500);
+        MatcherAssert.assertThat(
+            "Expired node is not alive",
+            this.second.live().toCompletableFuture().join(),
+            Matchers.contains("second")
+        );
+        MatcherAssert.assertThat(
+            "All repositories are assigned to the live node",
+            IntStream.range(0, 10).mapToObj(idx -> String.format("repo-%d", idx))
+                .allMatch(repo -> this.second.owns(repo).toCompletableFuture().join()),
+            new IsEqual<>(true)
+        );
+        expiring.leave().toCompletableFuture().join();
+    }
+
+    @Test
+    void passesLeadershipAfterLeaderLeaves() {
+        this.heartbeats();
+        this.first.leave().toCompletableFuture().join();
+        this.second.heartbeat().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Second node becomes the leader",
+            this.second.leader(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Repositories are assigned to the second node",
+            this.second.owns("repo").toCompletableFuture().join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    private void heartbeats() {
+        this.first.heartbeat().toCompletableFuture().join();
+        this.second.heartbeat().toCompletableFuture().join();
+        this.first.heartbeat().toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.cron;
+
+import com.artipie.ArtipieException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link CronSchedule}.
+ * @since 1.11
+ */
+class CronScheduleTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "0 * * * *,2023-01-01T10:15,2023-01-01T11:00",
+        "*/15 * * * *,2023-01-01T10:15,2023-01-01T10:30",
+        "'5,35 * * * *',2023-01-01T10:15,2023-01-01T10:35",
+        "30 9-17 * * 1-5,2023-01-07T12:00,2023-01-09T09:30",
+        "0 0 * * 7,2023-01-01T00:00,2023-01-08T00:00",
+        "0 0 13 * 5,2023-01-01T00:00,2023-01-06T00:00",
+        "0 0 13 * 5,2023-01-06T00:00,2023-01-13T00:00",
+        "0 0 29 2 *,2023-01-01T00:00,2024-02-29T00:00"
+    })
+    void findsNextTime(final String expr, final String after, final String next) {
+        MatcherAssert.assertThat(
+            new CronSchedule(expr).next(CronScheduleTest.time(after)),
+            new IsEqual<>(CronScheduleTest.time(next))
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"* * * *", "60 * * * *", "a * * * *", "5-1 * * * *", "*/0 * * * *"})
+    void throwsOnInvalidExpression(final String expr) {
+        Assertions.assertThrows(ArtipieException.class, () -> new CronSchedule(expr));
+    }
+
+    @Test
+    void throwsWhenNeverFires() {
+        Assertions.assertThrows(
+            ArtipieException.class,
+            () -> new CronSchedule("0 0 31 2 *").next(CronScheduleTest.time("2023-01-01T00:00"))
+        );
+    }
+
+    private static ZonedDateTime time(final String value) {
+        return LocalDateTime.parse(value).atZone(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.cron;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.ArtipieException;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.SubStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.http.RpmUpload;
+import java.io.IOException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link CronUpdates}.
+ * @since 1.11
+ */
+class CronUpdatesTest {
+
+    /**
+     * Repository config with update schedule.
+     */
+    private static final RepoConfig CNFG = new RepoConfig.FromYaml(
+        Yaml.createYamlMappingBuilder().add(
+            "update",
+            Yaml.createYamlMappingBuilder().add(
+                "on", Yaml.createYamlMappingBuilder().add("cron", "0 * * * *").build()
+            ).build()
+        ).build(),
+        "my-rpm"
+    );
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+    }
+
+    @Test
+    void skipsUpdateWhenPackagesAreNotChanged() throws IOException {
+        new TestRpm.Abc().put(this.storage);
+        try (CronUpdates updates = new CronUpdates(this.storage, Key.ROOT, CronUpdatesTest.CNFG)) {
+            MatcherAssert.assertThat(
+                "First tick updates repository",
+                updates.tick(1).toCompletableFuture().join(),
+                new IsEqual<>(true)
+            );
+            MatcherAssert.assertThat(
+                "Repository metadata is created",
+                this.storage.exists(new Key.From("repodata", "repomd.xml")).join(),
+                new IsEqual<>(true)
+            );
+            MatcherAssert.assertThat(
+                "Tick without changes skips update",
+                updates.tick(2).toCompletableFuture().join(),
+                new IsEqual<>(false)
+            );
+            new TestRpm.Libdeflt().put(this.storage);
+            MatcherAssert.assertThat(
+                "Tick after package was added updates repository",
+                updates.tick(3).toCompletableFuture().join(),
+                new IsEqual<>(true)
+            );
+        }
+    }
+
+    @Test
+    void publishesPackagesStagedAfterUpdate() throws IOException {
+        new TestRpm.Abc().put(this.storage);
+        try (CronUpdates updates = new CronUpdates(this.storage, Key.ROOT, CronUpdatesTest.CNFG)) {
+            updates.tick(1).toCompletableFuture().join();
+            new TestRpm.Libdeflt().put(new SubStorage(RpmUpload.TO_ADD, this.storage));
+            MatcherAssert.assertThat(
+                "Tick after package was staged updates repository",
+                updates.tick(2).toCompletableFuture().join(),
+                new IsEqual<>(true)
+            );
+            MatcherAssert.assertThat(
+                "Staged package is published",
+                this.storage.exists(
+                    new Key.From(new TestRpm.Libdeflt().path().getFileName().toString())
+                ).join(),
+                new IsEqual<>(true)
+            );
+        }
+    }
+
+    @Test
+    void updatesRepositoryInCluster() throws IOException {
+        final Key repo = new Key.From("my-rpm");
+        new TestRpm.Abc().put(new SubStorage(repo, this.storage));
+        final CronCluster cluster = new CronCluster(this.storage, "node");
+        cluster.heartbeat().toCompletableFuture().join();
+        try (CronUpdates updates = new CronUpdates(
+            this.storage, repo, CronUpdatesTest.CNFG, cluster
+        )) {
+            MatcherAssert.assertThat(
+                "Repository is updated by the owner node",
+                updates.tick(1).toCompletableFuture().join(),
+                new IsEqual<>(true)
+            );
+            MatcherAssert.assertThat(
+                "Tick is performed once",
+                updates.tick(1).toCompletableFuture().join(),
+                new IsEqual<>(false)
+            );
+        }
+    }
+
+    @Test
+    void throwsWithoutSchedule() {
+        Assertions.assertThrows(
+            ArtipieException.class,
+            () -> new CronUpdates(this.storage, Key.ROOT, new RepoConfig.Simple())
+        );
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.cron;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link HashRing}.
+ * @since 1.11
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class HashRingTest {
+
+    @Test
+    void returnsEmptyOwnerWithoutNodes() {
+        MatcherAssert.assertThat(
+            new HashRing(Collections.emptyList()).owner("repo"),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+
+    @Test
+    void spreadsKeysEvenly() {
+        final HashRing ring = new HashRing(Arrays.asList("one", "two", "three"));
+        final Map<String, Long> counts = IntStream.range(0, 3000)
+            .mapToObj(idx -> ring.owner(String.format("repo-%d", idx)).get())
+            .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        MatcherAssert.assertThat(
+            counts.values(),
+            Matchers.everyItem(
+                Matchers.allOf(Matchers.greaterThan(700L), Matchers.lessThan(1300L))
+            )
+        );
+    }
+
+    @Test
+    void movesOnlyKeysOfLeftNode() {
+        final HashRing full = new HashRing(Arrays.asList("one", "two", "three"));
+        final HashRing rest = new HashRing(Arrays.asList("one", "two"));
+        MatcherAssert.assertThat(
+            IntStream.range(0, 1000).mapToObj(idx -> String.format("repo-%d", idx))
+                .filter(key -> !full.owner(key).get().equals("three"))
+                .filter(key -> !full.owner(key).equals(rest.owner(key)))
+                .collect(Collectors.toList()),
+            Matchers.empty()
+        );
+    }
+}
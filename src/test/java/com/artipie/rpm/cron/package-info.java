@@ -0,0 +1,11 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+/**
+ * Scheduled repository updates tests.
+ *
+ * @since 1.11
+ */
+package com.artipie.rpm.cron;
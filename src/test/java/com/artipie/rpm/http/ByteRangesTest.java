@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Test for {@link ByteRanges}.
+ * @since 1.11
+ */
+class ByteRangesTest {
+
+    @ParameterizedTest
+    @CsvSource(
+        delimiter = '|',
+        value = {
+            "bytes=0-99|true",
+            "bytes=100-|true",
+            "bytes=-500|true",
+            "bytes=0-0, 10-20,-5|true",
+            "bytes=10-5|false",
+            "bytes=-|false",
+            "items=0-10|false",
+            "bytes=a-b|false",
+            "bytes=99999999999999999999-|false"
+        }
+    )
+    void checksSyntax(final String header, final boolean valid) {
+        MatcherAssert.assertThat(
+            new ByteRanges(header).valid(),
+            new IsEqual<>(valid)
+        );
+    }
+
+    @ParameterizedTest
+    @CsvSource(
+        delimiter = '|',
+        value = {
+            "bytes=0-99|10|true",
+            "bytes=10-|10|false",
+            "bytes=10-20, 5-6|10|true",
+            "bytes=-5|10|true",
+            "bytes=-5|0|false",
+            "bytes=-0|10|false"
+        }
+    )
+    void checksSatisfiable(final String header, final long size, final boolean res) {
+        MatcherAssert.assertThat(
+            new ByteRanges(header).satisfiable(size),
+            new IsEqual<>(res)
+        );
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.http.Headers;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.rpm.RepoConfig;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link RpmBatchRemove}.
+ * @since 1.11
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class RpmBatchRemoveTest {
+
+    /**
+     * Abc package name.
+     */
+    private static final String ABC = "abc-1.01-26.git20200127.fc32.ppc64le.rpm";
+
+    /**
+     * Libdeflt package name.
+     */
+    private static final String LIBDEFLT = "libdeflt1_0-2020.03.27-25.1.armv7hl.rpm";
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+    }
+
+    @Test
+    void removesListedPackagesWithOneUpdate() {
+        new TestResource(RpmBatchRemoveTest.ABC).saveTo(this.asto);
+        new TestResource(RpmBatchRemoveTest.LIBDEFLT).saveTo(this.asto);
+        new TestResource("AstoRepoRemoveTest/other.xml.gz")
+            .saveTo(this.asto, new Key.From("repodata", "other.xml.gz"));
+        new TestResource("AstoRepoRemoveTest/primary.xml.gz")
+            .saveTo(this.asto, new Key.From("repodata", "primary.xml.gz"));
+        new TestResource("AstoRepoRemoveTest/repomd.xml")
+            .saveTo(this.asto, new Key.From("repodata", "repomd.xml"));
+        MatcherAssert.assertThat(
+            "Returns result for each listed package",
+            new RpmBatchRemove(this.asto, new RepoConfig.Simple(), Optional.empty()),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.ACCEPTED),
+                    new RsHasBody(
+                        String.join(
+                            "",
+                            "<?xml version='1.0' encoding='UTF-8'?><remove>",
+                            "<package path=\"", RpmBatchRemoveTest.ABC,
+                            "\" status=\"accepted\"/>",
+                            "<package path=\"", RpmBatchRemoveTest.LIBDEFLT,
+                            "\" status=\"invalid\"/>",
+                            "<package path=\"missing.rpm\" status=\"not_found\"/>",
+                            "<package path=\"../evil.rpm\" status=\"invalid\"/>",
+                            "</remove>"
+                        ),
+                        StandardCharsets.UTF_8
+                    )
+                ),
+                new RequestLine(RqMethod.DELETE, "/.remove"),
+                Headers.EMPTY,
+                new Content.From(
+                    String.join(
+                        "\n",
+                        String.format(
+                            "%s %s", RpmBatchRemoveTest.ABC,
+                            DigestUtils.sha256Hex(
+                                new TestResource(RpmBatchRemoveTest.ABC).asBytes()
+                            )
+                        ),
+                        RpmBatchRemoveTest.LIBDEFLT,
+                        "",
+                        "missing.rpm 0123",
+                        "../evil.rpm 0123"
+                    ).getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            "Only valid package is removed",
+            Arrays.asList(
+                this.asto.exists(new Key.From(RpmBatchRemoveTest.ABC)).join(),
+                this.asto.exists(new Key.From(RpmBatchRemoveTest.LIBDEFLT)).join(),
+                this.asto.exists(RpmRemove.TO_RM).join()
+            ),
+            new IsEqual<>(Arrays.asList(false, true, false))
+        );
+    }
+
+    @Test
+    void skipsUpdateAndAcceptsPackagesWithoutChecksumsWhenForced() {
+        this.asto.save(new Key.From("one.rpm"), Content.EMPTY).join();
+        this.asto.save(new Key.From("two.rpm"), Content.EMPTY).join();
+        MatcherAssert.assertThat(
+            new RpmBatchRemove(this.asto, new RepoConfig.Simple(), Optional.empty()),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.ACCEPTED),
+                new RequestLine(RqMethod.DELETE, "/.remove?force=true&skip_update=true"),
+                Headers.EMPTY,
+                new Content.From("one.rpm\ntwo.rpm\n".getBytes(StandardCharsets.UTF_8))
+            )
+        );
+        MatcherAssert.assertThat(
+            "Packages are saved to remove",
+            Arrays.asList(
+                this.asto.exists(new Key.From(RpmRemove.TO_RM, "one.rpm")).join(),
+                this.asto.exists(new Key.From(RpmRemove.TO_RM, "two.rpm")).join()
+            ),
+            new IsEqual<>(Arrays.asList(true, true))
+        );
+    }
+
+    @Test
+    void returnsBadRequestForEmptyList() {
+        MatcherAssert.assertThat(
+            new RpmBatchRemove(this.asto, new RepoConfig.Simple(), Optional.empty()),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.BAD_REQUEST),
+                new RequestLine(RqMethod.DELETE, "/.remove"),
+                Headers.EMPTY,
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void removesPackagesBySelectors() {
+        this.asto.save(new Key.From(RpmBatchRemoveTest.ABC), Content.EMPTY).join();
+        this.asto.save(new Key.From(RpmBatchRemoveTest.LIBDEFLT), Content.EMPTY).join();
+        new TestResource("AstoRepoRemoveTest/primary.xml.gz")
+            .saveTo(this.asto, new Key.From("repodata", "primary.xml.gz"));
+        MatcherAssert.assertThat(
+            new RpmBatchRemove(this.asto, new RepoConfig.Simple(), Optional.empty()),
+            new SliceHasResponse(
+                new RsHasBody(
+                    String.join(
+                        "",
+                        "<?xml version='1.0' encoding='UTF-8'?><remove>",
+                        "<package path=\"", RpmBatchRemoveTest.ABC, "\" status=\"accepted\"/>",
+                        "<package path=\"", RpmBatchRemoveTest.LIBDEFLT,
+                        "\" status=\"accepted\"/>",
+                        "<package path=\"abc-2.0-1.noarch\" status=\"not_found\"/>",
+                        "<package path=\"name=abc size=1\" status=\"invalid\"/>",
+                        "</remove>"
+                    ),
+                    StandardCharsets.UTF_8
+                ),
+                new RequestLine(RqMethod.DELETE, "/.remove?force=true&skip_update=true"),
+                Headers.EMPTY,
+                new Content.From(
+                    String.join(
+                        "\n",
+                        "abc-1.01-26.git20200127.fc32.ppc64le",
+                        "name=libdeflt1_0 arch=armv7hl",
+                        "abc-2.0-1.noarch",
+                        "name=abc size=1"
+                    ).getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
+    @Test
+    void rejectsSelectorsWithoutForce() {
+        this.asto.save(new Key.From(RpmBatchRemoveTest.ABC), Content.EMPTY).join();
+        new TestResource("AstoRepoRemoveTest/primary.xml.gz")
+            .saveTo(this.asto, new Key.From("repodata", "primary.xml.gz"));
+        MatcherAssert.assertThat(
+            "Selector is invalid without force",
+            new RpmBatchRemove(this.asto, new RepoConfig.Simple(), Optional.empty()),
+            new SliceHasResponse(
+                new RsHasBody(
+                    String.join(
+                        "",
+                        "<?xml version='1.0' encoding='UTF-8'?><remove>",
+                        "<package path=\"name=abc\" status=\"invalid\"/>",
+                        "</remove>"
+                    ),
+                    StandardCharsets.UTF_8
+                ),
+                new RequestLine(RqMethod.DELETE, "/.remove?skip_update=true"),
+                Headers.EMPTY,
+                new Content.From("name=abc".getBytes(StandardCharsets.UTF_8))
+            )
+        );
+        MatcherAssert.assertThat(
+            "Package is not marked for removal",
+            this.asto.exists(new Key.From(RpmRemove.TO_RM, RpmBatchRemoveTest.ABC)).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void verifiesChecksumOfPublishedPackageWithoutReadingIt() {
+        this.asto.save(new Key.From(RpmBatchRemoveTest.ABC), Content.EMPTY).join();
+        new TestResource("AstoRepoRemoveTest/primary.xml.gz")
+            .saveTo(this.asto, new Key.From("repodata", "primary.xml.gz"));
+        new RpmBatchRemove(this.asto, new RepoConfig.Simple(), Optional.empty()).response(
+            new RequestLine(RqMethod.DELETE, "/.remove?skip_update=true").toString(),
+            Headers.EMPTY,
+            new Content.From(
+                String.format(
+                    "%s b9d10ae3485a5c5f71f0afb1eaf682bfbea4ea667cc3c3975057d6e3d8f2e905",
+                    RpmBatchRemoveTest.ABC
+                ).getBytes(StandardCharsets.UTF_8)
+            )
+        ).send((status, headers, body) -> CompletableFuture.allOf()).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.asto.exists(new Key.From(RpmRemove.TO_RM, RpmBatchRemoveTest.ABC)).join(),
+            new IsEqual<>(true)
+        );
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.TestRpm;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.cactoos.map.MapEntry;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link RpmBulkUpload}.
+ * @since 1.11
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class RpmBulkUploadTest {
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+    }
+
+    @Test
+    void uploadsPackagesFromArchive() throws IOException {
+        final byte[] abc = Files.readAllBytes(new TestRpm.Abc().path());
+        this.asto.save(new Key.From("time.rpm"), new Content.From(abc)).join();
+        MatcherAssert.assertThat(
+            "Returns result for each archive entry",
+            new RpmBulkUpload(this.asto, new RepoConfig.Simple(), Optional.empty()),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.ACCEPTED),
+                    new RsHasBody(
+                        String.join(
+                            "",
+                            "<?xml version='1.0' encoding='UTF-8'?><upload>",
+                            "<package path=\"./abc.rpm\" status=\"accepted\"/>",
+                            "<package path=\"libs/libdeflt.rpm\" status=\"accepted\"/>",
+                            "<package path=\"time.rpm\" status=\"conflict\"/>",
+                            "<package path=\"broken.rpm\" status=\"invalid\"/>",
+                            "<package path=\"readme.txt\" status=\"skipped\"/>",
+                            "<package path=\"../evil.rpm\" status=\"rejected\"/>",
+                            "<package path=\".checksums/abc.rpm\" status=\"rejected\"/>",
+                            "<package path=\"repodata/abc.rpm\" status=\"rejected\"/>",
+                            "</upload>"
+                        ),
+                        StandardCharsets.UTF_8
+                    )
+                ),
+                new RequestLine(RqMethod.PUT, "/release.tar"),
+                Headers.EMPTY,
+                new Content.From(
+                    RpmBulkUploadTest.tar(
+                        new MapEntry<>("./abc.rpm", abc),
+                        new MapEntry<>(
+                            "libs/libdeflt.rpm", Files.readAllBytes(new TestRpm.Libdeflt().path())
+                        ),
+                        new MapEntry<>("time.rpm", abc),
+                        new MapEntry<>("broken.rpm", "broken".getBytes()),
+                        new MapEntry<>("readme.txt", "readme".getBytes()),
+                        new MapEntry<>("../evil.rpm", abc),
+                        new MapEntry<>(".checksums/abc.rpm", abc),
+                        new MapEntry<>("repodata/abc.rpm", abc)
+                    )
+                )
+            )
+        );
+        final BlockingStorage blocking = new BlockingStorage(this.asto);
+        MatcherAssert.assertThat(
+            "Packages are added to repository",
+            Arrays.asList(
+                blocking.exists(new Key.From("abc.rpm")),
+                blocking.exists(new Key.From("libs", "libdeflt.rpm")),
+                blocking.exists(new Key.From("broken.rpm")),
+                blocking.list(new Key.From("repodata")).isEmpty(),
+                blocking.exists(new Key.From("repodata", "abc.rpm"))
+            ),
+            new IsEqual<>(Arrays.asList(true, true, false, false, false))
+        );
+    }
+
+    @Test
+    void returnsBadRequestForInvalidArchive() {
+        final byte[] garbage = new byte[1024];
+        Arrays.fill(garbage, (byte) 'a');
+        MatcherAssert.assertThat(
+            new RpmBulkUpload(this.asto, new RepoConfig.Simple(), Optional.empty()),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.BAD_REQUEST),
+                new RequestLine(RqMethod.PUT, "/release.tar"),
+                Headers.EMPTY,
+                new Content.From(garbage)
+            )
+        );
+    }
+
+    @Test
+    void returnsBadRequestForTruncatedArchive() throws IOException {
+        final byte[] abc = Files.readAllBytes(new TestRpm.Abc().path());
+        final byte[] tar = RpmBulkUploadTest.tar(
+            new MapEntry<>("abc.rpm", abc),
+            new MapEntry<>("libdeflt.rpm", Files.readAllBytes(new TestRpm.Libdeflt().path()))
+        );
+        MatcherAssert.assertThat(
+            new RpmBulkUpload(this.asto, new RepoConfig.Simple(), Optional.empty()),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.BAD_REQUEST),
+                new RequestLine(RqMethod.PUT, "/release.tar"),
+                Headers.EMPTY,
+                new Content.From(Arrays.copyOf(tar, abc.length + abc.length / 2))
+            )
+        );
+    }
+
+    /**
+     * Create tar archive.
+     * @param entries Entries names and content
+     * @return Archive bytes
+     * @throws IOException On error
+     */
+    @SafeVarargs
+    private static byte[] tar(final Map.Entry<String, byte[]>... entries) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(out)) {
+            for (final Map.Entry<String, byte[]> entry : entries) {
+                final TarArchiveEntry item = new TarArchiveEntry(entry.getKey());
+                item.setSize(entry.getValue().length);
+                tar.putArchiveEntry(item);
+                tar.write(entry.getValue());
+                tar.closeArchiveEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.http.Headers;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasHeaders;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.headers.Header;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link RpmDownload}.
+ * @since 1.11
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class RpmDownloadTest {
+
+    /**
+     * Primary checksum from the test repomd.
+     */
+    private static final String PRIMARY =
+        "4539c03d91a99d1bb01a3b151dc6dee0129bc12708863b9d20bb3c97bba39453";
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+        this.asto.save(
+            new Key.From("repodata", "repomd.xml"),
+            new Content.From(new TestResource("repodata/repomd.xml.example").asBytes())
+        ).join();
+        this.asto.save(
+            new Key.From("repodata", String.format("%s-primary.xml.gz", RpmDownloadTest.PRIMARY)),
+            new Content.From("primary".getBytes())
+        ).join();
+    }
+
+    @Test
+    void returnsMetadataWithCachingHeaders() {
+        MatcherAssert.assertThat(
+            new RpmDownload(this.asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(
+                        new Header("ETag", String.format("\"%s\"", RpmDownloadTest.PRIMARY)),
+                        new Header("Cache-Control", "public, max-age=31536000, immutable"),
+                        new Header("Last-Modified", "Fri, 3 Apr 2020 15:47:05 GMT")
+                    )
+                ),
+                RpmDownloadTest.primary()
+            )
+        );
+    }
+
+    @Test
+    void returnsNotModifiedOnMatchingEtag() {
+        MatcherAssert.assertThat(
+            new RpmDownload(this.asto),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_MODIFIED),
+                RpmDownloadTest.primary(),
+                new Headers.From(
+                    "If-None-Match", String.format("W/\"abc\", \"%s\"", RpmDownloadTest.PRIMARY)
+                ),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void returnsRepomdWhenEtagDoesNotMatch() {
+        MatcherAssert.assertThat(
+            new RpmDownload(this.asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(new Header("Cache-Control", "no-cache"))
+                ),
+                new RequestLine(RqMethod.GET, "/repodata/repomd.xml"),
+                new Headers.From("If-None-Match", "\"123\""),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void returnsNotModifiedForRepomdSinceRevision() {
+        MatcherAssert.assertThat(
+            new RpmDownload(this.asto),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_MODIFIED),
+                new RequestLine(RqMethod.GET, "/repodata/repomd.xml"),
+                new Headers.From("If-Modified-Since", "Sat, 4 Apr 2020 10:00:00 GMT"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void returnsMetalink() {
+        this.asto.save(
+            new Key.From("repodata", "metalink.xml"), new Content.From("metalink".getBytes())
+        ).join();
+        MatcherAssert.assertThat(
+            new RpmDownload(this.asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(
+                        new Header("Content-Type", "application/metalink+xml"),
+                        new Header("Cache-Control", "no-cache")
+                    ),
+                    new RsHasBody("metalink".getBytes())
+                ),
+                new RequestLine(RqMethod.GET, "/repodata/metalink.xml")
+            )
+        );
+    }
+
+    @Test
+    void returnsGenerationMetadataAsImmutable() {
+        this.asto.save(
+            new Key.From("repodata", "repomd.xml"),
+            new Content.From(
+                String.join(
+                    "",
+                    "<repomd><revision>1585928825</revision><data type=\"primary\">",
+                    "<checksum type=\"sha256\">abc</checksum>",
+                    "<location href=\"repodata/001/primary.xml.gz\"/></data></repomd>"
+                ).getBytes()
+            )
+        ).join();
+        this.asto.save(
+            new Key.From("repodata", "001", "primary.xml.gz"), new Content.From("abc".getBytes())
+        ).join();
+        MatcherAssert.assertThat(
+            new RpmDownload(this.asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(
+                        new Header("ETag", "\"abc\""),
+                        new Header("Cache-Control", "public, max-age=31536000, immutable"),
+                        new Header("Last-Modified", "Fri, 3 Apr 2020 15:47:05 GMT")
+                    ),
+                    new RsHasBody("abc".getBytes())
+                ),
+                new RequestLine(RqMethod.GET, "/repodata/001/primary.xml.gz")
+            )
+        );
+    }
+
+    @Test
+    void servesMetadataOfRepomdWithTextRevision() {
+        this.asto.save(
+            new Key.From("repodata", "repomd.xml"),
+            new Content.From(
+                String.join(
+                    "",
+                    "<repomd><revision>8f3c2a1</revision><data type=\"primary\">",
+                    "<checksum type=\"sha256\">abc</checksum>",
+                    "<timestamp>1585928825</timestamp>",
+                    "<location href=\"repodata/primary.xml.gz\"/></data></repomd>"
+                ).getBytes()
+            )
+        ).join();
+        this.asto.save(
+            new Key.From("repodata", "primary.xml.gz"), new Content.From("abc".getBytes())
+        ).join();
+        MatcherAssert.assertThat(
+            new RpmDownload(this.asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(
+                        new Header("ETag", "\"abc\""),
+                        new Header("Last-Modified", "Fri, 3 Apr 2020 15:47:05 GMT")
+                    )
+                ),
+                new RequestLine(RqMethod.GET, "/repodata/primary.xml.gz")
+            )
+        );
+    }
+
+    @Test
+    void downloadsPackage() {
+        this.asto.save(new Key.From("abc.rpm"), new Content.From("abc".getBytes())).join();
+        MatcherAssert.assertThat(
+            new RpmDownload(this.asto),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.GET, "/abc.rpm")
+            )
+        );
+    }
+
+    @Test
+    void returnsBadRangeForUnsatisfiableRange() {
+        this.asto.save(new Key.From("abc.rpm"), new Content.From("abc".getBytes())).join();
+        MatcherAssert.assertThat(
+            new RpmDownload(this.asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.BAD_RANGE),
+                    new RsHasHeaders(new Header("Content-Range", "bytes */3"))
+                ),
+                new RequestLine(RqMethod.GET, "/abc.rpm"),
+                new Headers.From("Range", "bytes=10-"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void returnsFullPackageForSatisfiableRange() {
+        this.asto.save(new Key.From("abc.rpm"), new Content.From("abc".getBytes())).join();
+        MatcherAssert.assertThat(
+            new RpmDownload(this.asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(new Header("Accept-Ranges", "none")),
+                    new RsHasBody("abc".getBytes())
+                ),
+                new RequestLine(RqMethod.GET, "/abc.rpm"),
+                new Headers.From("Range", "bytes=0-1"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    /**
+     * Request line to get primary.
+     * @return Request line
+     */
+    private static RequestLine primary() {
+        return new RequestLine(
+            RqMethod.GET,
+            String.format("/repodata/%s-primary.xml.gz", RpmDownloadTest.PRIMARY)
+        );
+    }
+}
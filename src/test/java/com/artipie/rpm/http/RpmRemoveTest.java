@@ -139,7 +139,11 @@ class RpmRemoveTest {
         MatcherAssert.assertThat(
             "Primary xml should have `nginx` record",
             new String(
-                this.readAndUnpack(new Key.From("repodata", "primary.xml.gz")),
+                this.readAndUnpack(
+                    this.asto.list(new Key.From("repodata")).join().stream()
+                        .filter(item -> item.string().endsWith("primary.xml.gz"))
+                        .findFirst().get()
+                ),
                 StandardCharsets.UTF_8
             ),
             XhtmlMatchers.hasXPaths(
@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqHeaders;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.rpm.TestRpm;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link RpmUploadJobs} and asynchronous {@link RpmUpload}.
+ * @since 1.11
+ */
+final class RpmUploadJobsTest {
+
+    @Test
+    void publishesMetadataAsynchronously() throws Exception {
+        final Storage asto = new InMemoryStorage();
+        final Slice slice = new RpmSlice(asto);
+        final CompletableFuture<String> location = new CompletableFuture<>();
+        slice.response(
+            new RequestLine(RqMethod.PUT, "/abc.rpm?async=true").toString(),
+            Headers.EMPTY,
+            new Content.From(Files.readAllBytes(new TestRpm.Abc().path()))
+        ).send(
+            (status, headers, body) -> {
+                location.complete(
+                    String.format("%s %s", status, new RqHeaders(headers, "Location").get(0))
+                );
+                return CompletableFuture.allOf();
+            }
+        ).toCompletableFuture().join();
+        final String[] res = location.join().split(" ");
+        MatcherAssert.assertThat(
+            "Upload is accepted with job location",
+            res,
+            Matchers.arrayContaining(
+                new IsEqual<>(RsStatus.ACCEPTED.toString()),
+                Matchers.startsWith("/.jobs/")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Job is done",
+            slice,
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasBody(
+                        Matchers.containsString("status=\"done\""), StandardCharsets.UTF_8
+                    )
+                ),
+                new RequestLine(RqMethod.GET, String.format("%s?wait=30", res[1]))
+            )
+        );
+        MatcherAssert.assertThat(
+            "Metadata is published",
+            asto.list(new Key.From("repodata")).join().isEmpty(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void servesStatusOfJobStartedOnAnotherNode() throws Exception {
+        final Storage asto = new InMemoryStorage();
+        final CompletableFuture<String> location = new CompletableFuture<>();
+        new RpmSlice(asto).response(
+            new RequestLine(RqMethod.PUT, "/abc.rpm?async=true").toString(),
+            Headers.EMPTY,
+            new Content.From(Files.readAllBytes(new TestRpm.Abc().path()))
+        ).send(
+            (status, headers, body) -> {
+                location.complete(new RqHeaders(headers, "Location").get(0));
+                return CompletableFuture.allOf();
+            }
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new RpmSlice(asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasBody(
+                        Matchers.containsString("status=\"done\""), StandardCharsets.UTF_8
+                    )
+                ),
+                new RequestLine(RqMethod.GET, String.format("%s?wait=30", location.join()))
+            )
+        );
+    }
+
+    @Test
+    void returnsNotFoundForUnknownJob() {
+        MatcherAssert.assertThat(
+            new RpmSlice(new InMemoryStorage()),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.GET, "/.jobs/0f8fad5b-d9cb-469f-a165-70867728950e")
+            )
+        );
+    }
+}
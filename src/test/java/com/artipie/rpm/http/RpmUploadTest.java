@@ -4,27 +4,41 @@
  */
 package com.artipie.rpm.http;
 
+import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.blocking.BlockingStorage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.http.Headers;
+import com.artipie.http.headers.Header;
 import com.artipie.http.hm.RsHasStatus;
 import com.artipie.http.rq.RequestLine;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.rpm.Digest;
 import com.artipie.rpm.RepoConfig;
 import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.asto.AstoChecksumSidecar;
+import com.artipie.rpm.asto.AstoHeaderSidecar;
+import com.artipie.rpm.pkg.PackageHead;
 import com.artipie.scheduling.ArtifactEvent;
 import io.reactivex.Flowable;
+import java.io.ByteArrayInputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.cactoos.list.ListOf;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -166,4 +180,177 @@ public final class RpmUploadTest {
             new IsEqual<>(true)
         );
     }
+
+    @Test
+    void savesChecksumSidecarOnUpload() throws Exception {
+        final byte[] content = Files.readAllBytes(new TestRpm.Abc().path());
+        MatcherAssert.assertThat(
+            "ACCEPTED 202 returned",
+            new RpmUpload(this.storage, new RepoConfig.Simple(), Optional.empty()).response(
+                new RequestLine("PUT", "/checked.rpm?skip_update=true").toString(),
+                new Headers.From("X-Checksum-Sha1", DigestUtils.sha1Hex(content)),
+                Flowable.fromArray(ByteBuffer.wrap(content))
+            ),
+            new RsHasStatus(RsStatus.ACCEPTED)
+        );
+        MatcherAssert.assertThat(
+            "Checksum and size saved",
+            new AstoChecksumSidecar(this.storage)
+                .read(new Key.From(RpmUpload.TO_ADD, "checked.rpm"), Digest.SHA256)
+                .toCompletableFuture().join(),
+            new IsEqual<>(
+                Optional.of(
+                    new ImmutableTriple<>(
+                        DigestUtils.sha256Hex(content), (long) content.length,
+                        new PackageHead().read(new ByteArrayInputStream(content)).digest()
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void rejectsPackageWithWrongChecksum() throws Exception {
+        final byte[] content = Files.readAllBytes(new TestRpm.Abc().path());
+        MatcherAssert.assertThat(
+            "BAD_REQUEST 400 returned",
+            new RpmUpload(this.storage, new RepoConfig.Simple(), Optional.empty()).response(
+                new RequestLine("PUT", "/wrong.rpm").toString(),
+                new Headers.From("X-Checksum-Sha256", DigestUtils.sha256Hex("abc")),
+                Flowable.fromArray(ByteBuffer.wrap(content))
+            ),
+            new RsHasStatus(RsStatus.BAD_REQUEST)
+        );
+        MatcherAssert.assertThat(
+            "Package was not saved",
+            this.storage.exists(new Key.From(RpmUpload.TO_ADD, "wrong.rpm")).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Temp package was removed",
+            this.storage.list(Key.ROOT).join(),
+            Matchers.empty()
+        );
+    }
+
+    @Test
+    void receivesPackageOutsideOfStagingLocation() throws Exception {
+        final List<Key> saved = new CopyOnWriteArrayList<>();
+        final Storage asto = new Storage.Wrap(this.storage) {
+            @Override
+            public CompletableFuture<Void> save(final Key key, final Content content) {
+                saved.add(key);
+                return super.save(key, content);
+            }
+        };
+        MatcherAssert.assertThat(
+            "ACCEPTED 202 returned",
+            new RpmUpload(asto, new RepoConfig.Simple(), Optional.empty()).response(
+                new RequestLine("PUT", "/received.rpm?skip_update=true").toString(),
+                Headers.EMPTY,
+                Flowable.fromArray(ByteBuffer.wrap(Files.readAllBytes(new TestRpm.Abc().path())))
+            ),
+            new RsHasStatus(RsStatus.ACCEPTED)
+        );
+        MatcherAssert.assertThat(
+            "Package is not written directly to staging location",
+            saved,
+            Matchers.not(Matchers.hasItem(new Key.From(RpmUpload.TO_ADD, "received.rpm")))
+        );
+        MatcherAssert.assertThat(
+            "Package is moved to staging location",
+            this.storage.exists(new Key.From(RpmUpload.TO_ADD, "received.rpm")).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void rejectsInvalidPackage() {
+        MatcherAssert.assertThat(
+            "BAD_REQUEST 400 returned",
+            new RpmUpload(this.storage, new RepoConfig.Simple(), Optional.empty()).response(
+                new RequestLine("PUT", "/invalid.rpm").toString(),
+                Headers.EMPTY,
+                Flowable.fromArray(ByteBuffer.wrap("not a package".getBytes()))
+            ),
+            new RsHasStatus(RsStatus.BAD_REQUEST)
+        );
+        MatcherAssert.assertThat(
+            "Package was not saved",
+            this.storage.exists(new Key.From(RpmUpload.TO_ADD, "invalid.rpm")).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void savesHeaderSidecarOnUpload() throws Exception {
+        final byte[] content = Files.readAllBytes(new TestRpm.Abc().path());
+        new RpmUpload(this.storage, new RepoConfig.Simple(), Optional.empty()).response(
+            new RequestLine("PUT", "/with-header.rpm?skip_update=true").toString(),
+            Headers.EMPTY,
+            Flowable.fromIterable(
+                new ListOf<>(
+                    ByteBuffer.wrap(content, 0, 100),
+                    ByteBuffer.wrap(content, 100, content.length - 100)
+                )
+            )
+        ).send((status, headers, body) -> CompletableFuture.allOf()).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new AstoHeaderSidecar(this.storage)
+                .read(new Key.From(RpmUpload.TO_ADD, "with-header.rpm"))
+                .toCompletableFuture().join().map(ImmutablePair::getLeft),
+            new IsEqual<>(
+                Optional.of(new PackageHead().read(new ByteArrayInputStream(content)).digest())
+            )
+        );
+    }
+
+    @Test
+    void deploysExistingPackageByChecksum() throws Exception {
+        final byte[] content = Files.readAllBytes(new TestRpm.Abc().path());
+        final RpmUpload upload =
+            new RpmUpload(this.storage, new RepoConfig.Simple(), Optional.empty());
+        upload.response(
+            new RequestLine("PUT", "/first/abc.rpm").toString(),
+            Headers.EMPTY, Flowable.fromArray(ByteBuffer.wrap(content))
+        ).send((status, headers, body) -> CompletableFuture.allOf()).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "ACCEPTED 202 returned",
+            upload.response(
+                new RequestLine("PUT", "/second/abc.rpm").toString(),
+                new Headers.From(
+                    new Header("X-Checksum-Deploy", "true"),
+                    new Header("X-Checksum-Sha256", DigestUtils.sha256Hex(content))
+                ),
+                Flowable.empty()
+            ),
+            new RsHasStatus(RsStatus.ACCEPTED)
+        );
+        MatcherAssert.assertThat(
+            "Content copied in storage",
+            new BlockingStorage(this.storage).value(new Key.From("second", "abc.rpm")),
+            new IsEqual<>(content)
+        );
+    }
+
+    @Test
+    void returnsNotFoundOnChecksumDeployOfUnknownPackage() {
+        MatcherAssert.assertThat(
+            "NOT_FOUND 404 returned",
+            new RpmUpload(this.storage, new RepoConfig.Simple(), Optional.empty()).response(
+                new RequestLine("PUT", "/unknown.rpm").toString(),
+                new Headers.From(
+                    new Header("X-Checksum-Deploy", "true"),
+                    new Header("X-Checksum-Sha256", DigestUtils.sha256Hex("unknown"))
+                ),
+                Flowable.empty()
+            ),
+            new RsHasStatus(RsStatus.NOT_FOUND)
+        );
+        MatcherAssert.assertThat(
+            "Package is not saved",
+            this.storage.exists(new Key.From(RpmUpload.TO_ADD, "unknown.rpm")).join(),
+            new IsEqual<>(false)
+        );
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.Rpm;
+import com.artipie.rpm.TestRpm;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link UploadJobs}.
+ * @since 1.11
+ */
+final class UploadJobsTest {
+
+    @Test
+    void coalescesJobsStartedDuringUpdate() {
+        final UploadJobs jobs = new UploadJobs(
+            new InMemoryStorage(), Executors.newCachedThreadPool()
+        );
+        final CompletableFuture<Void> first = new CompletableFuture<>();
+        final AtomicInteger updates = new AtomicInteger();
+        final Supplier<CompletionStage<Void>> rest = () -> {
+            updates.incrementAndGet();
+            return CompletableFuture.allOf();
+        };
+        final String running = jobs.start(
+            "abc.rpm",
+            () -> {
+                updates.incrementAndGet();
+                return first;
+            }
+        ).toCompletableFuture().join();
+        final String second = jobs.start("abc.rpm", rest).toCompletableFuture().join();
+        final String third = jobs.start("abc.rpm", rest).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Jobs are pending while update is running",
+            jobs.status(third, 0).toCompletableFuture().join(),
+            new IsEqual<>(Optional.of(UploadJobs.PENDING))
+        );
+        first.complete(null);
+        MatcherAssert.assertThat(
+            "Jobs are done",
+            new String[] {
+                jobs.status(running, 30).toCompletableFuture().join().get(),
+                jobs.status(second, 30).toCompletableFuture().join().get(),
+                jobs.status(third, 30).toCompletableFuture().join().get(),
+            },
+            new IsEqual<>(new String[] {"done", "done", "done"})
+        );
+        MatcherAssert.assertThat(
+            "Pending jobs are coalesced into single update",
+            updates.get(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void resolvesPendingJobsOfAnotherNode() throws Exception {
+        final Storage asto = new InMemoryStorage();
+        asto.save(
+            new Key.From("abc.rpm"),
+            new Content.From(Files.readAllBytes(new TestRpm.Abc().path()))
+        ).join();
+        new Rpm(asto).batchUpdate(Key.ROOT).blockingAwait();
+        asto.save(
+            new Key.From(RpmUpload.TO_ADD, "staged.rpm"),
+            new Content.From(Files.readAllBytes(new TestRpm.Libdeflt().path()))
+        ).join();
+        final UploadJobs dead = new UploadJobs(asto, Executors.newCachedThreadPool());
+        final Supplier<CompletionStage<Void>> never = CompletableFuture::new;
+        final String published = dead.start("abc.rpm", never).toCompletableFuture().join();
+        final String staged = dead.start("staged.rpm", never).toCompletableFuture().join();
+        final String lost = dead.start("lost.rpm", never).toCompletableFuture().join();
+        final UploadJobs alive = new UploadJobs(asto, Executors.newCachedThreadPool());
+        MatcherAssert.assertThat(
+            new String[] {
+                alive.status(published, 0).toCompletableFuture().join().get(),
+                alive.status(staged, 0).toCompletableFuture().join().get(),
+                alive.status(lost, 0).toCompletableFuture().join().get(),
+            },
+            new IsEqual<>(new String[] {UploadJobs.DONE, UploadJobs.PENDING, UploadJobs.FAILED})
+        );
+    }
+
+    @Test
+    void sweepsExpiredStatuses() {
+        final Storage asto = new InMemoryStorage();
+        final UploadJobs jobs = new UploadJobs(asto, Executors.newCachedThreadPool());
+        final String id = jobs.start("abc.rpm", CompletableFuture::new)
+            .toCompletableFuture().join();
+        final long now = System.currentTimeMillis();
+        jobs.sweep(now).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Fresh status is kept",
+            jobs.status(id, 0).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(true)
+        );
+        jobs.sweep(now + TimeUnit.DAYS.toMillis(2)).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Expired status is removed",
+            asto.list(new Key.From(UploadJobs.PATH)).join(),
+            Matchers.emptyIterable()
+        );
+    }
+}
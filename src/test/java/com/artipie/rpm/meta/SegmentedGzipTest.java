@@ -0,0 +1,189 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link SegmentedGzip}.
+ * @since 1.11
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class SegmentedGzipTest {
+
+    /**
+     * Metadata xml.
+     */
+    private static final String XML = String.join(
+        "\n",
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+        "<otherdata packages=\"2\">",
+        "<package pkgid=\"one\" name=\"a\"><version ver=\"1\"/></package>",
+        "<package pkgid=\"two\" name=\"b\"><changelog>&lt;/package&gt;</changelog></package>",
+        "</otherdata>"
+    );
+
+    /**
+     * Metadata xml with the package to append.
+     */
+    private static final String NEW = String.join(
+        "\n",
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+        "<otherdata packages=\"1\">",
+        "<package pkgid=\"three\" name=\"c\"></package>",
+        "</otherdata>"
+    );
+
+    @Test
+    void writesGzipReadableAsWhole() throws IOException {
+        MatcherAssert.assertThat(
+            SegmentedGzipTest.gunzip(SegmentedGzipTest.segmented(SegmentedGzipTest.XML)),
+            new IsEqual<>(SegmentedGzipTest.XML)
+        );
+    }
+
+    @Test
+    void appendsPackagesCopyingExistingBodyAsIs() throws IOException {
+        final byte[] existing = SegmentedGzipTest.segmented(SegmentedGzipTest.XML);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Optional<Long> total = new SegmentedGzip(out).append(
+            new ByteArrayInputStream(existing),
+            new ByteArrayInputStream(SegmentedGzipTest.NEW.getBytes(StandardCharsets.UTF_8)),
+            1
+        );
+        MatcherAssert.assertThat(
+            "Returns packages count",
+            total,
+            new IsEqual<>(Optional.of(3L))
+        );
+        MatcherAssert.assertThat(
+            "Appends package and updates packages count",
+            SegmentedGzipTest.gunzip(out.toByteArray()),
+            new IsEqual<>(
+                String.join(
+                    "\n",
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                    "<otherdata packages=\"3\">",
+                    "<package pkgid=\"one\" name=\"a\"><version ver=\"1\"/></package>",
+                    String.join(
+                        "",
+                        "<package pkgid=\"two\" name=\"b\"><changelog>&lt;/package&gt;",
+                        "</changelog></package><package pkgid=\"three\" name=\"c\"></package>"
+                    ),
+                    "</otherdata>"
+                )
+            )
+        );
+        final int header = SegmentedGzipTest.length(existing, 0);
+        final byte[] body = Arrays.copyOfRange(
+            existing, header, header + SegmentedGzipTest.length(existing, header)
+        );
+        MatcherAssert.assertThat(
+            "Copies existing body member as is",
+            Arrays.equals(
+                body,
+                Arrays.copyOfRange(
+                    out.toByteArray(),
+                    SegmentedGzipTest.length(out.toByteArray(), 0),
+                    SegmentedGzipTest.length(out.toByteArray(), 0) + body.length
+                )
+            ),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void compactsTrailingSmallMembers() throws IOException {
+        byte[] gzip = SegmentedGzipTest.segmented(SegmentedGzipTest.XML);
+        final int appends = 20;
+        for (int idx = 0; idx < appends; idx = idx + 1) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new SegmentedGzip(out).append(
+                new ByteArrayInputStream(gzip),
+                new ByteArrayInputStream(SegmentedGzipTest.NEW.getBytes(StandardCharsets.UTF_8)),
+                1
+            );
+            gzip = out.toByteArray();
+        }
+        int members = 0;
+        for (int pos = 0; pos < gzip.length; pos = pos + SegmentedGzipTest.length(gzip, pos)) {
+            members = members + 1;
+        }
+        MatcherAssert.assertThat(
+            "Small members are merged",
+            members,
+            Matchers.lessThan(appends)
+        );
+        MatcherAssert.assertThat(
+            "Packages are kept",
+            SegmentedGzipTest.gunzip(gzip),
+            Matchers.allOf(
+                Matchers.containsString(String.format("packages=\"%d\"", appends + 2)),
+                Matchers.containsString("<package pkgid=\"one\""),
+                Matchers.endsWith("</package>\n</otherdata>")
+            )
+        );
+        MatcherAssert.assertThat(
+            "All packages are found",
+            SegmentedGzipTest.gunzip(gzip).split("<package ").length - 1,
+            new IsEqual<>(appends + 2)
+        );
+    }
+
+    @Test
+    void doesNotAppendToNotSegmentedGzip() throws IOException {
+        final ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(plain)) {
+            gzip.write(SegmentedGzipTest.XML.getBytes(StandardCharsets.UTF_8));
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MatcherAssert.assertThat(
+            "Returns empty count",
+            new SegmentedGzip(out).append(
+                new ByteArrayInputStream(plain.toByteArray()),
+                new ByteArrayInputStream(SegmentedGzipTest.NEW.getBytes(StandardCharsets.UTF_8)),
+                1
+            ),
+            new IsEqual<>(Optional.empty())
+        );
+        MatcherAssert.assertThat(
+            "Writes nothing",
+            out.size(),
+            new IsEqual<>(0)
+        );
+    }
+
+    private static byte[] segmented(final String xml) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SegmentedGzip(out).write(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))
+        );
+        return out.toByteArray();
+    }
+
+    private static String gunzip(final byte[] gzip) throws IOException {
+        return new String(
+            new GZIPInputStream(new ByteArrayInputStream(gzip)).readAllBytes(),
+            StandardCharsets.UTF_8
+        );
+    }
+
+    private static int length(final byte[] gzip, final int member) {
+        return ByteBuffer.wrap(gzip, member + 17, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link SqliteMetadata}.
+ * @since 1.11
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class SqliteMetadataTest {
+
+    /**
+     * Primary xml.
+     */
+    private static final String PRIMARY = String.join(
+        "\n",
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+        "<metadata xmlns=\"http://linux.duke.edu/metadata/common\"",
+        " xmlns:rpm=\"http://linux.duke.edu/metadata/rpm\" packages=\"2\">",
+        "<package type=\"rpm\"><name>abc</name><arch>x86_64</arch>",
+        "<version epoch=\"0\" ver=\"1.01\" rel=\"26.git20200127.fc32\"/>",
+        "<checksum type=\"sha256\" pkgid=\"YES\">one</checksum>",
+        "<summary>Abc</summary><description>Abc package</description><url>https://abc</url>",
+        "<time file=\"1\" build=\"2\"/><size package=\"3\" installed=\"4\" archive=\"5\"/>",
+        "<location href=\"abc.rpm\"/>",
+        "<format><rpm:license>MIT</rpm:license><rpm:sourcerpm>abc.src.rpm</rpm:sourcerpm>",
+        "<rpm:header-range start=\"6\" end=\"7\"/>",
+        "<rpm:provides><rpm:entry name=\"abc\" flags=\"EQ\" ver=\"1.01\"/></rpm:provides>",
+        "<rpm:requires><rpm:entry name=\"/bin/sh\" pre=\"1\"/><rpm:entry name=\"libc\"/>",
+        "</rpm:requires><file>/usr/bin/abc</file></format></package>",
+        "<package type=\"rpm\"><name>xyz</name><arch>noarch</arch>",
+        "<version epoch=\"0\" ver=\"2\" rel=\"1\"/>",
+        "<checksum type=\"sha256\" pkgid=\"YES\">two</checksum>",
+        "<location href=\"xyz.rpm\"/>",
+        "<format><rpm:requires><rpm:entry name=\"abc\"/></rpm:requires>",
+        "<file type=\"dir\">/etc/xyz</file></format></package>",
+        "</metadata>"
+    );
+
+    @Test
+    void createsPrimaryDatabase(final @TempDir Path dir) throws Exception {
+        final Path file = Files.createFile(dir.resolve("primary.sqlite"));
+        MatcherAssert.assertThat(
+            "Returns count of the added packages",
+            SqliteMetadataTest.update(file, XmlPackage.PRIMARY, SqliteMetadataTest.PRIMARY),
+            new IsEqual<>(2L)
+        );
+        MatcherAssert.assertThat(
+            "Adds package columns",
+            SqliteMetadataTest.query(
+                file,
+                // @checkstyle LineLengthCheck (1 line)
+                "SELECT name || ' ' || version || ' ' || release || ' ' || rpm_license || ' ' || location_href FROM packages WHERE pkgId = 'one'"
+            ),
+            new IsEqual<>("abc 1.01 26.git20200127.fc32 MIT abc.rpm")
+        );
+        MatcherAssert.assertThat(
+            "Adds requires with pre flag",
+            SqliteMetadataTest.query(
+                file, "SELECT group_concat(name || ':' || pre) FROM requires WHERE pkgKey = 1"
+            ),
+            new IsEqual<>("/bin/sh:TRUE,libc:FALSE")
+        );
+        MatcherAssert.assertThat(
+            "Adds files",
+            SqliteMetadataTest.query(file, "SELECT group_concat(name || ':' || type) FROM files"),
+            new IsEqual<>("/usr/bin/abc:file,/etc/xyz:dir")
+        );
+        MatcherAssert.assertThat(
+            "Sets database version and checksum",
+            SqliteMetadataTest.query(file, "SELECT dbversion || ' ' || checksum FROM db_info"),
+            new IsEqual<>("10 abc123")
+        );
+    }
+
+    @Test
+    void removesPackagesWithDependencies(final @TempDir Path dir) throws Exception {
+        final Path file = Files.createFile(dir.resolve("primary.sqlite"));
+        SqliteMetadataTest.update(file, XmlPackage.PRIMARY, SqliteMetadataTest.PRIMARY);
+        new SqliteMetadata(file, XmlPackage.PRIMARY)
+            .update(Collections.singleton("one"), Optional.empty(), "def456");
+        MatcherAssert.assertThat(
+            "Removes package",
+            SqliteMetadataTest.query(file, "SELECT group_concat(pkgId) FROM packages"),
+            new IsEqual<>("two")
+        );
+        MatcherAssert.assertThat(
+            "Removes package requires",
+            SqliteMetadataTest.query(file, "SELECT group_concat(name) FROM requires"),
+            new IsEqual<>("abc")
+        );
+        MatcherAssert.assertThat(
+            "Removes package files",
+            SqliteMetadataTest.query(file, "SELECT group_concat(name) FROM files"),
+            new IsEqual<>("/etc/xyz")
+        );
+        MatcherAssert.assertThat(
+            "Updates checksum",
+            SqliteMetadataTest.query(file, "SELECT checksum FROM db_info"),
+            new IsEqual<>("def456")
+        );
+    }
+
+    @Test
+    void createsFilelistsDatabase(final @TempDir Path dir) throws Exception {
+        final Path file = Files.createFile(dir.resolve("filelists.sqlite"));
+        SqliteMetadataTest.update(
+            file, XmlPackage.FILELISTS,
+            String.join(
+                "\n",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                "<filelists xmlns=\"http://linux.duke.edu/metadata/filelists\" packages=\"1\">",
+                "<package pkgid=\"one\" name=\"abc\" arch=\"x86_64\">",
+                "<version epoch=\"0\" ver=\"1\" rel=\"1\"/>",
+                "<file>/usr/bin/abc</file><file>/usr/bin/abd</file>",
+                "<file type=\"dir\">/usr/share/abc</file><file type=\"ghost\">/var/abc</file>",
+                "<file>/abc.conf</file>",
+                "</package></filelists>"
+            )
+        );
+        MatcherAssert.assertThat(
+            SqliteMetadataTest.query(
+                file,
+                // @checkstyle LineLengthCheck (1 line)
+                "SELECT group_concat(dirname || ':' || filenames || ':' || filetypes, ' ') FROM filelist"
+            ),
+            new IsEqual<>("/usr/bin:abc/abd:ff /usr/share:abc:d /var:abc:g /:abc.conf:f")
+        );
+    }
+
+    @Test
+    void createsOtherDatabase(final @TempDir Path dir) throws Exception {
+        final Path file = Files.createFile(dir.resolve("other.sqlite"));
+        SqliteMetadataTest.update(
+            file, XmlPackage.OTHER,
+            String.join(
+                "\n",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                "<otherdata xmlns=\"http://linux.duke.edu/metadata/other\" packages=\"1\">",
+                "<package pkgid=\"one\" name=\"abc\" arch=\"x86_64\">",
+                "<version epoch=\"0\" ver=\"1\" rel=\"1\"/>",
+                "<changelog author=\"John\" date=\"100\">- First</changelog>",
+                "</package></otherdata>"
+            )
+        );
+        MatcherAssert.assertThat(
+            SqliteMetadataTest.query(
+                file,
+                // @checkstyle LineLengthCheck (1 line)
+                "SELECT p.pkgId || ' ' || c.author || ' ' || c.date || ' ' || c.changelog FROM packages p JOIN changelog c ON p.pkgKey = c.pkgKey"
+            ),
+            new IsEqual<>("one John 100 - First")
+        );
+    }
+
+    private static long update(final Path file, final XmlPackage type, final String xml)
+        throws IOException {
+        return new SqliteMetadata(file, type).update(
+            Collections.emptyList(),
+            Optional.of(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))),
+            "abc123"
+        );
+    }
+
+    private static String query(final Path file, final String sql) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(
+            String.format("jdbc:sqlite:%s", file.toAbsolutePath())
+        );
+            Statement stmt = conn.createStatement();
+            ResultSet rset = stmt.executeQuery(sql)) {
+            rset.next();
+            return rset.getString(1);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.asto.test.TestResource;
+import com.artipie.rpm.RepoConfig;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link XmlMetalink}.
+ * @since 1.11
+ */
+class XmlMetalinkTest {
+
+    @Test
+    void writesMetalink() {
+        final byte[] repomd = new TestResource("repodata/repomd.xml.example").asBytes();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XmlMetalink(out).write(
+            repomd,
+            new ListOf<>(
+                new RepoConfig.Mirror("https://edge-one.example.com/rpm/"),
+                new RepoConfig.Mirror("http://edge-two.example.com/rpm", 50)
+            )
+        );
+        MatcherAssert.assertThat(
+            new String(out.toByteArray(), StandardCharsets.UTF_8),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='metalink' and @version='3.0']",
+                // @checkstyle LineLengthCheck (10 lines)
+                "//*[local-name()='file' and @name='repomd.xml']/*[local-name()='timestamp' and text()='1585928825']",
+                String.format("//*[local-name()='file']/*[local-name()='size' and text()='%d']", repomd.length),
+                String.format(
+                    "//*[local-name()='verification']/*[local-name()='hash' and @type='sha256' and text()='%s']",
+                    DigestUtils.sha256Hex(repomd)
+                ),
+                "//*[local-name()='resources']/*[local-name()='url' and @protocol='https' and @preference='100' and text()='https://edge-one.example.com/rpm/repodata/repomd.xml']",
+                "//*[local-name()='resources']/*[local-name()='url' and @protocol='http' and @preference='50' and text()='http://edge-two.example.com/rpm/repodata/repomd.xml']"
+            )
+        );
+    }
+}
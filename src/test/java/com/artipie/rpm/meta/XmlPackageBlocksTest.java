@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link XmlPackageBlocks}.
+ * @since 1.11
+ */
+class XmlPackageBlocksTest {
+
+    /**
+     * Package to remove.
+     */
+    private static final String TWO =
+        "<package\tname=\"b\" pkgid='two'><changelog>&lt;package&gt;</changelog></package>";
+
+    /**
+     * Metadata xml.
+     */
+    private static final String XML = String.join(
+        "\n",
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+        "<otherdata packages=\"3\">",
+        "<package pkgid=\"one\" name=\"a\"><version ver=\"1\"/></package>",
+        XmlPackageBlocksTest.TWO,
+        "<package pkgid=\"three\" name=\"c\"></package>",
+        "</otherdata>"
+    );
+
+    @Test
+    void copiesKeptPackagesAsIs() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long cnt = new XmlPackageBlocks(
+            new ByteByByte(XmlPackageBlocksTest.XML.getBytes(StandardCharsets.UTF_8)), out
+        ).filter(
+            UnaryOperator.identity(),
+            block -> !XmlPackageBlocks.attribute(block, "pkgid").equals(Optional.of("two"))
+        );
+        MatcherAssert.assertThat(
+            "Returns kept packages count",
+            cnt,
+            new IsEqual<>(2L)
+        );
+        MatcherAssert.assertThat(
+            "Removes package and keeps everything else as is",
+            out.toString(StandardCharsets.UTF_8),
+            new IsEqual<>(
+                XmlPackageBlocksTest.XML.replace(XmlPackageBlocksTest.TWO, "")
+            )
+        );
+    }
+
+    @Test
+    void transformsProlog() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XmlPackageBlocks(
+            new ByteArrayInputStream(XmlPackageBlocksTest.XML.getBytes(StandardCharsets.UTF_8)),
+            out
+        ).filter(prolog -> prolog.replace("3", "-1"), block -> true);
+        MatcherAssert.assertThat(
+            out.toString(StandardCharsets.UTF_8),
+            new IsEqual<>(XmlPackageBlocksTest.XML.replace("\"3\"", "\"-1\""))
+        );
+    }
+
+    @Test
+    void readsElementsOfPackage() {
+        final ByteBuffer block = ByteBuffer.wrap(
+            String.join(
+                "",
+                "<package type=\"rpm\"><name>abc</name><arch>noarch</arch>",
+                "<version epoch=\"0\" ver=\"1.2\" rel=\"3\"/>",
+                "<checksum type=\"sha256\" pkgid=\"YES\">0123</checksum></package>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        MatcherAssert.assertThat(
+            new Object[] {
+                XmlPackageBlocks.text(block, "name"),
+                XmlPackageBlocks.text(block, "checksum"),
+                XmlPackageBlocks.attribute(block, "version", "ver"),
+                XmlPackageBlocks.attribute(block, "type"),
+                XmlPackageBlocks.attribute(block, "pkgid"),
+            },
+            new IsEqual<>(
+                new Object[] {
+                    Optional.of("abc"), Optional.of("0123"), Optional.of("1.2"),
+                    Optional.of("rpm"), Optional.empty(),
+                }
+            )
+        );
+    }
+
+    @Test
+    void failsOnNotClosedPackage() {
+        Assertions.assertThrows(
+            IOException.class,
+            () -> new XmlPackageBlocks(
+                new ByteArrayInputStream(
+                    "<filelists><package pkgid=\"1\">".getBytes(StandardCharsets.UTF_8)
+                ),
+                new ByteArrayOutputStream()
+            ).filter(UnaryOperator.identity(), block -> true)
+        );
+    }
+
+    /**
+     * Input stream, which returns one byte on each read.
+     * @since 1.11
+     */
+    private static final class ByteByByte extends InputStream {
+
+        /**
+         * Origin.
+         */
+        private final InputStream origin;
+
+        /**
+         * Ctor.
+         * @param bytes Bytes
+         */
+        ByteByByte(final byte[] bytes) {
+            this.origin = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return this.origin.read();
+        }
+
+        @Override
+        public int read(final byte[] buf, final int off, final int len) throws IOException {
+            return this.origin.read(buf, off, Math.min(len, 1));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.asto.test.TestResource;
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.cactoos.map.MapEntry;
+import org.cactoos.map.MapOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link XmlPrimaryPackages}.
+ * @since 1.11
+ */
+class XmlPrimaryPackagesTest {
+
+    @Test
+    void readsPackagesIdentity() {
+        final List<XmlPrimaryPackages.Entry> list = new XmlPrimaryPackages(
+            new ByteArrayInputStream(new TestResource("repodata/primary.xml.example").asBytes())
+        ).read();
+        MatcherAssert.assertThat(
+            "Reads NEVRA of each package",
+            list.stream().map(XmlPrimaryPackages.Entry::nevra).collect(Collectors.toList()),
+            Matchers.hasItems(
+                "aom-0:1.0.0-8.20190810git9666276.el8.aarch64",
+                "nginx-1:1.16.1-1.el8.ngx.x86_64"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Reads checksum and location",
+            list.stream().collect(
+                Collectors.toMap(
+                    XmlPrimaryPackages.Entry::location, XmlPrimaryPackages.Entry::checksum
+                )
+            ),
+            Matchers.hasEntry(
+                "aom-1.0.0-8.20190810git9666276.el8.aarch64.rpm",
+                "7eaefd1cb4f9740558da7f12f9cb5a6141a47f5d064a98d46c29959869af1a44"
+            )
+        );
+    }
+
+    @Test
+    void matchesSelectors() {
+        final XmlPrimaryPackages.Entry entry = new XmlPrimaryPackages.Entry(
+            new MapOf<String, String>(
+                new MapEntry<>(XmlPrimaryPackages.Entry.NAME, "abc"),
+                new MapEntry<>(XmlPrimaryPackages.Entry.EPOCH, "0"),
+                new MapEntry<>(XmlPrimaryPackages.Entry.VERSION, "1.01"),
+                new MapEntry<>(XmlPrimaryPackages.Entry.RELEASE, "26.fc32"),
+                new MapEntry<>(XmlPrimaryPackages.Entry.ARCH, "ppc64le")
+            )
+        );
+        MatcherAssert.assertThat(
+            List.of(
+                entry.matches("abc-0:1.01-26.fc32.ppc64le"),
+                entry.matches("abc-1.01-26.fc32.ppc64le"),
+                entry.matches("abc-1:1.01-26.fc32.ppc64le"),
+                entry.matches("abc-1.01-27.fc32.ppc64le"),
+                entry.matches(Map.of("name", "abc", "arch", "ppc64le")),
+                entry.matches(Map.of("name", "abc", "version", "1.02"))
+            ),
+            new IsEqual<>(List.of(true, true, false, false, true, false))
+        );
+    }
+}
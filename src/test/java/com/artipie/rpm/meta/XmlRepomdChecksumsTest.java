@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.asto.test.TestResource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link XmlRepomdChecksums}.
+ * @since 1.11
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class XmlRepomdChecksumsTest {
+
+    @Test
+    void readsNumericRevision() {
+        final XmlRepomdChecksums.Result res = new XmlRepomdChecksums(
+            new ByteArrayInputStream(new TestResource("repodata/repomd.xml.example").asBytes())
+        ).read();
+        MatcherAssert.assertThat(
+            "Revision is read",
+            res.revision(),
+            new IsEqual<>("1585928825")
+        );
+        MatcherAssert.assertThat(
+            "Timestamp is the revision",
+            res.timestamp(),
+            new IsEqual<>(Optional.of(1_585_928_825L))
+        );
+        MatcherAssert.assertThat(
+            "Checksums are read",
+            res.checksums().keySet(),
+            Matchers.hasItem(Matchers.containsString("primary.xml.gz"))
+        );
+    }
+
+    @Test
+    void readsTextRevision() {
+        final XmlRepomdChecksums.Result res = XmlRepomdChecksumsTest.read(
+            String.join(
+                "",
+                "<repomd><revision>release-2.1 8f3c2a1</revision>",
+                "<data type=\"primary\"><checksum type=\"sha256\">abc</checksum>",
+                "<timestamp>1585928825</timestamp>",
+                "<location href=\"repodata/primary.xml.gz\"/></data>",
+                "<data type=\"other\"><checksum type=\"sha256\">def</checksum>",
+                "<timestamp>1585928900</timestamp>",
+                "<location href=\"repodata/other.xml.gz\"/></data></repomd>"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Revision is read as is",
+            res.revision(),
+            new IsEqual<>("release-2.1 8f3c2a1")
+        );
+        MatcherAssert.assertThat(
+            "Timestamp is the latest metadata timestamp",
+            res.timestamp(),
+            new IsEqual<>(Optional.of(1_585_928_900L))
+        );
+        MatcherAssert.assertThat(
+            "Checksums are read",
+            res.checksums().get("repodata/other.xml.gz"),
+            new IsEqual<>("def")
+        );
+    }
+
+    @Test
+    void returnsEmptyTimestampWithoutNumbers() {
+        MatcherAssert.assertThat(
+            XmlRepomdChecksumsTest.read(
+                String.join(
+                    "",
+                    "<repomd><revision>abc</revision><data type=\"primary\">",
+                    "<checksum type=\"sha256\">abc</checksum>",
+                    "<location href=\"repodata/primary.xml.gz\"/></data></repomd>"
+                )
+            ).timestamp(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+
+    private static XmlRepomdChecksums.Result read(final String xml) {
+        return new XmlRepomdChecksums(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))
+        ).read();
+    }
+}
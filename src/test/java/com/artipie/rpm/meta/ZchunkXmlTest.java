@@ -0,0 +1,197 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.github.luben.zstd.Zstd;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import javax.xml.bind.DatatypeConverter;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ZchunkXml}.
+ * @since 1.11
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class ZchunkXmlTest {
+
+    /**
+     * Metadata xml.
+     */
+    private static final String XML = String.join(
+        "\n",
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+        "<otherdata packages=\"2\">",
+        "<package pkgid=\"one\" name=\"a\"><version ver=\"1\"/></package>",
+        "<package pkgid=\"two\" name=\"b\"><changelog>&lt;/package&gt;</changelog></package>",
+        "</otherdata>"
+    );
+
+    @Test
+    void writesPackagesChunks() throws Exception {
+        MatcherAssert.assertThat(
+            "Writes header, packages and footer chunks",
+            ZchunkXmlTest.chunks(ZchunkXmlTest.zck(ZchunkXmlTest.XML)).stream()
+                .map(chunk -> chunk[1]).toArray(),
+            new IsEqual<>(
+                new Object[] {
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<otherdata packages=\"2\">\n",
+                    "<package pkgid=\"one\" name=\"a\"><version ver=\"1\"/></package>",
+                    // @checkstyle LineLengthCheck (1 line)
+                    "\n<package pkgid=\"two\" name=\"b\"><changelog>&lt;/package&gt;</changelog></package>",
+                    "\n</otherdata>",
+                }
+            )
+        );
+    }
+
+    @Test
+    void keepsChunksOfNotChangedPackages() throws Exception {
+        final List<String> before = ZchunkXmlTest.sums(ZchunkXmlTest.zck(ZchunkXmlTest.XML));
+        final List<String> after = ZchunkXmlTest.sums(
+            ZchunkXmlTest.zck(
+                ZchunkXmlTest.XML.replace("packages=\"2\"", "packages=\"3\"").replace(
+                    "</otherdata>", "<package pkgid=\"three\" name=\"c\"></package>\n</otherdata>"
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            after.subList(1, 3),
+            new IsEqual<>(before.subList(1, 3))
+        );
+    }
+
+    @Test
+    void readsHeader() throws Exception {
+        final byte[] zck = ZchunkXmlTest.zck(ZchunkXmlTest.XML);
+        final ZchunkXml.Header header = ZchunkXml.header(new ByteArrayInputStream(zck));
+        final ByteArrayInputStream input = new ByteArrayInputStream(zck);
+        final byte[] lead = input.readNBytes(5);
+        ZchunkXmlTest.compint(input);
+        final long size = ZchunkXmlTest.compint(input);
+        final int start = zck.length - input.available();
+        MatcherAssert.assertThat(
+            "Reads header size",
+            header.size(),
+            new IsEqual<>(start + 32 + size)
+        );
+        final MessageDigest sha = MessageDigest.getInstance("SHA-256");
+        sha.update(zck, 0, start);
+        sha.update(zck, start + 32, (int) size);
+        MatcherAssert.assertThat(
+            "Reads header checksum, which is checksum of lead and header",
+            header.checksum(),
+            new IsEqual<>(
+                DatatypeConverter.printHexBinary(sha.digest()).toLowerCase(Locale.US)
+            )
+        );
+        MatcherAssert.assertThat(
+            "Writes zchunk identifier",
+            lead,
+            new IsEqual<>(new byte[] {0, 'Z', 'C', 'K', '1'})
+        );
+    }
+
+    @Test
+    void failsOnNotClosedPackage() {
+        final IOException err = Assertions.assertThrows(
+            IOException.class,
+            () -> ZchunkXmlTest.zck("<metadata><package name=\"a\"></metadata>")
+        );
+        MatcherAssert.assertThat(
+            err.getMessage(),
+            Matchers.containsString("not closed")
+        );
+    }
+
+    private static byte[] zck(final String xml) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ZchunkXml(out).write(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads zchunk file and returns chunks, checking data and chunks checksums.
+     * @param zck Zchunk file
+     * @return Chunks checksums and uncompressed chunks without dictionary
+     * @throws Exception On error
+     */
+    private static List<String[]> chunks(final byte[] zck) throws Exception {
+        final ByteArrayInputStream input = new ByteArrayInputStream(zck);
+        input.readNBytes(5);
+        MatcherAssert.assertThat("Sha256 header", ZchunkXmlTest.compint(input), new IsEqual<>(1L));
+        ZchunkXmlTest.compint(input);
+        input.readNBytes(32);
+        final byte[] data = input.readNBytes(32);
+        MatcherAssert.assertThat("Flags", ZchunkXmlTest.compint(input), new IsEqual<>(0L));
+        MatcherAssert.assertThat("Compression", ZchunkXmlTest.compint(input), new IsEqual<>(2L));
+        ZchunkXmlTest.compint(input);
+        MatcherAssert.assertThat("Sha512/128", ZchunkXmlTest.compint(input), new IsEqual<>(3L));
+        final long count = ZchunkXmlTest.compint(input);
+        final List<byte[]> sums = new ArrayList<>(0);
+        final List<long[]> sizes = new ArrayList<>(0);
+        for (long idx = 0; idx < count; idx = idx + 1) {
+            sums.add(input.readNBytes(16));
+            sizes.add(new long[] {ZchunkXmlTest.compint(input), ZchunkXmlTest.compint(input)});
+        }
+        MatcherAssert.assertThat("Signatures", ZchunkXmlTest.compint(input), new IsEqual<>(0L));
+        MatcherAssert.assertThat("Empty dictionary", sizes.get(0)[0], new IsEqual<>(0L));
+        final MessageDigest all = MessageDigest.getInstance("SHA-256");
+        final List<String[]> res = new ArrayList<>(0);
+        for (int idx = 1; idx < count; idx = idx + 1) {
+            final byte[] compressed = input.readNBytes((int) sizes.get(idx)[0]);
+            all.update(compressed);
+            MatcherAssert.assertThat(
+                "Chunk checksum is sha512/128 of compressed chunk",
+                Arrays.copyOf(MessageDigest.getInstance("SHA-512").digest(compressed), 16),
+                new IsEqual<>(sums.get(idx))
+            );
+            res.add(
+                new String[] {
+                    DatatypeConverter.printHexBinary(sums.get(idx)),
+                    new String(
+                        Zstd.decompress(compressed, (int) sizes.get(idx)[1]),
+                        StandardCharsets.UTF_8
+                    ),
+                }
+            );
+        }
+        MatcherAssert.assertThat("Data checksum", all.digest(), new IsEqual<>(data));
+        MatcherAssert.assertThat("Reads all data", input.available(), new IsEqual<>(0));
+        return res;
+    }
+
+    private static List<String> sums(final byte[] zck) throws Exception {
+        final List<String> res = new ArrayList<>(0);
+        for (final String[] chunk : ZchunkXmlTest.chunks(zck)) {
+            res.add(chunk[0]);
+        }
+        return res;
+    }
+
+    private static long compint(final ByteArrayInputStream input) {
+        long res = 0;
+        int shift = 0;
+        int next = 0;
+        while ((next & 128) == 0) {
+            next = input.read();
+            res = res | (long) (next & 127) << shift;
+            shift = shift + 7;
+        }
+        return res;
+    }
+}
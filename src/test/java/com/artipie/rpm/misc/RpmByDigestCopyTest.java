@@ -7,12 +7,20 @@ package com.artipie.rpm.misc;
 import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
+import com.artipie.asto.ext.Digests;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.rpm.TestRpm;
 import io.reactivex.Flowable;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.cactoos.list.ListOf;
+import org.cactoos.map.MapEntry;
+import org.cactoos.map.MapOf;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,6 +30,7 @@ import org.junit.jupiter.api.Test;
  * Test for {@link RpmByDigestCopy}.
  * @since 0.11
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
  */
 @SuppressWarnings("unchecked")
 class RpmByDigestCopyTest {
@@ -58,6 +67,28 @@ class RpmByDigestCopyTest {
         );
     }
 
+    @Test
+    void neverSavesExcludedPackagesToDestination() throws IOException {
+        new TestRpm.Multiple(new TestRpm.Abc(), new TestRpm.Libdeflt()).put(this.from);
+        final List<Key> saved = new CopyOnWriteArrayList<>();
+        new RpmByDigestCopy(
+            this.from, Key.ROOT,
+            new ListOf<String>("47bbb8b2401e8853812e6340f4197252b92463c132f64a257e18c0c8c83ae462")
+        ).copy(
+            new Storage.Wrap(this.dest) {
+                @Override
+                public CompletableFuture<Void> save(final Key key, final Content content) {
+                    saved.add(key);
+                    return super.save(key, content);
+                }
+            }
+        ).blockingAwait();
+        MatcherAssert.assertThat(
+            saved,
+            Matchers.contains(new Key.From(new TestRpm.Abc().path().getFileName().toString()))
+        );
+    }
+
     @Test
     void filtersFilesByExtension() throws IOException {
         final TestRpm rpm = new TestRpm.Abc();
@@ -87,4 +118,56 @@ class RpmByDigestCopyTest {
         );
     }
 
+    @Test
+    void usesChecksumsFromIndex() {
+        this.from.save(new Key.From("repo", "one.rpm"), new Content.From("one".getBytes())).join();
+        this.from.save(new Key.From("repo", "two.rpm"), new Content.From("two".getBytes())).join();
+        new RpmByDigestCopy(
+            this.from, new Key.From("repo"), new ListOf<>("abc123"), Digests.SHA256,
+            new MapOf<String, String>(
+                new MapEntry<>("one.rpm", "abc123"), new MapEntry<>("two.rpm", "def456")
+            ),
+            1
+        ).copy(this.dest).blockingAwait();
+        MatcherAssert.assertThat(
+            this.dest.list(Key.ROOT).join(),
+            Matchers.containsInAnyOrder(new Key.From("two.rpm"))
+        );
+    }
+
+    @Test
+    void copiesPackagesConcurrently() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final Storage slow = new Storage.Wrap(this.from) {
+            @Override
+            public CompletableFuture<Content> value(final Key key) {
+                max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                return CompletableFuture.runAsync(
+                    () -> running.decrementAndGet(),
+                    CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)
+                ).thenCompose(nothing -> super.value(key));
+            }
+        };
+        for (int idx = 0; idx < 4; idx += 1) {
+            this.from.save(
+                new Key.From(String.format("%d.rpm", idx)), new Content.From("rpm".getBytes())
+            ).join();
+        }
+        new RpmByDigestCopy(
+            slow, Key.ROOT, new ListOf<>("abc123"), Digests.SHA256,
+            Collections.emptyMap(), 4
+        ).copy(this.dest).blockingAwait();
+        MatcherAssert.assertThat(
+            "Packages are copied concurrently",
+            max.get(),
+            Matchers.greaterThan(1)
+        );
+        MatcherAssert.assertThat(
+            "All packages are copied",
+            this.dest.list(Key.ROOT).join(),
+            Matchers.hasSize(4)
+        );
+    }
+
 }
@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.pkg;
+
+import com.artipie.asto.test.TestResource;
+import com.artipie.rpm.Digest;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsSame;
+import org.junit.jupiter.api.Test;
+import org.redline_rpm.header.Header;
+
+/**
+ * Test for {@link CachedMeta}.
+ * @since 1.11
+ */
+final class CachedMetaTest {
+
+    @Test
+    void readsSameValuesAsOrigin() throws IOException {
+        final Path file = new TestResource("abc-1.01-26.git20200127.fc32.ppc64le.rpm").asPath();
+        final Package.Meta origin =
+            new FilePackage.Headers(new FilePackageHeader(file).header(), file, Digest.SHA256);
+        final HeaderTags tags = new HeaderTags(new CachedMeta(origin));
+        MatcherAssert.assertThat(
+            "Decoded values differ from origin",
+            new Object[] {
+                tags.name(), tags.epoch(), tags.fileModes(), tags.filePaths(),
+                new CachedMeta(origin).checksum().hex(),
+            },
+            new IsEqual<>(
+                new Object[] {
+                    new HeaderTags(origin).name(), new HeaderTags(origin).epoch(),
+                    new HeaderTags(origin).fileModes(), new HeaderTags(origin).filePaths(),
+                    origin.checksum().hex(),
+                }
+            )
+        );
+    }
+
+    @Test
+    void decodesTagAndPathsOnlyOnce() throws IOException {
+        final Path file = new TestResource("abc-1.01-26.git20200127.fc32.ppc64le.rpm").asPath();
+        final CachedMeta meta = new CachedMeta(
+            new FilePackage.Headers(new FilePackageHeader(file).header(), file, Digest.SHA256)
+        );
+        MatcherAssert.assertThat(
+            "Strings are decoded more than once",
+            meta.header(Header.HeaderTag.BASENAMES).asStrings(),
+            new IsSame<>(new HeaderTags(meta).baseNames())
+        );
+        MatcherAssert.assertThat(
+            "Files paths are built more than once",
+            new HeaderTags(meta).filePaths(),
+            Matchers.allOf(
+                new IsSame<>(new HeaderTags(meta).filePaths()),
+                Matchers.hasItem("/usr/bin/abc")
+            )
+        );
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.pkg;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.test.TestResource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link PackageHead}.
+ * @since 1.11
+ */
+final class PackageHeadTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "abc-1.01-26.git20200127.fc32.ppc64le.rpm",
+        "httpd-2.4.6-80.1.h8.eulerosv2r7.x86_64.rpm"
+    })
+    void readsHeadBytes(final String rpm) throws IOException {
+        final Path file = new TestResource(rpm).asPath();
+        final byte[] bytes = Files.readAllBytes(file);
+        final byte[] expected = Arrays.copyOf(
+            bytes, new FilePackageHeader(file).rpmHeader().endPos()
+        );
+        try (InputStream input = Files.newInputStream(file)) {
+            MatcherAssert.assertThat(
+                "Head is read from input stream",
+                new PackageHead().read(input).bytes(),
+                new IsEqual<>(expected)
+            );
+        }
+        MatcherAssert.assertThat(
+            "Head is read from content",
+            new PackageHead().read(new Content.From(bytes)).toCompletableFuture().join()
+                .bytes(),
+            new IsEqual<>(expected)
+        );
+    }
+
+    @Test
+    void failsOnIncompleteHead() {
+        final PackageHead head = new PackageHead();
+        head.accept(
+            ByteBuffer.wrap(
+                new TestResource("abc-1.01-26.git20200127.fc32.ppc64le.rpm").asBytes(), 0, 200
+            )
+        );
+        Assertions.assertThrows(InvalidPackageException.class, head::digest);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.pkg;
+
+import com.artipie.asto.test.TestResource;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link RpmHeaderPrefix}.
+ * @since 1.11
+ */
+final class RpmHeaderPrefixTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "abc-1.01-26.git20200127.fc32.ppc64le.rpm",
+        "libnss-mymachines2-245-1.x86_64.rpm",
+        "httpd-2.4.6-80.1.h8.eulerosv2r7.x86_64.rpm",
+        "aspell-0.60.6.1-9.el7.x86_64.rpm",
+        "vim-base-7.2-8.15.2.x86_64.rpm"
+    })
+    void calculatesHeaderEnd(final String rpm) throws Exception {
+        final Path file = new TestResource(rpm).asPath();
+        MatcherAssert.assertThat(
+            new RpmHeaderPrefix(ByteBuffer.wrap(Files.readAllBytes(file))).length(),
+            new IsEqual<>((long) new FilePackageHeader(file).rpmHeader().endPos())
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 3, 96, 120, 500})
+    void requiresMoreBytesForShortPrefix(final int size) throws Exception {
+        final byte[] bytes = Files.readAllBytes(
+            new TestResource("abc-1.01-26.git20200127.fc32.ppc64le.rpm").asPath()
+        );
+        MatcherAssert.assertThat(
+            new RpmHeaderPrefix(ByteBuffer.wrap(bytes, 0, size)).length(),
+            Matchers.greaterThan((long) size)
+        );
+    }
+
+    @Test
+    void failsOnInvalidPackage() {
+        Assertions.assertThrows(
+            InvalidPackageException.class,
+            () -> new RpmHeaderPrefix(
+                ByteBuffer.wrap("not an rpm package".getBytes(StandardCharsets.UTF_8))
+            ).length()
+        );
+    }
+}
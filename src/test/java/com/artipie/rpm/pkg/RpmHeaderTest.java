@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.pkg;
+
+import com.artipie.asto.test.TestResource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.redline_rpm.header.AbstractHeader;
+import org.redline_rpm.header.Header;
+
+/**
+ * Test for {@link RpmHeader} and {@link FilePackageHeader#rpmHeader()}.
+ * @since 1.11
+ */
+final class RpmHeaderTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "abc-1.01-26.git20200127.fc32.ppc64le.rpm",
+        "libnss-mymachines2-245-1.x86_64.rpm",
+        "openssh-server-7.4p1-16.h16.eulerosv2r7.x86_64.rpm",
+        "httpd-2.4.6-80.1.h8.eulerosv2r7.x86_64.rpm",
+        "aspell-0.60.6.1-9.el7.x86_64.rpm",
+        "libdeflt1_0-2020.03.27-25.1.armv7hl.rpm",
+        "compat-db47-4.7.25-28.el7.i686.rpm",
+        "vim-base-7.2-8.15.2.x86_64.rpm",
+        "apr-util-1.6.1-13.h1.eulerosv2r12.x86_64.rpm"
+    })
+    void readsSameHeadersAsRedline(final String rpm) throws Exception {
+        final Path file = new TestResource(rpm).asPath();
+        final Header expected = new FilePackageHeader(file).header();
+        final RpmHeader actual = new FilePackageHeader(file).rpmHeader();
+        for (final Header.HeaderTag tag : Header.HeaderTag.values()) {
+            final AbstractHeader.Entry<?> entry = expected.getEntry(tag);
+            final Package.MetaHeader exp = new FilePackage.EntryHeader(entry);
+            final Package.MetaHeader act = actual.header(tag);
+            if (entry == null || entry.getValues() instanceof String[]) {
+                MatcherAssert.assertThat(
+                    String.format("Strings of tag %s are not equal", tag),
+                    act.asStrings(),
+                    new IsEqual<>(exp.asStrings())
+                );
+            }
+            if (entry == null || entry.getValues() instanceof int[]
+                || entry.getValues() instanceof short[]) {
+                MatcherAssert.assertThat(
+                    String.format("Ints of tag %s are not equal", tag),
+                    act.asInts(),
+                    new IsEqual<>(exp.asInts())
+                );
+            }
+        }
+        MatcherAssert.assertThat(
+            "Header range is not equal",
+            new int[] {actual.startPos(), actual.endPos()},
+            new IsEqual<>(new int[] {expected.getStartPos(), expected.getEndPos()})
+        );
+    }
+
+    @Test
+    void throwsExceptionOnInvalidPackage() {
+        Assertions.assertThrows(
+            InvalidPackageException.class,
+            () -> new FilePackageHeader(
+                new ByteArrayInputStream("not an rpm".getBytes(StandardCharsets.UTF_8))
+            ).rpmHeader()
+        );
+    }
+}